@@ -43,6 +43,11 @@ public class PipelineHelper {
         return stages.get(stages.indexOf(stage) + 1);
     }
 
+    /** True when a configured stage runs after {@code stage}, reading what it writes to its output queue. */
+    public boolean hasNextStage(Stage stage) {
+        return stages.contains(stage) && stages.indexOf(stage) < stages.size() - 1;
+    }
+
     static String getQueueName(PropertiesProvider propertiesProvider, Stage stage) {
         return getInputQueueName(propertiesProvider) + ":" + stage.name().toLowerCase();
     }
@@ -75,6 +75,7 @@ public interface Repository {
     boolean save(User user);
     boolean deleteUser(String userId);
     User getUser(String userId);
+    List<User> getUsers(Set<String> userIds);
     List<User> listUsers(UserFilter filter);
     // TODO: from version 21.0.3
     //  remove this after version 22.0.0 (or in a few stable releases)
@@ -11,6 +11,7 @@ import java.io.Closeable;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 import static java.util.Collections.unmodifiableList;
 import static org.icij.datashare.text.ProjectProxy.fromNameStringList;
@@ -31,6 +32,13 @@ public interface BatchSearchRepository extends Closeable {
     List<SearchResult> getResults(User user, String batchSearchId);
     List<SearchResult> getResults(User user, String batchId, WebQuery webQuery);
     int getResultsTotal(User user, String batchId, WebQuery webQuery);
+    /**
+     * Same results as {@link #getResults(User, String, WebQuery)}, read from a database cursor while the
+     * stream is consumed instead of being loaded at once. The access of the user is checked before the
+     * stream is returned, its connection is opened when it is consumed, and the stream must then be closed
+     * to release that connection.
+     */
+    Stream<SearchResult> streamResults(User user, String batchId, WebQuery webQuery);
 
     boolean publish(User user, String batchId, boolean published);
 
@@ -12,6 +12,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
@@ -149,6 +150,31 @@ public class JsonObjectMapper {
         return getObject(map, type);
     }
 
+    /**
+     * Builds an entity straight from a parsed JSON tree (an Elasticsearch {@code _source}), without
+     * writing it back to text and parsing it again: string values such as a document content are
+     * handed to the entity as they are, not copied.
+     *
+     * The given node is modified: {@code id} and {@code projectId} are set on it.
+     *
+     * @param id the entity id
+     * @param projectId the entity project (index) name
+     * @param source the JSON tree of the entity, may be null
+     * @param type the concrete type of entity
+     * @param <T> the concrete type of entity
+     * @return the entity
+     */
+    public static <T extends Entity> T getObject(String id, String projectId, ObjectNode source, Class<T> type) {
+        ObjectNode node = source == null ? MAPPER.createObjectNode() : source;
+        node.put("id", id);
+        node.put("projectId", projectId);
+        try {
+            return MAPPER.treeToValue(node, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot deserialize object " + id + " of type " + type.getSimpleName(), e);
+        }
+    }
+
     public static <T extends Entity> T getObject(Map<String, Object> source, Class<T> type) {
         try {
             return MAPPER.readValue(MAPPER.writeValueAsString(source), type);
@@ -20,6 +20,7 @@ public enum TaskType {
     CATEGORIZE("org.icij.datashare.tasks.CategorizeTask"),
     DEDUPLICATE("org.icij.datashare.tasks.DeduplicateTask"),
     ARTIFACT("org.icij.datashare.tasks.ArtifactTask"),
+    HIDE_NAMED_ENTITIES("org.icij.datashare.tasks.HideNamedEntitiesTask"),
     GEN_API_KEY("org.icij.datashare.tasks.GenApiKeyTask"),
     DEL_API_KEY("org.icij.datashare.tasks.DelApiKeyTask"),
     GET_API_KEY("org.icij.datashare.tasks.GetApiKeyTask"),
@@ -26,6 +26,11 @@ public record ManifestEntry(
         return new ManifestEntry(null, taskInput, new Pages(total, new FilesystemPagination()), null, null, null, null);
     }
 
+    /** One file per page with a term to page index next to them, named {@code index} in the payload dir. */
+    public static ManifestEntry paginated(Map<String, Object> taskInput, int total, String index) {
+        return new ManifestEntry(null, taskInput, new Pages(total, new FilesystemPagination(), index), null, null, null, null);
+    }
+
     /** A single content file split by half-open byte ranges, one per page. `total` is derived from the
      *  offsets themselves, so a producer cannot record a count that disagrees with the ranges it wrote. */
     public static ManifestEntry paginated(Map<String, Object> taskInput, List<long[]> ranges) {
@@ -33,6 +38,13 @@ public record ManifestEntry(
                 null, null, null, null);
     }
 
+    /** Byte-range pages with the page to character range table of the indexed content next to them,
+     *  named {@code offsets} in the payload dir. */
+    public static ManifestEntry paginated(Map<String, Object> taskInput, List<long[]> ranges, String offsets) {
+        return new ManifestEntry(null, taskInput, new Pages(ranges.size(), new ByteRangePagination(ranges), null, offsets),
+                null, null, null, null);
+    }
+
     /** A node that was processed but has no payload to serve from its own dir (e.g. a root
      *  document whose source is the on-disk original). Recorded so it is not reprocessed. */
     public static ManifestEntry empty(Map<String, Object> taskInput) {
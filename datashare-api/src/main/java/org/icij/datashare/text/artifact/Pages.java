@@ -5,7 +5,17 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 /** The page attributes of a paginated artifact entry, as the storage convention's `pages` object:
  *  `total` is the page count, `pagination` how those pages are located on disk. NON_NULL matters for
  *  `pagination`: per the convention an omitted one means "single document, {@code content.<ext>}", while a
- *  `"pagination": null` is a third state nothing defines. */
+ *  `"pagination": null` is a third state nothing defines. `index` is the optional term to page index
+ *  written next to the pages, omitted by producers that write none, which is every producer but one.
+ *  `offsets` likewise names the optional page to character range table of the document's indexed
+ *  content, the one the viewer slices that content with. */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public record Pages(int total, Pagination pagination) {
+public record Pages(int total, Pagination pagination, String index, String offsets) {
+    public Pages(int total, Pagination pagination) {
+        this(total, pagination, null, null);
+    }
+
+    public Pages(int total, Pagination pagination, String index) {
+        this(total, pagination, index, null);
+    }
 }
@@ -1,6 +1,8 @@
 package org.icij.datashare.text.indexing;
 
 import org.icij.datashare.Entity;
+import org.icij.datashare.text.ContentTypeCategory;
+import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.Project;
@@ -12,8 +14,11 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 
@@ -22,6 +27,13 @@ public interface Indexer extends Closeable {
 
     QueryBuilderSearcher search(List<String> indexesNames, Class<? extends Entity> entityClass);
     Searcher search(List<String> indexesNames, Class<? extends Entity> entityClass, SearchQuery query);
+    /**
+     * Runs the first page of each searcher, as {@link Searcher#execute(String)} would (or
+     * {@link Searcher#execute()} for a null string query), with a single multi-search. The hits of
+     * {@code searchers.get(i)} are at index {@code i}. A query that fails fails the whole call with the
+     * exception its own search would have thrown.
+     */
+    List<Stream<? extends Entity>> multiSearch(List<? extends Searcher> searchers, List<String> stringQueries) throws IOException;
 
     boolean createIndex(String indexName) throws IOException;
     boolean deleteAll(String indexName) throws IOException;
@@ -40,6 +52,12 @@ public interface Indexer extends Closeable {
 
     boolean bulkAdd(String indexName, Pipeline.Type nerType, List<NamedEntity> namedEntities, Document parent) throws IOException;
     <T extends Entity> boolean bulkAdd(final String indexName, List<T> entities) throws IOException;
+    /**
+     * Returns a sink sending named entities and document status updates asynchronously, in bulk requests
+     * of at most {@code maxActions} operations or {@code maxBytes} estimated bytes, sent at least every
+     * {@code flushInterval}, with at most {@code maxConcurrentRequests} requests in flight.
+     */
+    NamedEntitySink namedEntitySink(int maxActions, long maxBytes, Duration flushInterval, int maxConcurrentRequests);
     <T extends Entity> boolean bulkUpdate(String indexName, List<T> entities) throws IOException;
     <T extends Entity> void add(String indexName, T obj) throws IOException;
     <T extends Entity> void update(String indexName, T obj) throws IOException;
@@ -51,14 +69,45 @@ public interface Indexer extends Closeable {
     boolean exists(String indexName) throws IOException;
     boolean exists(String indexName, String id) throws IOException;
     boolean exists(String indexName, String id, Path path) throws IOException;
+    /**
+     * Returns the indexed path of each of the given root documents with a single multi-get. Ids that
+     * are not in the index are absent from the returned map, ids found without a path are mapped to
+     * an empty path.
+     */
+    Map<String, String> getPaths(String indexName, List<String> rootIds) throws IOException;
 
     <T extends Entity> T get(String indexName, String id);
     <T extends Entity> T get(String indexName, String id, List<String> sourceExcludes);
     <T extends Entity> T get(String indexName, String id, String root);
     <T extends Entity> T get(String indexName, String id, String root, List<String> sourceExcludes);
+    /**
+     * Fetches the given documents with a single multi-get, each one routed with its root document id.
+     * Documents that are missing or that could not be fetched (the failure is logged) are absent from
+     * the returned map, keyed by document id.
+     */
+    <T extends Entity> Map<String, T> getAll(String indexName, List<DocReference> refs, List<String> sourceExcludes) throws IOException;
 
     String executeRaw(String method, String url, String body) throws IOException;
 
+    /** Returns the distinct content types of the documents of the index. */
+    List<String> getContentTypes(String indexName) throws IOException;
+    /**
+     * Sets the contentTypeCategory of the documents whose contentType is one of {@code contentTypes} (or that
+     * have no contentType for {@link ContentTypeCategory#OTHER}) and that are not in {@code category} yet,
+     * with a server-side update by query split in {@code slices} (0 lets the cluster choose) and throttled
+     * to {@code requestsPerSecond} (-1 for no throttling). Waits for the update, cancels it when the calling
+     * thread is interrupted, and returns the number of updated documents.
+     */
+    long setContentTypeCategory(String indexName, ContentTypeCategory category, List<String> contentTypes, int slices, float requestsPerSecond) throws IOException, InterruptedException;
+    /**
+     * Hides the named entities of the index whose mentionNorm is {@code mentionNorm} and that are not hidden yet,
+     * with a server-side update by query split in {@code slices} (0 lets the cluster choose) and throttled to
+     * {@code requestsPerSecond} (-1 for no throttling). Calls {@code progress} with the rate of the entities
+     * done while it runs. Waits for the update, cancels it when the calling thread is interrupted, and returns
+     * the number of entities hidden.
+     */
+    long hideNamedEntities(String indexName, String mentionNorm, int slices, float requestsPerSecond, Function<Double, Void> progress) throws IOException, InterruptedException;
+
     // from Repository
     boolean tag(Project prj, String documentId, String rootDocument, Tag... tags) throws IOException;
     boolean untag(Project prj, String documentId, String rootDocument, Tag... tags) throws IOException;
@@ -74,6 +123,15 @@ public interface Indexer extends Closeable {
         Stream<? extends Entity> scroll(String duration) throws IOException;
         Stream<? extends Entity> scroll(String duration, String stringQuery) throws IOException;
         Stream<? extends Entity> scroll(ScrollQuery scrollQuery) throws IOException;
+        /**
+         * Iterates over all the hits with a point in time and search_after instead of a scroll context.
+         *
+         * <p>The returned stream is lazy: it fetches the next page while the current one is consumed, and
+         * reports a {@link SearchCheckpoint} each time a page has been consumed. Giving that checkpoint back
+         * in a later query resumes the iteration after that page. The stream must be closed to release the
+         * point in time before its keep alive.</p>
+         */
+        Stream<? extends Entity> searchAfter(PointInTimeQuery query) throws IOException;
         Searcher withSource(String... fields);
         Searcher withoutSource(String... fields);
         Searcher withSource(boolean source);
@@ -95,6 +153,49 @@ public interface Indexer extends Closeable {
         QueryBuilderSearcher withPrefixQuery(String key, String... values);
     }
 
+    class PointInTimeQuery {
+        private final String keepAlive;
+        private final int numSlice;
+        private final int nbSlices;
+        private final String stringQuery;
+        private final SearchCheckpoint checkpoint;
+        private final Consumer<SearchCheckpoint> onCheckpoint;
+
+        public PointInTimeQuery(String keepAlive, int numSlice, int nbSlices, String stringQuery,
+                                SearchCheckpoint checkpoint, Consumer<SearchCheckpoint> onCheckpoint) {
+            this.keepAlive = keepAlive;
+            this.numSlice = numSlice;
+            this.nbSlices = nbSlices;
+            this.stringQuery = stringQuery;
+            this.checkpoint = checkpoint;
+            this.onCheckpoint = onCheckpoint;
+        }
+
+        public String getKeepAlive() {
+            return keepAlive;
+        }
+
+        public int getNumSlice() {
+            return numSlice;
+        }
+
+        public int getNbSlices() {
+            return nbSlices;
+        }
+
+        public String getStringQuery() {
+            return stringQuery;
+        }
+
+        public SearchCheckpoint getCheckpoint() {
+            return checkpoint;
+        }
+
+        public Consumer<SearchCheckpoint> getOnCheckpoint() {
+            return onCheckpoint;
+        }
+    }
+
     class ScrollQuery {
         private final String duration;
         private final int numSlice;
@@ -0,0 +1,65 @@
+package org.icij.datashare.text.indexing;
+
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.NamedEntity;
+import org.icij.datashare.text.nlp.Pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where NLP tasks write the named entities they find.
+ *
+ * <p>The {@link #direct(Indexer) direct} sink sends one bulk request per call, like
+ * {@link Indexer#bulkAdd(String, Pipeline.Type, List, Document)}. {@link Indexer#namedEntitySink} returns
+ * a sink that groups the entities of several documents (and of several chunks of a large document) in
+ * the same bulk requests: writes are then only guaranteed to be in the index once {@link #flush()} or
+ * {@link #close()} returns.</p>
+ */
+public interface NamedEntitySink extends Closeable {
+    /** Writes the entities found in a chunk of a document whose processing is not finished yet. */
+    void add(String indexName, List<NamedEntity> namedEntities) throws IOException;
+
+    /** Writes the last entities found in a document and marks the document as processed by {@code nerType}. */
+    void add(String indexName, Pipeline.Type nerType, List<NamedEntity> namedEntities, Document parent) throws IOException;
+
+    /** Sends the pending writes and waits until they are acknowledged. */
+    void flush() throws IOException;
+
+    /** Number of writes (entities or document updates) that could not be indexed so far. */
+    long failures();
+
+    @Override
+    default void close() throws IOException {
+        flush();
+    }
+
+    static NamedEntitySink direct(Indexer indexer) {
+        AtomicLong failures = new AtomicLong();
+        return new NamedEntitySink() {
+            @Override
+            public void add(String indexName, List<NamedEntity> namedEntities) throws IOException {
+                if (!indexer.bulkAdd(indexName, namedEntities)) {
+                    failures.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void add(String indexName, Pipeline.Type nerType, List<NamedEntity> namedEntities, Document parent) throws IOException {
+                if (!indexer.bulkAdd(indexName, nerType, namedEntities, parent)) {
+                    failures.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public long failures() {
+                return failures.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package org.icij.datashare.text.indexing;
+
+
+import org.icij.datashare.text.indexing.Indexer.PointInTimeQuery;
+
+import java.util.function.Consumer;
+
+public class PointInTimeQueryBuilder {
+
+    public String keepAlive;
+    public int numSlice;
+    public int nbSlices;
+    public String stringQuery;
+    public SearchCheckpoint checkpoint;
+    public Consumer<SearchCheckpoint> onCheckpoint = checkpoint -> {};
+
+    private PointInTimeQueryBuilder(){
+    }
+
+    public static PointInTimeQueryBuilder createPointInTimeQuery(){
+        return new PointInTimeQueryBuilder();
+    }
+
+    public PointInTimeQueryBuilder withKeepAlive(String keepAlive){
+        this.keepAlive = keepAlive;
+        return this;
+    }
+    public PointInTimeQueryBuilder withSlices(int numSlice, int nbSlices){
+        this.numSlice = numSlice;
+        this.nbSlices = nbSlices;
+        return this;
+    }
+    public PointInTimeQueryBuilder withStringQuery(String stringQuery){
+        this.stringQuery = stringQuery;
+        return this;
+    }
+    public PointInTimeQueryBuilder resumingFrom(SearchCheckpoint checkpoint){
+        this.checkpoint = checkpoint;
+        return this;
+    }
+    public PointInTimeQueryBuilder onCheckpoint(Consumer<SearchCheckpoint> onCheckpoint){
+        this.onCheckpoint = onCheckpoint;
+        return this;
+    }
+
+    public PointInTimeQuery build() {
+        return new PointInTimeQuery(keepAlive, numSlice, nbSlices, stringQuery, checkpoint, onCheckpoint);
+    }
+}
@@ -0,0 +1,10 @@
+package org.icij.datashare.text.indexing;
+
+import java.util.List;
+
+/**
+ * Position of a point in time iteration: the point in time it was reading and the sort values of the last
+ * consumed hit. It only holds strings, numbers and booleans so that it can be stored as JSON.
+ */
+public record SearchCheckpoint(String pointInTimeId, List<Object> searchAfter) {
+}
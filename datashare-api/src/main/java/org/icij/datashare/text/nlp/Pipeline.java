@@ -114,4 +114,14 @@ public interface Pipeline {
      * @return the list of all involved stages
      */
     Charset getEncoding();
+
+    /**
+     * Returns a pipeline for one more concurrent worker. A pipeline whose annotators are not
+     * thread-safe returns a new instance owning its annotators; a stateless one is shared as is.
+     *
+     * @return the pipeline to be used by another thread
+     */
+    default Pipeline newWorker() {
+        return this;
+    }
 }
@@ -116,4 +116,14 @@ public class PipelineHelperTest {
     public void test_get_queue_name_when_no_stage_is_provided_like_in_web_mode() {
         assertThat(new PipelineHelper(new PropertiesProvider(new HashMap<>() )).getQueueNameFor(Stage.NLP)).isEqualTo("extract:queue:nlp");
     }
+
+    @Test
+    public void test_has_next_stage() {
+        PipelineHelper pipelineHelper = new PipelineHelper(new PropertiesProvider(new HashMap<>() {{
+            put("stages", "ENQUEUEIDX,CATEGORIZE,NLP");
+        }}));
+        assertThat(pipelineHelper.hasNextStage(Stage.CATEGORIZE)).isTrue();
+        assertThat(pipelineHelper.hasNextStage(Stage.NLP)).isFalse();
+        assertThat(pipelineHelper.hasNextStage(Stage.INDEX)).isFalse();
+    }
 }
@@ -5,10 +5,15 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.StreamReadConstraints;
 import com.fasterxml.jackson.databind.exc.InvalidTypeIdException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.icij.datashare.text.Document;
 import org.junit.Test;
 
+import java.nio.file.Paths;
+
 import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.json.JsonObjectMapper.*;
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
 
 public class JsonObjectMapperTest {
     @Test
@@ -41,6 +46,27 @@ public class JsonObjectMapperTest {
     }
 
 
+    @Test
+    public void test_get_object_from_tree_is_the_same_as_from_map() {
+        Document doc = createDoc("id").with("content").with(Paths.get("/path/doc.txt")).build();
+        ObjectNode source = getMapper().valueToTree(doc);
+
+        Document fromTree = getObject("id", "prj", source, Document.class);
+        Document fromMap = getObject("id", "prj", getJson(doc), Document.class);
+
+        assertThat(fromTree).isEqualTo(fromMap);
+        assertThat(fromTree.getContent()).isEqualTo(fromMap.getContent());
+        assertThat(fromTree.getPath()).isEqualTo(fromMap.getPath());
+        assertThat(fromTree.getProject()).isEqualTo(fromMap.getProject());
+        assertThat(fromTree.getProject().getName()).isEqualTo("prj");
+    }
+
+    @Test
+    public void test_get_object_from_null_tree() {
+        Document doc = getObject("id", "prj", (ObjectNode) null, Document.class);
+        assertThat(doc.getId()).isEqualTo("id");
+    }
+
     @Test(expected = InvalidTypeIdException.class)
     public void test_typed_mapper_rejects_dangerous_class() throws Exception {
         String malicious = "{\"@type\":\"javax.naming.InitialContext\",\"environment\":{}}";
@@ -56,6 +56,8 @@ import org.icij.datashare.session.UsersIdProviderRedisCache;
 import org.icij.datashare.tasks.DatashareTaskFactory;
 import org.icij.datashare.tasks.TaskResultSubtypes;
 import org.icij.datashare.tasks.Utils;
+import org.icij.datashare.text.artifact.ArtifactReader;
+import org.icij.datashare.text.artifact.ManifestStore;
 import org.icij.datashare.text.indexing.Indexer;
 import org.icij.datashare.text.indexing.LanguageGuesser;
 import org.icij.datashare.text.indexing.elasticsearch.ElasticsearchIndexer;
@@ -357,6 +359,15 @@ public abstract class CommonMode extends AbstractModule implements Closeable {
         return authorizer;
     }
 
+    // One reader for the resources serving artifacts, so they share the content files it keeps open
+    // and those are closed on shutdown.
+    @Provides @Singleton
+    ArtifactReader provideArtifactReader() {
+        ArtifactReader reader = new ArtifactReader(ManifestStore.of(propertiesProvider).repository());
+        addCloseable(reader);
+        return reader;
+    }
+
     @Provides @Singleton
     Indexer provideIndexer() {
         ElasticsearchIndexer indexer = new ElasticsearchIndexer(createESClient(propertiesProvider), propertiesProvider);
@@ -534,7 +545,14 @@ public abstract class CommonMode extends AbstractModule implements Closeable {
             case REDIS -> bind(TaskRepository.class).to(TaskRepositoryRedis.class);
             case DATABASE -> {
                 JooqTaskRepository jooqTaskRepository = new JooqTaskRepository(repositoryFactory.getDataSource(), repositoryFactory.guessSqlDialect());
-                bind(TaskRepository.class).toInstance(jooqTaskRepository);
+                Optional<Integer> progressFlushIntervalMs = propertiesProvider.get(TASK_PROGRESS_FLUSH_INTERVAL_OPT).map(Integer::parseInt);
+                if (progressFlushIntervalMs.isPresent()) {
+                    CoalescingTaskRepository coalescingTaskRepository = new CoalescingTaskRepository(jooqTaskRepository, progressFlushIntervalMs.get());
+                    addCloseable(coalescingTaskRepository);
+                    bind(TaskRepository.class).toInstance(coalescingTaskRepository);
+                } else {
+                    bind(TaskRepository.class).toInstance(jooqTaskRepository);
+                }
             }
         }
         repositoryFactory.initDatabase();
@@ -544,7 +562,7 @@ public abstract class CommonMode extends AbstractModule implements Closeable {
         if (getTaskWorkersNb() > 0) {
             List<TaskWorkerLoop> workers = IntStream.range(0, getTaskWorkersNb())
                 .mapToObj(i -> new TaskWorkerLoop(get(DatashareTaskFactory.class), get(TaskSupplier.class),
-                    getProgressMinIntervalS())).toList();
+                    TaskSlots.parse(propertiesProvider.get(TASK_WORKER_SLOTS_OPT).orElse(null)), getProgressMinIntervalS())).toList();
             workers.forEach(this::addCloseable);
             workers.forEach(executorService::submit);
         }
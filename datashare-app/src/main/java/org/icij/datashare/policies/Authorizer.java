@@ -1,5 +1,7 @@
 package org.icij.datashare.policies;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import net.codestory.http.Context;
@@ -20,6 +22,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -29,12 +32,29 @@ import static java.util.Optional.ofNullable;
 import static org.icij.datashare.policies.errors.InvalidValueException.*;
 import static org.icij.datashare.policies.errors.UnknownRoleException.resolveRole;
 
+/**
+ * Casbin enforcer of the datashare policies.
+ *
+ * <p>Decisions are cached by (subject, domain, object, action) so that checking hundreds of projects does not
+ * evaluate the matcher under the enforcer lock each time. The cache is dropped on every policy change of this
+ * instance or of the other instances notified by the watcher. When the policies are also reloaded periodically,
+ * a decision is kept at most one reload interval.</p>
+ *
+ * <p>With a {@link PolicyWatcher}, the changed rule is published and applied as is by the other instances
+ * instead of reloading all the policies from the database.</p>
+ */
 @Singleton
 public final class Authorizer implements Closeable {
 
     private static final String SEPARATOR = "::";
     private static final String DEFAULT_POLICY_FILE = "casbin/model.conf";
+    static final int MAX_CACHED_DECISIONS = 100_000;
     private final SyncedEnforcer enforcer;
+    // local changes and the remote ones applied with auto-save disabled must not interleave
+    private final Object policyLock = new Object();
+    private volatile Cache<String, Boolean> decisions;
+    private volatile long decisionTtlMs = 0;
+    @Nullable private Watcher watcher;
     @Nullable private Closeable watcherCloseable;
 
     @Inject
@@ -45,14 +65,20 @@ public final class Authorizer implements Closeable {
     public Authorizer(CasbinRuleAdapter adapter, Watcher watcher) throws IOException {
         this(adapter, true, false);
         if (watcher != null) {
-            enforcer.setWatcher(watcher);
+            // the watcher is notified by this class rather than by the enforcer, to drop the cached decisions
+            this.watcher = watcher;
+            if (watcher instanceof PolicyWatcher policyWatcher) {
+                policyWatcher.onUpdate(this::applyRemoteUpdate);
+            } else {
+                watcher.setUpdateCallback(this::reloadPolicy);
+            }
             this.watcherCloseable = watcher instanceof Closeable ? (Closeable) watcher : null;
         }
     }
 
     public Authorizer(CasbinRuleAdapter adapter, long reloadIntervalMs) throws IOException {
         this(adapter, true, false);
-        if (reloadIntervalMs > 0) enforcer.startAutoLoadPolicy(reloadIntervalMs);
+        startAutoLoadPolicy(reloadIntervalMs);
     }
 
     private Authorizer(CasbinRuleAdapter adapter, boolean enableAutoSave, boolean enableLog) throws IOException {
@@ -65,6 +91,7 @@ public final class Authorizer implements Closeable {
         enforcer.enableAutoSave(enableAutoSave);
         enforcer.loadPolicy();
         initializeRoleHierarchy();
+        decisions = newDecisionCache();
     }
 
     private static String domainSepProject(Domain domain, String project) {
@@ -100,37 +127,46 @@ public final class Authorizer implements Closeable {
     }
 
     public boolean can(String userId, Domain domain, String project, Role action) {
-        return enforcer.enforce(userId, domain.id(), project, action.name());
+        return can(userId, domain, project, action.name());
     }
 
     public boolean can(String userId, Domain domain, String project, String action) {
-        return enforcer.enforce(userId, domain.id(), project, action);
+        // the cache is read before enforcing: a decision computed while the policies change is put in the
+        // cache that has just been dropped
+        Cache<String, Boolean> cache = decisions;
+        String key = String.join("\u0000", userId, domain.id(), project, action);
+        Boolean decision = cache.getIfPresent(key);
+        if (decision == null) {
+            decision = enforcer.enforce(userId, domain.id(), project, action);
+            cache.put(key, decision);
+        }
+        return decision;
     }
 
     /*
      *   Instance
      */
     public boolean addRoleForUserInInstance(User user, Role role) {
-        return enforcer.addGroupingPolicy(user.id, role.name(), domainSepProject(Domain.of("*"), "*"));
+        return addGroupingPolicy(user.id, role.name(), domainSepProject(Domain.of("*"), "*"));
     }
 
     public boolean deleteRoleForUserInInstance(User user, Role role) {
-        return enforcer.removeGroupingPolicy(user.id, role.name(), domainSepProject(Domain.of("*"), "*"));
+        return removeGroupingPolicy(user.id, role.name(), domainSepProject(Domain.of("*"), "*"));
     }
 
     /*
      *   Domain
      */
     public boolean addRoleForUserInDomain(User user, Role role, Domain domain) {
-        return enforcer.addGroupingPolicy(user.id, role.name(), domainSepProject(domain, "*"));
+        return addGroupingPolicy(user.id, role.name(), domainSepProject(domain, "*"));
     }
 
     public boolean deleteRoleForUserInDomain(User user, Role role, Domain domain) {
-        return enforcer.removeGroupingPolicy(user.id, role.name(), domainSepProject(domain, "*"));
+        return removeGroupingPolicy(user.id, role.name(), domainSepProject(domain, "*"));
     }
 
     public boolean updateRoleForUserInDomain(User user, Role role, Domain domain) {
-        enforcer.removeFilteredGroupingPolicy(0, user.id, "", domainSepProject(domain, "*"));
+        removeFilteredGroupingPolicy(user.id, "", domainSepProject(domain, "*"));
         return addRoleForUserInDomain(user, role, domain);
     }
 
@@ -146,15 +182,15 @@ public final class Authorizer implements Closeable {
     }
 
     public boolean addRoleForUserInProject(User user, Role role, Domain domain, Project project) {
-        return enforcer.addGroupingPolicy(user.id, role.name(), domainSepProject(domain, project.getId()));
+        return addGroupingPolicy(user.id, role.name(), domainSepProject(domain, project.getId()));
     }
 
     public boolean deleteRoleForUserInProject(User user, Role role, Domain domain, Project project) {
-        return enforcer.removeGroupingPolicy(user.id, role.name(), domainSepProject(domain, project.getId()));
+        return removeGroupingPolicy(user.id, role.name(), domainSepProject(domain, project.getId()));
     }
 
     public boolean updateRoleForUserInProject(User user, Role role, Domain domain, Project project) {
-        enforcer.removeFilteredGroupingPolicy(0, user.id, "", domainSepProject(domain, project.getId()));
+        removeFilteredGroupingPolicy(user.id, "", domainSepProject(domain, project.getId()));
         return addRoleForUserInProject(user, role, domain, project);
     }
 
@@ -254,11 +290,83 @@ public final class Authorizer implements Closeable {
     }
 
     public void removeAllPoliciesForUser(String userId) {
-        enforcer.removeFilteredGroupingPolicy(0, userId);
+        removeFilteredGroupingPolicy(userId);
     }
 
     public void startAutoLoadPolicy(long intervalMs) {
-        if (intervalMs > 0) enforcer.startAutoLoadPolicy(intervalMs);
+        if (intervalMs > 0) {
+            decisionTtlMs = intervalMs;
+            decisions = newDecisionCache();
+            enforcer.startAutoLoadPolicy(intervalMs);
+        }
+    }
+
+    private boolean addGroupingPolicy(String... rule) {
+        boolean added;
+        synchronized (policyLock) {
+            added = enforcer.addGroupingPolicy(rule);
+        }
+        if (added) policyChanged(PolicyUpdateMessage.ADD_GROUPING, rule);
+        return added;
+    }
+
+    private boolean removeGroupingPolicy(String... rule) {
+        boolean removed;
+        synchronized (policyLock) {
+            removed = enforcer.removeGroupingPolicy(rule);
+        }
+        if (removed) policyChanged(PolicyUpdateMessage.REMOVE_GROUPING, rule);
+        return removed;
+    }
+
+    private void removeFilteredGroupingPolicy(String... fieldValues) {
+        boolean removed;
+        synchronized (policyLock) {
+            removed = enforcer.removeFilteredGroupingPolicy(0, fieldValues);
+        }
+        if (removed) policyChanged(PolicyUpdateMessage.REMOVE_FILTERED_GROUPING, fieldValues);
+    }
+
+    private void policyChanged(String message, String... rule) {
+        decisions = newDecisionCache();
+        if (watcher instanceof PolicyWatcher policyWatcher) {
+            policyWatcher.update(message, List.of(rule));
+        } else if (watcher != null) {
+            watcher.update();
+        }
+    }
+
+    void applyRemoteUpdate(PolicyUpdateMessage update) {
+        if (update.rule() == null || PolicyUpdateMessage.RELOAD.equals(update.message())) {
+            reloadPolicy();
+            return;
+        }
+        String[] rule = update.rule().toArray(String[]::new);
+        synchronized (policyLock) {
+            // the rule has already been saved by the instance that published it
+            enforcer.enableAutoSave(false);
+            try {
+                switch (update.message()) {
+                    case PolicyUpdateMessage.ADD_GROUPING -> enforcer.addGroupingPolicy(rule);
+                    case PolicyUpdateMessage.REMOVE_GROUPING -> enforcer.removeGroupingPolicy(rule);
+                    case PolicyUpdateMessage.REMOVE_FILTERED_GROUPING -> enforcer.removeFilteredGroupingPolicy(0, rule);
+                    default -> enforcer.loadPolicy();
+                }
+            } finally {
+                enforcer.enableAutoSave(true);
+            }
+        }
+        decisions = newDecisionCache();
+    }
+
+    private void reloadPolicy() {
+        enforcer.loadPolicy();
+        decisions = newDecisionCache();
+    }
+
+    private Cache<String, Boolean> newDecisionCache() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_DECISIONS);
+        return decisionTtlMs > 0 ? builder.expireAfterWrite(Duration.ofMillis(decisionTtlMs)).build() : builder.build();
     }
 
     @Override
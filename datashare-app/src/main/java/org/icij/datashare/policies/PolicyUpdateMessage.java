@@ -1,3 +1,18 @@
 package org.icij.datashare.policies;
 
-public record PolicyUpdateMessage(String callerId, String message) {}
+import java.util.List;
+
+/**
+ * Policy change published to the other datashare instances. The {@code rule} of an incremental change is applied
+ * as is by the receivers; messages without rule make them reload all the policies.
+ */
+public record PolicyUpdateMessage(String callerId, String message, List<String> rule) {
+    public static final String RELOAD = "reload";
+    public static final String ADD_GROUPING = "addGrouping";
+    public static final String REMOVE_GROUPING = "removeGrouping";
+    public static final String REMOVE_FILTERED_GROUPING = "removeFilteredGrouping";
+
+    public PolicyUpdateMessage(String callerId, String message) {
+        this(callerId, message, null);
+    }
+}
@@ -7,6 +7,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
 
@@ -28,34 +30,44 @@ public class PolicyWatcher implements Watcher, Closeable {
 
     @Override
     public void setUpdateCallback(Runnable callback) {
-        if (listenerId != -1) topic.removeListener(listenerId);
-        listenerId = topic.addListener(PolicyUpdateMessage.class, (ch, msg) -> {
-            if (instanceId.equals(msg.callerId())) {
-                LOGGER.debug("Ignoring own policy-update notification");
-            } else {
-                LOGGER.info("Received policy-update notification from remote instance, reloading");
-                callback.run();
-            }
-        });
+        onUpdate(msg -> callback.run());
     }
 
     @Override
     public void setUpdateCallback(Consumer<String> callback) {
+        onUpdate(msg -> callback.accept(msg.message()));
+    }
+
+    /**
+     * Registers the callback receiving the policy changes of the other instances, in place of the previous one.
+     */
+    public void onUpdate(Consumer<PolicyUpdateMessage> callback) {
         if (listenerId != -1) topic.removeListener(listenerId);
         listenerId = topic.addListener(PolicyUpdateMessage.class, (ch, msg) -> {
             if (instanceId.equals(msg.callerId())) {
                 LOGGER.debug("Ignoring own policy-update notification");
             } else {
-                LOGGER.info("Received policy-update notification from remote instance, reloading");
-                callback.accept(msg.message());
+                LOGGER.info("Received policy-update notification ({}) from remote instance", msg.message());
+                callback.accept(msg);
             }
         });
     }
 
     @Override
     public void update() {
+        publish(new PolicyUpdateMessage(instanceId, PolicyUpdateMessage.RELOAD));
+    }
+
+    /**
+     * Publishes a single rule change, applied by the other instances without reloading all the policies.
+     */
+    public void update(String message, List<String> rule) {
+        publish(new PolicyUpdateMessage(instanceId, message, new ArrayList<>(rule)));
+    }
+
+    private void publish(PolicyUpdateMessage message) {
         try {
-            topic.publish(new PolicyUpdateMessage(instanceId, "reload"));
+            topic.publish(message);
         } catch (Exception e) {
             // The Casbin rule was already written to SQL; only the Redis notification failed.
             // Do not rethrow: that would unwind casbinWithRollback and corrupt the
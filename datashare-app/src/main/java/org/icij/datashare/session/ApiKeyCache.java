@@ -0,0 +1,54 @@
+package org.icij.datashare.session;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import net.codestory.http.security.User;
+import org.icij.datashare.PropertiesProvider;
+
+import java.time.Duration;
+
+import static org.icij.datashare.Entity.DEFAULT_DIGESTER;
+import static org.icij.datashare.cli.DatashareCliOptions.API_KEY_CACHE_TTL_SECONDS_OPT;
+
+/**
+ * Users resolved from their API key, kept {@code apiKeyCacheTtlSeconds} to avoid reading the key and the user at
+ * each API request. The keys are stored hashed like in the {@link org.icij.datashare.user.ApiKeyRepository}.
+ *
+ * <p>When the API key of a user is regenerated or deleted, the user is invalidated: the TTL only bounds the
+ * time a key deleted by another datashare instance is still accepted. Without TTL nothing is cached.</p>
+ */
+@Singleton
+public class ApiKeyCache {
+    static final int MAX_SIZE = 10_000;
+    private final Cache<String, User> users;
+
+    @Inject
+    public ApiKeyCache(PropertiesProvider propertiesProvider) {
+        this(propertiesProvider.get(API_KEY_CACHE_TTL_SECONDS_OPT).map(Integer::parseInt).orElse(0));
+    }
+
+    ApiKeyCache(int ttlSeconds) {
+        this.users = ttlSeconds > 0 ? CacheBuilder.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build() : null;
+    }
+
+    public User getIfPresent(String apiKey) {
+        return users == null ? null : users.getIfPresent(DEFAULT_DIGESTER.hash(apiKey));
+    }
+
+    public void put(String apiKey, User user) {
+        if (users != null && user != null) {
+            users.put(DEFAULT_DIGESTER.hash(apiKey), user);
+        }
+    }
+
+    public void invalidate(String login) {
+        if (users != null) {
+            users.asMap().values().removeIf(user -> login.equals(user.login()));
+        }
+    }
+}
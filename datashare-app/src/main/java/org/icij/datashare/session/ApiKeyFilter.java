@@ -21,14 +21,20 @@ public class ApiKeyFilter implements Filter {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final Users users;
     private final ApiKeyStore apiKeyStore;
+    private final ApiKeyCache apiKeyCache;
     private final String protectedUrlPrefix;
     @Nullable
     private final PostLoginEnroller postLoginEnroller;
 
-    @Inject
     public ApiKeyFilter(Users users, ApiKeyStore apiKeyStore, @Nullable PostLoginEnroller postLoginEnroller) {
+        this(users, apiKeyStore, new ApiKeyCache(0), postLoginEnroller);
+    }
+
+    @Inject
+    public ApiKeyFilter(Users users, ApiKeyStore apiKeyStore, ApiKeyCache apiKeyCache, @Nullable PostLoginEnroller postLoginEnroller) {
         this.users = users;
         this.apiKeyStore = apiKeyStore;
+        this.apiKeyCache = apiKeyCache;
         this.postLoginEnroller = postLoginEnroller;
         protectedUrlPrefix = "/api";
         logger.info("api filter activated for url {} with store {}", protectedUrlPrefix, apiKeyStore.getClass());
@@ -44,9 +50,13 @@ public class ApiKeyFilter implements Filter {
         }
         String apiKey = readApiKeyInHeader(context);
         if (apiKey != null) {
-          String login = apiKeyStore.getLogin(apiKey);
+          User user = apiKeyCache.getIfPresent(apiKey);
+          String login = user != null ? user.login() : apiKeyStore.getLogin(apiKey);
           if (login != null) {
-            User user = users.find(login);
+            if (user == null) {
+                user = users.find(login);
+                apiKeyCache.put(apiKey, user);
+            }
             context.setCurrentUser(user);
               if (postLoginEnroller != null && user instanceof DatashareUser dsUser) {
                   postLoginEnroller.enroll(dsUser);
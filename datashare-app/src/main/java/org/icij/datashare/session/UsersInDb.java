@@ -60,8 +60,8 @@ public class UsersInDb implements UserStore {
 
     @Override
     public List<org.icij.datashare.user.User> getUsersByIds(Set<String> ids) {
-        return ids.stream()
-                .map(userRepository::getUser)
+        if (ids.isEmpty()) return List.of();
+        return userRepository.getUsers(ids).stream()
                 .filter(Objects::nonNull)
                 .map(DatashareUser::new)
                 .collect(Collectors.toList());
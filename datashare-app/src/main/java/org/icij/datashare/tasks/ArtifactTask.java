@@ -18,7 +18,7 @@ import org.icij.datashare.text.artifact.ArtifactConfigurationException;
 import org.icij.datashare.text.artifact.ArtifactContext;
 import org.icij.datashare.text.artifact.ArtifactProducer;
 import org.icij.datashare.text.artifact.ArtifactRegistry;
-import org.icij.datashare.text.artifact.FilesystemManifestRepository;
+import org.icij.datashare.text.artifact.ManifestStore;
 import org.icij.datashare.text.indexing.Indexer;
 import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import org.icij.datashare.text.indexing.elasticsearch.SourceExtractor;
@@ -138,7 +138,7 @@ public class ArtifactTask extends PipelineTask<String> {
         boolean force = ArtifactStages.force(propertiesProvider);
         // The producer owns what counts as a cancellation (see ArtifactProducer#isCancellation), so this
         // loop and the produce loop it drives cannot disagree about it.
-        ArtifactProducer producer = new ArtifactProducer(new FilesystemManifestRepository(), executor::isShutdown);
+        ArtifactProducer producer = new ArtifactProducer(ManifestStore.of(propertiesProvider).repository(), executor::isShutdown);
         Path projectRoot = ArtifactPath.projectRoot(artifactDir, project.name);
         // The interrupt check keeps cancellation prompt, since cancel() calls executor.shutdownNow()
         // while a worker may sit between two non-blocking polls.
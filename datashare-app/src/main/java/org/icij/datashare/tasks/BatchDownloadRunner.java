@@ -14,6 +14,7 @@ import org.icij.datashare.HumanReadableSize;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.asynctasks.CancelException;
 import org.icij.datashare.asynctasks.CancellableTask;
+import org.icij.datashare.asynctasks.IoBound;
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.asynctasks.TaskGroup;
 import org.icij.datashare.asynctasks.TaskGroupType;
@@ -46,7 +47,6 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
-import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
@@ -62,6 +62,7 @@ import static org.icij.datashare.cli.DatashareCliOptions.*;
 
 @TemporalSingleActivityWorkflow(name = "batch-download", activityOptions = @ActivityOpts(timeout = "P7D"))
 @TaskGroup(TaskGroupType.Java)
+@IoBound
 public class BatchDownloadRunner implements Callable<BatchDownloadRunnerResult>, Monitorable, UserTask, CancellableTask {
     private static final Logger logger = LoggerFactory.getLogger(BatchDownloadRunner.class);
     static final int MAX_SCROLL_SIZE = 3500;
@@ -106,6 +107,7 @@ public class BatchDownloadRunner implements Callable<BatchDownloadRunnerResult>,
                 .orElse(valueOf(DEFAULT_SCROLL_SIZE))));
         int scrollSize = min(scrollSizeFromParams, MAX_SCROLL_SIZE);
         long maxZipSizeBytes = HumanReadableSize.parse(propertiesProvider.get(BATCH_DOWNLOAD_MAX_SIZE_OPT).orElse(DEFAULT_BATCH_DOWNLOAD_MAX_SIZE));
+        int parallelism = propertiesProvider.get(BATCH_DOWNLOAD_PARALLELISM_OPT).map(Integer::parseInt).orElse(DEFAULT_BATCH_DOWNLOAD_PARALLELISM);
         long zippedFilesSize = 0;
         callThread = Thread.currentThread();
         callWaiterLatchForTests.countDown(); // for tests
@@ -124,22 +126,22 @@ public class BatchDownloadRunner implements Callable<BatchDownloadRunnerResult>,
             }
             docsToProcessSize = searcher.totalHits();
 
-            logger.info("creating zip file with max input files size of {} bytes", maxZipSizeBytes);
-            try (Zipper zipper = createZipper(batchDownload, propertiesProvider, mailSenderSupplier)) {
-                HashMap<String, Object> taskProperties = new HashMap<>();
-                taskProperties.put("batchDownload", batchDownload);
+            logger.info("creating zip file with max input files size of {} bytes and {} extraction thread(s)", maxZipSizeBytes, parallelism);
+            try (Zipper zipper = createZipper(batchDownload, propertiesProvider, mailSenderSupplier);
+                 BatchDownloadSources sources = new BatchDownloadSources(new SourceExtractor(propertiesProvider), documentVerifier, parallelism)) {
                 while (!docsToProcess.isEmpty()) {
-                    for (int i = 0; i < docsToProcess.size() && numberOfResults.get() < maxResultSize && zippedFilesSize <= maxZipSizeBytes; i++) {
-                        if (cancelAsked) {
-                            logger.info("cancelling batch download {} requeue={}", batchDownload.uuid, requeueCancel);
-                            throw new CancelException(requeueCancel);
-                        }
-                        Document document = (Document) docsToProcess.get(i);
-                        int addedBytes = documentVerifier.isRootDocumentSizeAllowed(document) ? zipper.add(document) : 0;
-                        if (addedBytes > 0) {
-                            zippedFilesSize += addedBytes;
-                            numberOfResults.incrementAndGet();
-                            progressCallback.apply(getProgressRate());
+                    try (BatchDownloadSources.Page page = sources.open(docsToProcess.stream().map(Document.class::cast).collect(toList()))) {
+                        while (numberOfResults.get() < maxResultSize && zippedFilesSize <= maxZipSizeBytes && page.hasNext()) {
+                            if (cancelAsked) {
+                                logger.info("cancelling batch download {} requeue={}", batchDownload.uuid, requeueCancel);
+                                throw new CancelException(requeueCancel);
+                            }
+                            int addedBytes = zipper.add(page.next());
+                            if (addedBytes > 0) {
+                                zippedFilesSize += addedBytes;
+                                numberOfResults.incrementAndGet();
+                                progressCallback.apply(getProgressRate());
+                            }
                         }
                     }
                     docsToProcess = searcher.scroll(scrollDuration).collect(toList());
@@ -242,8 +244,9 @@ public class BatchDownloadRunner implements Callable<BatchDownloadRunnerResult>,
             this.propertiesProvider = propertiesProvider;
         }
 
-        public int add(Document doc) throws IOException {
-            try (InputStream from = new SourceExtractor(propertiesProvider).getSource(doc.getProject(), doc)) {
+        public int add(BatchDownloadSources.Source source) throws IOException {
+            Document doc = source.document();
+            try (InputStream from = source.open()) {
                 int zippedSize = 0;
                 zipOutputStream.putNextEntry(createEntry(getEntryName(doc)));
                 byte[] buffer = new byte[4096];
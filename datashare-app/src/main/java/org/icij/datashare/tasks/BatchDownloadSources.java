@@ -0,0 +1,227 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.elasticsearch.ExtractException;
+import org.icij.datashare.text.indexing.elasticsearch.SourceExtractor;
+import org.icij.datashare.utils.DocumentVerifier;
+import org.icij.extract.extractor.EmbeddedDocumentExtractor.ContentNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Opens the sources of the documents of a batch download on a bounded pool of threads, for a single
+ * writer that reads them in order.
+ *
+ * <p>The documents of a page are grouped by root document. When several embedded documents of the same
+ * root are not in the artifact cache yet, the root is parsed once to cache all its embedded documents,
+ * instead of once per embedded document: the first document of the group opened runs that pass, the
+ * others of the group wait for it. Documents are opened in order, with at most twice as many sources
+ * opened ahead of the writer as threads, whatever the size of their groups.</p>
+ */
+class BatchDownloadSources implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BatchDownloadSources.class);
+    // below this number of uncached embedded documents, extracting them one by one is cheaper than
+    // caching every embedded document of their root
+    static final int MIN_EMBEDDED_FOR_ROOT_PASS = 2;
+
+    private final SourceExtractor extractor;
+    private final DocumentVerifier documentVerifier;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    BatchDownloadSources(SourceExtractor extractor, DocumentVerifier documentVerifier, int parallelism) {
+        this.extractor = extractor;
+        this.documentVerifier = documentVerifier;
+        this.parallelism = parallelism;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-download-source-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    Page open(List<Document> documents) {
+        Map<String, Group> byRoot = new LinkedHashMap<>();
+        for (Document document : documents) {
+            String root = document.getRootDocument() == null ? document.getId() : document.getRootDocument();
+            byRoot.computeIfAbsent(root, r -> new Group()).documents.add(document);
+        }
+        List<Member> members = new ArrayList<>(documents.size());
+        byRoot.values().forEach(group -> group.documents.forEach(document -> members.add(new Member(group, document))));
+        return new Page(members.iterator());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** The sources of a page, in the order of its root documents. Closing it discards the unread sources. */
+    class Page implements AutoCloseable {
+        private final Iterator<Member> members;
+        private final Deque<Future<Source>> inFlight = new ArrayDeque<>();
+        private Source current;
+
+        private Page(Iterator<Member> members) {
+            this.members = members;
+            fill();
+        }
+
+        boolean hasNext() throws InterruptedException {
+            // documents too large to be downloaded have no source
+            while (current == null) {
+                if (inFlight.isEmpty()) {
+                    return false;
+                }
+                current = await(inFlight.poll());
+                fill();
+            }
+            return true;
+        }
+
+        Source next() throws InterruptedException {
+            if (!hasNext()) {
+                throw new IllegalStateException("no more sources in page");
+            }
+            Source next = current;
+            current = null;
+            return next;
+        }
+
+        @Override
+        public void close() {
+            if (current != null) {
+                current.discard();
+                current = null;
+            }
+            for (Future<Source> future : inFlight) {
+                if (!future.cancel(true) && future.isDone()) {
+                    try {
+                        Source source = future.get();
+                        if (source != null) {
+                            source.discard();
+                        }
+                    } catch (InterruptedException | ExecutionException | RuntimeException ignored) {
+                        // nothing was opened by a failed document
+                    }
+                }
+            }
+            inFlight.clear();
+        }
+
+        private void fill() {
+            while (inFlight.size() < 2 * parallelism && members.hasNext()) {
+                Member member = members.next();
+                inFlight.add(executor.submit(() -> openSource(member)));
+            }
+        }
+
+        private Source await(Future<Source> future) throws InterruptedException {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private Source openSource(Member member) throws InterruptedException {
+        Document document = member.document();
+        if (!member.group().prepare().contains(document.getId())) {
+            return null;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("opening of " + document.getId() + " cancelled");
+        }
+        try {
+            return new Source(document, extractor.getSource(document.getProject(), document), null);
+        } catch (ExtractException | FileNotFoundException | ContentNotFoundException e) {
+            return new Source(document, null, e);
+        }
+    }
+
+    private record Member(Group group, Document document) {}
+
+    /** The documents of a page with the same root, prepared once for all of them by the first opened. */
+    private class Group {
+        private final List<Document> documents = new ArrayList<>();
+        private Set<String> allowed;
+
+        /** Returns the ids of the documents that can be downloaded, after caching their embedded documents. */
+        synchronized Set<String> prepare() {
+            if (allowed == null) {
+                List<Document> allowedDocuments = documents.stream().filter(documentVerifier::isRootDocumentSizeAllowed).toList();
+                cacheEmbeddedSources(allowedDocuments);
+                allowed = allowedDocuments.stream().map(Document::getId).collect(toSet());
+            }
+            return allowed;
+        }
+
+        private void cacheEmbeddedSources(List<Document> allowedDocuments) {
+            List<Document> uncached = allowedDocuments.stream()
+                    .filter(doc -> !doc.isRootDocument() && !extractor.hasCachedEmbeddedSource(doc.getProject(), doc)).toList();
+            if (uncached.size() < MIN_EMBEDDED_FOR_ROOT_PASS || !extractor.cachesEmbeddedSources(uncached.get(0).getProject())) {
+                return;
+            }
+            // any embedded document gives the path of the root; one produced by OCR makes the pass use OCR too
+            Document embedded = uncached.stream().filter(doc -> doc.getOcrParser() != null).findFirst().orElse(uncached.get(0));
+            try {
+                long before = System.currentTimeMillis();
+                extractor.extractEmbeddedSources(embedded.getProject(), embedded);
+                logger.info("cached embedded documents of root {} for {} requested documents in {}ms",
+                        embedded.getRootDocument(), uncached.size(), System.currentTimeMillis() - before);
+            } catch (Exception e) {
+                logger.warn("cannot cache embedded documents of root {}, extracting them one by one", embedded.getRootDocument(), e);
+            }
+        }
+    }
+
+    record Source(Document document, InputStream stream, Exception failure) {
+        /** Returns the opened source, or throws the exception that prevented opening it. */
+        InputStream open() throws FileNotFoundException {
+            if (failure instanceof FileNotFoundException notFound) {
+                throw notFound;
+            }
+            if (failure instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            return stream;
+        }
+
+        void discard() {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    logger.debug("cannot close source of {}", document.getId(), e);
+                }
+            }
+        }
+    }
+}
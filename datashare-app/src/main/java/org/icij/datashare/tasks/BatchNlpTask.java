@@ -1,24 +1,37 @@
 package org.icij.datashare.tasks;
 
 import static java.util.Optional.ofNullable;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_NLP_PREFETCH_MAX_BYTES;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PARALLELISM_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PREFETCH_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PREFETCH_SIZE_OPT;
 import org.icij.datashare.asynctasks.TaskGroupType;
 
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import org.icij.datashare.HumanReadableSize;
 import org.icij.datashare.asynctasks.CancellableTask;
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.asynctasks.TaskGroup;
 import org.icij.datashare.asynctasks.temporal.ActivityOpts;
 import org.icij.datashare.asynctasks.temporal.TemporalSingleActivityWorkflow;
 import org.icij.datashare.extension.PipelineRegistry;
+import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.Language;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.NamedEntitySink;
 import org.icij.datashare.text.nlp.Pipeline;
 import org.icij.datashare.user.User;
 import org.icij.datashare.user.UserTask;
@@ -38,6 +51,10 @@ public class BatchNlpTask extends DefaultTask<Long> implements UserTask, Cancell
     private final List<CreateNlpBatchesFromIndex.BatchDocument> docs;
     private final Pipeline pipeline;
     private final int maxLength;
+    private final int parallelism;
+    private final int prefetchSize;
+    private final long prefetchMaxBytes;
+    private final Map<String, Object> args;
 
     @Inject
     public BatchNlpTask(Indexer indexer, PipelineRegistry registry, @Assisted Task<Long> taskView, @Assisted final Function<Double, Void> progress) {
@@ -51,11 +68,15 @@ public class BatchNlpTask extends DefaultTask<Long> implements UserTask, Cancell
         this.pipeline = pipeline;
         this.docs = (List<CreateNlpBatchesFromIndex.BatchDocument>) taskView.args.get("docs");
         this.maxLength = (int) taskView.args.get("maxLength");
+        this.parallelism = ofNullable(taskView.args.get(NLP_PARALLELISM_OPT)).map(String::valueOf).map(Integer::parseInt).orElse(1);
+        this.prefetchSize = ofNullable(taskView.args.get(NLP_PREFETCH_SIZE_OPT)).map(String::valueOf).map(Integer::parseInt).orElse(1);
+        this.prefetchMaxBytes = HumanReadableSize.parse(ofNullable(taskView.args.get(NLP_PREFETCH_MAX_BYTES_OPT)).map(String::valueOf).orElse(DEFAULT_NLP_PREFETCH_MAX_BYTES));
+        this.args = taskView.args;
         this.progress = progress;
     }
 
     @Override
-    public Long call() throws IOException, InterruptedException {
+    public Long call() throws Exception {
         taskThread = Thread.currentThread();
         if (this.docs.isEmpty()) {
             return 0L;
@@ -66,31 +87,22 @@ public class BatchNlpTask extends DefaultTask<Long> implements UserTask, Cancell
         pipeline.initialize(language);
         logger.info("performing NER on {} docs in {}...", batchSize, language);
         // TODO: for now None of the Java NER seems to support batch processing, we just iterate docs one by one
-        // TODO: we could improve perfs by fetching docs and processing them concurrently...
-        int nProcessed = 0;
         Optional.ofNullable(this.progress).ifPresent(p -> p.apply(0.0));
-        for (CreateNlpBatchesFromIndex.BatchDocument doc : this.docs) {
-            String project = doc.project();
-            Document indexDoc = indexer.get(doc.id(), doc.rootDocument(), EXCLUDED_SOURCES);
-            if (indexDoc.getContentTextLength() < this.maxLength) {
-                List<NamedEntity> namedEntities = pipeline.process(indexDoc);
-                indexer.bulkAdd(project, pipeline.getType(), namedEntities, indexDoc);
+        AtomicInteger nProcessed = new AtomicInteger();
+        try (NamedEntitySink sink = NamedEntitySinks.create(indexer, key -> ofNullable(args.get(key)).map(String::valueOf))) {
+            if (prefetchSize > 1) {
+                prefetchAndProcess(sink, language, nProcessed, updateRate);
             } else {
-                int nbChunks = indexDoc.getContentTextLength() / this.maxLength + 1;
-                for (int chunkIndex = 0; chunkIndex < nbChunks; chunkIndex++) {
-                    List<NamedEntity> namedEntities =
-                        pipeline.process(indexDoc, maxLength, chunkIndex * maxLength);
-                    if (chunkIndex < nbChunks - 1) {
-                        indexer.bulkAdd(project, namedEntities);
-                    } else {
-                        indexer.bulkAdd(project, pipeline.getType(), namedEntities, indexDoc);
+                Queue<CreateNlpBatchesFromIndex.BatchDocument> remaining = new ConcurrentLinkedQueue<>(this.docs);
+                PipelineWorkers.run("batch-ner", pipeline, parallelism, workerPipeline -> inWorker(workerPipeline, language, () -> {
+                    CreateNlpBatchesFromIndex.BatchDocument doc;
+                    while ((doc = remaining.poll()) != null) {
+                        checkInterrupted();
+                        Document indexDoc = indexer.get(doc.id(), doc.rootDocument(), EXCLUDED_SOURCES);
+                        process(sink, workerPipeline, doc.project(), indexDoc);
+                        reportProgress(nProcessed.incrementAndGet(), updateRate);
                     }
-                }
-            }
-            nProcessed += 1;
-            if (nProcessed % updateRate == 0) {
-                Double prog = (double) nProcessed / (double) batchSize;
-                Optional.ofNullable(this.progress).ifPresent(p -> p.apply(prog));
+                }));
             }
         }
         pipeline.terminate(language);
@@ -98,6 +110,92 @@ public class BatchNlpTask extends DefaultTask<Long> implements UserTask, Cancell
         return (long) batchSize;
     }
 
+    /**
+     * Processes the batch with its documents fetched by multi-gets of {@code nlpPrefetchSize} while the
+     * pipeline processes the previous ones. The documents of a batch all belong to the same project.
+     */
+    private void prefetchAndProcess(NamedEntitySink sink, Language language, AtomicInteger nProcessed, int updateRate) throws Exception {
+        String project = this.docs.get(0).project();
+        Iterator<CreateNlpBatchesFromIndex.BatchDocument> remaining = this.docs.iterator();
+        DocumentPrefetcher.Source source = max -> {
+            List<DocReference> refs = new ArrayList<>();
+            while (refs.size() < max && remaining.hasNext()) {
+                CreateNlpBatchesFromIndex.BatchDocument doc = remaining.next();
+                refs.add(new DocReference(doc.id(), doc.rootDocument()));
+            }
+            return refs;
+        };
+        try (DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, project, EXCLUDED_SOURCES, prefetchSize, prefetchMaxBytes, source).start()) {
+            PipelineWorkers.run("batch-ner", pipeline, parallelism, workerPipeline -> inWorker(workerPipeline, language, () -> {
+                DocumentPrefetcher.Prefetched prefetched;
+                while ((prefetched = prefetcher.take()) != null) {
+                    if (prefetched.document() == null) {
+                        logger.warn("document <{}> could not be retrieved from index {}, skipping", prefetched.ref().id(), project);
+                    } else {
+                        process(sink, workerPipeline, project, prefetched.document());
+                    }
+                    prefetcher.done(prefetched);
+                    reportProgress(nProcessed.incrementAndGet(), updateRate);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Runs a worker loop. The pipeline of the task is initialized by {@link #call()}, the pipelines of the
+     * other workers are initialized and terminated here.
+     */
+    private long inWorker(Pipeline workerPipeline, Language language, WorkerLoop loop) throws Exception {
+        boolean ownPipeline = workerPipeline != pipeline;
+        if (ownPipeline) {
+            workerPipeline.initialize(language);
+        }
+        try {
+            loop.run();
+        } finally {
+            if (ownPipeline) {
+                workerPipeline.terminate(language);
+            }
+        }
+        return 0;
+    }
+
+    private interface WorkerLoop {
+        void run() throws Exception;
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("batch NER cancelled");
+        }
+    }
+
+    private void process(NamedEntitySink sink, Pipeline pipeline, String project, Document indexDoc) throws IOException, InterruptedException {
+        if (indexDoc.getContentTextLength() < this.maxLength) {
+            List<NamedEntity> namedEntities = pipeline.process(indexDoc);
+            sink.add(project, pipeline.getType(), namedEntities, indexDoc);
+        } else {
+            int nbChunks = indexDoc.getContentTextLength() / this.maxLength + 1;
+            for (int chunkIndex = 0; chunkIndex < nbChunks; chunkIndex++) {
+                List<NamedEntity> namedEntities =
+                    pipeline.process(indexDoc, maxLength, chunkIndex * maxLength);
+                if (chunkIndex < nbChunks - 1) {
+                    sink.add(project, namedEntities);
+                } else {
+                    sink.add(project, pipeline.getType(), namedEntities, indexDoc);
+                }
+            }
+        }
+    }
+
+    // workers report concurrently: the callback sees one update at a time
+    private synchronized void reportProgress(int nProcessed, int updateRate) {
+        if (nProcessed % updateRate == 0) {
+            Double prog = (double) nProcessed / (double) this.docs.size();
+            Optional.ofNullable(this.progress).ifPresent(p -> p.apply(prog));
+        }
+    }
+
     @Override
     public void cancel(boolean requeue) {
         ofNullable(taskThread).ifPresent(Thread::interrupt);
@@ -0,0 +1,89 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.batch.BatchSearchRepository;
+import org.icij.datashare.text.Document;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Saves the results of a batch search from a thread of its own, for the searches not to wait for the
+ * database. Pages are saved in the order they are given, so the pages of a query keep their order.
+ * At most {@code capacity} pages wait to be saved: giving one more blocks until a page is saved.
+ * <p>
+ * A failure of the repository is thrown by the next call to {@link #save} or by {@link #close}.
+ */
+class BatchSearchResultWriter implements AutoCloseable {
+    private static final Page END = new Page(null, null);
+
+    private final BatchSearchRepository repository;
+    private final String batchSearchId;
+    private final BlockingQueue<Page> pages;
+    private final Thread thread;
+    private volatile RuntimeException failure;
+    private volatile boolean discarded;
+
+    private record Page(String query, List<Document> documents) {}
+
+    BatchSearchResultWriter(BatchSearchRepository repository, String batchSearchId, int capacity) {
+        this.repository = repository;
+        this.batchSearchId = batchSearchId;
+        this.pages = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "batch-search-writer-" + batchSearchId);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void save(String query, List<Document> documents) throws InterruptedException {
+        put(new Page(query, documents));
+    }
+
+    /** Waits for the pages given to be saved. */
+    @Override
+    public void close() throws InterruptedException {
+        if (thread.isAlive()) {
+            put(END);
+            thread.join();
+        }
+        throwFailure();
+    }
+
+    /** Drops the pages that are not saved yet, and waits for the page being saved if any. */
+    void discard() throws InterruptedException {
+        discarded = true;
+        while (thread.isAlive()) {
+            pages.clear();
+            pages.offer(END);
+            thread.join(100);
+        }
+    }
+
+    private void put(Page page) throws InterruptedException {
+        // the writer does not take pages anymore once it has failed: do not wait for room forever
+        do {
+            throwFailure();
+        } while (!pages.offer(page, 100, MILLISECONDS));
+    }
+
+    private void throwFailure() {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void run() {
+        try {
+            for (Page page = pages.take(); page != END && !discarded; page = pages.take()) {
+                repository.saveResults(batchSearchId, page.query(), page.documents());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure = e;
+            pages.clear();
+        }
+    }
+}
@@ -24,20 +24,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
+import static java.lang.Integer.max;
 import static java.lang.Integer.min;
 import static java.lang.Integer.parseInt;
+import static java.util.Collections.nCopies;
 import static java.util.stream.Collectors.toList;
 import static org.icij.datashare.cli.DatashareCliOptions.*;
 import static org.icij.datashare.text.ProjectProxy.asCommaConcatNames;
 
 @TemporalSingleActivityWorkflow(name = "batch-search", activityOptions = @ActivityOpts(timeout = "P7D"))
 @TaskGroup(TaskGroupType.Java)
+@IoBound
 public class BatchSearchRunner implements CancellableTask, UserTask, Callable<BatchSearchRunnerResult> {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -50,6 +62,11 @@ public class BatchSearchRunner implements CancellableTask, UserTask, Callable<Ba
      */
     static final int MAX_SCROLL_SIZE = 3500;
     static final int MAX_BATCH_RESULT_SIZE = 60000;
+    // hits of a query in a multi search: a query with more is scrolled from the start, so a multi search of
+    // large queries does not carry full scroll pages that are then thrown away
+    static final int MULTI_SEARCH_PAGE_SIZE = 100;
+    // pages of results waiting to be saved by the writer before the searches wait for it
+    static final int WRITE_BEHIND_PAGES = 16;
 
     private final Indexer indexer;
     private final PropertiesProvider propertiesProvider;
@@ -80,9 +97,6 @@ public class BatchSearchRunner implements CancellableTask, UserTask, Callable<Ba
 
     @Override
     public BatchSearchRunnerResult call() throws Exception {
-        int numberOfResults = 0;
-        int totalProcessed = 0;
-
         int throttleMs = parseInt(propertiesProvider.get(BATCH_THROTTLE_OPT).orElse(DEFAULT_BATCH_THROTTLE));
         int maxTimeSeconds = parseInt(propertiesProvider.get(BATCH_SEARCH_MAX_TIME_OPT).orElse(DEFAULT_BATCH_SEARCH_MAX_TIME));
         String scrollDuration = propertiesProvider.get(BATCH_SEARCH_SCROLL_DURATION_OPT).orElse(DEFAULT_SCROLL_DURATION);
@@ -90,6 +104,10 @@ public class BatchSearchRunner implements CancellableTask, UserTask, Callable<Ba
                 .orElse(propertiesProvider.get(SCROLL_SIZE_OPT)
                 .orElse(String.valueOf(DEFAULT_SCROLL_SIZE))));
         int scrollSize = min(scrollSizeFromParams, MAX_SCROLL_SIZE);
+        int multiSearchSize = max(1, parseInt(propertiesProvider.get(BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT)
+                .orElse(String.valueOf(DEFAULT_BATCH_SEARCH_MULTI_SEARCH_SIZE))));
+        int parallelism = max(1, parseInt(propertiesProvider.get(BATCH_SEARCH_PARALLELISM_OPT)
+                .orElse(String.valueOf(DEFAULT_BATCH_SEARCH_PARALLELISM))));
         callThread = Thread.currentThread();
         callWaiterLatch.countDown(); // for tests
         BatchSearch batchSearch = repository.get(taskView.getUser(), taskView.id);
@@ -98,62 +116,91 @@ public class BatchSearchRunner implements CancellableTask, UserTask, Callable<Ba
             return new BatchSearchRunnerResult(0, 0);
         }
 
+        Run run = new Run(batchSearch, scrollDuration, scrollSize, throttleMs, maxTimeSeconds);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService scrollers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-search-scroll-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         String query = null;
         try {
-            logger.info("running {} queries for batch search {} on projects {} with throttle {}ms and scroll size of {}",
+            logger.info("running {} queries for batch search {} on projects {} with throttle {}ms, scroll size of {}, " +
+                            "{} queries per multi search and {} scroll threads",
                     batchSearch.queries.size(), batchSearch.uuid, asCommaConcatNames(batchSearch.projects)
-                    , throttleMs, scrollSize);
+                    , throttleMs, scrollSize, multiSearchSize, parallelism);
             repository.setState(batchSearch.uuid, BatchSearchRecord.State.RUNNING);
-            for (String s : batchSearch.queries.keySet()) {
-                query = s;
-                Indexer.Searcher searcher;
-                List<? extends Entity> docsToProcess;
-                if (batchSearch.hasQueryTemplate()) { // for retro-compatibility should be removed at some point to keep only bodyTemplate
-                    searcher = indexer.search(batchSearch.projects.stream().map(ProjectProxy::getId).collect(toList()), Document.class, batchSearch.queryTemplate)
-                            .with(batchSearch.fuzziness, batchSearch.phraseMatches).withoutSource("content").limit(scrollSize);
-                    docsToProcess = searcher.scroll(scrollDuration, query).collect(toList());
-                } else {
-                    searcher = indexer.search(batchSearch.projects.stream().map(ProjectProxy::getId).collect(toList()), Document.class, new SearchQuery(query));
-                    ((Indexer.QueryBuilderSearcher) searcher).withFieldValues("contentType", batchSearch.fileTypes.toArray(new String[]{}))
-                            .withPrefixQuery("path", batchSearch.paths.toArray(new String[]{}))
-                            .with(batchSearch.fuzziness, batchSearch.phraseMatches)
-                            .withoutSource("content").limit(scrollSize);
-                    docsToProcess = searcher.scroll(scrollDuration).collect(toList());
+            List<String> queries = new ArrayList<>(batchSearch.queries.keySet());
+            Map<String, Future<Void>> scrolls = new LinkedHashMap<>();
+            for (int from = 0; from < queries.size(); from += multiSearchSize) {
+                run.cancelIfAsked();
+                // a scroll that failed stops the batch search at once, not after every multi search has run
+                for (Iterator<Map.Entry<String, Future<Void>>> it = scrolls.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<String, Future<Void>> scroll = it.next();
+                    if (scroll.getValue().isDone()) {
+                        query = scroll.getKey();
+                        join(scroll.getValue());
+                        it.remove();
+                    }
                 }
-
-                long beforeScrollLoop = DatashareTime.getInstance().currentTimeMillis();
-                while (!docsToProcess.isEmpty() && numberOfResults < MAX_BATCH_RESULT_SIZE - MAX_SCROLL_SIZE) {
-                    if (cancelAsked) {
-                        logger.info("cancelling batch search {} requeue={}", batchSearch.uuid, requeueCancel);
-                        repository.reset(batchSearch.uuid);
-                        throw new CancelException(requeueCancel);
+                List<String> group = queries.subList(from, min(from + multiSearchSize, queries.size()));
+                query = group.get(0);
+                List<List<? extends Entity>> pages;
+                try {
+                    pages = run.firstPages(group);
+                } catch (ElasticsearchException | JsonException ex) {
+                    if (group.size() > 1) {
+                        query = isQueryError(ex) ? failedQuery(run, group) : null;
                     }
-                    repository.saveResults(batchSearch.uuid, query, (List<Document>) docsToProcess);
-                    if (DatashareTime.getInstance().currentTimeMillis() - beforeScrollLoop < maxTimeSeconds * 1000L) {
-                        DatashareTime.getInstance().sleep(throttleMs);
+                    throw ex;
+                }
+                int saved = 0;
+                for (int i = 0; i < group.size(); i++) {
+                    String groupQuery = group.get(i);
+                    List<? extends Entity> page = pages.get(i);
+                    if (page.size() >= run.firstPageSize) {
+                        // a full page: there may be more hits, that are scrolled from the start by a scroll thread
+                        scrolls.put(groupQuery, scrollers.submit(() -> run.scroll(groupQuery)));
                     } else {
-                        throw new SearchException(query, new TimeoutException("Batch timed out after " + maxTimeSeconds + "s"));
+                        if (!page.isEmpty() && run.reserve(page.size())) {
+                            run.writer.save(groupQuery, (List<Document>) page);
+                            saved += page.size();
+                        }
+                        run.queryDone();
                     }
-                    numberOfResults += docsToProcess.size();
-                    docsToProcess = searcher.scroll(scrollDuration).collect(toList());
                 }
-                searcher.clearScroll();
-                totalProcessed += 1;
-                updateCallback.apply((double) totalProcessed / batchSearch.queries.size());
+                if (saved > 0) {
+                    DatashareTime.getInstance().sleep(throttleMs);
+                }
+            }
+            for (Map.Entry<String, Future<Void>> scroll : scrolls.entrySet()) {
+                query = scroll.getKey();
+                join(scroll.getValue());
             }
+            run.cancelIfAsked();
+            run.writer.close();
             repository.setState(batchSearch.uuid, BatchSearchRecord.State.SUCCESS);
             logger.info("done batch search {} with success", batchSearch.uuid);
+        } catch (SearchException ex) {
+            // a scroll that timed out
+            saveGivenResults(run, scrollers);
+            throw ex;
         } catch (ElasticsearchException esEx) {
+            saveGivenResults(run, scrollers);
             logger.error("ES exception while running batch " + taskView.id, esEx);
             SearchException searchException = new SearchException(query,
                     ElasticSearchAdapterException.createFrom(esEx));
             repository.setState(taskView.id, searchException);
             throw searchException;
         } catch (IOException | InterruptedException | JsonException ex) {
+            saveGivenResults(run, scrollers);
             logger.error("exception while running batch " + taskView.id, ex);
             SearchException searchException = new SearchException(query, ex);
             repository.setState(taskView.id, searchException);
             throw searchException;
+        } finally {
+            scrollers.shutdownNow();
+            run.writer.discard();
         }
         // NB_QUERIES_WITHOUT_RESULTS is maintained incrementally in DB by saveResults (decremented on
         // the first scroll that persists results for a query), so it is the source of truth. Reload the
@@ -161,9 +208,150 @@ public class BatchSearchRunner implements CancellableTask, UserTask, Callable<Ba
         BatchSearch persisted = repository.get(taskView.getUser(), taskView.id);
         if (persisted == null) {
             logger.warn("batch search {} disappeared before reloading final counters, reporting last known nbQueriesWithoutResults", taskView.id);
-            return new BatchSearchRunnerResult(numberOfResults, batchSearch.nbQueriesWithoutResults);
+            return new BatchSearchRunnerResult(run.numberOfResults.get(), batchSearch.nbQueriesWithoutResults);
+        }
+        return new BatchSearchRunnerResult(run.numberOfResults.get(), persisted.nbQueriesWithoutResults);
+    }
+
+    private static void join(Future<Void> scroll) throws Exception {
+        try {
+            scroll.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) ex.getCause();
+        }
+    }
+
+    /**
+     * Stops the scrolls and saves the pages already given to the writer, for the results found before an error
+     * to be kept as they were when each query saved its own pages.
+     */
+    private void saveGivenResults(Run run, ExecutorService scrollers) {
+        scrollers.shutdownNow();
+        try {
+            run.writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("interrupted while saving the results of batch search {}", taskView.id);
+        } catch (RuntimeException e) {
+            logger.error("cannot save the results of batch search {}", taskView.id, e);
+        }
+    }
+
+    /**
+     * Runs the queries of a group one by one, for the error of the group to be reported with the query that
+     * failed. Returns null when none of them fails on its own.
+     */
+    private static String failedQuery(Run run, List<String> group) throws IOException {
+        for (String single : group) {
+            try {
+                run.firstPages(List.of(single));
+            } catch (ElasticsearchException | JsonException ex) {
+                return single;
+            }
+        }
+        return null;
+    }
+
+    // a query that cannot be parsed or run: the other errors (request too large, cluster unavailable) are
+    // about the whole group, that running its queries again would not tell anything about
+    private static boolean isQueryError(RuntimeException ex) {
+        return ex instanceof JsonException || ((ElasticsearchException) ex).status() == 400;
+    }
+
+    /**
+     * The state of a batch search shared by the thread running the multi searches and the threads
+     * scrolling the queries with more hits than a page.
+     */
+    private class Run {
+        private final BatchSearch batchSearch;
+        private final String scrollDuration;
+        private final int scrollSize;
+        private final int firstPageSize;
+        private final int throttleMs;
+        private final int maxTimeSeconds;
+        private final BatchSearchResultWriter writer;
+        private final AtomicInteger numberOfResults = new AtomicInteger();
+        private final AtomicInteger totalProcessed = new AtomicInteger();
+
+        Run(BatchSearch batchSearch, String scrollDuration, int scrollSize, int throttleMs, int maxTimeSeconds) {
+            this.batchSearch = batchSearch;
+            this.scrollDuration = scrollDuration;
+            this.scrollSize = scrollSize;
+            this.firstPageSize = min(scrollSize, MULTI_SEARCH_PAGE_SIZE);
+            this.throttleMs = throttleMs;
+            this.maxTimeSeconds = maxTimeSeconds;
+            this.writer = new BatchSearchResultWriter(repository, batchSearch.uuid, WRITE_BEHIND_PAGES);
+        }
+
+        List<List<? extends Entity>> firstPages(List<String> queries) throws IOException {
+            List<Indexer.Searcher> searchers = new ArrayList<>();
+            for (String query : queries) {
+                searchers.add(searcher(query).limit(firstPageSize));
+            }
+            List<String> stringQueries = batchSearch.hasQueryTemplate() ? queries : nCopies(queries.size(), null);
+            return indexer.multiSearch(searchers, stringQueries).stream()
+                    .<List<? extends Entity>>map(page -> page.collect(toList())).collect(toList());
+        }
+
+        Void scroll(String query) throws IOException, InterruptedException {
+            Indexer.Searcher searcher = searcher(query);
+            List<? extends Entity> docsToProcess = batchSearch.hasQueryTemplate() ?
+                    searcher.scroll(scrollDuration, query).collect(toList()) :
+                    searcher.scroll(scrollDuration).collect(toList());
+            long beforeScrollLoop = DatashareTime.getInstance().currentTimeMillis();
+            while (!docsToProcess.isEmpty() && !cancelAsked && reserve(docsToProcess.size())) {
+                writer.save(query, (List<Document>) docsToProcess);
+                if (DatashareTime.getInstance().currentTimeMillis() - beforeScrollLoop < maxTimeSeconds * 1000L) {
+                    DatashareTime.getInstance().sleep(throttleMs);
+                } else {
+                    throw new SearchException(query, new TimeoutException("Batch timed out after " + maxTimeSeconds + "s"));
+                }
+                docsToProcess = searcher.scroll(scrollDuration).collect(toList());
+            }
+            searcher.clearScroll();
+            if (!cancelAsked) {
+                queryDone();
+            }
+            return null;
+        }
+
+        private Indexer.Searcher searcher(String query) {
+            List<String> indices = batchSearch.projects.stream().map(ProjectProxy::getId).collect(toList());
+            if (batchSearch.hasQueryTemplate()) { // for retro-compatibility should be removed at some point to keep only bodyTemplate
+                return indexer.search(indices, Document.class, batchSearch.queryTemplate)
+                        .with(batchSearch.fuzziness, batchSearch.phraseMatches).withoutSource("content").limit(scrollSize);
+            }
+            Indexer.Searcher searcher = indexer.search(indices, Document.class, new SearchQuery(query));
+            ((Indexer.QueryBuilderSearcher) searcher).withFieldValues("contentType", batchSearch.fileTypes.toArray(new String[]{}))
+                    .withPrefixQuery("path", batchSearch.paths.toArray(new String[]{}))
+                    .with(batchSearch.fuzziness, batchSearch.phraseMatches)
+                    .withoutSource("content").limit(scrollSize);
+            return searcher;
+        }
+
+        // the results of a page count as soon as it is given to the writer, for the cap to hold across threads:
+        // pages are at most MAX_SCROLL_SIZE so the total stays under MAX_BATCH_RESULT_SIZE
+        boolean reserve(int results) {
+            int limit = MAX_BATCH_RESULT_SIZE - MAX_SCROLL_SIZE;
+            return numberOfResults.getAndUpdate(n -> n < limit ? n + results : n) < limit;
+        }
+
+        void queryDone() {
+            updateCallback.apply((double) totalProcessed.incrementAndGet() / batchSearch.queries.size());
+        }
+
+        void cancelIfAsked() throws InterruptedException {
+            if (cancelAsked) {
+                logger.info("cancelling batch search {} requeue={}", batchSearch.uuid, requeueCancel);
+                // nothing must be saved once the results are reset
+                writer.discard();
+                repository.reset(batchSearch.uuid);
+                throw new CancelException(requeueCancel);
+            }
         }
-        return new BatchSearchRunnerResult(numberOfResults, persisted.nbQueriesWithoutResults);
     }
 
     @Override
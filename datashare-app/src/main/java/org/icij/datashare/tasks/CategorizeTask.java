@@ -2,8 +2,10 @@ package org.icij.datashare.tasks;
 
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
+import org.icij.datashare.PipelineHelper;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.Stage;
+import org.icij.datashare.asynctasks.IoBound;
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.asynctasks.TaskGroup;
 import org.icij.datashare.asynctasks.TaskGroupType;
@@ -17,15 +19,23 @@ import org.icij.datashare.text.Document;
 import org.icij.datashare.text.DocumentBuilder;
 import org.icij.datashare.text.Project;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.task.annotation.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static java.util.Optional.ofNullable;
 import static org.icij.datashare.PropertiesProvider.DEFAULT_PROJECT_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.CATEGORIZE_REQUESTS_PER_SECOND_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.CATEGORIZE_SERVER_SIDE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.CATEGORIZE_SLICES_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_DEFAULT_PROJECT;
 
 /**
@@ -34,26 +44,42 @@ import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_DEFAULT_PROJECT
  * based on their contentTypeCategory exists, or if the field value needs to be computed again from contentType.
  * It runs after {@link Stage#ENQUEUEIDX} to read the content already in the index.
  * If contentType field on the document is not found or empty, contentTypeCategory will be set to {@link ContentTypeCategory#OTHER}
+ * With categorizeServerSide, Elasticsearch updates every document of the project with one update by query per
+ * category, without the documents going through datashare.
  */
 @TemporalSingleActivityWorkflow(name = "categorize", activityOptions = @ActivityOpts(timeout = "PT10M"))
+@Option(name = CATEGORIZE_SERVER_SIDE_OPT, description = "categorize every document of the project with update by queries instead of one update per queued document")
+@Option(name = CATEGORIZE_SLICES_OPT, description = "number of slices of the server-side update by queries (unset: one per shard)")
+@Option(name = CATEGORIZE_REQUESTS_PER_SECOND_OPT, description = "throttle of the server-side update by queries in documents per second (unset: no throttle)")
 @TaskGroup(TaskGroupType.Java)
+@IoBound
 public class CategorizeTask extends PipelineTask<String> implements Monitorable {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final AtomicInteger processed = new AtomicInteger(0);
     private final Function<Double, Void> progressCallback;
     private final Indexer indexer;
     private final Project project;
+    private final boolean serverSide;
+    private final int slices;
+    private final float requestsPerSecond;
+
     @Inject
     public CategorizeTask(final Indexer indexer, final DocumentCollectionFactory<String> factory, final UpstreamGate.Factory gateFactory, @Assisted Task<Long> taskView, @Assisted final Function<Double, Void> progressCallback) {
         super(Stage.CATEGORIZE, taskView.getUser(), factory, new PropertiesProvider(taskView.args), String.class, gateFactory.forTask(taskView));
         this.progressCallback = progressCallback;
         this.indexer = indexer;
         project = Project.project(ofNullable((String)taskView.args.get(DEFAULT_PROJECT_OPT)).orElse(DEFAULT_DEFAULT_PROJECT));
+        serverSide = propertiesProvider.get(CATEGORIZE_SERVER_SIDE_OPT).map(Boolean::parseBoolean).orElse(false);
+        slices = propertiesProvider.get(CATEGORIZE_SLICES_OPT).map(Integer::parseInt).orElse(0);
+        requestsPerSecond = propertiesProvider.get(CATEGORIZE_REQUESTS_PER_SECOND_OPT).map(Float::parseFloat).orElse(-1f);
     }
 
     @Override
     public Long call() throws Exception {
         super.call();
+        if (serverSide) {
+            return categorizeServerSide();
+        }
         logger.info("enriching {} docs from inputQueue {} and adding them in {}", inputQueue.size(), inputQueue.getName(), outputQueue.getName());
         long nbMessages = 0;
 
@@ -109,6 +135,75 @@ public class CategorizeTask extends PipelineTask<String> implements Monitorable
         return nbMessages;
     }
 
+    /**
+     * Categorizes every document of the project with one update by query per category, for all the content
+     * types of that category found in the index, instead of fetching and updating the queued documents one by
+     * one. The input queue is drained first, its references forwarded as they come, so that the update by
+     * queries see the documents written by the stages running before this one. Returns the number of updated
+     * documents.
+     */
+    private long categorizeServerSide() throws Exception {
+        Map<ContentTypeCategory, List<String>> contentTypesByCategory = new EnumMap<>(ContentTypeCategory.class);
+        // documents without content type are OTHER even if no content type of the index is
+        contentTypesByCategory.put(ContentTypeCategory.OTHER, new ArrayList<>());
+        long updated = 0;
+        try {
+            PipelineHelper pipelineHelper = new PipelineHelper(propertiesProvider);
+            // without a list of stages, the references are forwarded as by the document by document categorization
+            long forwarded = drainInputQueue(pipelineHelper.stages.isEmpty() || pipelineHelper.hasNextStage(stage));
+            logger.info("drained {} references from {}", forwarded, inputQueue.getName());
+            if (Thread.interrupted()) {
+                throw new InterruptedException("cancelled while draining " + inputQueue.getName());
+            }
+            for (String contentType : indexer.getContentTypes(project.getName())) {
+                contentTypesByCategory.computeIfAbsent(ContentTypeCategory.fromContentType(contentType), c -> new ArrayList<>()).add(contentType);
+            }
+            logger.info("categorizing documents of {} server-side for {} categories", project, contentTypesByCategory.size());
+            // the first step is the drain of the input queue
+            int done = 1;
+            progressCallback.apply((double) done / (contentTypesByCategory.size() + 1));
+            for (Map.Entry<ContentTypeCategory, List<String>> categoryTypes : contentTypesByCategory.entrySet()) {
+                long categoryUpdated = indexer.setContentTypeCategory(project.getName(), categoryTypes.getKey(), categoryTypes.getValue(), slices, requestsPerSecond);
+                logger.info("{} documents of {} set to {}", categoryUpdated, project, categoryTypes.getKey());
+                updated += categoryUpdated;
+                progressCallback.apply((double) ++done / (contentTypesByCategory.size() + 1));
+            }
+            logger.info("categorized {} documents of {}", updated, project);
+        } catch (RuntimeException e) {
+            if (!causedByInterrupt(e)) {
+                throw e;
+            }
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException("cancelled while categorizing " + project);
+        }
+        progressCallback.apply(1.0);
+        return updated;
+    }
+
+    private long drainInputQueue(boolean forward) throws InterruptedException {
+        long nbMessages = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            String queueEntry = inputQueue.poll();
+            if (queueEntry == null) {
+                if (drained()) {
+                    break;
+                }
+                Thread.sleep(UPSTREAM_POLL_INTERVAL_MS);
+                continue;
+            }
+            if (isLegacySentinel(queueEntry)) {
+                continue;
+            }
+            if (forward && !outputQueue.offer(queueEntry)) {
+                logger.warn("unable to offer {} to queue {}", queueEntry, outputQueue.getName());
+            }
+            nbMessages++;
+        }
+        return nbMessages;
+    }
+
     @Override
     public double getProgressRate() {
         int done = processed.get();
@@ -12,6 +12,13 @@ import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_SCROLL_SIZE;
 import static org.icij.datashare.cli.DatashareCliOptions.NLP_BATCH_SIZE_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.NLP_MAX_TEXT_LENGTH_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.NLP_PIPELINE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_CONCURRENCY_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_FLUSH_INTERVAL_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_SIZE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PARALLELISM_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PREFETCH_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PREFETCH_SIZE_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_DURATION_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_SIZE_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.SEARCH_QUERY_OPT;
@@ -82,7 +89,7 @@ public class CreateNlpBatchesFromIndex extends DefaultTask<List<String>> impleme
         this.taskManager = taskManager;
         this.indexer = indexer;
         this.nlpPipeline = Pipeline.Type.parse((String) taskView.args.getOrDefault(NLP_PIPELINE_OPT, Pipeline.Type.CORENLP.name()));
-        this.batchTaskArgs = batchTaskArgs();
+        this.batchTaskArgs = batchTaskArgs(taskView.args);
         this.batchSize = (int) taskView.args.getOrDefault(NLP_BATCH_SIZE_OPT, DEFAULT_NLP_BATCH_SIZE);
         this.maxTextLength = (int) taskView.args.getOrDefault(NLP_MAX_TEXT_LENGTH_OPT, DEFAULT_NLP_MAX_TEXT_LENGTH);
         this.projectName = (String) taskView.args.getOrDefault(DEFAULT_PROJECT_OPT, DEFAULT_DEFAULT_PROJECT);
@@ -188,12 +195,16 @@ public class CreateNlpBatchesFromIndex extends DefaultTask<List<String>> impleme
         return user;
     }
 
-    private Map<String, Object> batchTaskArgs() {
+    private Map<String, Object> batchTaskArgs(Map<String, Object> taskArgs) {
         Map<String, Object> args = new HashMap<>(Map.of(
             "pipeline", this.nlpPipeline.name(),
             "maxLength", this.maxTextLength
         ));
         args.putAll(pipelineExtras(this.nlpPipeline));
+        for (String workerOpt : List.of(NLP_PARALLELISM_OPT, NLP_PREFETCH_SIZE_OPT, NLP_PREFETCH_MAX_BYTES_OPT,
+                NLP_BULK_SIZE_OPT, NLP_BULK_MAX_BYTES_OPT, NLP_BULK_FLUSH_INTERVAL_OPT, NLP_BULK_CONCURRENCY_OPT)) {
+            ofNullable(taskArgs.get(workerOpt)).ifPresent(value -> args.put(workerOpt, value));
+        }
         return args;
     }
 
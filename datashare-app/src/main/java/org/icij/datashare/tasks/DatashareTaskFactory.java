@@ -21,6 +21,7 @@ public interface DatashareTaskFactory extends org.icij.datashare.asynctasks.Task
     BatchNlpTask createBatchNlpTask(Task<Long> taskView, Function<Double, Void> updateCallback);
     DeduplicateTask createDeduplicateTask(Task<Long> taskView, Function<Double, Void> updateCallback);
     ArtifactTask createArtifactTask(Task<Long> taskView, Function<Double, Void> updateCallback);
+    HideNamedEntitiesTask createHideNamedEntitiesTask(Task<Long> taskView, Function<Double, Void> updateCallback);
 
     GenApiKeyTask createGenApiKey(User user);
     DelApiKeyTask createDelApiKey(User user);
@@ -12,19 +12,24 @@ import org.icij.datashare.asynctasks.temporal.ActivityOpts;
 import org.icij.datashare.asynctasks.temporal.TemporalSingleActivityWorkflow;
 import org.icij.datashare.extract.DocumentCollectionFactory;
 import org.icij.extract.queue.DocumentQueue;
+import org.icij.task.annotation.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static org.icij.datashare.cli.DatashareCliOptions.DEDUPLICATE_STATE_DIR_OPT;
+
 /**
- * filters the document queue with extracted docs
+ * filters the document queue with extracted docs.
+ * With deduplicateStateDir, the paths already seen are kept on disk rather than in memory, see {@link DiskSeenPaths}.
  */
 @TemporalSingleActivityWorkflow(name = "deduplicate-documents", activityOptions = @ActivityOpts(timeout = "P1D"))
+@Option(name = DEDUPLICATE_STATE_DIR_OPT, description = "directory where the paths already seen are kept and saved to resume with them (unset: in memory)")
 @TaskGroup(TaskGroupType.Java)
 public class DeduplicateTask extends PipelineTask<Path> {
     private final Logger logger = LoggerFactory.getLogger(getClass());
@@ -39,9 +44,22 @@ public class DeduplicateTask extends PipelineTask<Path> {
     @Override
     public Long call() throws Exception {
         super.call();
-        Set<Path> seen = new HashSet<>();
-        // dedup per entry, not in one upfront pass: SCAN keeps enqueueing while this drain runs
-        long duplicates = transferToOutputQueue(seen::add);
+        long duplicates;
+        try (SeenPaths seen = SeenPaths.of(propertiesProvider, inputQueue.getName())) {
+            // dedup per entry, not in one upfront pass: SCAN keeps enqueueing while this drain runs
+            duplicates = transferToOutputQueue(path -> {
+                try {
+                    return seen.add(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            // Drained: the next run starts from nothing, as it always has. Only a cancelled or failed run
+            // leaves its paths on disk, for the run that resumes it.
+            seen.clear();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
         logger.info("removed {} duplicate paths in inputQueue {}", duplicates, inputQueue.getName());
         return duplicates;
     }
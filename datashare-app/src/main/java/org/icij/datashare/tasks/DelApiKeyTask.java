@@ -7,6 +7,7 @@ import com.google.inject.assistedinject.Assisted;
 import org.icij.datashare.asynctasks.TaskGroup;
 import org.icij.datashare.asynctasks.temporal.ActivityOpts;
 import org.icij.datashare.asynctasks.temporal.TemporalSingleActivityWorkflow;
+import org.icij.datashare.session.ApiKeyCache;
 import org.icij.datashare.user.ApiKeyRepository;
 import org.icij.datashare.user.User;
 import org.icij.datashare.user.UserTask;
@@ -19,11 +20,13 @@ import org.slf4j.LoggerFactory;
 public class DelApiKeyTask extends DefaultTask<Boolean> implements UserTask {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyCache apiKeyCache;
     private final User user;
 
     @Inject
-    public DelApiKeyTask(ApiKeyRepository apiKeyRepository,@Assisted User user) {
+    public DelApiKeyTask(ApiKeyRepository apiKeyRepository, ApiKeyCache apiKeyCache, @Assisted User user) {
         this.apiKeyRepository = apiKeyRepository;
+        this.apiKeyCache = apiKeyCache;
         this.user = user;
     }
 
@@ -31,6 +34,7 @@ public class DelApiKeyTask extends DefaultTask<Boolean> implements UserTask {
     @Override
     public Boolean call() throws Exception {
         Boolean result = apiKeyRepository.delete(user);
+        apiKeyCache.invalidate(user.id);
         if (result) {
             logger.info("key for user {} has been deleted", user.id);
         } else {
@@ -0,0 +1,396 @@
+package org.icij.datashare.tasks;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.PrimitiveSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The seen paths of a deduplication in a directory, for scans of a hundred million files whose paths
+ * would cost tens of gigabytes of heap in a {@code HashSet<Path>}, and be lost with the worker.
+ * <p>
+ * A path is kept as the 128 bits of its murmur3 hash. The hashes added since the last snapshot are in a
+ * bounded buffer; a snapshot writes them sorted to a new run file, and when there are more than
+ * {@link #MAX_RUNS} runs they are merged into one. Runs are memory-mapped and searched by bisection, so
+ * they take page cache rather than heap. In front of them a Bloom filter per doubling of the set, each
+ * with a lower false positive rate than the previous one, answers the common case of a new path without
+ * touching the runs: about 1.5MB of heap per million paths, against some 200MB for the paths themselves.
+ * <p>
+ * A snapshot is taken when the buffer is full and at least every {@code snapshotIntervalMs} while paths
+ * are added: a deduplication run again after a crash opens the runs of the previous one, rebuilds the
+ * filters from them and only lets through again what was added after the last snapshot. Two paths with
+ * the same hash would make the second one a duplicate; at 128 bits it takes about 10^19 paths for that
+ * to be likely. Not thread safe, like the set it replaces.
+ */
+class DiskSeenPaths implements SeenPaths {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskSeenPaths.class);
+    static final int DEFAULT_BUFFER_SIZE = 1 << 18;
+    static final long DEFAULT_SNAPSHOT_INTERVAL_MS = 30_000;
+    static final int MAX_RUNS = 16;
+    private static final long FIRST_FILTER_CAPACITY = 1 << 20;
+    private static final double FIRST_FILTER_FALSE_POSITIVE_RATE = 0.01;
+    // each filter's rate is this times the previous one's: their sum stays under 5% however many filters
+    private static final double FALSE_POSITIVE_RATE_RATIO = 0.8;
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final Path dir;
+    private final int bufferSize;
+    private final long snapshotIntervalMs;
+    private final Set<Key> buffer = new HashSet<>();
+    private final List<Run> runs = new ArrayList<>();
+    private final List<BloomFilter<Key>> filters = new ArrayList<>();
+    private long inLastFilter;
+    private long nextRun;
+    private long lastSnapshot;
+
+    DiskSeenPaths(Path dir) throws IOException {
+        this(dir, DEFAULT_BUFFER_SIZE, DEFAULT_SNAPSHOT_INTERVAL_MS);
+    }
+
+    DiskSeenPaths(Path dir, int bufferSize, long snapshotIntervalMs) throws IOException {
+        this.dir = dir;
+        this.bufferSize = bufferSize;
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                // a snapshot or a merge cut short: what it held is still in the runs it was made from, or lost with the buffer
+                Files.delete(file);
+            } else if (Run.isRun(name)) {
+                Run run = Run.open(file);
+                runs.add(run);
+                run.iterator().forEachRemaining(this::putInFilter);
+                nextRun = Math.max(nextRun, Run.sequenceOf(name) + 1);
+            }
+        }
+        if (!runs.isEmpty()) {
+            LOGGER.info("resuming with {} seen paths from {} runs in {}", runs.stream().mapToLong(Run::size).sum(), runs.size(), dir);
+        }
+        lastSnapshot = System.currentTimeMillis();
+    }
+
+    @Override
+    public boolean add(Path path) throws IOException {
+        Key key = Key.of(path);
+        if (mightContain(key) && contains(key)) {
+            return false;
+        }
+        buffer.add(key);
+        putInFilter(key);
+        if (buffer.size() >= bufferSize || System.currentTimeMillis() - lastSnapshot >= snapshotIntervalMs) {
+            snapshot();
+        }
+        return true;
+    }
+
+    /** Writes the paths added since the last snapshot to a new run: from then on they outlive the process. */
+    void snapshot() throws IOException {
+        lastSnapshot = System.currentTimeMillis();
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<Key> sorted = new ArrayList<>(buffer);
+        Collections.sort(sorted);
+        runs.add(Run.write(dir.resolve(Run.name(nextRun++)), sorted.iterator()));
+        buffer.clear();
+        if (runs.size() > MAX_RUNS) {
+            merge();
+        }
+    }
+
+    int runCount() {
+        return runs.size();
+    }
+
+    // The merged run is in place before the runs it replaces are deleted: a crash in between leaves both,
+    // which only costs a key found in two runs until the next merge.
+    private void merge() throws IOException {
+        Run merged = Run.write(dir.resolve(Run.name(nextRun++)), new Merge(runs));
+        for (Run run : runs) {
+            Files.deleteIfExists(run.file);
+        }
+        runs.clear();
+        runs.add(merged);
+    }
+
+    private boolean mightContain(Key key) {
+        for (BloomFilter<Key> filter : filters) {
+            if (filter.mightContain(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean contains(Key key) {
+        if (buffer.contains(key)) {
+            return true;
+        }
+        for (Run run : runs) {
+            if (run.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void putInFilter(Key key) {
+        int last = filters.size() - 1;
+        if (last < 0 || inLastFilter >= FIRST_FILTER_CAPACITY << last) {
+            last++;
+            filters.add(BloomFilter.create(KeyFunnel.INSTANCE, FIRST_FILTER_CAPACITY << last,
+                    FIRST_FILTER_FALSE_POSITIVE_RATE * Math.pow(FALSE_POSITIVE_RATE_RATIO, last)));
+            inLastFilter = 0;
+        }
+        filters.get(last).put(key);
+        inLastFilter++;
+    }
+
+    @Override
+    public void clear() throws IOException {
+        buffer.clear();
+        runs.clear();
+        filters.clear();
+        try (Stream<Path> list = Files.list(dir)) {
+            for (Path file : list.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshot();
+    }
+
+    record Key(long hi, long lo) implements Comparable<Key> {
+        static Key of(Path path) {
+            ByteBuffer hash = ByteBuffer.wrap(HASH.hashString(path.toString(), UTF_8).asBytes());
+            return new Key(hash.getLong(), hash.getLong());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int hiComparison = Long.compare(hi, other.hi);
+            return hiComparison != 0 ? hiComparison : Long.compare(lo, other.lo);
+        }
+    }
+
+    private enum KeyFunnel implements Funnel<Key> {
+        INSTANCE;
+
+        @Override
+        public void funnel(Key key, PrimitiveSink into) {
+            into.putLong(key.hi()).putLong(key.lo());
+        }
+    }
+
+    /** A file of sorted 16 bytes keys, mapped in segments since one mapping cannot exceed 2GB. */
+    private static class Run {
+        private static final int KEY_BYTES = 16;
+        private static final long SEGMENT_KEYS = 1 << 26;
+        private final Path file;
+        private final long size;
+        private final MappedByteBuffer[] segments;
+
+        private Run(Path file, long size, MappedByteBuffer[] segments) {
+            this.file = file;
+            this.size = size;
+            this.segments = segments;
+        }
+
+        static String name(long sequence) {
+            // zero padded so that listing the directory in name order lists the runs in the order they were written
+            return String.format("run-%012d.bin", sequence);
+        }
+
+        static boolean isRun(String name) {
+            return name.matches("run-\\d{12}\\.bin");
+        }
+
+        static long sequenceOf(String name) {
+            return Long.parseLong(name.substring("run-".length(), name.length() - ".bin".length()));
+        }
+
+        // Written aside then moved: a run in the directory is always whole.
+        static Run write(Path file, Iterator<Key> sortedKeys) throws IOException {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+                // not closed: closing the stream would close the channel before it is forced
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                while (sortedKeys.hasNext()) {
+                    Key key = sortedKeys.next();
+                    out.writeLong(key.hi());
+                    out.writeLong(key.lo());
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, file, ATOMIC_MOVE);
+            return open(file);
+        }
+
+        // The mappings outlive the channel, which is closed once they are made.
+        static Run open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, READ)) {
+                long bytes = channel.size() - channel.size() % KEY_BYTES;
+                long segmentBytes = SEGMENT_KEYS * KEY_BYTES;
+                MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((bytes + segmentBytes - 1) / segmentBytes)];
+                for (int i = 0; i < segments.length; i++) {
+                    long start = i * segmentBytes;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentBytes, bytes - start));
+                }
+                return new Run(file, bytes / KEY_BYTES, segments);
+            }
+        }
+
+        long size() {
+            return size;
+        }
+
+        boolean contains(Key key) {
+            long low = 0;
+            long high = size - 1;
+            while (low <= high) {
+                long middle = (low + high) >>> 1;
+                int comparison = compare(middle, key);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int compare(long index, Key key) {
+            MappedByteBuffer segment = segments[(int) (index / SEGMENT_KEYS)];
+            int offset = (int) (index % SEGMENT_KEYS) * KEY_BYTES;
+            int hiComparison = Long.compare(segment.getLong(offset), key.hi());
+            return hiComparison != 0 ? hiComparison : Long.compare(segment.getLong(offset + Long.BYTES), key.lo());
+        }
+
+        Key get(long index) {
+            MappedByteBuffer segment = segments[(int) (index / SEGMENT_KEYS)];
+            int offset = (int) (index % SEGMENT_KEYS) * KEY_BYTES;
+            return new Key(segment.getLong(offset), segment.getLong(offset + Long.BYTES));
+        }
+
+        Iterator<Key> iterator() {
+            return new Iterator<>() {
+                private long next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public Key next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(next++);
+                }
+            };
+        }
+    }
+
+    /** The keys of sorted runs in order, each once. */
+    private static class Merge implements Iterator<Key> {
+        private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparing(Cursor::current));
+        private Key last;
+
+        Merge(List<Run> runs) {
+            runs.stream().map(run -> new Cursor(run.iterator())).filter(Cursor::advance).forEach(cursors::add);
+            skipDuplicates();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Key next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = pollNext();
+            skipDuplicates();
+            return last;
+        }
+
+        private Key pollNext() {
+            Cursor cursor = cursors.poll();
+            Key key = cursor.current();
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+            return key;
+        }
+
+        // a key can be in several runs: left by a merge cut short before deleting the runs it merged
+        private void skipDuplicates() {
+            while (last != null && !cursors.isEmpty() && cursors.peek().current().equals(last)) {
+                pollNext();
+            }
+        }
+
+        private static class Cursor {
+            private final Iterator<Key> keys;
+            private Key current;
+
+            Cursor(Iterator<Key> keys) {
+                this.keys = keys;
+            }
+
+            Key current() {
+                return current;
+            }
+
+            boolean advance() {
+                current = keys.hasNext() ? keys.next() : null;
+                return current != null;
+            }
+        }
+    }
+}
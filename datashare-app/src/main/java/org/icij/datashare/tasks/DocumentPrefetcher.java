@@ -0,0 +1,175 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.text.DocReference;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import static org.icij.datashare.tasks.PipelineTask.causedByInterrupt;
+
+/**
+ * Fetches the documents of an NLP stage ahead of the pipeline, with one multi-get per batch of
+ * references, so that the pipeline does not wait for a round trip to the index between documents.
+ *
+ * <p>A single thread reads batches of references from a {@link Source}, fetches them (routed with their
+ * root document id, without the excluded source fields) and hands them over through {@link #take()}.
+ * The estimated size of the documents handed over and not yet {@link #done done} is bounded by
+ * {@code maxBytes}: the fetch thread waits for the pipeline before handing over more, so at most one
+ * batch beyond that budget is held in memory. A document larger than the whole budget is handed over
+ * alone.</p>
+ *
+ * <p>References read from the source and not yet done when the prefetcher is closed (cancellation)
+ * are returned by {@link #unprocessed()}, so that the caller can put them back where they came from.</p>
+ */
+class DocumentPrefetcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DocumentPrefetcher.class);
+    private static final Prefetched END = new Prefetched(null, null, 0);
+    private static final int BYTES_PER_PERMIT = 1024;
+
+    interface Source {
+        /**
+         * Returns at most {@code max} references, waiting while none is available yet.
+         * An empty list means that the source is exhausted.
+         */
+        List<DocReference> next(int max) throws InterruptedException;
+    }
+
+    record Prefetched(DocReference ref, Document document, int permits) {}
+
+    private final Indexer indexer;
+    private final String indexName;
+    private final List<String> sourceExcludes;
+    private final int batchSize;
+    private final int budgetPermits;
+    private final Source source;
+    private final Semaphore budget;
+    private final BlockingQueue<Prefetched> ready = new LinkedBlockingQueue<>();
+    private final Set<DocReference> outstanding = ConcurrentHashMap.newKeySet();
+    private final Thread fetcher;
+    private volatile RuntimeException failure;
+
+    DocumentPrefetcher(Indexer indexer, String indexName, List<String> sourceExcludes, int batchSize, long maxBytes, Source source) {
+        if (batchSize < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("prefetch size and bytes should be strictly positive");
+        }
+        this.indexer = indexer;
+        this.indexName = indexName;
+        this.sourceExcludes = sourceExcludes;
+        this.batchSize = batchSize;
+        this.budgetPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / BYTES_PER_PERMIT));
+        this.budget = new Semaphore(budgetPermits);
+        this.source = source;
+        this.fetcher = new Thread(this::fetchLoop, "nlp-prefetch-" + indexName);
+        this.fetcher.setDaemon(true);
+    }
+
+    DocumentPrefetcher start() {
+        logger.info("prefetching documents of {} by {} with a budget of {} bytes", indexName, batchSize, (long) budgetPermits * BYTES_PER_PERMIT);
+        fetcher.start();
+        return this;
+    }
+
+    /**
+     * Returns the next fetched document, waiting for it if needed, or null once the source is exhausted.
+     * The document of the returned reference is null if it could not be fetched.
+     */
+    Prefetched take() throws InterruptedException {
+        Prefetched prefetched = ready.take();
+        if (prefetched == END) {
+            // put it back for the other consumers
+            ready.add(END);
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+        return prefetched;
+    }
+
+    /** Releases the budget held by a document once the pipeline is done with it. */
+    void done(Prefetched prefetched) {
+        outstanding.remove(prefetched.ref());
+        budget.release(prefetched.permits());
+    }
+
+    /** References read from the source that were not done, in no particular order. */
+    List<DocReference> unprocessed() {
+        return new ArrayList<>(outstanding);
+    }
+
+    /** Stops the fetch thread and waits for it, even if the calling thread is interrupted. */
+    @Override
+    public void close() {
+        fetcher.interrupt();
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (fetcher.isAlive()) {
+                try {
+                    fetcher.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void fetchLoop() {
+        try {
+            List<DocReference> refs;
+            while (!(refs = source.next(batchSize)).isEmpty()) {
+                outstanding.addAll(refs);
+                Map<String, Document> documents = fetch(refs);
+                for (DocReference ref : refs) {
+                    Document document = documents.get(ref.id());
+                    int permits = permits(document);
+                    budget.acquire(permits);
+                    ready.add(new Prefetched(ref, document, permits));
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.info("prefetching of {} interrupted", indexName);
+        } catch (RuntimeException e) {
+            if (causedByInterrupt(e)) {
+                logger.info("prefetching of {} interrupted", indexName);
+            } else {
+                logger.error("prefetching of {} failed", indexName, e);
+                failure = e;
+            }
+        } finally {
+            ready.add(END);
+        }
+    }
+
+    private Map<String, Document> fetch(List<DocReference> refs) {
+        try {
+            return indexer.getAll(indexName, refs, sourceExcludes);
+        } catch (IOException | RuntimeException e) {
+            if (causedByInterrupt(e)) {
+                throw e instanceof RuntimeException re ? re : new IllegalStateException(e);
+            }
+            // like a failed get: the documents of the batch are skipped, the failure is logged
+            logger.error("cannot fetch {} documents from {}", refs.size(), indexName, e);
+            return Map.of();
+        }
+    }
+
+    private int permits(Document document) {
+        long bytes = document == null ? 0 : 2L * document.getContent().length();
+        return (int) Math.max(1, Math.min(budgetPermits, bytes / BYTES_PER_PERMIT));
+    }
+}
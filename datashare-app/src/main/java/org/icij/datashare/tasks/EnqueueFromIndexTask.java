@@ -8,37 +8,61 @@ import org.icij.datashare.Entity;
 import org.icij.datashare.PipelineHelper;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.Stage;
+import org.icij.datashare.asynctasks.IoBound;
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.asynctasks.TaskGroup;
 import org.icij.datashare.asynctasks.TaskGroupType;
 import org.icij.datashare.asynctasks.temporal.ActivityOpts;
 import org.icij.datashare.asynctasks.temporal.TemporalSingleActivityWorkflow;
 import org.icij.datashare.extract.DocumentCollectionFactory;
+import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.SearchCheckpoint;
 import org.icij.datashare.text.indexing.SearchQuery;
 import org.icij.datashare.text.nlp.Pipeline;
 import org.icij.extract.queue.DocumentQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static java.lang.Integer.parseInt;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.util.Collections.singletonList;
+import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 import static org.icij.datashare.PropertiesProvider.DEFAULT_PROJECT_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_DEFAULT_PROJECT;
 import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_SCROLL_DURATION;
 import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_SCROLL_SIZE;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_SCROLL_SLICES;
 import static org.icij.datashare.cli.DatashareCliOptions.NLP_PIPELINE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_CHECKPOINT_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_DURATION_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_POINT_IN_TIME_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_SIZE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_SLICES_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.SEARCH_QUERY_OPT;
+import static org.icij.datashare.text.indexing.PointInTimeQueryBuilder.createPointInTimeQuery;
+import static org.icij.datashare.text.indexing.ScrollQueryBuilder.createScrollQuery;
 
 @TemporalSingleActivityWorkflow(name = "enqueue-ner-tasks-from-index", activityOptions = @ActivityOpts(timeout = "P7D"))
 @TaskGroup(TaskGroupType.Java)
+@IoBound
 public class EnqueueFromIndexTask extends PipelineTask<String> {
     private final DocumentCollectionFactory<String> factory;
     private final String searchQuery;
@@ -48,7 +72,11 @@ public class EnqueueFromIndexTask extends PipelineTask<String> {
     private final Indexer indexer;
     private final String scrollDuration;
     private final int scrollSize;
+    private final int scrollSlices;
     private final Stage nextStage;
+    private final boolean pointInTime;
+    private final Path checkpointFile;
+    private volatile ExecutorService slicesExecutor;
 
     @Inject
     public EnqueueFromIndexTask(final DocumentCollectionFactory<String> factory, final Indexer indexer,
@@ -60,13 +88,71 @@ public class EnqueueFromIndexTask extends PipelineTask<String> {
         this.projectName = (String)taskView.args.getOrDefault(DEFAULT_PROJECT_OPT, DEFAULT_DEFAULT_PROJECT);
         this.scrollDuration = propertiesProvider.get(SCROLL_DURATION_OPT).orElse(DEFAULT_SCROLL_DURATION);
         this.scrollSize = parseInt(propertiesProvider.get(SCROLL_SIZE_OPT).orElse(String.valueOf(DEFAULT_SCROLL_SIZE)));
+        this.scrollSlices = parseInt(propertiesProvider.get(SCROLL_SLICES_OPT).orElse(String.valueOf(DEFAULT_SCROLL_SLICES)));
         this.searchQuery = propertiesProvider.get(SEARCH_QUERY_OPT).orElse(null);
         this.nextStage = new PipelineHelper(propertiesProvider).getNextStage(Stage.ENQUEUEIDX);
+        this.pointInTime = propertiesProvider.get(SCROLL_POINT_IN_TIME_OPT).map(Boolean::parseBoolean).orElse(false);
+        this.checkpointFile = propertiesProvider.get(SCROLL_CHECKPOINT_OPT).map(Path::of).orElse(null);
     }
 
     @Override
     public Long call() throws Exception {
         super.call();
+        try (DocumentQueue<String> outputQueue = factory.createQueue(getOutputQueueName(), String.class)) {
+            long enqueued;
+            if (scrollSlices <= 1) {
+                enqueued = enqueueSlice(outputQueue, 0);
+            } else {
+                logger.info("enqueuing doc ids for index {} with {} slices in parallel", projectName, scrollSlices);
+                enqueued = enqueueSlices(outputQueue);
+            }
+            logger.info("enqueued into {} {} files", outputQueue.getName(), enqueued);
+            return enqueued;
+        }
+    }
+
+    // The slices run on threads of this task rather than on the common pool, so that a cancel reaches them.
+    private long enqueueSlices(DocumentQueue<String> outputQueue) throws Exception {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(scrollSlices, runnable -> {
+            Thread thread = new Thread(runnable, "enqueue-from-index-slice-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        slicesExecutor = executor;
+        try {
+            List<Future<Long>> slices = new ArrayList<>();
+            for (int slice = 0; slice < scrollSlices; slice++) {
+                int current = slice;
+                slices.add(executor.submit(() -> enqueueSlice(outputQueue, current)));
+            }
+            long enqueued = 0;
+            for (Future<Long> slice : slices) {
+                try {
+                    enqueued += slice.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw (Error) e.getCause();
+                }
+            }
+            return enqueued;
+        } finally {
+            executor.shutdownNow();
+            slicesExecutor = null;
+        }
+    }
+
+    @Override
+    public void cancel(boolean requeue) {
+        ofNullable(slicesExecutor).ifPresent(ExecutorService::shutdownNow);
+        super.cancel(requeue);
+    }
+
+    // Each slice has its own searcher, sorted by language: references are pushed into the queue one page
+    // at a time, so that the pages of a slice keep the language order expected by the NLP batches.
+    private long enqueueSlice(DocumentQueue<String> outputQueue, int slice) throws IOException {
         Indexer.Searcher searcher;
         if (searchQuery == null) {
             Indexer.QueryBuilderSearcher builder = indexer.search(singletonList(projectName), Document.class);
@@ -79,20 +165,79 @@ public class EnqueueFromIndexTask extends PipelineTask<String> {
                     .withoutSource("content", "contentTranslated").limit(scrollSize);
         }
         searcher.sort("language", Indexer.Searcher.SortOrder.ASC);
-        List<? extends Entity> docsToProcess = searcher.scroll(scrollDuration).collect(toList());
+        if (pointInTime) {
+            return enqueueWithPointInTime(outputQueue, searcher, slice);
+        }
+        Indexer.ScrollQuery scrollQuery = createScrollQuery().withDuration(scrollDuration).withSlices(slice, scrollSlices).build();
+        List<? extends Entity> docsToProcess = searcher.scroll(scrollQuery).collect(toList());
         long totalHits = searcher.totalHits();
         String pipelineInfo = (nextStage == Stage.NLP) ? " excluding already processed by " + nlpPipeline : "";
-        logger.info("enqueuing doc ids for index {} targeting {}{} with {} scroll and size of {} : {} documents found",
-                projectName, nextStage, pipelineInfo, scrollDuration, scrollSize, totalHits);
+        logger.info("enqueuing doc ids for index {}{} targeting {}{} with {} scroll and size of {} : {} documents found",
+                projectName, sliceInfo(slice), nextStage, pipelineInfo, scrollDuration, scrollSize, totalHits);
 
-        try (DocumentQueue<String> outputQueue = factory.createQueue(getOutputQueueName(), String.class)) {
-            do {
-                docsToProcess.forEach(doc -> outputQueue.add(DocReference.fromDocument((Document) doc).toQueueEntry()));
-                docsToProcess = searcher.scroll(scrollDuration).toList();
-            } while (!docsToProcess.isEmpty());
-            searcher.clearScroll();
-            logger.info("enqueued into {} {} files", outputQueue.getName(), totalHits);
-        }
+        do {
+            outputQueue.addAll(toQueueEntries(docsToProcess));
+            docsToProcess = searcher.scroll(scrollQuery).toList();
+        } while (!docsToProcess.isEmpty());
+        searcher.clearScroll();
         return totalHits;
     }
+
+    // Iterates with a point in time instead of a scroll context. The position is saved after each page
+    // once its references are in the queue, so a task run again after a crash resumes after that page.
+    private long enqueueWithPointInTime(DocumentQueue<String> outputQueue, Indexer.Searcher searcher, int slice) throws IOException {
+        Path sliceCheckpointFile = checkpointFile == null || scrollSlices <= 1 ? checkpointFile :
+                checkpointFile.resolveSibling(checkpointFile.getFileName() + "." + slice);
+        SearchCheckpoint checkpoint = readCheckpoint(sliceCheckpointFile);
+        List<Entity> page = new ArrayList<>(scrollSize);
+        Indexer.PointInTimeQuery query = createPointInTimeQuery().withKeepAlive(scrollDuration)
+                .withSlices(slice, scrollSlices).resumingFrom(checkpoint).onCheckpoint(c -> {
+                    outputQueue.addAll(toQueueEntries(page));
+                    page.clear();
+                    writeCheckpoint(sliceCheckpointFile, c);
+                }).build();
+        long enqueued = 0;
+        try (Stream<? extends Entity> docs = searcher.searchAfter(query)) {
+            logger.info("enqueuing doc ids for index {}{} targeting {} with a point in time of {} and size of {}{} : {} documents found",
+                    projectName, sliceInfo(slice), nextStage, scrollDuration, scrollSize,
+                    checkpoint == null ? "" : " resuming from " + checkpoint.searchAfter(), searcher.totalHits());
+            Iterator<? extends Entity> it = docs.iterator();
+            while (it.hasNext()) {
+                page.add(it.next());
+                enqueued++;
+            }
+        }
+        if (sliceCheckpointFile != null) {
+            Files.deleteIfExists(sliceCheckpointFile);
+        }
+        return enqueued;
+    }
+
+    private String sliceInfo(int slice) {
+        return scrollSlices <= 1 ? "" : " (slice " + slice + "/" + scrollSlices + ")";
+    }
+
+    private static List<String> toQueueEntries(List<? extends Entity> docs) {
+        return docs.stream().map(doc -> DocReference.fromDocument((Document) doc).toQueueEntry()).toList();
+    }
+
+    private static SearchCheckpoint readCheckpoint(Path file) throws IOException {
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        return JsonObjectMapper.readValue(Files.readString(file), SearchCheckpoint.class);
+    }
+
+    private void writeCheckpoint(Path file, SearchCheckpoint checkpoint) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, JsonObjectMapper.writeValueAsString(checkpoint));
+            Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("cannot save checkpoint to {}", file, e);
+        }
+    }
 }
@@ -21,23 +21,41 @@ import org.icij.datashare.text.Document;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.Project;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.NamedEntitySink;
 import org.icij.datashare.text.nlp.Pipeline;
+import org.icij.task.annotation.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.lang.String.valueOf;
 import static java.util.Optional.ofNullable;
 import static org.icij.datashare.PropertiesProvider.DEFAULT_PROJECT_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_DEFAULT_PROJECT;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_NLP_PREFETCH_MAX_BYTES;
 import static org.icij.datashare.cli.DatashareCliOptions.MAX_CONTENT_LENGTH_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_CONCURRENCY_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_FLUSH_INTERVAL_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_SIZE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PARALLELISM_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.NLP_PIPELINE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PREFETCH_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_PREFETCH_SIZE_OPT;
 import org.icij.datashare.asynctasks.TaskGroupType;
 import static org.icij.extract.document.Identifier.shorten;
 
 @TemporalSingleActivityWorkflow(name = "ner", activityOptions = @ActivityOpts(timeout = "P7D"))
+@Option(name = NLP_PARALLELISM_OPT, description = "number of documents processed concurrently, each worker with its own pipeline")
+@Option(name = NLP_PREFETCH_SIZE_OPT, description = "number of documents fetched per multi-get ahead of the pipeline (1 disables prefetching)")
+@Option(name = NLP_PREFETCH_MAX_BYTES_OPT, description = "maximum estimated size of the documents fetched ahead of the pipeline")
+@Option(name = NLP_BULK_SIZE_OPT, description = "number of operations per bulk request of named entities (1 writes each document with its own request)")
+@Option(name = NLP_BULK_MAX_BYTES_OPT, description = "maximum estimated size of a bulk request of named entities")
+@Option(name = NLP_BULK_FLUSH_INTERVAL_OPT, description = "maximum time named entities wait for their bulk request")
+@Option(name = NLP_BULK_CONCURRENCY_OPT, description = "number of bulk requests of named entities in flight")
 @TaskGroup(TaskGroupType.Java)
 public class ExtractNlpTask extends PipelineTask<String> implements Monitorable {
     private static final int DEFAULT_MAX_CONTENT_LENGTH = 1024 * 1024;
@@ -46,8 +64,13 @@ public class ExtractNlpTask extends PipelineTask<String> implements Monitorable
     private final Pipeline nlpPipeline;
     private final Project project;
     private final int maxContentLengthChars;
+    private final int parallelism;
+    private final int prefetchSize;
+    private final long prefetchMaxBytes;
     private final Function<Double, Void> progressCallback;
     private final AtomicInteger processed = new AtomicInteger(0);
+    // replaced by the sink configured with the nlpBulk options for the duration of call()
+    private NamedEntitySink sink;
 
     @Inject
     public ExtractNlpTask(Indexer indexer, PipelineRegistry registry, final DocumentCollectionFactory<String> factory, final UpstreamGate.Factory gateFactory, @Assisted Task<Long> taskView, @Assisted final Function<Double, Void> progressCallback) {
@@ -60,7 +83,11 @@ public class ExtractNlpTask extends PipelineTask<String> implements Monitorable
         this.nlpPipeline = pipeline;
         project = Project.project(ofNullable((String)taskView.args.get(DEFAULT_PROJECT_OPT)).orElse(DEFAULT_DEFAULT_PROJECT));
         maxContentLengthChars = (int) HumanReadableSize.parse(ofNullable((String)taskView.args.get(MAX_CONTENT_LENGTH_OPT)).orElse(valueOf(DEFAULT_MAX_CONTENT_LENGTH)));
+        parallelism = propertiesProvider.get(NLP_PARALLELISM_OPT).map(Integer::parseInt).orElse(1);
+        prefetchSize = propertiesProvider.get(NLP_PREFETCH_SIZE_OPT).map(Integer::parseInt).orElse(1);
+        prefetchMaxBytes = HumanReadableSize.parse(propertiesProvider.get(NLP_PREFETCH_MAX_BYTES_OPT).orElse(DEFAULT_NLP_PREFETCH_MAX_BYTES));
         this.indexer = indexer;
+        this.sink = NamedEntitySink.direct(indexer);
         this.progressCallback = progressCallback;
     }
 
@@ -68,6 +95,27 @@ public class ExtractNlpTask extends PipelineTask<String> implements Monitorable
     public Long call() throws Exception {
         super.call();
         logger.info("extracting Named Entities with pipeline {} for {} from queue {}", nlpPipeline.getType(), project, inputQueue.getName());
+        long nbMessages = 0;
+        sink = NamedEntitySinks.create(indexer, propertiesProvider::get);
+        try {
+            nbMessages = prefetchSize > 1 ? prefetchAndFindNamedEntities() :
+                    PipelineWorkers.run("ner", nlpPipeline, parallelism, this::pollAndFindNamedEntities);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeSink();
+        }
+        // Thread.interrupted() tests AND clears: TaskWorkerLoop never clears the flag itself, so
+        // leaving it set would leak the interrupt onto the runner thread and make the next task
+        // start already cancelled.
+        if (Thread.interrupted()) {
+            throw new InterruptedException("cancelled while draining " + inputQueue.getName());
+        }
+        logger.info("exiting ExtractNlpTask loop after {} messages.", nbMessages);
+        return nbMessages;
+    }
+
+    private long pollAndFindNamedEntities(Pipeline pipeline) throws InterruptedException {
         long nbMessages = 0;
         while (!Thread.currentThread().isInterrupted()) {
             String queueEntry;
@@ -92,10 +140,10 @@ public class ExtractNlpTask extends PipelineTask<String> implements Monitorable
                 continue;
             }
             try {
-                findNamedEntities(project, queueEntry);
+                findNamedEntities(pipeline, project, queueEntry);
                 nbMessages++;
                 processed.incrementAndGet();
-                progressCallback.apply(getProgressRate());
+                reportProgress();
             } catch (Throwable e) {
                 if (causedByInterrupt(e)) {
                     Thread.currentThread().interrupt();
@@ -104,46 +152,158 @@ public class ExtractNlpTask extends PipelineTask<String> implements Monitorable
                 logger.error("error in ExtractNlpTask loop on doc {}", queueEntry, e);
             }
         }
-        // Thread.interrupted() tests AND clears: TaskWorkerLoop never clears the flag itself, so
-        // leaving it set would leak the interrupt onto the runner thread and make the next task
-        // start already cancelled.
-        if (Thread.interrupted()) {
-            throw new InterruptedException("cancelled while draining " + inputQueue.getName());
+        return nbMessages;
+    }
+
+    /**
+     * Same loop as {@link #pollAndFindNamedEntities(Pipeline)}, with the documents fetched by batches of
+     * {@code nlpPrefetchSize} while the pipeline processes the previous ones. On cancellation, the
+     * references already read from the queue and not processed are put back into it.
+     */
+    private long prefetchAndFindNamedEntities() throws Exception {
+        if (Thread.currentThread().isInterrupted()) {
+            return 0;
+        }
+        DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, project.getName(), List.of(), prefetchSize, prefetchMaxBytes, this::pollReferences);
+        try {
+            prefetcher.start();
+            return PipelineWorkers.run("ner", nlpPipeline, parallelism, pipeline -> takeAndFindNamedEntities(prefetcher, pipeline));
+        } finally {
+            prefetcher.close();
+            requeue(prefetcher.unprocessed());
+        }
+    }
+
+    private long takeAndFindNamedEntities(DocumentPrefetcher prefetcher, Pipeline pipeline) throws InterruptedException {
+        long nbMessages = 0;
+        DocumentPrefetcher.Prefetched prefetched;
+        while (!Thread.currentThread().isInterrupted() && (prefetched = prefetcher.take()) != null) {
+            try {
+                Document doc = warnIfNull(prefetched.document(), project.getName(), prefetched.ref().id());
+                if (doc != null) {
+                    findNamedEntities(pipeline, project, doc);
+                }
+                nbMessages++;
+                processed.incrementAndGet();
+                reportProgress();
+            } catch (Throwable e) {
+                if (causedByInterrupt(e)) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                logger.error("error in ExtractNlpTask loop on doc {}", prefetched.ref().toQueueEntry(), e);
+            }
+            prefetcher.done(prefetched);
         }
-        logger.info("exiting ExtractNlpTask loop after {} messages.", nbMessages);
         return nbMessages;
     }
 
+    private List<DocReference> pollReferences(int max) throws InterruptedException {
+        List<DocReference> refs = new ArrayList<>();
+        while (true) {
+            while (refs.size() < max) {
+                String queueEntry;
+                try {
+                    queueEntry = inputQueue.poll();
+                } catch (RuntimeException e) {
+                    if (causedByInterrupt(e)) {
+                        // the references already polled are returned, so that they can be requeued
+                        Thread.currentThread().interrupt();
+                        return refs;
+                    }
+                    throw e;
+                }
+                if (queueEntry == null) {
+                    break;
+                }
+                if (isLegacySentinel(queueEntry)) {
+                    logger.warn("skipping legacy POISON sentinel in queue {}", inputQueue.getName());
+                    continue;
+                }
+                refs.add(DocReference.parse(queueEntry));
+            }
+            if (!refs.isEmpty() || drained()) {
+                return refs;
+            }
+            Thread.sleep(UPSTREAM_POLL_INTERVAL_MS);
+        }
+    }
+
+    private void requeue(List<DocReference> refs) {
+        if (refs.isEmpty()) {
+            return;
+        }
+        // the queue client fails on an interrupted thread: clear the flag while requeueing
+        boolean interrupted = Thread.interrupted();
+        try {
+            refs.forEach(ref -> inputQueue.add(ref.toQueueEntry()));
+            logger.info("put {} prefetched references back into {}", refs.size(), inputQueue.getName());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     void findNamedEntities(final Project project, final String queueEntry) throws InterruptedException {
+        findNamedEntities(nlpPipeline, project, queueEntry);
+    }
+
+    private void findNamedEntities(final Pipeline pipeline, final Project project, final String queueEntry) throws InterruptedException {
+        Document doc = getDocument(indexer, project.getName(), DocReference.parse(queueEntry));
+        if (doc != null) {
+            findNamedEntities(pipeline, project, doc);
+        }
+    }
+
+    private void findNamedEntities(final Pipeline pipeline, final Project project, final Document doc) throws InterruptedException {
         try {
-            Document doc = getDocument(indexer, project.getName(), DocReference.parse(queueEntry));
-            if (doc != null) {
-                logger.info("extracting {} entities for document {}", nlpPipeline.getType(), shorten(doc.getId(), 4));
-                if (nlpPipeline.initialize(doc.getLanguage())) {
-                    int nbEntities = 0;
-                    if (doc.getContent().length() < this.maxContentLengthChars) {
-                        List<NamedEntity> namedEntities = nlpPipeline.process(doc);
-                        indexer.bulkAdd(project.getName(), nlpPipeline.getType(), namedEntities, doc);
-                        nbEntities = namedEntities.size();
-                    } else {
-                        int nbChunks = doc.getContent().length() / this.maxContentLengthChars + 1;
-                        logger.info("document is too large, extracting entities for {} document chunks", nbChunks);
-                        for (int chunkIndex = 0; chunkIndex < nbChunks; chunkIndex++) {
-                            List<NamedEntity> namedEntities = nlpPipeline.process(doc, maxContentLengthChars, chunkIndex * maxContentLengthChars);
-                            if (chunkIndex < nbChunks - 1) {
-                                indexer.bulkAdd(project.getName(), namedEntities);
-                            } else {
-                                indexer.bulkAdd(project.getName(), nlpPipeline.getType(), namedEntities, doc);
-                            }
-                            nbEntities += namedEntities.size();
+            logger.info("extracting {} entities for document {}", pipeline.getType(), shorten(doc.getId(), 4));
+            if (pipeline.initialize(doc.getLanguage())) {
+                int nbEntities = 0;
+                if (doc.getContent().length() < this.maxContentLengthChars) {
+                    List<NamedEntity> namedEntities = pipeline.process(doc);
+                    sink.add(project.getName(), pipeline.getType(), namedEntities, doc);
+                    nbEntities = namedEntities.size();
+                } else {
+                    int nbChunks = doc.getContent().length() / this.maxContentLengthChars + 1;
+                    logger.info("document is too large, extracting entities for {} document chunks", nbChunks);
+                    for (int chunkIndex = 0; chunkIndex < nbChunks; chunkIndex++) {
+                        List<NamedEntity> namedEntities = pipeline.process(doc, maxContentLengthChars, chunkIndex * maxContentLengthChars);
+                        if (chunkIndex < nbChunks - 1) {
+                            sink.add(project.getName(), namedEntities);
+                        } else {
+                            sink.add(project.getName(), pipeline.getType(), namedEntities, doc);
                         }
+                        nbEntities += namedEntities.size();
                     }
-                    logger.info("added {} named entities to document {}", nbEntities, shorten(doc.getId(), 4));
-                    nlpPipeline.terminate(doc.getLanguage());
                 }
+                logger.info("added {} named entities to document {}", nbEntities, shorten(doc.getId(), 4));
+                pipeline.terminate(doc.getLanguage());
             }
         } catch (IOException e) {
-            logger.error("cannot extract entities of doc {}", queueEntry, e);
+            logger.error("cannot extract entities of doc {}", doc.getId(), e);
+        }
+    }
+
+    private void closeSink() throws IOException {
+        NamedEntitySink toClose = sink;
+        sink = NamedEntitySink.direct(indexer);
+        try {
+            toClose.close();
+        } catch (IOException e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            // cancelled: the pending entities are sent in the background, their documents are not waited for
+            logger.warn("cancelled while flushing named entities", e);
+        }
+    }
+
+    // workers report concurrently: the callback sees one update at a time
+    private synchronized void reportProgress() {
+        if (progressCallback != null) {
+            progressCallback.apply(getProgressRate());
         }
     }
 
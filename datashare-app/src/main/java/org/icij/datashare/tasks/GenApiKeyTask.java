@@ -7,6 +7,7 @@ import com.google.inject.assistedinject.Assisted;
 import org.icij.datashare.asynctasks.TaskGroup;
 import org.icij.datashare.asynctasks.temporal.ActivityOpts;
 import org.icij.datashare.asynctasks.temporal.TemporalSingleActivityWorkflow;
+import org.icij.datashare.session.ApiKeyCache;
 import org.icij.datashare.user.ApiKeyRepository;
 import org.icij.datashare.user.DatashareApiKey;
 import org.icij.datashare.user.User;
@@ -22,17 +23,20 @@ import javax.crypto.SecretKey;
 public class GenApiKeyTask extends DefaultTask<String> implements UserTask {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyCache apiKeyCache;
     private final User user;
 
     @Inject
-    public GenApiKeyTask(ApiKeyRepository apiKeyRepository, @Assisted User user) {
+    public GenApiKeyTask(ApiKeyRepository apiKeyRepository, ApiKeyCache apiKeyCache, @Assisted User user) {
         this.apiKeyRepository = apiKeyRepository;
+        this.apiKeyCache = apiKeyCache;
         this.user = user;
     }
     @Override
     public String call() throws Exception {
         SecretKey secretKey = DatashareApiKey.generateSecretKey();
         apiKeyRepository.save(new DatashareApiKey(secretKey, user));
+        apiKeyCache.invalidate(user.id);
         logger.info("generated secret key for user {}", user.id);
         return DatashareApiKey.getBase64Encoded(secretKey);
     }
@@ -0,0 +1,94 @@
+package org.icij.datashare.tasks;
+
+import com.google.inject.Inject;
+import com.google.inject.assistedinject.Assisted;
+import org.icij.datashare.PropertiesProvider;
+import org.icij.datashare.asynctasks.IoBound;
+import org.icij.datashare.asynctasks.Task;
+import org.icij.datashare.asynctasks.TaskGroup;
+import org.icij.datashare.asynctasks.TaskGroupType;
+import org.icij.datashare.asynctasks.temporal.ActivityOpts;
+import org.icij.datashare.asynctasks.temporal.TemporalSingleActivityWorkflow;
+import org.icij.datashare.monitoring.Monitorable;
+import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.user.User;
+import org.icij.datashare.user.UserTask;
+import org.icij.task.annotation.Option;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import static java.util.Optional.ofNullable;
+import static org.icij.datashare.PropertiesProvider.DEFAULT_PROJECT_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_DEFAULT_PROJECT;
+import static org.icij.datashare.cli.DatashareCliOptions.HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.HIDE_NAMED_ENTITIES_SLICES_OPT;
+
+/**
+ * Hides every named entity of a project with the given normalized mention, with one update by query run by
+ * Elasticsearch instead of the entities going through datashare. Entities already hidden are left untouched,
+ * so hiding a mention twice only hides the entities extracted in between.
+ * Returns the number of hidden entities.
+ */
+@TemporalSingleActivityWorkflow(name = "hide-named-entities", activityOptions = @ActivityOpts(timeout = "P7D"))
+@Option(name = HIDE_NAMED_ENTITIES_SLICES_OPT, description = "number of slices of the update by query (unset: one per shard)")
+@Option(name = HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT, description = "throttle of the update by query in entities per second (unset: no throttle)")
+@TaskGroup(TaskGroupType.Java)
+@IoBound
+public class HideNamedEntitiesTask implements Callable<Long>, Monitorable, UserTask {
+    public static final String MENTION_NORM_ARG = "mentionNorm";
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Indexer indexer;
+    private final Function<Double, Void> progressCallback;
+    private final User user;
+    private final String project;
+    private final String mentionNorm;
+    private final int slices;
+    private final float requestsPerSecond;
+    private volatile double progressRate = 0;
+
+    @Inject
+    public HideNamedEntitiesTask(final Indexer indexer, @Assisted Task<Long> taskView, @Assisted final Function<Double, Void> progressCallback) {
+        PropertiesProvider propertiesProvider = new PropertiesProvider(taskView.args);
+        this.indexer = indexer;
+        this.progressCallback = progressCallback;
+        this.user = taskView.getUser();
+        this.project = ofNullable((String) taskView.args.get(DEFAULT_PROJECT_OPT)).orElse(DEFAULT_DEFAULT_PROJECT);
+        this.mentionNorm = (String) taskView.args.get(MENTION_NORM_ARG);
+        this.slices = propertiesProvider.get(HIDE_NAMED_ENTITIES_SLICES_OPT).map(Integer::parseInt).orElse(0);
+        this.requestsPerSecond = propertiesProvider.get(HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT).map(Float::parseFloat).orElse(-1f);
+    }
+
+    @Override
+    public Long call() throws Exception {
+        if (mentionNorm == null) {
+            throw new IllegalArgumentException("'" + MENTION_NORM_ARG + "' argument is required");
+        }
+        // Elasticsearch takes a strictly positive throttle, or -1 for none
+        if (requestsPerSecond <= 0 && requestsPerSecond != -1) {
+            throw new IllegalArgumentException("'" + HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT + "' should be strictly positive, or -1 for no throttle, not " + requestsPerSecond);
+        }
+        logger.info("hiding named entities of {} with mention '{}'", project, mentionNorm);
+        long hidden = indexer.hideNamedEntities(project, mentionNorm, slices, requestsPerSecond, this::progress);
+        logger.info("hid {} named entities of {} with mention '{}'", hidden, project, mentionNorm);
+        progress(1.0);
+        return hidden;
+    }
+
+    private Void progress(double rate) {
+        progressRate = rate;
+        return progressCallback.apply(rate);
+    }
+
+    @Override
+    public double getProgressRate() {
+        return progressRate;
+    }
+
+    @Override
+    public User getUser() {
+        return user;
+    }
+}
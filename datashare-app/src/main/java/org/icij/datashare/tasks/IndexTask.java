@@ -19,8 +19,8 @@ import org.icij.datashare.monitoring.Monitorable;
 import org.icij.datashare.text.artifact.Artifact;
 import org.icij.datashare.text.artifact.ArtifactRegistry;
 import org.icij.datashare.text.artifact.ArtifactType;
-import org.icij.datashare.text.artifact.FilesystemManifestRepository;
 import org.icij.datashare.text.artifact.ManifestRecorder;
+import org.icij.datashare.text.artifact.ManifestStore;
 import org.icij.datashare.text.indexing.elasticsearch.ElasticsearchSpewer;
 import org.icij.extract.document.DocumentFactory;
 import org.icij.extract.extractor.DocumentConsumer;
@@ -54,6 +54,11 @@ import static org.icij.datashare.cli.DatashareCliOptions.*;
 @OptionsClass(DocumentQueueDrainer.class)
 @Option(name = DEFAULT_PROJECT_OPT, description = "the default project name")
 @Option(name = "projectName", description = "task project name")
+@Option(name = INDEX_BULK_SIZE_OPT, description = "number of documents per bulk request (1 disables bulk indexing)")
+@Option(name = INDEX_BULK_MAX_BYTES_OPT, description = "maximum estimated size of a bulk request")
+@Option(name = INDEX_BULK_FLUSH_INTERVAL_OPT, description = "maximum time a document waits in the bulk buffer")
+@Option(name = INDEX_BULK_CONCURRENCY_OPT, description = "number of bulk requests in flight")
+@Option(name = INDEX_DUPLICATE_PRELOAD_OPT, description = "preload the index ids to detect duplicates without requests")
 @TaskGroup(TaskGroupType.Java)
 public class IndexTask extends PipelineTask<Path> implements Monitorable{
     private static final Path PATH_POISON = Paths.get("POISON");
@@ -144,8 +149,11 @@ public class IndexTask extends PipelineTask<Path> implements Monitorable{
             if (rawSelected || artifactStageRuns) {
                 extractor.setEmbedOutputPath(projectRoot);
             }
-            spewer.setManifestRecorder(new ManifestRecorder(new FilesystemManifestRepository(), projectRoot, selected, ArtifactStages.force(propertiesProvider)));
+            spewer.setManifestRecorder(new ManifestRecorder(ManifestStore.of(propertiesProvider).repository(), projectRoot, selected, ArtifactStages.force(propertiesProvider)));
         });
+        if (propertiesProvider.get(INDEX_DUPLICATE_PRELOAD_OPT).map(Boolean::parseBoolean).orElse(false)) {
+            spewer.preloadDuplicateFilter();
+        }
         logger.info("Processing up to {} file(s) in parallel", parallelism);
         try {
             totalToProcess = drainer.drain().get() - skipped.get();
@@ -158,12 +166,16 @@ public class IndexTask extends PipelineTask<Path> implements Monitorable{
             while (!consumer.awaitTermination(indexTimeout, MINUTES)) {
                 logger.info("Consumer has not terminated yet.");
             }
-
             if (consumer.getReporter() != null) consumer.getReporter().close();
             logger.info("exiting");
             return totalToProcess;
         } finally {
-            extractor.close();
+            try {
+                // documents still buffered for a bulk request must be indexed before the task is done
+                spewer.closeBulkBuffer();
+            } finally {
+                extractor.close();
+            }
         }
     }
 
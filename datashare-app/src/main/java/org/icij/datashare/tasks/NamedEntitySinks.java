@@ -0,0 +1,35 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.HumanReadableSize;
+import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.NamedEntitySink;
+import org.icij.time.HumanDuration;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_NLP_BULK_CONCURRENCY;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_NLP_BULK_FLUSH_INTERVAL;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_NLP_BULK_MAX_BYTES;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_CONCURRENCY_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_FLUSH_INTERVAL_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.NLP_BULK_SIZE_OPT;
+
+final class NamedEntitySinks {
+    private NamedEntitySinks() {}
+
+    // Opt-in: named entities are only grouped across documents with nlpBulkSize > 1, so that each document
+    // is written with its own bulk request unless it is set.
+    static NamedEntitySink create(Indexer indexer, Function<String, Optional<String>> options) {
+        int bulkSize = options.apply(NLP_BULK_SIZE_OPT).map(Integer::parseInt).orElse(1);
+        if (bulkSize <= 1) {
+            return NamedEntitySink.direct(indexer);
+        }
+        long maxBytes = HumanReadableSize.parse(options.apply(NLP_BULK_MAX_BYTES_OPT).orElse(DEFAULT_NLP_BULK_MAX_BYTES));
+        Duration flushInterval = HumanDuration.parse(options.apply(NLP_BULK_FLUSH_INTERVAL_OPT).orElse(DEFAULT_NLP_BULK_FLUSH_INTERVAL));
+        int concurrency = options.apply(NLP_BULK_CONCURRENCY_OPT).map(Integer::parseInt).orElse(DEFAULT_NLP_BULK_CONCURRENCY);
+        return indexer.namedEntitySink(bulkSize, maxBytes, flushInterval, concurrency);
+    }
+}
@@ -0,0 +1,328 @@
+package org.icij.datashare.tasks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.icij.datashare.json.JsonObjectMapper;
+import org.icij.extract.Scanner;
+import org.icij.extract.ScannerVisitor;
+import org.icij.extract.queue.DocumentQueue;
+import org.icij.extract.queue.MemoryDocumentQueue;
+import org.icij.task.Options;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Walks a tree with one fork/join task per directory, for volumes where listing a directory is a network
+ * round trip and a single thread walking millions of them leaves the indexing workers waiting.
+ * <p>
+ * Which files are queued is still decided by the extract {@link Scanner}: each thread has a visitor
+ * configured with the task options, that is asked about every directory and file found, so the
+ * include and exclude patterns and the hidden and OS files are handled as in a sequential scan. The
+ * walker itself applies the depth and the symlinks options as {@link Files#walkFileTree} does. Files
+ * are written to the output queue in batches of {@link #BATCH_SIZE}.
+ * <p>
+ * With a checkpoint file, a directory is recorded once its files are in the queue, and once all of its
+ * subtree is. A scan run again after it was interrupted skips the subtrees recorded, and only lists the
+ * directories whose files were recorded to find their subdirectories. The file is deleted when the scan
+ * completes.
+ */
+class ParallelScanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelScanner.class);
+    static final int BATCH_SIZE = 1000;
+
+    private final DocumentQueue<Path> outputQueue;
+    private final Options<String> scannerOptions;
+    private final int parallelism;
+    private final int maxDepth;
+    private final LinkOption[] linkOptions;
+    private final Path checkpointFile;
+
+    ParallelScanner(DocumentQueue<Path> outputQueue, Options<String> scannerOptions, int parallelism, int maxDepth, boolean followSymlinks, Path checkpointFile) {
+        this.outputQueue = outputQueue;
+        this.scannerOptions = scannerOptions;
+        this.parallelism = parallelism;
+        this.maxDepth = maxDepth;
+        this.linkOptions = followSymlinks ? new LinkOption[0] : new LinkOption[] {LinkOption.NOFOLLOW_LINKS};
+        this.checkpointFile = checkpointFile;
+    }
+
+    /** Queues the files of the tree under {@code root} and returns how many were queued by this call. */
+    long scan(Path root) throws IOException, InterruptedException {
+        try (Checkpoint checkpoint = Checkpoint.open(checkpointFile)) {
+            Walk walk = new Walk(root, checkpoint);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(root, BasicFileAttributes.class, linkOptions);
+                if (walk.lane().visitor.preVisitDirectory(root, attributes) != FileVisitResult.CONTINUE) {
+                    return 0;
+                }
+                Future<?> done = pool.submit(walk.new Directory(root, 0, walk.ancestors(List.of(), attributes)));
+                done.get();
+                walk.batcher.flush();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw new IllegalStateException("scan of " + root + " failed", e.getCause());
+            } finally {
+                // interrupts the walkers when the task is cancelled: what they had not flushed is not recorded either
+                pool.shutdownNow();
+            }
+            checkpoint.delete();
+            LOGGER.info("queued {} files of {} with {} threads", walk.batcher.queued, root, parallelism);
+            return walk.batcher.queued;
+        }
+    }
+
+    private class Walk {
+        private final Path root;
+        private final Checkpoint checkpoint;
+        private final Batcher batcher;
+        private final ThreadLocal<Lane> lanes = ThreadLocal.withInitial(this::newLane);
+
+        Walk(Path root, Checkpoint checkpoint) {
+            this.root = root;
+            this.checkpoint = checkpoint;
+            this.batcher = new Batcher(checkpoint);
+        }
+
+        Lane lane() {
+            return lanes.get();
+        }
+
+        private Lane newLane() {
+            MemoryDocumentQueue<Path> buffer = new MemoryDocumentQueue<>("scan:lane", BATCH_SIZE);
+            return new Lane(buffer, new Scanner(buffer).configure(scannerOptions).createScannerVisitor(root));
+        }
+
+        // Following symlinks, a link to an ancestor would be walked forever: it is skipped, as Files.walkFileTree
+        // does. Without a file key, as on some network filesystems, that is not detected.
+        boolean isLoop(List<Object> ancestors, BasicFileAttributes attributes) {
+            return linkOptions.length == 0 && attributes.fileKey() != null && ancestors.contains(attributes.fileKey());
+        }
+
+        List<Object> ancestors(List<Object> parentAncestors, BasicFileAttributes attributes) {
+            if (linkOptions.length > 0 || attributes.fileKey() == null) {
+                return parentAncestors;
+            }
+            List<Object> ancestors = new ArrayList<>(parentAncestors);
+            ancestors.add(attributes.fileKey());
+            return ancestors;
+        }
+
+        private class Directory extends RecursiveAction {
+            private final Path dir;
+            private final int depth;
+            private final List<Object> ancestors;
+            private boolean complete;
+
+            Directory(Path dir, int depth, List<Object> ancestors) {
+                this.dir = dir;
+                this.depth = depth;
+                this.ancestors = ancestors;
+            }
+
+            @Override
+            protected void compute() {
+                String key = dir.toString();
+                if (checkpoint.subtreeDone(key)) {
+                    complete = true;
+                    return;
+                }
+                boolean filesDone = checkpoint.filesDone(key);
+                Lane lane = lane();
+                List<Directory> children = new ArrayList<>();
+                List<Path> files = new ArrayList<>();
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                    for (Path entry : entries) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        BasicFileAttributes attributes;
+                        try {
+                            attributes = Files.readAttributes(entry, BasicFileAttributes.class, linkOptions);
+                        } catch (IOException e) {
+                            LOGGER.warn("cannot read attributes of {}", entry, e);
+                            continue;
+                        }
+                        if (attributes.isDirectory() && depth + 1 < maxDepth) {
+                            if (!isLoop(ancestors, attributes)
+                                    && lane.visitor.preVisitDirectory(entry, attributes) == FileVisitResult.CONTINUE) {
+                                children.add(new Directory(entry, depth + 1, ancestors(ancestors, attributes)));
+                            }
+                        } else if (!filesDone) {
+                            // as Files.walkFileTree does, a directory at the maximum depth is given as a file
+                            lane.visitor.visitFile(entry, attributes);
+                            lane.drainTo(files);
+                            if (files.size() >= BATCH_SIZE) {
+                                batcher.add(files, null);
+                                files = new ArrayList<>();
+                            }
+                        }
+                    }
+                    batcher.add(files, filesDone ? null : Checkpoint.FILES + key);
+                } catch (IOException e) {
+                    // not recorded: listed again when the scan is run again
+                    LOGGER.warn("cannot list {}", dir, e);
+                    return;
+                }
+                invokeAll(children);
+                if (children.stream().allMatch(child -> child.complete) && !Thread.currentThread().isInterrupted()) {
+                    batcher.add(List.of(), Checkpoint.SUBTREE + key);
+                    complete = true;
+                }
+            }
+        }
+    }
+
+    /** A visitor of the extract scanner and the queue it puts the files it accepts in, for one thread. */
+    private record Lane(MemoryDocumentQueue<Path> buffer, ScannerVisitor visitor) {
+        void drainTo(List<Path> files) {
+            Path file;
+            while ((file = buffer.poll()) != null) {
+                files.add(file);
+            }
+        }
+    }
+
+    /** The files and the checkpoint records of every thread, the records written after the files they are about. */
+    private class Batcher {
+        private final Checkpoint checkpoint;
+        private final List<Path> files = new ArrayList<>();
+        private final List<String> records = new ArrayList<>();
+        private long queued;
+
+        Batcher(Checkpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        synchronized void add(List<Path> directoryFiles, String record) {
+            files.addAll(directoryFiles);
+            if (record != null) {
+                records.add(record);
+            }
+            if (files.size() >= BATCH_SIZE || records.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (!files.isEmpty()) {
+                outputQueue.addAll(files);
+                queued += files.size();
+                files.clear();
+            }
+            try {
+                checkpoint.write(records);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            records.clear();
+        }
+    }
+
+    /**
+     * One JSON array per line, {@code ["F", dir]} once the files of {@code dir} are queued and
+     * {@code ["T", dir]} once its whole subtree is. A line without its newline, left by a process that
+     * died while writing it, is ignored.
+     */
+    private static class Checkpoint implements Closeable {
+        static final String FILES = "F";
+        static final String SUBTREE = "T";
+        private static final TypeReference<List<String>> RECORD = new TypeReference<>() {};
+        private final Path file;
+        private final Set<String> filesDone = new HashSet<>();
+        private final Set<String> subtreesDone = new HashSet<>();
+        private BufferedWriter writer;
+
+        private Checkpoint(Path file) {
+            this.file = file;
+        }
+
+        static Checkpoint open(Path file) throws IOException {
+            Checkpoint checkpoint = new Checkpoint(file);
+            if (file == null || !Files.exists(file)) {
+                return checkpoint;
+            }
+            String content = Files.readString(file, UTF_8);
+            String[] lines = content.split("\n", -1);
+            // the last element is what follows the last newline: empty, or a line cut short
+            for (int i = 0; i < lines.length - 1; i++) {
+                try {
+                    List<String> record = JsonObjectMapper.getMapper().readValue(lines[i], RECORD);
+                    (SUBTREE.equals(record.get(0)) ? checkpoint.subtreesDone : checkpoint.filesDone).add(record.get(1));
+                } catch (JsonProcessingException | IndexOutOfBoundsException e) {
+                    LOGGER.warn("skipping malformed line {} of {}", i + 1, file);
+                }
+            }
+            if (!lines[lines.length - 1].isEmpty()) {
+                Files.writeString(file, "\n", UTF_8, APPEND);
+            }
+            LOGGER.info("resuming scan with {} directories and {} subtrees already queued from {}",
+                    checkpoint.filesDone.size(), checkpoint.subtreesDone.size(), file);
+            return checkpoint;
+        }
+
+        // only read once the walk has started, by threads that do not write to them
+        boolean filesDone(String dir) {
+            return filesDone.contains(dir);
+        }
+
+        boolean subtreeDone(String dir) {
+            return subtreesDone.contains(dir);
+        }
+
+        // Called with the batcher's lock, after the files the records are about have been queued.
+        void write(List<String> records) throws IOException {
+            if (file == null || records.isEmpty()) {
+                return;
+            }
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND);
+            }
+            for (String record : records) {
+                writer.write(JsonObjectMapper.getMapper().writeValueAsString(List.of(record.substring(0, 1), record.substring(1))));
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+
+        void delete() throws IOException {
+            close();
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        }
+    }
+}
@@ -123,7 +123,7 @@ public abstract class PipelineTask<T> extends DefaultTask<Long> implements UserT
         return "POISON".equals(queueEntry);
     }
 
-    private Document warnIfNull(Document document, String projectName, String docId) {
+    protected Document warnIfNull(Document document, String projectName, String docId) {
         // indexer.get() also returns null on fetch failures (it logs them as ERROR), not only on missing ids
         if (document == null) {
             logger.warn("document <{}> could not be retrieved from index {} (missing document or index fetch error), skipping", docId, projectName);
@@ -0,0 +1,97 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.text.nlp.Pipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the same NLP loop on several threads, each one with its own {@link Pipeline#newWorker() pipeline}
+ * instance, so that non thread-safe annotators are never shared.
+ *
+ * <p>With a parallelism of 1 the loop runs on the calling thread, with the given pipeline. Otherwise the
+ * calling thread waits for the workers: when it is interrupted (task cancellation), or when a worker fails,
+ * the other workers are interrupted and waited for before the interruption or the failure is rethrown.
+ * Workers are expected to stop when their thread is interrupted.</p>
+ */
+final class PipelineWorkers {
+    private static final Logger logger = LoggerFactory.getLogger(PipelineWorkers.class);
+
+    interface Worker {
+        /** Runs the loop with the pipeline of this worker and returns the number of processed documents. */
+        long run(Pipeline pipeline) throws Exception;
+    }
+
+    private PipelineWorkers() {}
+
+    static long run(String name, Pipeline pipeline, int parallelism, Worker worker) throws Exception {
+        if (parallelism <= 1) {
+            return worker.run(pipeline);
+        }
+        logger.info("running {} with {} workers for pipeline {}", name, parallelism, pipeline.getType());
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, threads(name));
+        List<Future<Long>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                Pipeline workerPipeline = i == 0 ? pipeline : pipeline.newWorker();
+                results.add(executor.submit(() -> worker.run(workerPipeline)));
+            }
+            long processed = 0;
+            for (Future<Long> result : results) {
+                processed += result.get();
+            }
+            return processed;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+    }
+
+    // waits for the workers even if the caller is interrupted: a cancelled task must not return while
+    // its workers are still writing
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                        return;
+                    }
+                    logger.warn("still waiting for NLP workers to stop");
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ThreadFactory threads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -15,30 +15,50 @@ import org.icij.datashare.extract.DocumentCollectionFactory;
 import org.icij.extract.Scanner;
 import org.icij.extract.ScannerVisitor;
 import org.icij.task.Options;
+import org.icij.task.annotation.Option;
 import org.icij.task.annotation.OptionsClass;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import static java.lang.Integer.parseInt;
 import static org.icij.datashare.PropertiesProvider.DATA_DIR_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_FOLLOW_SYMLINKS;
+import static org.icij.datashare.cli.DatashareCliOptions.FOLLOW_SYMLINKS_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCAN_CHECKPOINT_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCAN_PARALLELISM_OPT;
 
 @TemporalSingleActivityWorkflow(name = "scan-documents", activityOptions = @ActivityOpts(timeout = "P7D"))
 @OptionsClass(Scanner.class)
+@Option(name = SCAN_PARALLELISM_OPT, description = "number of threads listing directories in parallel (1: the sequential scanner)")
+@Option(name = SCAN_CHECKPOINT_OPT, description = "file recording the directories queued by a parallel scan, to resume it")
 @TaskGroup(TaskGroupType.Java)
 public class ScanTask extends PipelineTask<Path> {
+    static final String MAX_DEPTH_OPT = "maxDepth";
     private final Scanner scanner;
+    private final Options<String> scannerOptions;
     private final Path path;
+    private final int parallelism;
+    private final Path checkpointFile;
 
     @Inject
     public ScanTask(DocumentCollectionFactory<Path> factory, @Assisted Task<Long> task, @Assisted Function<Double, Void> updateCallback) {
         super(Stage.SCAN, task.getUser(), factory, new PropertiesProvider(task.args), Path.class);
-        scanner = new Scanner(outputQueue).configure(options().createFrom(Options.from(task.args)));
+        scannerOptions = options().createFrom(Options.from(task.args));
+        scanner = new Scanner(outputQueue).configure(scannerOptions);
         path = Paths.get((String)task.args.get(DATA_DIR_OPT));
+        parallelism = parseInt(propertiesProvider.get(SCAN_PARALLELISM_OPT).orElse("1"));
+        checkpointFile = propertiesProvider.get(SCAN_CHECKPOINT_OPT).map(Path::of).orElse(null);
     }
 
     @Override
     public Long call() throws Exception {
         super.call();
+        if (parallelism > 1) {
+            int maxDepth = propertiesProvider.get(MAX_DEPTH_OPT).map(Integer::parseInt).orElse(Integer.MAX_VALUE);
+            boolean followSymlinks = propertiesProvider.get(FOLLOW_SYMLINKS_OPT).map(Boolean::parseBoolean).orElse(DEFAULT_FOLLOW_SYMLINKS);
+            return new ParallelScanner(outputQueue, scannerOptions, parallelism, maxDepth, followSymlinks, checkpointFile).scan(path);
+        }
         ScannerVisitor scannerVisitor = scanner.createScannerVisitor(path);
         return scannerVisitor.call();
     }
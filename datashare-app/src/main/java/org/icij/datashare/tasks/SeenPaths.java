@@ -0,0 +1,50 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.PropertiesProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.icij.datashare.cli.DatashareCliOptions.DEDUPLICATE_STATE_DIR_OPT;
+
+/**
+ * The paths {@link DeduplicateTask} has already let through. In memory by default; with
+ * --deduplicateStateDir, on disk in a directory per queue, see {@link DiskSeenPaths}.
+ */
+interface SeenPaths extends Closeable {
+    /** @return true when {@code path} had not been seen, false for a duplicate */
+    boolean add(Path path) throws IOException;
+
+    /** Forgets every path, for the next run to start from nothing. The set cannot be used afterwards. */
+    void clear() throws IOException;
+
+    static SeenPaths of(PropertiesProvider properties, String queueName) throws IOException {
+        Optional<String> stateDir = properties.get(DEDUPLICATE_STATE_DIR_OPT);
+        if (stateDir.isEmpty()) {
+            return new InMemory();
+        }
+        // one directory per queue: two projects deduplicated from the same state dir do not share their paths
+        return new DiskSeenPaths(Path.of(stateDir.get()).resolve(queueName.replaceAll("[^\\w.-]", "_")));
+    }
+
+    class InMemory implements SeenPaths {
+        private final Set<Path> seen = new HashSet<>();
+
+        @Override
+        public boolean add(Path path) {
+            return seen.add(path);
+        }
+
+        @Override
+        public void clear() {
+            seen.clear();
+        }
+
+        @Override
+        public void close() {}
+    }
+}
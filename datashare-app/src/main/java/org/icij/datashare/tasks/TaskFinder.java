@@ -7,7 +7,9 @@ import org.icij.datashare.Entity;
 import org.icij.datashare.asynctasks.*;
 import org.icij.datashare.batch.BatchSearchRecord;
 import org.icij.datashare.batch.BatchSearchRepository;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.user.User;
+import org.icij.datashare.web.WebResponse;
 
 import java.io.IOException;
 import java.util.*;
@@ -71,7 +73,40 @@ public class TaskFinder {
 
     }
 
-    
+    /**
+     * Retrieves the page {@param pagination} of the tasks returned by {@link #findVisibleTasksFor(User, TaskFilters)}.
+     * The task manager sorts and slices the user tasks, so that only the first {@code from + size} of them are read,
+     * then they are merged with the BatchSearchTasks of the projects.
+     * @param summary if true, the task manager can leave out big task args
+     * @return the page with the total number of visible tasks
+     * @throws IOException
+     */
+    public WebResponse<Task<?>> findVisibleTasksFor(User user, TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        if(user == null) {
+            throw new IllegalArgumentException("Cannot retrieve Tasks of a null user");
+        }
+        Task.Comparator comparator = new Task.Comparator(pagination.sort, pagination.order);
+        TaskFilters userFilters = filters.with(user);
+        TaskFilters filtersWithoutUser = filters.with((User) null);
+        // BatchSearchTasks of the projects, unless the user task with the same id is visible
+        Map<String, Task<?>> batchSearchTasks = new LinkedHashMap<>();
+        for (BatchSearchRecord batchSearchRecord : batchSearchRepository.getRecords(user, user.getProjectNames())) {
+            Task<Integer> task = taskify(batchSearchRecord);
+            if (filtersWithoutUser.filter(task) && getTaskFromManager(task.id).filter(userFilters::filter).isEmpty()) {
+                batchSearchTasks.putIfAbsent(task.id, task);
+            }
+        }
+        int firstUserTasks = (int) Math.min((long) pagination.from + pagination.size, Integer.MAX_VALUE);
+        Stream<Task<?>> userTasks = taskManager.getTasks(userFilters,
+                new WebQueryPagination(pagination.sort, pagination.order.name(), 0, firstUserTasks), summary);
+        List<Task<?>> page = Stream.concat(userTasks, batchSearchTasks.values().stream())
+                .sorted(comparator)
+                .skip(pagination.from)
+                .limit(pagination.size)
+                .toList();
+        return new WebResponse<>(page, pagination.from, pagination.size, taskManager.countTasks(userFilters) + batchSearchTasks.size());
+    }
+
     /**
      * Retrieves a task by id.
      * First looks in the task repository, then falls back to the user's batch search records,
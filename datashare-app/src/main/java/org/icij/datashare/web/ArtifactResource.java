@@ -11,12 +11,12 @@ import net.codestory.http.annotations.Get;
 import net.codestory.http.annotations.Prefix;
 import net.codestory.http.constants.HttpStatus;
 import net.codestory.http.payload.Payload;
+import net.codestory.http.payload.StreamingOutput;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.cli.DatashareCliOptions;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.artifact.ArtifactReader;
 import org.icij.datashare.text.artifact.ArtifactType;
-import org.icij.datashare.text.artifact.FilesystemManifestRepository;
 import org.icij.datashare.text.artifact.ManifestEntry;
 import org.icij.datashare.text.artifact.StructureSearch;
 import org.icij.datashare.text.indexing.Indexer;
@@ -57,13 +57,14 @@ public class ArtifactResource {
     private final Indexer indexer;
     private final PropertiesProvider propertiesProvider;
     private final DocumentSourceAccess sources;
-    private final ArtifactReader reader = new ArtifactReader(new FilesystemManifestRepository());
+    private final ArtifactReader reader;
 
     @Inject
-    public ArtifactResource(Indexer indexer, PropertiesProvider propertiesProvider, DocumentSourceAccess sources) {
+    public ArtifactResource(Indexer indexer, PropertiesProvider propertiesProvider, DocumentSourceAccess sources, ArtifactReader reader) {
         this.indexer = indexer;
         this.propertiesProvider = propertiesProvider;
         this.sources = sources;
+        this.reader = reader;
     }
 
     @Operation(description = "Fetches the number of persisted plain-text pages for a document.",
@@ -278,13 +279,16 @@ public class ArtifactResource {
         if (entry == null) {
             return Payload.notFound();
         }
-        byte[] bytes = reader.page(docArtifactDir, type, entry, parsePageNumber(page), extension);
-        if (bytes == null) {
+        ArtifactReader.PageBody body = reader.pageBody(docArtifactDir, type, entry, parsePageNumber(page), extension);
+        if (body == null) {
             return Payload.notFound();
         }
+        // Written from the content file as the response goes out, not read into an array first: the
+        // pages of a popular large document are otherwise one page-sized allocation per request.
+        StreamingOutput output = body::writeTo;
         // Every artifact payload is text derived from an ingested document, served from this origin:
         // a browser that sniffs its way to another type could execute a malicious document.
-        return new Payload(contentType, bytes).withHeader("X-Content-Type-Options", "nosniff");
+        return new Payload(contentType, output).withHeader("X-Content-Type-Options", "nosniff");
     }
 
     // Same (project, id, routing) shape as manifest() and payload(), so all three routes read alike.
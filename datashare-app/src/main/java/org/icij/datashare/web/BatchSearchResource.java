@@ -14,6 +14,7 @@ import net.codestory.http.annotations.*;
 import net.codestory.http.constants.HttpStatus;
 import net.codestory.http.errors.UnauthorizedException;
 import net.codestory.http.payload.Payload;
+import net.codestory.http.payload.StreamingOutput;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.batch.*;
 import org.icij.datashare.db.JooqBatchSearchRepository;
@@ -22,11 +23,17 @@ import org.icij.datashare.text.ProjectProxy;
 import org.icij.datashare.user.User;
 import org.icij.datashare.utils.PayloadFormatter;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Optional.ofNullable;
 import static net.codestory.http.payload.Payload.*;
 import static org.icij.datashare.function.ThrowingFunctions.parseBoolean;
@@ -248,44 +255,51 @@ public class BatchSearchResource {
     }
 
     @Operation( description = "Retrieves the results of a batch search as an attached CSV file.",
-                parameters = {@Parameter(name = "batchid")}
+                parameters = {@Parameter(name = "batchid"),
+                        @Parameter(name = "gzip", description = "if true, the CSV file is compressed with gzip", in = ParameterIn.QUERY)}
     )
     @ApiResponse(responseCode = "200", description = "returns the results of the batch search as CSV attached file.")
     @Get("/search/result/csv/:batchid")
     public Payload getResultAsCsv(String batchId, Context context) {
-        // Define the CSV header
         final String CSV_HEADER = "query,documentUrl,documentId,rootId,contentType,contentLength,documentPath,documentDirname,creationDate,documentNumber";
+        boolean gzip = ofNullable(context.get("gzip")).map(parseBoolean).orElse(false);
 
-        // Create a StringBuilder to build the CSV content
-        StringBuilder builder = new StringBuilder();
-        builder.append(CSV_HEADER).append("\n");
-
-        // Get the current user and batch search information
         User currentUser = (User) context.currentUser();
         BatchSearch batchSearch = batchSearchRepository.get(currentUser, batchId);
         String url = propertiesProvider.get("rootHost").orElse(context.header("Host"));
         BatchSearchRepository.WebQuery webQuery = WebQueryBuilder.createWebQuery().queryAll().build();
-        WebResponse<SearchResult> results = getResultsOrThrowUnauthorized(batchId, (User) context.currentUser(), webQuery);
-
-        // Iterate through the results and construct CSV lines
-        results.items.forEach(result -> {
-            String docUrl = docUrl(url, batchSearch.projects, result.documentId, result.rootId);
-            String dirname = dirname(result.documentPath);
-
-            builder.append("\"").append(result.query).append("\",");
-            builder.append("\"").append(docUrl).append("\",");
-            builder.append("\"").append(result.documentId).append("\",");
-            builder.append("\"").append(result.rootId).append("\",");
-            builder.append("\"").append(result.contentType).append("\",");
-            builder.append("\"").append(result.contentLength).append("\",");
-            builder.append("\"").append(result.documentPath).append("\",");
-            builder.append("\"").append(dirname).append("\",");
-            builder.append("\"").append(result.creationDate).append("\",");
-            builder.append("\"").append(result.documentNumber).append("\"\n");
-        });
+        Stream<SearchResult> results;
+        try {
+            results = batchSearchRepository.streamResults(currentUser, batchId, webQuery);
+        } catch (JooqBatchSearchRepository.UnauthorizedUserException unauthorized) {
+            throw new UnauthorizedException();
+        }
 
-        return new Payload("text/csv", builder.toString())
-                .withHeader("Content-Disposition", "attachment;filename=\"" + batchId + ".csv\"");
+        // rows are written to the response while they are read from the database, so that the heap
+        // used does not depend on the number of results
+        StreamingOutput csv = output -> {
+            try (results; Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? new GZIPOutputStream(output) : output, UTF_8))) {
+                writer.write(CSV_HEADER);
+                writer.write("\n");
+                Iterator<SearchResult> it = results.iterator();
+                while (it.hasNext()) {
+                    SearchResult result = it.next();
+                    writer.write("\"" + result.query + "\",");
+                    writer.write("\"" + docUrl(url, batchSearch.projects, result.documentId, result.rootId) + "\",");
+                    writer.write("\"" + result.documentId + "\",");
+                    writer.write("\"" + result.rootId + "\",");
+                    writer.write("\"" + result.contentType + "\",");
+                    writer.write("\"" + result.contentLength + "\",");
+                    writer.write("\"" + result.documentPath + "\",");
+                    writer.write("\"" + dirname(result.documentPath) + "\",");
+                    writer.write("\"" + result.creationDate + "\",");
+                    writer.write("\"" + result.documentNumber + "\"\n");
+                }
+            }
+        };
+        return gzip ?
+                new Payload("application/gzip", csv).withHeader("Content-Disposition", "attachment;filename=\"" + batchId + ".csv.gz\"") :
+                new Payload("text/csv", csv).withHeader("Content-Disposition", "attachment;filename=\"" + batchId + ".csv\"");
     }
 
 
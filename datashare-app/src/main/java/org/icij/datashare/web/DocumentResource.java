@@ -25,10 +25,14 @@ import org.icij.datashare.Repository.AggregateList;
 import org.icij.datashare.cli.DatashareCliOptions;
 import org.icij.datashare.session.DatashareUser;
 import org.icij.datashare.text.*;
+import org.icij.datashare.text.artifact.ArtifactReader;
+import org.icij.datashare.text.artifact.ArtifactType;
+import org.icij.datashare.text.artifact.ManifestEntry;
 import org.icij.datashare.text.artifact.PageArtifact;
 import org.icij.datashare.text.indexing.ExtractedText;
 import org.icij.datashare.text.indexing.Indexer;
 import org.icij.datashare.text.indexing.SearchedText;
+import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import org.icij.datashare.user.User;
 import org.icij.datashare.utils.DocumentSourceAccess;
 import org.icij.extract.document.DocumentFactory;
@@ -42,6 +46,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static java.lang.Boolean.parseBoolean;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.stream;
 import static java.util.Optional.ofNullable;
 import static net.codestory.http.errors.NotFoundException.notFoundIfNull;
@@ -55,14 +60,16 @@ public class DocumentResource {
     private final Indexer indexer;
     private final PropertiesProvider propertiesProvider;
     private final DocumentSourceAccess sources;
+    private final ArtifactReader artifacts;
 
     @Inject
     public DocumentResource(Repository repository, Indexer indexer, PropertiesProvider propertiesProvider,
-                            DocumentSourceAccess sources) {
+                            DocumentSourceAccess sources, ArtifactReader artifacts) {
         this.repository = repository;
         this.indexer = indexer;
         this.propertiesProvider = propertiesProvider;
         this.sources = sources;
+        this.artifacts = artifacts;
     }
 
     @Operation(description = "Fetches original datashare document json.",
@@ -165,11 +172,22 @@ public class DocumentResource {
                     @Parameter(name = "routing", description = "routing key if not a root document", in = ParameterIn.QUERY)
             }
     )
-    @ApiResponse(responseCode = "200", description = "JSON containing pages indices parameters",  useReturnTypeSchema = true)
+    @ApiResponse(responseCode = "200", description = "JSON containing pages indices parameters",
+            content = @Content(schema = @Schema(implementation = PageIndices.class)))
     @Get("/:project/documents/pages/:id?routing=:routing")
-    public PageIndices getPages(final String project, final String id, final String routing, final Context context) throws IOException {
+    public Payload getPages(final String project, final String id, final String routing, final Context context) throws IOException {
         requireGranted(context, project);
         Document doc = indexer.get(project, id, routing, List.of("content","content_translated"));
+        // Recorded by the page artifact with --artifactsPageOffsets: the bytes this route would serialise,
+        // without the parse of the whole file it takes to compute them on every page turn.
+        byte[] storedOffsets = storedPageOffsets(doc);
+        if (storedOffsets != null) {
+            return new Payload("application/json;charset=UTF-8", storedOffsets);
+        }
+        return new Payload(livePageIndices(doc));
+    }
+
+    private PageIndices livePageIndices(Document doc) throws IOException {
         try (Extractor extractor = getExtractor(doc)) {
             if (doc.getOcrParser() == null) {
                 extractor.disableOcr();
@@ -188,7 +206,7 @@ public class DocumentResource {
     }
 
     @Operation(deprecated = true,
-            description = "Deprecated: use GET /:project/artifacts/page/:id/:page, which serves the persisted page artifact instead of reparsing the source on every request. This route still reparses live and is kept until clients migrate.",
+            description = "Deprecated: use GET /:project/artifacts/page/:id/:page, which serves the persisted page artifact instead of reparsing the source on every request. This route serves that artifact when the document has one, reparses live otherwise, and is kept until clients migrate.",
             parameters = {
                     @Parameter(name = "project", description = "the project id", in = ParameterIn.PATH),
                     @Parameter(name = "id", description = "the document id", in = ParameterIn.PATH),
@@ -201,6 +219,10 @@ public class DocumentResource {
     public List<String> getContentByPage(final String project, final String id, final String routing, final Context context) throws IOException {
         requireGranted(context, project);
         Document doc = indexer.get(project, id, routing, List.of("content","content_translated"));
+        List<String> storedPages = storedPages(doc);
+        if (storedPages != null) {
+            return storedPages;
+        }
         try (Extractor extractor = getExtractor(doc)) {
             if (doc.getOcrParser() == null) {
                 extractor.disableOcr();
@@ -480,6 +502,38 @@ public class DocumentResource {
         return new Result<>(repository.unrecommend(project(projectId), (DatashareUser)context.currentUser(), docIds));
     }
 
+    private byte[] storedPageOffsets(Document doc) throws IOException {
+        Path docArtifactDir = docArtifactDir(doc);
+        ManifestEntry entry = docArtifactDir == null ? null : artifacts.servableEntry(docArtifactDir, ArtifactType.PAGE);
+        return entry == null ? null : artifacts.pageOffsets(docArtifactDir, entry);
+    }
+
+    // The page artifact holds these very pages, paginated with the same selection and the same OCR rule
+    // (see PageArtifact#extractPages). Null sends the caller to the live parse: no artifactDir, no complete
+    // page entry, or a page its manifest promised and the disk cannot give.
+    private List<String> storedPages(Document doc) throws IOException {
+        Path docArtifactDir = docArtifactDir(doc);
+        ManifestEntry entry = docArtifactDir == null ? null : artifacts.servableEntry(docArtifactDir, ArtifactType.PAGE);
+        Integer total = entry == null ? null : artifacts.servableTotal(docArtifactDir, ArtifactType.PAGE, entry);
+        if (total == null) {
+            return null;
+        }
+        List<String> pages = new ArrayList<>(total);
+        for (int page = 1; page <= total; page++) {
+            byte[] bytes = artifacts.page(docArtifactDir, ArtifactType.PAGE, entry, page, "txt");
+            if (bytes == null) {
+                return null;
+            }
+            pages.add(new String(bytes, UTF_8));
+        }
+        return pages;
+    }
+
+    private Path docArtifactDir(Document doc) {
+        Path projectRoot = getArtifactPath(doc.getProject());
+        return projectRoot == null ? null : ArtifactPath.dir(projectRoot, doc.getId());
+    }
+
     @NotNull
     private Extractor getExtractor(Document doc) {
         Hasher hasher = Hasher.valueOf(doc.getId().length());
@@ -12,28 +12,39 @@ import net.codestory.http.annotations.Options;
 import net.codestory.http.annotations.Prefix;
 import net.codestory.http.annotations.Put;
 import net.codestory.http.payload.Payload;
-import org.icij.datashare.Entity;
+import org.icij.datashare.PropertiesProvider;
+import org.icij.datashare.asynctasks.TaskManager;
+import org.icij.datashare.tasks.HideNamedEntitiesTask;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.user.User;
+import org.icij.datashare.web.TaskResource.TaskResponse;
 
 import static org.icij.datashare.web.errors.ForbiddenException.requireGranted;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
-import static java.util.Collections.singletonList;
-import static java.util.stream.Collectors.toList;
 import static net.codestory.http.errors.NotFoundException.notFoundIfNull;
 import static net.codestory.http.payload.Payload.ok;
+import static org.icij.datashare.PropertiesProvider.DEFAULT_PROJECT_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.HIDE_NAMED_ENTITIES_SLICES_OPT;
+import static org.icij.datashare.tasks.HideNamedEntitiesTask.MENTION_NORM_ARG;
 
 @Singleton
 @Prefix("/api")
 public class NamedEntityResource {
     private final Indexer indexer;
+    private final TaskManager taskManager;
+    private final PropertiesProvider propertiesProvider;
 
     @Inject
-    public NamedEntityResource(final Indexer indexer) {
+    public NamedEntityResource(final Indexer indexer, final TaskManager taskManager, final PropertiesProvider propertiesProvider) {
         this.indexer = indexer;
+        this.taskManager = taskManager;
+        this.propertiesProvider = propertiesProvider;
     }
 
     @Operation(description = "Returns the named entity given an id and a document id.")
@@ -54,16 +65,17 @@ public class NamedEntityResource {
         return ok().withAllowMethods("OPTIONS", "PUT");
     }
 
-    @Operation(description = "Hide all named entities with the given normalized mention")
-    @ApiResponse(responseCode = "200", description = "returns 200 OK")
+    @Operation(description = "Hide all named entities with the given normalized mention. The entities are hidden by a task " +
+            "running an update by query, whose progress can be followed with the returned task id.")
+    @ApiResponse(responseCode = "200", description = "returns 200 and the json task id", useReturnTypeSchema = true)
     @Put("/:project/namedEntities/hide/:mentionNorm")
-    public Payload hide(@Parameter(name = "project", description = "current project", in = ParameterIn.PATH) final String project,
-                        @Parameter(name = "mentionNorm", description = "normalized mention", in = ParameterIn.PATH) final String mentionNorm,
-                        final Context context) throws IOException {
+    public TaskResponse hide(@Parameter(name = "project", description = "current project", in = ParameterIn.PATH) final String project,
+                             @Parameter(name = "mentionNorm", description = "normalized mention", in = ParameterIn.PATH) final String mentionNorm,
+                             final Context context) throws IOException {
         requireGranted(context, project);
-        List<? extends Entity> nes = indexer.search(singletonList(project), NamedEntity.class).
-                thatMatchesFieldValue("mentionNorm", mentionNorm).execute().map(ne -> ((NamedEntity)ne).hide()).collect(toList());
-        indexer.bulkUpdate(project, nes);
-        return ok();
+        Map<String, Object> args = new HashMap<>(Map.of(DEFAULT_PROJECT_OPT, project, MENTION_NORM_ARG, mentionNorm));
+        propertiesProvider.get(HIDE_NAMED_ENTITIES_SLICES_OPT).ifPresent(slices -> args.put(HIDE_NAMED_ENTITIES_SLICES_OPT, slices));
+        propertiesProvider.get(HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT).ifPresent(rps -> args.put(HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT, rps));
+        return new TaskResponse(taskManager.startTask(HideNamedEntitiesTask.class, (User) context.currentUser(), args));
     }
 }
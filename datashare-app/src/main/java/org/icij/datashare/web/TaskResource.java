@@ -66,6 +66,7 @@ import static org.icij.datashare.text.nlp.AbstractModels.syncModels;
 @Prefix("/api/task")
 public class TaskResource {
     public static final Set<String> PAGINATION_FIELDS = WebQueryPagination.fields();
+    public static final String SUMMARY_FIELD = "summary";
     public static final Set<String> TASK_FILTER_FIELDS = Stream.concat(
             Arrays.stream(QueryParameterExtractor.Fields.values()).map(Enum::name), Stream.of("user")).collect(Collectors.toSet());
     private final DatashareTaskFactory taskFactory;
@@ -101,7 +102,8 @@ public class TaskResource {
                     @Parameter(name = "size", description = "the number of element retrieved", in = ParameterIn.QUERY), @Parameter(name = "sort", description = "the name of the parameter to sort on (default: modificationDate)", in = ParameterIn.QUERY),
                     @Parameter(name = "name", description = "example: org.icij.datashare.tasks.BatchSearchRunner", in = ParameterIn.QUERY),
                     @Parameter(name = "sort", description = "the name of the parameter to use for sort", in = ParameterIn.QUERY),
-                    @Parameter(name = "order", description = "desc or asc (default)", in = ParameterIn.QUERY)
+                    @Parameter(name = "order", description = "desc or asc (default)", in = ParameterIn.QUERY),
+                    @Parameter(name = "summary", description = "if true, big task args (like document lists) are left out", in = ParameterIn.QUERY)
             })
     @ApiResponse(responseCode = "200", description = "returns the list of tasks", useReturnTypeSchema = true)
     @ApiResponse(responseCode = "400", description = "if task type is not valid")
@@ -109,11 +111,10 @@ public class TaskResource {
     public Payload getTasks(Context context) throws IOException {
         WebQueryPagination pagination = getPagination(context);
         User user = (User) context.currentUser();
+        boolean summary = Boolean.parseBoolean(context.get(SUMMARY_FIELD));
         try {
-            Stream<Task<?>> tasks = taskFinder.findVisibleTasksFor(user, taskFiltersFromContext(context.query(), (User) context.currentUser(), Pattern.CASE_INSENSITIVE))
-                    .sorted(new Task.Comparator(pagination.sort, pagination.order));
-            WebResponse<Task<?>> paginatedTasks = WebResponse.fromStream(tasks, pagination.from, pagination.size);
-            // Then finally, use WebResponse to take display the pagination for us
+            WebResponse<Task<?>> paginatedTasks = taskFinder.findVisibleTasksFor(user,
+                    taskFiltersFromContext(context.query(), (User) context.currentUser(), Pattern.CASE_INSENSITIVE), pagination, summary);
             return new Payload(paginatedTasks);
         } catch (UnknownTaskType e) {
             return new JsonPayload(400, Map.of("text", "Unknown task type: " + e.getMessage()));
@@ -666,6 +667,7 @@ public class TaskResource {
         Set<String> extraKeys = query.keys().stream()
                 .filter(not(PAGINATION_FIELDS::contains))
                 .filter(not(TASK_FILTER_FIELDS::contains))
+                .filter(not(SUMMARY_FIELD::equals))
                 // We allow nested args search
                 .filter(not(k -> k.startsWith("args.")))
                 .collect(Collectors.toSet());
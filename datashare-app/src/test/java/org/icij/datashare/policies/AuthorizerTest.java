@@ -23,9 +23,13 @@ import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.text.Project.project;
 import static org.icij.datashare.user.User.localUser;
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -469,4 +473,41 @@ public class AuthorizerTest {
         watchedAuthorizer.close();
     }
 
+    @Test
+    public void test_cached_decision_is_dropped_on_policy_change() {
+        assertFalse(authorizer.can(user.id, domain, project.getId(), Role.PROJECT_MEMBER));
+
+        authorizer.addRoleForUserInProject(user, Role.PROJECT_MEMBER, domain, project);
+        assertTrue(authorizer.can(user.id, domain, project.getId(), Role.PROJECT_MEMBER));
+
+        authorizer.deleteRoleForUserInProject(user, Role.PROJECT_MEMBER, domain, project);
+        assertFalse(authorizer.can(user.id, domain, project.getId(), Role.PROJECT_MEMBER));
+    }
+
+    @Test
+    public void test_policy_change_is_published_as_incremental_update() throws Exception {
+        CasbinRuleAdapter adapter = Mockito.mock(CasbinRuleAdapter.class);
+        PolicyWatcher policyWatcher = Mockito.mock(PolicyWatcher.class);
+        Authorizer watchedAuthorizer = new Authorizer(adapter, policyWatcher);
+
+        watchedAuthorizer.addRoleForUserInProject(user, Role.PROJECT_MEMBER, domain, project);
+
+        verify(policyWatcher).update(PolicyUpdateMessage.ADD_GROUPING, List.of(user.id, "PROJECT_MEMBER", "test_domain::test_project"));
+        verify(policyWatcher, never()).update();
+    }
+
+    @Test
+    public void test_remote_incremental_update_is_applied_without_reload_nor_save() throws Exception {
+        CasbinRuleAdapter adapter = Mockito.mock(CasbinRuleAdapter.class);
+        Authorizer watchedAuthorizer = new Authorizer(adapter, Mockito.mock(PolicyWatcher.class));
+        assertFalse(watchedAuthorizer.can(user.id, domain, project.getId(), Role.PROJECT_MEMBER));
+
+        watchedAuthorizer.applyRemoteUpdate(new PolicyUpdateMessage("other-instance-id", PolicyUpdateMessage.ADD_GROUPING,
+                List.of(user.id, "PROJECT_MEMBER", "test_domain::test_project")));
+
+        assertTrue(watchedAuthorizer.can(user.id, domain, project.getId(), Role.PROJECT_MEMBER));
+        verify(adapter, times(1)).loadPolicy(any());
+        verify(adapter, never()).addPolicy(eq("g"), eq("g"), anyList());
+    }
+
 }
@@ -55,6 +55,38 @@ public class ApiKeyFilterTest {
         assertThat(user.getValue().login()).isEqualTo("user_id");
     }
 
+    @Test
+    public void test_resolves_the_user_once_with_cache() throws Exception {
+        ApiKeyCache apiKeyCache = new ApiKeyCache(60);
+        ApiKeyFilter filterWithCache = new ApiKeyFilter(users, apiKeyStore, apiKeyCache, postLoginEnroller);
+        when(context.header("authorization")).thenReturn("Bearer session_id");
+        when(apiKeyStore.getLogin("session_id")).thenReturn("user_id");
+        when(users.find("user_id")).thenReturn(new DatashareUser("user_id"));
+
+        filterWithCache.apply("url", context, nextFilter);
+        Payload payload = filterWithCache.apply("url", context, nextFilter);
+
+        assertThat(payload).isSameAs(next);
+        verify(apiKeyStore, times(1)).getLogin("session_id");
+        verify(users, times(1)).find("user_id");
+        verify(context, times(2)).setCurrentUser(user.capture());
+        assertThat(user.getValue().login()).isEqualTo("user_id");
+    }
+
+    @Test
+    public void test_resolves_the_user_again_after_invalidation() throws Exception {
+        ApiKeyCache apiKeyCache = new ApiKeyCache(60);
+        ApiKeyFilter filterWithCache = new ApiKeyFilter(users, apiKeyStore, apiKeyCache, postLoginEnroller);
+        when(context.header("authorization")).thenReturn("Bearer session_id");
+        when(apiKeyStore.getLogin("session_id")).thenReturn("user_id", (String) null);
+        when(users.find("user_id")).thenReturn(new DatashareUser("user_id"));
+
+        filterWithCache.apply("url", context, nextFilter);
+        apiKeyCache.invalidate("user_id");
+
+        assertThat(filterWithCache.apply("url", context, nextFilter).code()).isEqualTo(401);
+    }
+
     @Test
     public void test_unauthorized_if_type_is_not_bearer() throws Exception {
         when(context.header("authorization")).thenReturn("Basic session_id");
@@ -10,9 +10,13 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UsersInDbTest {
@@ -81,6 +85,19 @@ public class UsersInDbTest {
         assertThat(result.get(0)).isInstanceOf(DatashareUser.class);
     }
 
+    @Test
+    public void get_users_by_ids_in_one_repository_call() {
+        Repository repository = mock(Repository.class);
+        org.icij.datashare.user.User alice = new org.icij.datashare.user.User("alice", "Alice", "alice@example.org", "local", new HashMap<>());
+        when(repository.getUsers(Set.of("alice", "bob"))).thenReturn(List.of(alice));
+
+        List<org.icij.datashare.user.User> result = new UsersInDb(repository).getUsersByIds(Set.of("alice", "bob"));
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0)).isInstanceOf(DatashareUser.class);
+        verify(repository, never()).getUser(anyString());
+    }
+
     @Test
     public void list_users_empty_filter_returns_all() {
         Repository repository = mock(Repository.class);
@@ -22,6 +22,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import static java.lang.String.valueOf;
@@ -72,6 +73,25 @@ public class BatchDownloadRunnerTest {
         assertThat(result.truncationReason()).isEqualTo(BatchDownloadRunnerResult.TruncationReason.SIZE_LIMIT);
     }
 
+    @Test
+    public void test_extract_sources_on_several_threads() throws Exception {
+        Document[] documents = createFiveHelloWorldDocs();
+        mockSearch.willReturn(2, documents);
+        Task<File> taskView = getTaskView(new BatchDownload(singletonList(project("test-datashare")), User.local(), "query"));
+        BatchDownloadRunnerResult result = new BatchDownloadRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_DOWNLOAD_PARALLELISM_OPT, "2");
+            put(BATCH_DOWNLOAD_MAX_NB_FILES_OPT, "4");
+            put(SCROLL_SIZE_OPT, "3");
+        }}), taskView, taskView.progress(updater::progress)).call();
+
+        try (ZipFile zip = new ZipFile(new File(result.uri()))) {
+            assertThat(zip.size()).isEqualTo(4);
+            assertThat(zip.stream().map(ZipEntry::getName).map(name -> name.substring(name.lastIndexOf('/') + 1)).toList())
+                    .containsExactly("src_file_0.txt", "src_file_1.txt", "src_file_2.txt", "src_file_3.txt");
+        }
+        assertThat(result.truncationReason()).isEqualTo(BatchDownloadRunnerResult.TruncationReason.FILE_COUNT_LIMIT);
+    }
+
     @Test
     public void test_retention_row_omitted_when_ttl_zero_or_negative() {
         assertThat(BatchDownloadRunner.formatRetentionRow(0)).isEqualTo("");
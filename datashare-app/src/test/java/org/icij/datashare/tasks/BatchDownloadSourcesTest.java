@@ -0,0 +1,89 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.elasticsearch.SourceExtractor;
+import org.icij.datashare.utils.DocumentVerifier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
+import static org.icij.datashare.text.Project.project;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class BatchDownloadSourcesTest {
+    @Mock SourceExtractor extractor;
+    @Mock DocumentVerifier documentVerifier;
+    private BatchDownloadSources sources;
+
+    @Test
+    public void test_embedded_documents_of_a_root_are_cached_with_one_extraction_pass() throws Exception {
+        when(extractor.cachesEmbeddedSources(any())).thenReturn(true);
+        List<Document> documents = List.of(embedded("child1", "root"), embedded("child2", "root"), embedded("child3", "root"));
+
+        List<String> read = readAll(documents);
+
+        assertThat(read).containsExactly("child1", "child2", "child3");
+        verify(extractor, times(1)).extractEmbeddedSources(any(), any());
+    }
+
+    @Test
+    public void test_no_extraction_pass_without_an_artifact_cache() throws Exception {
+        when(extractor.cachesEmbeddedSources(any())).thenReturn(false);
+
+        List<String> read = readAll(List.of(embedded("child1", "root"), embedded("child2", "root")));
+
+        assertThat(read).containsExactly("child1", "child2");
+        verify(extractor, never()).extractEmbeddedSources(any(), any());
+    }
+
+    @Test
+    public void test_documents_too_large_are_skipped() throws Exception {
+        Document large = embedded("large", "root");
+        when(documentVerifier.isRootDocumentSizeAllowed(large)).thenReturn(false);
+
+        List<String> read = readAll(List.of(createDoc("doc").with(project("prj")).build(), large));
+
+        assertThat(read).containsExactly("doc");
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        initMocks(this);
+        when(documentVerifier.isRootDocumentSizeAllowed(any())).thenReturn(true);
+        when(extractor.getSource(any(), any())).thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+        sources = new BatchDownloadSources(extractor, documentVerifier, 2);
+    }
+
+    @After
+    public void tearDown() {
+        sources.close();
+    }
+
+    private List<String> readAll(List<Document> documents) throws Exception {
+        List<String> read = new ArrayList<>();
+        try (BatchDownloadSources.Page page = sources.open(documents)) {
+            while (page.hasNext()) {
+                BatchDownloadSources.Source source = page.next();
+                read.add(source.document().getId());
+                source.discard();
+            }
+        }
+        return read;
+    }
+
+    private static Document embedded(String id, String rootId) {
+        return createDoc(id).with(project("prj")).withRootId(rootId).withParentId(rootId).withExtractionLevel((short) 1).build();
+    }
+}
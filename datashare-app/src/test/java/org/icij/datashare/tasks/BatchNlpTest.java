@@ -1,9 +1,13 @@
 package org.icij.datashare.tasks;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.text.DocumentBuilder.createDoc;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -12,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.icij.datashare.asynctasks.Task;
+import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.Language;
 import org.icij.datashare.text.indexing.Indexer;
@@ -74,4 +79,61 @@ public class BatchNlpTest {
         verify(pipeline).process(eq(doc1), eq(maxLength), eq(0));
         verify(pipeline).process(eq(doc1), eq(maxLength), eq(maxLength));
     }
+
+    @Test(timeout = 2000)
+    public void test_batch_nlp_with_prefetch() throws Exception {
+        Language language = Language.ENGLISH;
+        Document doc0 = createDoc("doc0").with(language).withRootId("rootId").with("hello world").build();
+        Document doc1 = createDoc("doc1").with(language).withRootId("rootId").with("hello again").build();
+        when(pipeline.getType()).thenReturn(Pipeline.Type.CORENLP);
+        when(pipeline.initialize(any())).thenReturn(true);
+        when(indexer.<Document>getAll(INDEX_NAME, List.of(new DocReference("doc0", "rootId"), new DocReference("doc1", "rootId")),
+                List.of("contentTranslated"))).thenReturn(Map.of("doc0", doc0, "doc1", doc1));
+        Map<String, Object> properties = Map.of(
+            "docs", List.of(
+                new CreateNlpBatchesFromIndex.BatchDocument(doc0.getId(), doc0.getRootDocument(), INDEX_NAME, language),
+                new CreateNlpBatchesFromIndex.BatchDocument(doc1.getId(), doc1.getRootDocument(), INDEX_NAME, language)),
+            "pipeline", "OPENNLP",
+            "maxLength", 20,
+            "nlpPrefetchSize", "10"
+        );
+
+        new BatchNlpTask(indexer, pipeline, new Task<>(BatchNlpTask.class.getName(), new User("test"), properties), null).call();
+
+        verify(pipeline).process(eq(doc0));
+        verify(pipeline).process(eq(doc1));
+        verify(indexer, never()).get(anyString(), anyString(), any(List.class));
+    }
+
+    @Test(timeout = 2000)
+    public void test_batch_nlp_with_parallel_workers() throws Exception {
+        Language language = Language.ENGLISH;
+        Document doc0 = createDoc("doc0").with(language).withRootId("rootId").with("hello world").build();
+        Document doc1 = createDoc("doc1").with(language).withRootId("rootId").with("hello again").build();
+        AbstractPipeline workerPipeline = mock(AbstractPipeline.class);
+        when(pipeline.getType()).thenReturn(Pipeline.Type.CORENLP);
+        when(pipeline.initialize(any())).thenReturn(true);
+        when(pipeline.newWorker()).thenReturn(workerPipeline);
+        when(workerPipeline.getType()).thenReturn(Pipeline.Type.CORENLP);
+        when(indexer.get(eq("doc0"), anyString(), any(List.class))).thenReturn(doc0);
+        when(indexer.get(eq("doc1"), anyString(), any(List.class))).thenReturn(doc1);
+        Map<String, Object> properties = Map.of(
+            "docs", List.of(
+                new CreateNlpBatchesFromIndex.BatchDocument(doc0.getId(), doc0.getRootDocument(), INDEX_NAME, language),
+                new CreateNlpBatchesFromIndex.BatchDocument(doc1.getId(), doc1.getRootDocument(), INDEX_NAME, language)),
+            "pipeline", "OPENNLP",
+            "maxLength", 20,
+            "nlpParallelism", "2"
+        );
+
+        Long processed = new BatchNlpTask(indexer, pipeline, new Task<>(BatchNlpTask.class.getName(), new User("test"), properties), null).call();
+
+        assertThat(processed).isEqualTo(2);
+        verify(workerPipeline).initialize(language);
+        verify(workerPipeline).terminate(language);
+        verify(pipeline).terminate(language);
+        int processedByMain = mockingDetails(pipeline).getInvocations().stream().filter(i -> i.getMethod().getName().equals("process")).toList().size();
+        int processedByWorker = mockingDetails(workerPipeline).getInvocations().stream().filter(i -> i.getMethod().getName().equals("process")).toList().size();
+        assertThat(processedByMain + processedByWorker).isEqualTo(2);
+    }
 }
@@ -283,8 +283,11 @@ public class BatchSearchRunnerIntTest {
 
     @Test
     public void test_use_scroll_duration_value() throws Exception {
+        // a query is only scrolled when its first page is full
+        indexer.add(es.getIndexName(), createDoc("docId1").with("mydoc").build());
         PropertiesProvider propertiesProvider = new PropertiesProvider(new HashMap<>() {{
             put(BATCH_SEARCH_SCROLL_DURATION_OPT, "foo");
+            put(BATCH_SEARCH_SCROLL_SIZE_OPT, "1");
         }});
         BatchSearch search = new BatchSearch(singletonList(project(es.getIndexName())), "name", "desc", asSet("mydoc"), null, User.local(), false, null, null,null, 0);
         when(repository.get(local(), search.uuid)).thenReturn(search);
@@ -1,5 +1,7 @@
 package org.icij.datashare.tasks;
 
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.asynctasks.CancelException;
 import org.icij.datashare.asynctasks.Task;
@@ -10,25 +12,34 @@ import org.icij.datashare.batch.SearchException;
 import org.icij.datashare.test.DatashareTimeRule;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.SearchQuery;
 import org.icij.datashare.user.User;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.CollectionUtils.asSet;
 import static org.icij.datashare.cli.DatashareCliOptions.BATCH_SEARCH_MAX_TIME_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.BATCH_SEARCH_SCROLL_SIZE_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.BATCH_THROTTLE_OPT;
 import static org.icij.datashare.tasks.BatchSearchRunner.MAX_BATCH_RESULT_SIZE;
 import static org.icij.datashare.tasks.BatchSearchRunner.MAX_SCROLL_SIZE;
+import static org.icij.datashare.tasks.BatchSearchRunner.MULTI_SEARCH_PAGE_SIZE;
 import static org.icij.datashare.text.DocumentBuilder.createDoc;
 import static org.icij.datashare.text.Project.project;
 import static org.icij.datashare.user.User.local;
@@ -120,6 +131,21 @@ public class BatchSearchRunnerTest {
         new BatchSearchRunner(indexer, new PropertiesProvider(), repository, taskView(batchSearch), progressCb).call();
     }
 
+    @Test
+    public void test_run_batch_search_asks_a_small_first_page_and_scrolls_a_full_one() throws Exception {
+        Document[] documents = IntStream.range(0, MULTI_SEARCH_PAGE_SIZE).mapToObj(i -> createDoc("doc" + i).build()).toArray(Document[]::new);
+        mockSearch.willReturn("query", documents);
+        Indexer.Searcher searcher = indexer.search(singletonList("test-datashare"), Document.class, new SearchQuery("query"));
+        BatchSearch batchSearch = new BatchSearch("uuid1", singletonList(project("test-datashare")), "name", "desc", asSet("query"), new Date(), BatchSearch.State.QUEUED, local());
+        when(repository.get(local(), batchSearch.uuid)).thenReturn(batchSearch);
+
+        assertThat(new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_SEARCH_SCROLL_SIZE_OPT, "1000");
+        }}), repository, taskView(batchSearch), progressCb).call().nbResults()).isEqualTo(MULTI_SEARCH_PAGE_SIZE);
+        verify(searcher).limit(MULTI_SEARCH_PAGE_SIZE);
+        verify(searcher, atLeastOnce()).scroll(anyString());
+    }
+
     @Test
     public void test_run_batch_search_truncate_to_60k_max_results() throws Exception {
         Document[] documents = IntStream.range(0, MAX_SCROLL_SIZE).mapToObj(i -> createDoc("doc" + i).build()).toArray(Document[]::new);
@@ -155,12 +181,127 @@ public class BatchSearchRunnerTest {
         SearchException searchException = assertThrows(SearchException.class, () -> new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
             put(BATCH_THROTTLE_OPT, "1000");
             put(BATCH_SEARCH_MAX_TIME_OPT, "1");
+            put(BATCH_SEARCH_SCROLL_SIZE_OPT, "1"); // a full first page: the query is scrolled
         }}), repository, taskView(batchSearch), progressCb).call());
 
         assertThat(searchException.toString()).contains("Batch timed out after 1s");
         assertThat(timeRule.now().getTime() - beforeBatch.getTime()).isEqualTo(1000);
     }
 
+    @Test
+    public void test_run_batch_search_with_one_multi_search_per_group_of_queries() throws Exception {
+        mockSearch.willReturn("query1", createDoc("doc1").build());
+        mockSearch.willReturn("query2");
+        mockSearch.willReturn("query3", createDoc("doc3").build());
+        BatchSearch search = new BatchSearch("uuid1", singletonList(project("test-datashare")), "name1", "desc1", asSet("query1", "query2", "query3"), new Date(), BatchSearch.State.QUEUED, User.local());
+        when(repository.get(local(), search.uuid)).thenReturn(search);
+
+        BatchSearchRunnerResult result = new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT, "2");
+        }}), repository, taskView(search), progressCb).call();
+
+        assertThat(result.nbResults()).isEqualTo(2);
+        verify(indexer, times(2)).multiSearch(anyList(), anyList());
+        verify(repository).saveResults("uuid1", "query1", singletonList(createDoc("doc1").build()));
+        verify(repository).saveResults("uuid1", "query3", singletonList(createDoc("doc3").build()));
+        verify(progressCb).apply(1.0);
+    }
+
+    @Test
+    public void test_run_batch_search_reports_the_query_that_failed_in_a_multi_search() throws Exception {
+        mockSearch.willReturn("query1");
+        mockSearch.willReturn("query2");
+        Indexer.Searcher invalid = indexer.search(singletonList("test-datashare"), Document.class, new SearchQuery("query2"));
+        doAnswer(a -> {
+            List<Indexer.Searcher> searchers = a.getArgument(0);
+            if (searchers.contains(invalid)) {
+                throw elasticsearchError(400, "query_shard_exception");
+            }
+            return searchers.stream().map(searcher -> Stream.empty()).collect(toList());
+        }).when(indexer).multiSearch(anyList(), anyList());
+        BatchSearch search = new BatchSearch("uuid1", singletonList(project("test-datashare")), "name1", "desc1", asSet("query1", "query2"), new Date(), BatchSearch.State.QUEUED, User.local());
+        when(repository.get(local(), search.uuid)).thenReturn(search);
+
+        SearchException searchException = assertThrows(SearchException.class, () -> new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT, "2");
+        }}), repository, taskView(search), progressCb).call());
+
+        assertThat(searchException.query).isEqualTo("query2");
+        verify(indexer, times(3)).multiSearch(anyList(), anyList());
+    }
+
+    @Test
+    public void test_run_batch_search_does_not_name_a_query_for_an_error_of_the_multi_search() throws Exception {
+        mockSearch.willReturn("query1");
+        mockSearch.willReturn("query2");
+        doThrow(elasticsearchError(413, "content_too_long_exception")).when(indexer).multiSearch(anyList(), anyList());
+        BatchSearch search = new BatchSearch("uuid1", singletonList(project("test-datashare")), "name1", "desc1", asSet("query1", "query2"), new Date(), BatchSearch.State.QUEUED, User.local());
+        when(repository.get(local(), search.uuid)).thenReturn(search);
+
+        SearchException searchException = assertThrows(SearchException.class, () -> new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT, "2");
+        }}), repository, taskView(search), progressCb).call());
+
+        assertThat(searchException.query).isNull();
+        verify(indexer, times(1)).multiSearch(anyList(), anyList());
+    }
+
+    @Test(timeout = 5000)
+    public void test_run_batch_search_stops_at_a_failed_scroll_and_saves_the_results_found_before() throws Exception {
+        mockSearch.willReturn("query1", createDoc("doc1").build(), createDoc("doc2").build());
+        mockSearch.willReturn("query2", createDoc("doc3").build());
+        mockSearch.willReturn("query3", createDoc("doc4").build());
+        Indexer.Searcher scrolled = indexer.search(singletonList("test-datashare"), Document.class, new SearchQuery("query1"));
+        Indexer.Searcher second = indexer.search(singletonList("test-datashare"), Document.class, new SearchQuery("query2"));
+        CountDownLatch scrollFailed = new CountDownLatch(1);
+        when(scrolled.scroll(anyString())).thenAnswer(a -> {
+            scrollFailed.countDown();
+            throw new IOException("scroll failed");
+        });
+        doAnswer(a -> {
+            List<Indexer.Searcher> searchers = a.getArgument(0);
+            if (searchers.contains(second)) {
+                // the scroll of query1 is over before the next multi search
+                scrollFailed.await();
+                Thread.sleep(100);
+            }
+            return searchers.stream().map(searcher -> {
+                try {
+                    return searcher.execute();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).collect(toList());
+        }).when(indexer).multiSearch(anyList(), anyList());
+        BatchSearch search = new BatchSearch("uuid1", singletonList(project("test-datashare")), "name1", "desc1", asSet("query1", "query2", "query3"), new Date(), BatchSearch.State.QUEUED, User.local());
+        when(repository.get(local(), search.uuid)).thenReturn(search);
+
+        SearchException searchException = assertThrows(SearchException.class, () -> new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT, "1");
+            put(BATCH_SEARCH_SCROLL_SIZE_OPT, "2");
+        }}), repository, taskView(search), progressCb).call());
+
+        assertThat(searchException.query).isEqualTo("query1");
+        verify(indexer, times(2)).multiSearch(anyList(), anyList());
+        verify(repository).saveResults("uuid1", "query2", singletonList(createDoc("doc3").build()));
+    }
+
+    @Test
+    public void test_run_batch_search_scrolls_a_query_with_a_full_first_page_in_order() throws Exception {
+        Document[] documents = {createDoc("doc1").build(), createDoc("doc2").build()};
+        mockSearch.willReturn(3, documents);
+        BatchSearch search = new BatchSearch("uuid1", singletonList(project("test-datashare")), "name1", "desc1", asSet("query"), new Date(), BatchSearch.State.QUEUED, User.local());
+        when(repository.get(local(), search.uuid)).thenReturn(search);
+
+        BatchSearchRunnerResult result = new BatchSearchRunner(indexer, new PropertiesProvider(new HashMap<>() {{
+            put(BATCH_SEARCH_SCROLL_SIZE_OPT, "2");
+        }}), repository, taskView(search), progressCb).call();
+
+        // the first page of the multi search is not saved: the scroll starts over and saves every page
+        assertThat(result.nbResults()).isEqualTo(6);
+        verify(repository, times(3)).saveResults("uuid1", "query", asList(documents));
+    }
+
     // To avoid race conditions, this test relies heavily on synchronization.
     // The goal is to avoid having the BatchSearchRunner execute itself before receiving the cancel request,
     // which happened sometimes on the CI.
@@ -205,6 +346,11 @@ public class BatchSearchRunnerTest {
         assertThat(assertThrows(ExecutionException.class, result::get).getCause()).isInstanceOf(CancelException.class);
     }
 
+    private static ElasticsearchException elasticsearchError(int status, String type) {
+        return new ElasticsearchException("msearch", ErrorResponse.of(r -> r.status(status)
+                .error(e -> e.type(type).reason(type))));
+    }
+
     @Before
     public void setUp() {
         initMocks(this);
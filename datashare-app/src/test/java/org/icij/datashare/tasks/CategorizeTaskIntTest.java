@@ -207,6 +207,54 @@ public class CategorizeTaskIntTest {
                 .contains(embedded.getId() + "|" + root.getId());
     }
 
+    @Test
+    public void test_server_side_categorization_forwards_references_to_next_stage() throws Exception {
+        Document videoDoc = aDocWithContentType("video/mp4");
+        Document pdfDoc = aDocWithContentType("application/pdf");
+        Document noTypeDoc = aDocWithContentType(null);
+        Document alreadyCategorized = DocumentBuilder.from(aDocWithContentType("application/pdf")).with(ContentTypeCategory.DOCUMENT).build();
+        index(List.of(videoDoc, pdfDoc, noTypeDoc, alreadyCategorized));
+        enqueue(videoDoc, pdfDoc);
+
+        long updated = new CategorizeTask(indexer, documentCollectionFactory, new UpstreamGate.Factory(taskRepository),
+                new Task<>(CategorizeTask.class.getName(), "categorizeTask4", User.local(), Map.of(DEFAULT_PROJECT_OPT, es.getIndexName(),
+                        "stages", "ENQUEUEIDX,CATEGORIZE,NLP", "categorizeServerSide", "true", "categorizeSlices", "2")), NO_OP_PROGRESS).call();
+
+        assertThat(updated).isEqualTo(3);
+        assertThat(((Document) indexer.get(es.getIndexName(), videoDoc.getId())).getContentTypeCategory()).isEqualTo(ContentTypeCategory.VIDEO);
+        assertThat(((Document) indexer.get(es.getIndexName(), pdfDoc.getId())).getContentTypeCategory()).isEqualTo(ContentTypeCategory.DOCUMENT);
+        assertThat(((Document) indexer.get(es.getIndexName(), noTypeDoc.getId())).getContentTypeCategory()).isEqualTo(ContentTypeCategory.OTHER);
+        assertThat(documentCollectionFactory.queues.get(DEFAULT_INPUT_QUEUE_NAME)).isEmpty();
+        assertThat(documentCollectionFactory.queues.get("extract:queue:nlp")).containsOnly(videoDoc.getId(), pdfDoc.getId());
+    }
+
+    @Test
+    public void test_server_side_categorization_drains_the_queue_when_it_is_the_last_stage() throws Exception {
+        Document videoDoc = aDocWithContentType("video/mp4");
+        indexAndEnqueue(videoDoc);
+
+        new CategorizeTask(indexer, documentCollectionFactory, new UpstreamGate.Factory(taskRepository),
+                new Task<>(CategorizeTask.class.getName(), "categorizeTask5", User.local(), Map.of(DEFAULT_PROJECT_OPT, es.getIndexName(),
+                        "stages", "ENQUEUEIDX,CATEGORIZE", "categorizeServerSide", "true")), NO_OP_PROGRESS).call();
+
+        assertThat(((Document) indexer.get(es.getIndexName(), videoDoc.getId())).getContentTypeCategory()).isEqualTo(ContentTypeCategory.VIDEO);
+        assertThat(documentCollectionFactory.queues.get(DEFAULT_INPUT_QUEUE_NAME)).isEmpty();
+        assertThat(documentCollectionFactory.createQueue("extract:queue:nlp", String.class)).isEmpty();
+    }
+
+    @Test
+    public void test_server_side_categorization_forwards_references_without_a_list_of_stages() throws Exception {
+        Document videoDoc = aDocWithContentType("video/mp4");
+        indexAndEnqueue(videoDoc);
+
+        new CategorizeTask(indexer, documentCollectionFactory, new UpstreamGate.Factory(taskRepository),
+                new Task<>(CategorizeTask.class.getName(), "categorizeTask6", User.local(), Map.of(DEFAULT_PROJECT_OPT, es.getIndexName(),
+                        "categorizeServerSide", "true")), NO_OP_PROGRESS).call();
+
+        assertThat(((Document) indexer.get(es.getIndexName(), videoDoc.getId())).getContentTypeCategory()).isEqualTo(ContentTypeCategory.VIDEO);
+        assertThat(documentCollectionFactory.queues.get("extract:queue:nlp")).containsOnly(videoDoc.getId());
+    }
+
     private static Document aDocWithContentType(String contentType){
         return DocumentBuilder.createDoc(UUID.randomUUID().toString()).ofContentType(contentType).build();
     }
@@ -7,7 +7,9 @@ import org.icij.datashare.extract.MemoryDocumentCollectionFactory;
 import org.icij.datashare.user.User;
 import org.icij.extract.queue.DocumentQueue;
 import org.icij.extract.queue.MemoryDocumentQueue;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.nio.file.Path;
 import java.util.Map;
@@ -23,6 +25,7 @@ import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.PropertiesProvider.DEFAULT_QUEUE_CAPACITY;
 
 public class DeduplicateTaskTest {
+    @Rule public TemporaryFolder stateDir = new TemporaryFolder();
     private final TaskRepositoryMemory taskRepository = new TaskRepositoryMemory();
     MemoryDocumentCollectionFactory<Path> docCollectionFactory = new MemoryDocumentCollectionFactory<>();
     Map<String, Object> defaultOpts = Map.of("queueName", "test:queue", "stages", "DEDUPLICATE");
@@ -43,6 +46,19 @@ public class DeduplicateTaskTest {
         assertThat(docCollectionFactory.createQueue("test:queue:index", Path.class).size()).isEqualTo(1);
     }
 
+    @Test(timeout = 2000)
+    public void test_filter_queue_removes_duplicates_with_a_state_dir() throws Exception {
+        docCollectionFactory.createQueue("test:queue:deduplicate", Path.class).put(get("/path/to/doc"));
+        docCollectionFactory.createQueue("test:queue:deduplicate", Path.class).put(get("/path/to/doc"));
+        Map<String, Object> args = Map.of("queueName", "test:queue", "stages", "DEDUPLICATE", "deduplicateStateDir", stateDir.getRoot().toString());
+
+        assertThat(new DeduplicateTask(docCollectionFactory, new UpstreamGate.Factory(taskRepository), new Task<>(DeduplicateTask.class.getName(), User.local(), args), null).call()).isEqualTo(1);
+
+        assertThat(docCollectionFactory.createQueue("test:queue:index", Path.class).size()).isEqualTo(1);
+        // drained: the next run starts from nothing
+        assertThat(stateDir.getRoot().list()).isEmpty();
+    }
+
     @Test(timeout = 2000)
     public void test_pipeline_task_transfer_to_output_queue() throws Exception {
         task.inputQueue.put(get("/path/to/doc1"));
@@ -1,5 +1,6 @@
 package org.icij.datashare.tasks;
 
+import org.icij.datashare.session.ApiKeyCache;
 import org.icij.datashare.user.ApiKeyRepository;
 import org.icij.datashare.user.User;
 import org.junit.Before;
@@ -15,13 +16,15 @@ import static org.mockito.MockitoAnnotations.initMocks;
 public class DelApiKeyTaskTest {
     @Mock
     public ApiKeyRepository apiKeyRepository;
+    @Mock public ApiKeyCache apiKeyCache;
 
     @Test
     public void test_call() throws Exception {
         ArgumentCaptor<User> user = forClass(User.class);
-        assertThat(new DelApiKeyTask(apiKeyRepository, User.local()).call()).isNotNull();
+        assertThat(new DelApiKeyTask(apiKeyRepository, apiKeyCache, User.local()).call()).isNotNull();
         verify(apiKeyRepository).delete(user.capture());
         assertThat(user.getValue()).isEqualTo(User.local());
+        verify(apiKeyCache).invalidate(User.local().id);
     }
 
     @Before
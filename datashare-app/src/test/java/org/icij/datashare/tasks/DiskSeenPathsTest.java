@@ -0,0 +1,85 @@
+package org.icij.datashare.tasks;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.Paths.get;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class DiskSeenPathsTest {
+    @Rule public TemporaryFolder dir = new TemporaryFolder();
+
+    private Path stateDir() {
+        return dir.getRoot().toPath().resolve("test_queue");
+    }
+
+    @Test
+    public void test_a_path_is_only_added_once() throws Exception {
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir())) {
+            assertThat(seen.add(get("/path/to/doc1"))).isTrue();
+            assertThat(seen.add(get("/path/to/doc2"))).isTrue();
+            assertThat(seen.add(get("/path/to/doc1"))).isFalse();
+        }
+    }
+
+    @Test
+    public void test_paths_are_seen_again_after_reopening() throws Exception {
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir())) {
+            seen.add(get("/path/to/doc1"));
+        }
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir())) {
+            assertThat(seen.add(get("/path/to/doc1"))).isFalse();
+            assertThat(seen.add(get("/path/to/doc2"))).isTrue();
+        }
+    }
+
+    @Test
+    public void test_paths_snapshotted_survive_a_set_that_is_never_closed() throws Exception {
+        DiskSeenPaths crashed = new DiskSeenPaths(stateDir(), DiskSeenPaths.DEFAULT_BUFFER_SIZE, 0);
+        crashed.add(get("/path/to/doc1"));
+
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir())) {
+            assertThat(seen.add(get("/path/to/doc1"))).isFalse();
+        }
+    }
+
+    @Test
+    public void test_runs_are_merged_without_losing_paths() throws Exception {
+        int paths = DiskSeenPaths.MAX_RUNS + 2;
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir(), 1, Long.MAX_VALUE)) {
+            for (int i = 0; i < paths; i++) {
+                seen.add(get("/path/to/doc" + i));
+            }
+            assertThat(seen.runCount()).isEqualTo(2);
+        }
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir())) {
+            for (int i = 0; i < paths; i++) {
+                assertThat(seen.add(get("/path/to/doc" + i))).isFalse();
+            }
+        }
+    }
+
+    @Test
+    public void test_a_snapshot_cut_short_is_dropped() throws Exception {
+        Files.createDirectories(stateDir());
+        Files.write(stateDir().resolve("run-000000000000.bin.tmp"), new byte[] {1, 2, 3});
+
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir())) {
+            assertThat(seen.add(get("/path/to/doc1"))).isTrue();
+        }
+        assertThat(stateDir().resolve("run-000000000000.bin.tmp").toFile().exists()).isFalse();
+    }
+
+    @Test
+    public void test_clear_removes_the_state() throws Exception {
+        try (DiskSeenPaths seen = new DiskSeenPaths(stateDir(), 1, Long.MAX_VALUE)) {
+            seen.add(get("/path/to/doc1"));
+            seen.clear();
+        }
+        assertThat(stateDir().toFile().exists()).isFalse();
+    }
+}
@@ -0,0 +1,118 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.text.DocReference;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DocumentPrefetcherTest {
+    private final Indexer indexer = mock(Indexer.class);
+
+    @Test(timeout = 5000)
+    public void test_fetches_documents_by_batches_with_routing_and_excludes() throws Exception {
+        Document root = createDoc("root").build();
+        Document child = createDoc("child").withRootId("root").withParentId("root").build();
+        Document other = createDoc("other").build();
+        when(indexer.<Document>getAll("prj", List.of(new DocReference("root", null), new DocReference("child", "root")), List.of("content_translated")))
+                .thenReturn(Map.of("root", root, "child", child));
+        when(indexer.<Document>getAll("prj", List.of(new DocReference("other", null)), List.of("content_translated")))
+                .thenReturn(Map.of("other", other));
+
+        List<Document> documents = new ArrayList<>();
+        try (DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, "prj", List.of("content_translated"), 2, 1_000_000,
+                source("root", "child|root", "other")).start()) {
+            DocumentPrefetcher.Prefetched prefetched;
+            while ((prefetched = prefetcher.take()) != null) {
+                documents.add(prefetched.document());
+                prefetcher.done(prefetched);
+            }
+            assertThat(prefetcher.unprocessed()).isEmpty();
+        }
+
+        assertThat(documents).containsExactly(root, child, other);
+        verify(indexer, times(2)).getAll(eq("prj"), anyList(), anyList());
+    }
+
+    @Test(timeout = 5000)
+    public void test_missing_documents_are_handed_over_as_null() throws Exception {
+        when(indexer.<Document>getAll(eq("prj"), anyList(), anyList())).thenReturn(Map.of());
+
+        try (DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, "prj", List.of(), 10, 1_000_000, source("unknown")).start()) {
+            DocumentPrefetcher.Prefetched prefetched = prefetcher.take();
+            assertThat(prefetched.ref().id()).isEqualTo("unknown");
+            assertThat(prefetched.document()).isNull();
+            prefetcher.done(prefetched);
+            assertThat(prefetcher.take()).isNull();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void test_failed_fetch_skips_the_batch() throws Exception {
+        when(indexer.<Document>getAll(eq("prj"), anyList(), anyList())).thenThrow(new IOException("timeout"));
+
+        try (DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, "prj", List.of(), 10, 1_000_000, source("doc")).start()) {
+            DocumentPrefetcher.Prefetched prefetched = prefetcher.take();
+            assertThat(prefetched.document()).isNull();
+            prefetcher.done(prefetched);
+            assertThat(prefetcher.take()).isNull();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void test_memory_budget_holds_back_documents_until_done() throws Exception {
+        Document big1 = createDoc("big1").with("a".repeat(4096)).build();
+        Document big2 = createDoc("big2").with("b".repeat(4096)).build();
+        when(indexer.<Document>getAll(eq("prj"), anyList(), anyList())).thenReturn(Map.of("big1", big1, "big2", big2));
+
+        try (DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, "prj", List.of(), 2, 8192, source("big1", "big2")).start()) {
+            DocumentPrefetcher.Prefetched first = prefetcher.take();
+            Thread.sleep(100);
+            assertThat(first.document()).isEqualTo(big1);
+            // big2 does not fit in the budget held by big1
+            assertThat(prefetcher.unprocessed()).hasSize(2);
+
+            prefetcher.done(first);
+
+            assertThat(prefetcher.take().document()).isEqualTo(big2);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void test_unprocessed_references_are_returned_on_close() throws Exception {
+        Document doc1 = createDoc("doc1").build();
+        Document doc2 = createDoc("doc2").build();
+        when(indexer.<Document>getAll(eq("prj"), anyList(), anyList())).thenReturn(Map.of("doc1", doc1, "doc2", doc2));
+
+        DocumentPrefetcher prefetcher = new DocumentPrefetcher(indexer, "prj", List.of(), 2, 1_000_000, source("doc1", "doc2")).start();
+        prefetcher.done(prefetcher.take());
+        prefetcher.close();
+
+        assertThat(prefetcher.unprocessed()).containsOnly(new DocReference("doc2", null));
+    }
+
+    private static DocumentPrefetcher.Source source(String... entries) {
+        Iterator<String> iterator = List.of(entries).iterator();
+        return max -> {
+            List<DocReference> refs = new ArrayList<>();
+            while (refs.size() < max && iterator.hasNext()) {
+                refs.add(DocReference.parse(iterator.next()));
+            }
+            return refs;
+        };
+    }
+}
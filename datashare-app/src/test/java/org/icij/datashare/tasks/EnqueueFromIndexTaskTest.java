@@ -1,33 +1,59 @@
 package org.icij.datashare.tasks;
 
 import co.elastic.clients.elasticsearch._types.Refresh;
+import org.icij.datashare.Entity;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.extract.MemoryDocumentCollectionFactory;
+import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.test.ElasticsearchRule;
 import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.SearchCheckpoint;
 import org.icij.datashare.text.indexing.elasticsearch.ElasticsearchIndexer;
 import org.icij.datashare.text.nlp.Pipeline;
 import org.icij.datashare.user.User;
 import org.junit.After;
 import org.junit.ClassRule;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import org.icij.datashare.test.LogbackAppenderWrapper;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
 
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.cli.DatashareCliOptions.NLP_PIPELINE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_CHECKPOINT_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_POINT_IN_TIME_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_SIZE_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCROLL_SLICES_OPT;
 import static org.icij.datashare.text.DocumentBuilder.createDoc;
 import static org.icij.datashare.text.Project.project;
+import static org.icij.datashare.text.indexing.PointInTimeQueryBuilder.createPointInTimeQuery;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class EnqueueFromIndexTaskTest {
     @ClassRule
     public static ElasticsearchRule es = new ElasticsearchRule();
     private final ElasticsearchIndexer indexer = new ElasticsearchIndexer(es.client, new PropertiesProvider()).withRefresh(Refresh.True);
 
+    @Rule public TemporaryFolder temp = new TemporaryFolder();
+
     @After public void tearDown() throws IOException { es.removeAll();}
 
     @Test
@@ -156,4 +182,144 @@ public class EnqueueFromIndexTaskTest {
         assertThat(factory.queues.get("test:queue:nlp"))
                 .contains(root.getId(), embedded.getId() + "|" + root.getId());
     }
+
+    @Test
+    public void test_sliced_enqueue() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            indexer.add(es.getIndexName(), createDoc("doc" + i).with(project(es.getIndexName())).build());
+        }
+        Map<String, Object> properties = Map.of(
+                "defaultProject", es.getIndexName(),
+                "stages", "ENQUEUEIDX",
+                "queueName", "test:queue",
+                SCROLL_SIZE_OPT, "3",
+                SCROLL_SLICES_OPT, "2");
+        MemoryDocumentCollectionFactory<String> factory = new MemoryDocumentCollectionFactory<>();
+
+        Long enqueued = new EnqueueFromIndexTask(factory, indexer,
+                new Task<>(EnqueueFromIndexTask.class.getName(), new User("test"), properties), null).call();
+
+        assertThat(enqueued).isEqualTo(20);
+        assertThat(factory.queues.get("test:queue:nlp")).hasSize(20);
+    }
+
+    @Test
+    public void test_cancel_interrupts_the_sliced_scrolls() throws Exception {
+        Indexer mockIndexer = mock(Indexer.class);
+        Indexer.QueryBuilderSearcher searcher = mock(Indexer.QueryBuilderSearcher.class, RETURNS_SELF);
+        CountDownLatch scrolling = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        when(searcher.scroll(any(Indexer.ScrollQuery.class))).thenAnswer(a -> {
+            scrolling.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Stream.empty();
+        });
+        when(mockIndexer.search(anyList(), eq(Document.class))).thenReturn(searcher);
+        Map<String, Object> properties = Map.of(
+                "defaultProject", "prj",
+                "stages", "ENQUEUEIDX",
+                "queueName", "test:queue",
+                SCROLL_SLICES_OPT, "2");
+        EnqueueFromIndexTask task = new EnqueueFromIndexTask(new MemoryDocumentCollectionFactory<>(), mockIndexer,
+                new Task<>(EnqueueFromIndexTask.class.getName(), new User("test"), properties), null);
+        Thread taskThread = new Thread(() -> {
+            try {
+                task.call();
+            } catch (Exception ignored) {
+            }
+        });
+        taskThread.start();
+        assertThat(scrolling.await(5, SECONDS)).isTrue();
+
+        task.cancel(false);
+
+        assertThat(interrupted.await(5, SECONDS)).isTrue();
+        taskThread.join(5_000);
+        assertThat(taskThread.isAlive()).isFalse();
+    }
+
+    @Test
+    public void test_sliced_enqueue_with_point_in_time() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            indexer.add(es.getIndexName(), createDoc("doc" + i).with(project(es.getIndexName())).build());
+        }
+        Path checkpoint = temp.getRoot().toPath().resolve("enqueue.checkpoint");
+        Map<String, Object> properties = Map.of(
+                "defaultProject", es.getIndexName(),
+                "stages", "ENQUEUEIDX",
+                "queueName", "test:queue",
+                SCROLL_SIZE_OPT, "3",
+                SCROLL_SLICES_OPT, "2",
+                SCROLL_POINT_IN_TIME_OPT, "true",
+                SCROLL_CHECKPOINT_OPT, checkpoint.toString());
+        MemoryDocumentCollectionFactory<String> factory = new MemoryDocumentCollectionFactory<>();
+
+        new EnqueueFromIndexTask(factory, indexer,
+                new Task<>(EnqueueFromIndexTask.class.getName(), new User("test"), properties), null).call();
+
+        assertThat(factory.queues.get("test:queue:nlp")).hasSize(20);
+        assertThat(temp.getRoot().list()).isEmpty();
+    }
+
+    @Test
+    public void test_point_in_time_saves_and_deletes_its_checkpoint() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            indexer.add(es.getIndexName(), createDoc("doc" + i).with(project(es.getIndexName())).build());
+        }
+        Path checkpoint = temp.getRoot().toPath().resolve("enqueue.checkpoint");
+        Map<String, Object> properties = Map.of(
+                "defaultProject", es.getIndexName(),
+                "stages", "ENQUEUEIDX",
+                "queueName", "test:queue",
+                SCROLL_SIZE_OPT, "5",
+                SCROLL_POINT_IN_TIME_OPT, "true",
+                SCROLL_CHECKPOINT_OPT, checkpoint.toString());
+        MemoryDocumentCollectionFactory<String> factory = new MemoryDocumentCollectionFactory<>();
+
+        Long enqueued = new EnqueueFromIndexTask(factory, indexer,
+                new Task<>(EnqueueFromIndexTask.class.getName(), new User("test"), properties), null).call();
+
+        assertThat(enqueued).isEqualTo(12);
+        assertThat(factory.queues.get("test:queue:nlp")).hasSize(12);
+        assertThat(checkpoint.toFile()).doesNotExist();
+    }
+
+    @Test
+    public void test_point_in_time_resumes_from_checkpoint() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            indexer.add(es.getIndexName(), createDoc("doc" + i).with(project(es.getIndexName())).build());
+        }
+        Path checkpoint = temp.getRoot().toPath().resolve("enqueue.checkpoint");
+        try (Stream<? extends Entity> docs = indexer.search(singletonList(es.getIndexName()), Document.class).limit(5)
+                .sort("language", Indexer.Searcher.SortOrder.ASC)
+                .searchAfter(createPointInTimeQuery().withKeepAlive("1m").onCheckpoint(c -> writeCheckpoint(checkpoint, c)).build())) {
+            docs.limit(6).forEach(doc -> {});
+        }
+        Map<String, Object> properties = Map.of(
+                "defaultProject", es.getIndexName(),
+                "stages", "ENQUEUEIDX",
+                "queueName", "test:queue",
+                SCROLL_SIZE_OPT, "5",
+                SCROLL_POINT_IN_TIME_OPT, "true",
+                SCROLL_CHECKPOINT_OPT, checkpoint.toString());
+        MemoryDocumentCollectionFactory<String> factory = new MemoryDocumentCollectionFactory<>();
+
+        new EnqueueFromIndexTask(factory, indexer,
+                new Task<>(EnqueueFromIndexTask.class.getName(), new User("test"), properties), null).call();
+
+        assertThat(factory.queues.get("test:queue:nlp")).hasSize(7);
+    }
+
+    private static void writeCheckpoint(Path file, SearchCheckpoint checkpoint) {
+        try {
+            Files.writeString(file, JsonObjectMapper.writeValueAsString(checkpoint));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
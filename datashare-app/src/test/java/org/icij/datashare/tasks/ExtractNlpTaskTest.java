@@ -2,16 +2,21 @@ package org.icij.datashare.tasks;
 
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.extract.MemoryDocumentCollectionFactory;
+import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.Language;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.NamedEntitySink;
 import org.icij.datashare.text.nlp.AbstractPipeline;
+import org.icij.datashare.text.nlp.Pipeline;
 import org.icij.datashare.user.User;
 import org.icij.extract.queue.DocumentQueue;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 import static java.util.Collections.emptyList;
@@ -20,7 +25,10 @@ import static org.icij.datashare.text.DocumentBuilder.createDoc;
 import static org.icij.datashare.text.Language.ENGLISH;
 import static org.icij.datashare.text.Project.project;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -76,6 +84,48 @@ public class ExtractNlpTaskTest {
         }
     }
 
+    @Test(timeout = 5000)
+    public void test_call_with_prefetch_fetches_documents_by_batches() throws Exception {
+        when(pipeline.initialize(any())).thenReturn(true);
+        Document doc1 = createDoc("doc1").build();
+        Document doc2 = createDoc("doc2").withRootId("root").withParentId("root").build();
+        when(pipeline.process(any())).thenReturn(emptyList());
+        when(indexer.<Document>getAll("local-datashare", List.of(new DocReference("doc1", null), new DocReference("doc2", "root")), List.of()))
+                .thenReturn(Map.of("doc1", doc1, "doc2", doc2));
+        DocumentQueue<String> queue = factory.createQueue("extract:queue:nlp", String.class);
+        queue.add("doc1");
+        queue.add("doc2|root");
+
+        ExtractNlpTask nlpTask = new ExtractNlpTask(indexer, pipeline, factory, UpstreamGate.NONE, new Task<>(ExtractNlpTask.class.getName(), User.local(),
+                Map.of("nlpPrefetchSize", "10")), progress -> null);
+
+        assertThat(nlpTask.call()).isEqualTo(2L);
+        verify(pipeline).process(doc1);
+        verify(pipeline).process(doc2);
+        verify(indexer, never()).get(anyString(), anyString(), anyString());
+        assertThat(queue).isEmpty();
+    }
+
+    @Test(timeout = 5000)
+    public void test_call_with_bulk_size_writes_entities_through_a_shared_sink() throws Exception {
+        NamedEntitySink sink = mock(NamedEntitySink.class);
+        when(indexer.namedEntitySink(eq(500), anyLong(), any(Duration.class), eq(1))).thenReturn(sink);
+        when(pipeline.initialize(any())).thenReturn(true);
+        when(pipeline.getType()).thenReturn(Pipeline.Type.CORENLP);
+        Document doc = createDoc("doc1").build();
+        when(pipeline.process(doc)).thenReturn(emptyList());
+        when(indexer.get("local-datashare", "doc1", "doc1")).thenReturn(doc);
+        factory.createQueue("extract:queue:nlp", String.class).add("doc1");
+
+        ExtractNlpTask nlpTask = new ExtractNlpTask(indexer, pipeline, factory, UpstreamGate.NONE, new Task<>(ExtractNlpTask.class.getName(), User.local(),
+                Map.of("nlpBulkSize", "500")), null);
+
+        assertThat(nlpTask.call()).isEqualTo(1L);
+        verify(sink).add("local-datashare", Pipeline.Type.CORENLP, emptyList(), doc);
+        verify(sink).close();
+        verify(indexer, never()).bulkAdd(anyString(), any(), any(), any());
+    }
+
     @Test
     public void test_on_message_do_not_processNLP__when_init_fails() throws Exception {
         when(pipeline.initialize(any())).thenReturn(false);
@@ -1,5 +1,6 @@
 package org.icij.datashare.tasks;
 
+import org.icij.datashare.session.ApiKeyCache;
 import org.icij.datashare.user.ApiKeyRepository;
 import org.icij.datashare.user.DatashareApiKey;
 import org.icij.datashare.user.User;
@@ -15,13 +16,15 @@ import static org.mockito.MockitoAnnotations.initMocks;
 
 public class GenApiKeyTaskTest {
     @Mock public ApiKeyRepository apiKeyRepository;
+    @Mock public ApiKeyCache apiKeyCache;
 
     @Test
     public void test_call() throws Exception {
         ArgumentCaptor<DatashareApiKey> apiKey = forClass(DatashareApiKey.class);
-        assertThat(new GenApiKeyTask(apiKeyRepository, User.local()).call()).isNotNull();
+        assertThat(new GenApiKeyTask(apiKeyRepository, apiKeyCache, User.local()).call()).isNotNull();
         verify(apiKeyRepository).save(apiKey.capture());
         assertThat(apiKey.getValue().getUser()).isEqualTo(User.local());
+        verify(apiKeyCache).invalidate(User.local().id);
     }
 
     @Before
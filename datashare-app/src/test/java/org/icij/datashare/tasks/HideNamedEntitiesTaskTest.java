@@ -0,0 +1,56 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.asynctasks.Task;
+import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.user.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class HideNamedEntitiesTaskTest {
+    @Mock Indexer indexer;
+
+    @Test
+    public void test_hide_named_entities_without_throttle() throws Exception {
+        when(indexer.hideNamedEntities(eq("prj"), eq("mention"), eq(0), eq(-1f), any())).thenReturn(12L);
+
+        assertThat(task(Map.of("defaultProject", "prj", "mentionNorm", "mention")).call()).isEqualTo(12L);
+    }
+
+    @Test
+    public void test_hide_named_entities_with_a_fraction_of_request_per_second() throws Exception {
+        when(indexer.hideNamedEntities(anyString(), anyString(), anyInt(), eq(0.5f), any())).thenReturn(12L);
+
+        assertThat(task(Map.of("defaultProject", "prj", "mentionNorm", "mention", "hideNamedEntitiesRequestsPerSecond", "0.5")).call()).isEqualTo(12L);
+    }
+
+    @Test
+    public void test_hide_named_entities_rejects_a_throttle_of_zero() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> task(Map.of("defaultProject", "prj", "mentionNorm", "mention", "hideNamedEntitiesRequestsPerSecond", "0")).call());
+
+        assertThat(error.getMessage()).contains("hideNamedEntitiesRequestsPerSecond");
+        verifyNoInteractions(indexer);
+    }
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+    }
+
+    private HideNamedEntitiesTask task(Map<String, Object> args) {
+        return new HideNamedEntitiesTask(indexer, new Task<>(HideNamedEntitiesTask.class.getName(), User.local(), args), rate -> null);
+    }
+}
@@ -7,6 +7,8 @@ import org.icij.datashare.text.indexing.SearchQuery;
 import org.mockito.stubbing.OngoingStubbing;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static java.util.Collections.singletonList;
@@ -21,12 +23,15 @@ class MockSearch<S extends Indexer.Searcher> {
     public MockSearch(Indexer mockIndexer, Class<S> searcherInstance) {
         this.mockIndexer = mockIndexer;
         this.searcherInstance = searcherInstance;
+        multiSearchExecutesEachSearcher();
     }
 
     void willThrow(Exception expectedClassException) throws IOException {
         Indexer.Searcher searcher = mock(Indexer.Searcher.class);
         when(searcher.scroll(any(String.class))).thenThrow(expectedClassException);
         when(searcher.scroll(any(String.class), any(String.class))).thenThrow(expectedClassException);
+        when(searcher.execute()).thenThrow(expectedClassException);
+        when(searcher.execute(any(String.class))).thenThrow(expectedClassException);
         prepareSearcher(0, searcher, null);
     }
 
@@ -42,6 +47,7 @@ class MockSearch<S extends Indexer.Searcher> {
             ongoingStubbing = ongoingStubbing.thenAnswer(a -> Stream.of(documents));
         }
         ongoingStubbing.thenAnswer(a -> Stream.empty());
+        firstPage(searcher, documents);
         prepareSearcher(documents.length, searcher, null);
     }
 
@@ -58,9 +64,33 @@ class MockSearch<S extends Indexer.Searcher> {
             ongoingStubbing = ongoingStubbing.thenAnswer(a -> Stream.of(documents));
         }
         ongoingStubbing.thenAnswer(a -> Stream.empty());
+        firstPage(searcher, documents);
         prepareSearcher(documents.length, searcher, new SearchQuery(query));
     }
 
+    // the first page of a multi search, then nothing: a searcher shared by several queries
+    // gives the documents to the first one, as its scrolls do
+    private void firstPage(Indexer.Searcher searcher, Document... documents) throws IOException {
+        when(searcher.execute()).thenAnswer(a -> Stream.of(documents)).thenAnswer(a -> Stream.empty());
+        when(searcher.execute(anyString())).thenAnswer(a -> Stream.of(documents)).thenAnswer(a -> Stream.empty());
+    }
+
+    private void multiSearchExecutesEachSearcher() {
+        try {
+            when(mockIndexer.multiSearch(anyList(), anyList())).thenAnswer(a -> {
+                List<Indexer.Searcher> searchers = a.getArgument(0);
+                List<String> stringQueries = a.getArgument(1);
+                List<Stream<? extends Entity>> pages = new ArrayList<>();
+                for (int i = 0; i < searchers.size(); i++) {
+                    pages.add(stringQueries.get(i) == null ? searchers.get(i).execute() : searchers.get(i).execute(stringQueries.get(i)));
+                }
+                return pages;
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void prepareSearcher(long length, Indexer.Searcher searcher, SearchQuery query) {
         when(searcher.with(anyInt(), anyBoolean())).thenReturn(searcher);
         when(searcher.withoutSource(any())).thenReturn(searcher);
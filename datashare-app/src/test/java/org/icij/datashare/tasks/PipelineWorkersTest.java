@@ -0,0 +1,90 @@
+package org.icij.datashare.tasks;
+
+import org.icij.datashare.text.nlp.Pipeline;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PipelineWorkersTest {
+    private final Pipeline pipeline = mock(Pipeline.class);
+
+    @Test
+    public void test_single_worker_runs_on_the_calling_thread() throws Exception {
+        Thread caller = Thread.currentThread();
+
+        long processed = PipelineWorkers.run("test", pipeline, 1, p -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            assertThat(p).isSameAs(pipeline);
+            return 3;
+        });
+
+        assertThat(processed).isEqualTo(3);
+        verify(pipeline, never()).newWorker();
+    }
+
+    @Test(timeout = 5000)
+    public void test_workers_have_their_own_pipeline_and_results_are_summed() throws Exception {
+        when(pipeline.newWorker()).thenReturn(mock(Pipeline.class), mock(Pipeline.class));
+        Set<Pipeline> pipelines = ConcurrentHashMap.newKeySet();
+
+        long processed = PipelineWorkers.run("test", pipeline, 3, p -> {
+            pipelines.add(p);
+            return 2;
+        });
+
+        assertThat(processed).isEqualTo(6);
+        assertThat(pipelines).hasSize(3);
+        assertThat(pipelines).contains(pipeline);
+        verify(pipeline, times(2)).newWorker();
+    }
+
+    @Test(timeout = 5000, expected = IllegalStateException.class)
+    public void test_worker_failure_is_rethrown() throws Exception {
+        when(pipeline.newWorker()).thenReturn(pipeline);
+
+        PipelineWorkers.run("test", pipeline, 2, p -> {
+            throw new IllegalStateException("boom");
+        });
+    }
+
+    @Test(timeout = 5000)
+    public void test_interrupting_the_caller_interrupts_the_workers() throws Exception {
+        when(pipeline.newWorker()).thenReturn(pipeline);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch stopped = new CountDownLatch(2);
+        AtomicReference<Throwable> result = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                PipelineWorkers.run("test", pipeline, 2, p -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(60_000);
+                    } finally {
+                        stopped.countDown();
+                    }
+                    return 0;
+                });
+            } catch (Exception e) {
+                result.set(e);
+            }
+        });
+        caller.start();
+        started.await();
+
+        caller.interrupt();
+        caller.join();
+
+        assertThat(result.get()).isInstanceOf(InterruptedException.class);
+        assertThat(stopped.getCount()).isEqualTo(0);
+    }
+}
@@ -1,21 +1,43 @@
 package org.icij.datashare.tasks;
 
 import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
 import org.icij.datashare.asynctasks.Task;
 import org.icij.datashare.extract.MemoryDocumentCollectionFactory;
 import org.icij.datashare.user.User;
 import org.icij.extract.queue.DocumentQueue;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.PropertiesProvider.DATA_DIR_OPT;
 import static org.icij.datashare.PropertiesProvider.QUEUE_NAME_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.FOLLOW_SYMLINKS_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCAN_CHECKPOINT_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.SCAN_PARALLELISM_OPT;
 
 public class ScanTaskTest extends TestCase {
     private final MemoryDocumentCollectionFactory<Path> documentCollectionFactory = new MemoryDocumentCollectionFactory<>();
+    // option of the extract Scanner
+    private static final String EXCLUDE_PATTERN_OPT = "excludePattern";
+    private Path dataDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        dataDir = Files.createTempDirectory("datashare-scan");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dataDir.toFile());
+        Files.deleteIfExists(checkpointOf(dataDir));
+    }
 
     public void test_scan() throws Exception {
         assertThat(new ScanTask(documentCollectionFactory, new Task<>("org.icij.datashare.tasks.ScanTask", User.local(),
@@ -31,4 +53,95 @@ public class ScanTaskTest extends TestCase {
         DocumentQueue<Path> queue = documentCollectionFactory.createQueue("foo:index", Path.class);
         assertThat(queue.size()).isEqualTo(3);
     }
-}
\ No newline at end of file
+
+    public void test_parallel_scan() throws Exception {
+        assertThat(new ScanTask(documentCollectionFactory, new Task<>("org.icij.datashare.tasks.ScanTask", User.local(),
+                Map.of(DATA_DIR_OPT, Paths.get(ClassLoader.getSystemResource("docs").getPath()).toString(),
+                        SCAN_PARALLELISM_OPT, "4")), null).call()).isEqualTo(3);
+        DocumentQueue<Path> queue = documentCollectionFactory.createQueue("extract:queue:index", Path.class);
+        assertThat(queue.size()).isEqualTo(3);
+    }
+
+    public void test_parallel_scan_resumes_from_checkpoint() throws Exception {
+        Files.createDirectories(dataDir.resolve("done"));
+        Files.createDirectories(dataDir.resolve("todo"));
+        Files.writeString(dataDir.resolve("done/doc1.txt"), "queued before the interruption");
+        Files.writeString(dataDir.resolve("todo/doc2.txt"), "not queued yet");
+        Path checkpoint = checkpointOf(dataDir);
+        Files.writeString(checkpoint, "[\"T\",\"" + dataDir.resolve("done") + "\"]\n[\"F\",\"" + dataDir);
+
+        assertThat(new ScanTask(documentCollectionFactory, new Task<>("org.icij.datashare.tasks.ScanTask", User.local(),
+                Map.of(DATA_DIR_OPT, dataDir.toString(), SCAN_PARALLELISM_OPT, "2",
+                        SCAN_CHECKPOINT_OPT, checkpoint.toString())), null).call()).isEqualTo(1);
+        DocumentQueue<Path> queue = documentCollectionFactory.createQueue("extract:queue:index", Path.class);
+        assertThat(queue.poll()).isEqualTo(dataDir.resolve("todo/doc2.txt"));
+        assertThat(checkpoint.toFile().exists()).isFalse();
+    }
+
+    public void test_parallel_scan_queues_the_files_of_a_sequential_scan_with_max_depth() throws Exception {
+        write("doc1.txt", "dir/doc2.txt", "dir/subdir/doc3.txt");
+
+        List<Path> queued = assertSameAsSequentialScan(Map.of(ScanTask.MAX_DEPTH_OPT, "2"));
+
+        assertThat(queued).contains(dataDir.resolve("doc1.txt"), dataDir.resolve("dir/doc2.txt"));
+        assertThat(queued).excludes(dataDir.resolve("dir/subdir/doc3.txt"));
+    }
+
+    public void test_parallel_scan_queues_the_files_of_a_sequential_scan_with_an_exclude_pattern() throws Exception {
+        write("doc1.txt", "excluded/doc2.txt", "dir/doc3.txt", "dir/doc4.log");
+
+        List<Path> queued = assertSameAsSequentialScan(Map.of(EXCLUDE_PATTERN_OPT, "**/{excluded,*.log}"));
+
+        assertThat(queued).containsOnly(dataDir.resolve("doc1.txt"), dataDir.resolve("dir/doc3.txt"));
+    }
+
+    public void test_parallel_scan_queues_the_files_of_a_sequential_scan_with_a_hidden_directory() throws Exception {
+        write("doc1.txt", ".hidden/doc2.txt", "dir/doc3.txt");
+
+        List<Path> queued = assertSameAsSequentialScan(Map.of());
+
+        assertThat(queued).containsOnly(dataDir.resolve("doc1.txt"), dataDir.resolve("dir/doc3.txt"));
+    }
+
+    public void test_parallel_scan_queues_the_files_of_a_sequential_scan_with_a_symlink_loop() throws Exception {
+        write("doc1.txt", "dir/doc2.txt");
+        Files.createSymbolicLink(dataDir.resolve("dir/loop"), dataDir);
+
+        List<Path> queued = assertSameAsSequentialScan(Map.of(FOLLOW_SYMLINKS_OPT, "true"));
+
+        assertThat(queued).contains(dataDir.resolve("doc1.txt"), dataDir.resolve("dir/doc2.txt"));
+    }
+
+    private List<Path> assertSameAsSequentialScan(Map<String, String> options) throws Exception {
+        List<Path> sequential = scan(options);
+        Map<String, String> parallelOptions = new HashMap<>(options);
+        parallelOptions.put(SCAN_PARALLELISM_OPT, "4");
+        assertThat(scan(parallelOptions)).isEqualTo(sequential);
+        return sequential;
+    }
+
+    private List<Path> scan(Map<String, String> options) throws Exception {
+        MemoryDocumentCollectionFactory<Path> factory = new MemoryDocumentCollectionFactory<>();
+        Map<String, Object> args = new HashMap<>(options);
+        args.put(DATA_DIR_OPT, dataDir.toString());
+        new ScanTask(factory, new Task<>("org.icij.datashare.tasks.ScanTask", User.local(), args), null).call();
+        DocumentQueue<Path> queue = factory.createQueue("extract:queue:index", Path.class);
+        List<Path> queued = new ArrayList<>();
+        for (Path path = queue.poll(); path != null; path = queue.poll()) {
+            queued.add(path);
+        }
+        queued.sort(null);
+        return queued;
+    }
+
+    private void write(String... files) throws Exception {
+        for (String file : files) {
+            Files.createDirectories(dataDir.resolve(file).getParent());
+            Files.writeString(dataDir.resolve(file), file);
+        }
+    }
+
+    private static Path checkpointOf(Path dataDir) {
+        return dataDir.resolveSibling(dataDir.getFileName() + ".checkpoint");
+    }
+}
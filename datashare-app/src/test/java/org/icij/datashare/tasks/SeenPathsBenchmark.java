@@ -0,0 +1,127 @@
+package org.icij.datashare.tasks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the in-memory seen set of {@link DeduplicateTask} with {@link DiskSeenPaths}: the throughput of
+ * adding new paths and duplicates to a set already holding a million paths, then the heap and the disk
+ * they take per million paths.
+ *
+ * <p>It is not run by the test suite. Run it from the module with:</p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.icij.datashare.tasks.SeenPathsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SeenPathsBenchmark {
+    static final int PREFILLED = 1_000_000;
+
+    @Param({"memory", "disk"})
+    public String store;
+
+    private Path stateDir;
+    private SeenPaths seen;
+    private long next;
+    private long duplicate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stateDir = Files.createTempDirectory("seen-paths");
+        seen = open(store, stateDir);
+        for (next = 0; next < PREFILLED; next++) {
+            seen.add(path(next));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        seen.clear();
+        seen.close();
+        Files.deleteIfExists(stateDir);
+    }
+
+    @Benchmark
+    public boolean addNew() throws IOException {
+        return seen.add(path(next++));
+    }
+
+    @Benchmark
+    public boolean addDuplicate() throws IOException {
+        return seen.add(path(duplicate++ % PREFILLED));
+    }
+
+    // paths of a scan: a few thousand directories, file names sharing their prefix
+    static Path path(long i) {
+        return Path.of("/data/project/dir" + (i % 4096), "document-" + i + ".pdf");
+    }
+
+    static SeenPaths open(String store, Path stateDir) throws IOException {
+        return "disk".equals(store) ? new DiskSeenPaths(stateDir.resolve("queue")) : new SeenPaths.InMemory();
+    }
+
+    /** Heap retained and bytes on disk for {@code paths} paths, per million paths. */
+    static void footprint(String store, int paths) throws IOException {
+        Path stateDir = Files.createTempDirectory("seen-paths");
+        long heapBefore = usedHeap();
+        SeenPaths seen = open(store, stateDir);
+        for (long i = 0; i < paths; i++) {
+            seen.add(path(i));
+        }
+        if (seen instanceof DiskSeenPaths disk) {
+            disk.snapshot();
+        }
+        long heap = usedHeap() - heapBefore;
+        long disk;
+        try (Stream<Path> files = Files.walk(stateDir)) {
+            disk = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+        double millions = paths / 1_000_000.0;
+        System.out.printf("%-6s %,d paths: %,.1f MB heap and %,.1f MB disk per million paths%n",
+                store, paths, heap / millions / 1e6, disk / millions / 1e6);
+        seen.clear();
+        seen.close();
+        Files.deleteIfExists(stateDir);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        new Runner(new OptionsBuilder().include(SeenPathsBenchmark.class.getSimpleName()).build()).run();
+        for (String store : new String[] {"memory", "disk"}) {
+            footprint(store, 5_000_000);
+        }
+    }
+}
@@ -26,8 +26,10 @@ import org.icij.datashare.asynctasks.TaskManagerMemory;
 import org.icij.datashare.asynctasks.TaskRepositoryMemory;
 import org.icij.datashare.batch.BatchSearchRecord;
 import org.icij.datashare.batch.BatchSearchRepository;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.text.ProjectProxy;
 import org.icij.datashare.user.User;
+import org.icij.datashare.web.WebResponse;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -159,6 +161,26 @@ public class TaskFinderTest {
         assertThat(tasks.get(0).name).isEqualTo("name");
     }
 
+    @Test
+    public void test_get_page_of_tasks_and_proxy_tasks() throws IOException {
+        String uri = "/?q=&from=0&size=25&sort=relevance&indices=test&field=all";
+        User user = User.local();
+        List<ProjectProxy> projects = List.of(project("project"));
+        BatchSearchRecord batchSearchRecord = new BatchSearchRecord(projects, "name", "description", 123, new Date(), uri);
+        // A real task with the same id as the batch search is already in the task manager
+        taskManager.startTask(new Task<>(batchSearchRecord.uuid, "bar", User.local()), null);
+        taskManager.startTask(new Task<>("foo", User.local(), new HashMap<>()), null);
+        taskManager.startTask(new Task<>("qux", User.local(), new HashMap<>()), null);
+        BatchSearchRecord otherRecord = new BatchSearchRecord(projects, "other", "description", 123, new Date(), uri);
+        when(batchSearchRepository.getRecords(any(User.class), anyList())).thenReturn(List.of(batchSearchRecord, otherRecord));
+
+        WebResponse<Task<?>> page = taskFinder.findVisibleTasksFor(user, new TaskFilters(), new WebQueryPagination("name", "asc", 1, 2), true);
+
+        assertThat(page.items.stream().map(t -> t.name).toList()).isEqualTo(List.of("foo", "org.icij.datashare.tasks.BatchSearchRunnerProxy"));
+        assertThat(page.items.get(1).id).isEqualTo(otherRecord.uuid);
+        assertThat(page.pagination.total()).isEqualTo(4);
+    }
+
     @Test
     public void test_find_visible_task_for_owner() throws IOException {
         User user = User.local();
@@ -9,7 +9,9 @@ import org.icij.datashare.test.LogbackCapturingRule;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.DocumentBuilder;
 import org.icij.datashare.text.Project;
+import org.icij.datashare.text.artifact.ArtifactReader;
 import org.icij.datashare.text.artifact.ArtifactType;
+import org.icij.datashare.text.artifact.ManifestStore;
 import org.icij.datashare.text.indexing.Indexer;
 import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import org.icij.datashare.utils.DocumentSourceAccess;
@@ -58,7 +60,8 @@ public class ArtifactResourceTest extends AbstractProdWebServerTest {
         when(propertiesProvider.createMerged(any())).thenCallRealMethod();
         configure(routes -> routes
                 .add(new ArtifactResource(indexer, propertiesProvider,
-                        new DocumentSourceAccess(jooqRepository, indexer, propertiesProvider)))
+                        new DocumentSourceAccess(jooqRepository, indexer, propertiesProvider),
+                        new ArtifactReader(ManifestStore.of(propertiesProvider).repository())))
                 .filter(new LocalUserFilter(new PropertiesProvider(), jooqRepository)));
     }
 
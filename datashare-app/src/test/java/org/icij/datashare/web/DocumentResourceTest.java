@@ -12,8 +12,15 @@ import org.icij.datashare.test.LogbackCapturingRule;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.DocumentBuilder;
 import org.icij.datashare.text.Project;
+import org.icij.datashare.text.artifact.ArtifactReader;
+import org.icij.datashare.text.artifact.ArtifactType;
+import org.icij.datashare.text.artifact.FilesystemManifestRepository;
+import org.icij.datashare.text.artifact.ManifestEntry;
+import org.icij.datashare.text.artifact.ManifestEntryStatus;
+import org.icij.datashare.text.artifact.ManifestStore;
 import org.icij.datashare.text.indexing.ExtractedText;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import org.icij.datashare.utils.DocumentSourceAccess;
 import org.icij.datashare.text.indexing.SearchedText;
 import org.icij.datashare.user.User;
@@ -28,6 +35,7 @@ import org.slf4j.event.Level;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -71,7 +79,8 @@ public class DocumentResourceTest extends AbstractProdWebServerTest {
         when(propertiesProvider.createMerged(any())).thenCallRealMethod();
         configure(routes -> {
             routes.add(new DocumentResource(jooqRepository, indexer, propertiesProvider,
-                            new DocumentSourceAccess(jooqRepository, indexer, propertiesProvider)))
+                            new DocumentSourceAccess(jooqRepository, indexer, propertiesProvider),
+                            new ArtifactReader(ManifestStore.of(propertiesProvider).repository())))
                     .filter(new LocalUserFilter(new PropertiesProvider(), jooqRepository));
         });
     }
@@ -519,6 +528,28 @@ public class DocumentResourceTest extends AbstractProdWebServerTest {
         assertThat(cacheDir.listFiles()).isNotEmpty();
     }
 
+    @Test
+    public void test_pages_are_served_from_the_page_artifact_without_parsing_the_document() throws Exception {
+        when(propertiesProvider.get(ARTIFACT_DIR_OPT)).thenReturn(Optional.of(temp.getRoot().toString()));
+        String id = "6abb96950946b62bb993307c8945c0c096982783bab7fa24901522426840ca3e";
+        // No such file: a live parse would fail, so a 200 can only come from what was stored.
+        mockIndexer.indexFile("local-datashare", id, Paths.get("/no/such/report.pdf"), "application/pdf");
+        Path docArtifactDir = ArtifactPath.dir(temp.getRoot().toPath().resolve("local-datashare"), id);
+        Path pagesDir = ArtifactPath.payloadDir(docArtifactDir, ArtifactType.PAGE);
+        Files.createDirectories(pagesDir);
+        Files.writeString(pagesDir.resolve(ArtifactPath.PAGES_CONTENT_FILE), "page onepage two");
+        Files.writeString(pagesDir.resolve(ArtifactPath.PAGE_OFFSETS_FILE), "{\"extractor\":\"stored\",\"pages\":[[0,8],[9,17]]}");
+        new FilesystemManifestRepository().put(docArtifactDir, ArtifactType.PAGE.token(), ManifestEntry.paginated(Map.of(),
+                List.of(new long[]{0, 8}, new long[]{8, 16}), ArtifactPath.PAGE_OFFSETS_FILE).withStatus(ManifestEntryStatus.COMPLETE));
+
+        get("/api/local-datashare/documents/pages/" + id + "?routing=" + id).should().respond(200)
+                .haveType("application/json").contain("\"extractor\":\"stored\"").contain("[[0,8],[9,17]]");
+        Response response = get("/api/local-datashare/documents/content/pages/" + id + "?routing=" + id).response();
+        assertThat(response.code()).isEqualTo(200);
+        List<String> pages = JsonObjectMapper.readValue(response.content(), new TypeReference<>() {});
+        assertThat(pages).isEqualTo(List.of("page one", "page two"));
+    }
+
     @Test
     public void test_get_pages_of_document_with_OCR() throws IOException {
         String path = getClass().getResource("/docs/embedded_doc.eml").getPath();
@@ -2,21 +2,23 @@ package org.icij.datashare.web;
 
 import net.codestory.http.filters.basic.BasicAuthFilter;
 import org.icij.datashare.PropertiesProvider;
+import org.icij.datashare.asynctasks.TaskManager;
 import org.icij.datashare.db.JooqRepository;
 import org.icij.datashare.session.DatashareUser;
 import org.icij.datashare.session.LocalUserFilter;
+import org.icij.datashare.tasks.HideNamedEntitiesTask;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.user.User;
 import org.icij.datashare.web.testhelpers.AbstractProdWebServerTest;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 
 import java.io.IOException;
-import java.util.stream.Stream;
+import java.util.Map;
 
 import static java.util.Collections.singletonList;
-import static org.fest.assertions.Assertions.assertThat;
 import static org.icij.datashare.text.Language.FRENCH;
 import static org.icij.datashare.text.NamedEntity.Category.PERSON;
 import static org.icij.datashare.text.NamedEntity.create;
@@ -27,6 +29,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 public class NamedEntityResourceTest extends AbstractProdWebServerTest {
     @Mock Indexer indexer;
     @Mock JooqRepository jooqRepository;
+    @Mock TaskManager taskManager;
 
     @Test
     public void test_get_standalone_named_entity_should_return_not_found() {
@@ -42,7 +45,7 @@ public class NamedEntityResourceTest extends AbstractProdWebServerTest {
 
     @Test
     public void test_get_named_entity_in_prod_mode() {
-        configure(routes -> routes.add(new NamedEntityResource(indexer)).filter(new BasicAuthFilter("/", "icij", DatashareUser.singleUser("anne"))));
+        configure(routes -> routes.add(new NamedEntityResource(indexer, taskManager, new PropertiesProvider())).filter(new BasicAuthFilter("/", "icij", DatashareUser.singleUser("anne"))));
         NamedEntity toBeReturned = create(PERSON, "mention", singletonList(123L), "docId", "root", CORENLP, FRENCH);
         doReturn(toBeReturned).when(indexer).get("anne-datashare", "my_id", "root_parent");
 
@@ -51,22 +54,31 @@ public class NamedEntityResourceTest extends AbstractProdWebServerTest {
     }
 
     @Test
-    public void test_hide_named_entity_when_success() throws IOException {
-        NamedEntity toBeHidden = create(PERSON, "to_update", singletonList(123L), "docId", "root", CORENLP, FRENCH);
-        assertThat(toBeHidden.isHidden()).isFalse();
-        Indexer.QueryBuilderSearcher searcher = mock(Indexer.QueryBuilderSearcher.class);
-        doReturn(Stream.of(toBeHidden)).when(searcher).execute();
-        doReturn(searcher).when(searcher).thatMatchesFieldValue(any(), any());
-        doReturn(searcher).when(indexer).search(singletonList("local-datashare"), NamedEntity.class);
+    public void test_hide_named_entity_starts_a_task() throws IOException {
+        doReturn("taskId").when(taskManager).startTask(eq(HideNamedEntitiesTask.class), any(User.class), anyMap());
+
+        put("/api/local-datashare/namedEntities/hide/to_update").should().respond(200).contain("\"taskId\":\"taskId\"");
+
+        verify(taskManager).startTask(eq(HideNamedEntitiesTask.class), any(User.class),
+                eq(Map.of("defaultProject", "local-datashare", "mentionNorm", "to_update")));
+        verifyNoInteractions(indexer);
+    }
+
+    @Test
+    public void test_hide_named_entity_passes_the_throttle_to_the_task() throws IOException {
+        PropertiesProvider throttled = new PropertiesProvider(Map.<String, Object>of("hideNamedEntitiesSlices", "4", "hideNamedEntitiesRequestsPerSecond", "5000"));
+        configure(routes -> routes.add(new NamedEntityResource(indexer, taskManager, throttled)).filter(new LocalUserFilter(new PropertiesProvider(), jooqRepository)));
+        doReturn("taskId").when(taskManager).startTask(eq(HideNamedEntitiesTask.class), any(User.class), anyMap());
 
         put("/api/local-datashare/namedEntities/hide/to_update").should().respond(200);
 
-        verify(indexer).bulkUpdate("local-datashare", singletonList(toBeHidden));
+        verify(taskManager).startTask(eq(HideNamedEntitiesTask.class), any(User.class), eq(Map.of("defaultProject", "local-datashare",
+                "mentionNorm", "to_update", "hideNamedEntitiesSlices", "4", "hideNamedEntitiesRequestsPerSecond", "5000")));
     }
 
     @Test
-    public void test_hide_named_entity_when_failure() {
-        doThrow(new RuntimeException()).when(indexer).search(singletonList("local-datashare"), NamedEntity.class);
+    public void test_hide_named_entity_when_failure() throws IOException {
+        doThrow(new IOException()).when(taskManager).startTask(eq(HideNamedEntitiesTask.class), any(User.class), anyMap());
 
         put("/api/local-datashare/namedEntities/hide/to_update").should().respond(500);
     }
@@ -86,6 +98,6 @@ public class NamedEntityResourceTest extends AbstractProdWebServerTest {
         initMocks(this);
         PropertiesProvider propertiesProvider = new PropertiesProvider();
         LocalUserFilter localUserFilter = new LocalUserFilter(propertiesProvider, jooqRepository);
-        configure(routes -> routes.add(new NamedEntityResource(indexer)).filter(localUserFilter));
+        configure(routes -> routes.add(new NamedEntityResource(indexer, taskManager, propertiesProvider)).filter(localUserFilter));
     }
 }
@@ -128,6 +128,9 @@ public class DatashareCli {
         DatashareCliOptions.artifactDir(parser);
         DatashareCliOptions.artifacts(parser);
         DatashareCliOptions.artifactsForce(parser);
+        DatashareCliOptions.artifactsSearchIndex(parser);
+        DatashareCliOptions.artifactsPageOffsets(parser);
+        DatashareCliOptions.artifactsManifestStore(parser);
         DatashareCliOptions.enableOcr(parser);
         DatashareCliOptions.language(parser);
         DatashareCliOptions.ocrLanguage(parser);
@@ -139,12 +142,24 @@ public class DatashareCli {
         DatashareCliOptions.nlpPipeline(parser);
         DatashareCliOptions.nlpMaxTextLength(parser);
         DatashareCliOptions.nlpBatchSize(parser);
+        DatashareCliOptions.nlpPrefetchSize(parser);
+        DatashareCliOptions.nlpPrefetchMaxBytes(parser);
+        DatashareCliOptions.nlpBulkSize(parser);
+        DatashareCliOptions.nlpBulkMaxBytes(parser);
+        DatashareCliOptions.nlpBulkFlushInterval(parser);
+        DatashareCliOptions.nlpBulkConcurrency(parser);
         DatashareCliOptions.resume(parser);
         DatashareCliOptions.scroll(parser);
         DatashareCliOptions.scrollSize(parser);
         DatashareCliOptions.scrollSlices(parser);
+        DatashareCliOptions.scrollPointInTime(parser);
+        DatashareCliOptions.scrollCheckpoint(parser);
+        DatashareCliOptions.scanParallelism(parser);
+        DatashareCliOptions.scanCheckpoint(parser);
         DatashareCliOptions.batchSearchScroll(parser);
         DatashareCliOptions.batchSearchScrollSize(parser);
+        DatashareCliOptions.batchSearchMultiSearchSize(parser);
+        DatashareCliOptions.batchSearchParallelism(parser);
         DatashareCliOptions.batchDownloadScroll(parser);
         DatashareCliOptions.batchDownloadScrollSize(parser);
         DatashareCliOptions.redisPoolSize(parser);
@@ -165,6 +180,7 @@ public class DatashareCli {
         DatashareCliOptions.batchDownloadTimeToLive(parser);
         DatashareCliOptions.batchDownloadMaxNbFiles(parser);
         DatashareCliOptions.batchDownloadMaxSize(parser);
+        DatashareCliOptions.batchDownloadParallelism(parser);
         DatashareCliOptions.batchDownloadEncrypt(parser);
         DatashareCliOptions.batchDownloadDir(parser);
         DatashareCliOptions.smtpUrl(parser);
@@ -178,6 +194,17 @@ public class DatashareCli {
         DatashareCliOptions.esHost(parser);
         DatashareCliOptions.elasticsearchMaxIdleConnectionTime(parser);
         DatashareCliOptions.indexTimeout(parser);
+        DatashareCliOptions.indexBulkSize(parser);
+        DatashareCliOptions.indexBulkMaxBytes(parser);
+        DatashareCliOptions.indexBulkFlushInterval(parser);
+        DatashareCliOptions.indexBulkConcurrency(parser);
+        DatashareCliOptions.indexDuplicatePreload(parser);
+        DatashareCliOptions.deduplicateStateDir(parser);
+        DatashareCliOptions.categorizeServerSide(parser);
+        DatashareCliOptions.categorizeSlices(parser);
+        DatashareCliOptions.categorizeRequestsPerSecond(parser);
+        DatashareCliOptions.hideNamedEntitiesSlices(parser);
+        DatashareCliOptions.hideNamedEntitiesRequestsPerSecond(parser);
         DatashareCliOptions.queueName(parser);
         DatashareCliOptions.queueType(parser);
         DatashareCliOptions.queueCapacity(parser);
@@ -194,6 +221,7 @@ public class DatashareCli {
         DatashareCliOptions.policyReloadInterval(parser);
         DatashareCliOptions.sessionSigningKey(parser);
         DatashareCliOptions.sessionTtlSeconds(parser);
+        DatashareCliOptions.apiKeyCacheTtlSeconds(parser);
         DatashareCliOptions.protectedUriPrefix(parser);
         DatashareCliOptions.authUsersProvider(parser);
         DatashareCliOptions.oauthSecret(parser);
@@ -216,7 +244,9 @@ public class DatashareCli {
         DatashareCliOptions.taskRepositoryType(parser);
         DatashareCliOptions.taskManagerPollingInterval(parser);
         DatashareCliOptions.taskProgressUpdateInterval(parser);
+        DatashareCliOptions.taskProgressFlushInterval(parser);
         DatashareCliOptions.taskWorkers(parser);
+        DatashareCliOptions.taskWorkerSlots(parser);
         DatashareCliOptions.temporalNamespaceOpt(parser);
         DatashareCliOptions.temporalAddressOpt(parser);
         DatashareCliOptions.statusAllowedNets(parser);
@@ -38,16 +38,22 @@ public final class DatashareCliOptions {
     public static final String BATCH_DOWNLOAD_ENCRYPT_OPT = "batchDownloadEncrypt";
     public static final String BATCH_DOWNLOAD_MAX_NB_FILES_OPT = "batchDownloadMaxNbFiles";
     public static final String BATCH_DOWNLOAD_MAX_SIZE_OPT = "batchDownloadMaxSize";
+    public static final String BATCH_DOWNLOAD_PARALLELISM_OPT = "batchDownloadParallelism";
     public static final String BATCH_DOWNLOAD_SCROLL_DURATION_OPT = "batchDownloadScroll";
     public static final String BATCH_DOWNLOAD_SCROLL_SIZE_OPT = "batchDownloadScrollSize";
     public static final String BATCH_DOWNLOAD_ZIP_TTL_OPT = "batchDownloadTimeToLive";
     public static final String BATCH_QUEUE_TYPE_OPT = "batchQueueType";
     public static final String BATCH_SEARCH_MAX_TIME_OPT = "batchSearchMaxTimeSeconds";
+    public static final String BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT = "batchSearchMultiSearchSize";
+    public static final String BATCH_SEARCH_PARALLELISM_OPT = "batchSearchParallelism";
     public static final String BATCH_SEARCH_SCROLL_DURATION_OPT = "batchSearchScroll";
     public static final String BATCH_SEARCH_SCROLL_SIZE_OPT = "batchSearchScrollSize";
     public static final String BATCH_THROTTLE_OPT = "batchThrottleMilliseconds";
     public static final String BROWSER_OPEN_LINK_OPT = "browserOpenLink";
     public static final String BUS_TYPE_OPT = "busType";
+    public static final String CATEGORIZE_REQUESTS_PER_SECOND_OPT = "categorizeRequestsPerSecond";
+    public static final String CATEGORIZE_SERVER_SIDE_OPT = "categorizeServerSide";
+    public static final String CATEGORIZE_SLICES_OPT = "categorizeSlices";
     public static final String CHARSET_OPT = "charset";
     public static final String CLUSTER_NAME_OPT = "clusterName";
     public static final String CORS_OPT = "cors";
@@ -60,6 +66,7 @@ public final class DatashareCliOptions {
     public static final String DEFAULT_PROJECT_ABBR_OPT = "p";
     public static final String DEFAULT_USER_NAME_ABBR_OPT = "u";
     public static final String DEFAULT_USER_NAME_OPT = "defaultUserName";
+    public static final String DEDUPLICATE_STATE_DIR_OPT = "deduplicateStateDir";
     public static final String DEL_API_KEY_OPT = "deleteApiKey";
     public static final String DIGEST_ALGORITHM_OPT = "digestAlgorithm";
     public static final String ELASTICSEARCH_ADDRESS_OPT = "elasticsearchAddress";
@@ -78,6 +85,13 @@ public final class DatashareCliOptions {
     public static final String GRANT_ADMIN_OPT = "grantAdmin";
     public static final String HELP_ABBR_OPT = "h";
     public static final String HELP_OPT = "help";
+    public static final String HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT = "hideNamedEntitiesRequestsPerSecond";
+    public static final String HIDE_NAMED_ENTITIES_SLICES_OPT = "hideNamedEntitiesSlices";
+    public static final String INDEX_BULK_CONCURRENCY_OPT = "indexBulkConcurrency";
+    public static final String INDEX_BULK_FLUSH_INTERVAL_OPT = "indexBulkFlushInterval";
+    public static final String INDEX_BULK_MAX_BYTES_OPT = "indexBulkMaxBytes";
+    public static final String INDEX_BULK_SIZE_OPT = "indexBulkSize";
+    public static final String INDEX_DUPLICATE_PRELOAD_OPT = "indexDuplicatePreload";
     public static final String INDEX_TIMEOUT_OPT = "indexTimeout";
     public static final String LANGUAGE_ABBR_OPT = "l";
     public static final String LANGUAGE_OPT = "language";
@@ -88,10 +102,16 @@ public final class DatashareCliOptions {
     public static final String MODE_OPT = "mode";
     public static final String NLP_BATCH_SIZE_OPT = "batchSize";
     public static final String NLP_PARALLELISM_ABBR_OPT = "np";
+    public static final String NLP_BULK_CONCURRENCY_OPT = "nlpBulkConcurrency";
+    public static final String NLP_BULK_FLUSH_INTERVAL_OPT = "nlpBulkFlushInterval";
+    public static final String NLP_BULK_MAX_BYTES_OPT = "nlpBulkMaxBytes";
+    public static final String NLP_BULK_SIZE_OPT = "nlpBulkSize";
     public static final String NLP_MAX_TEXT_LENGTH_OPT = "maxTextLength";
     public static final String NLP_PARALLELISM_OPT = "nlpParallelism";
     public static final String NLP_PIPELINE_ABBR_OPT = "nlpp";
     public static final String NLP_PIPELINE_OPT = "nlpPipeline";
+    public static final String NLP_PREFETCH_MAX_BYTES_OPT = "nlpPrefetchMaxBytes";
+    public static final String NLP_PREFETCH_SIZE_OPT = "nlpPrefetchSize";
     public static final String NO_DIGEST_PROJECT_OPT = "noDigestProject";
     public static final String OAUTH_API_URL_OPT = "oauthApiUrl";
     public static final String OAUTH_AUTHORIZE_URL_OPT = "oauthAuthorizeUrl";
@@ -128,12 +148,17 @@ public final class DatashareCliOptions {
     public static final String REDIS_POOL_SIZE_OPT = "redisPoolSize";
     public static final String RESUME_ABBR_OPT = "r";
     public static final String ROOT_HOST_OPT = "rootHost";
+    public static final String SCAN_CHECKPOINT_OPT = "scanCheckpoint";
+    public static final String SCAN_PARALLELISM_OPT = "scanParallelism";
+    public static final String SCROLL_CHECKPOINT_OPT = "scrollCheckpoint";
     public static final String SCROLL_DURATION_OPT = "scroll";
+    public static final String SCROLL_POINT_IN_TIME_OPT = "scrollPointInTime";
     public static final String SCROLL_SIZE_OPT = "scrollSize";
     public static final String SCROLL_SLICES_OPT = "scrollSlices";
     public static final String SESSION_SIGNING_KEY_OPT = "sessionSigningKey";
     public static final String SESSION_STORE_TYPE_OPT = "sessionStoreType";
     public static final String SESSION_TTL_SECONDS_OPT = "sessionTtlSeconds";
+    public static final String API_KEY_CACHE_TTL_SECONDS_OPT = "apiKeyCacheTtlSeconds";
     public static final String STATUS_ALLOWED_NETS_OPT = "statusAllowedNets";
     public static final String SETTING_ABBR_OPT = "s";
     public static final String SMTP_URL_OPT = "smtpUrl";
@@ -144,6 +169,9 @@ public final class DatashareCliOptions {
     public static final String ARTIFACT_DIR_OPT = "artifactDir";
     public static final String ARTIFACTS_OPT = "artifacts";
     public static final String ARTIFACTS_FORCE_OPT = "artifactsForce";
+    public static final String ARTIFACTS_SEARCH_INDEX_OPT = "artifactsSearchIndex";
+    public static final String ARTIFACTS_MANIFEST_STORE_OPT = "artifactsManifestStore";
+    public static final String ARTIFACTS_PAGE_OFFSETS_OPT = "artifactsPageOffsets";
     public static final String SEARCH_QUERY_OPT = "searchQuery";
     public static final String TASK_ROUTING_STRATEGY_OPT = "taskRoutingStrategy";
     public static final String TASK_ROUTING_KEY_OPT = "taskRoutingKey";
@@ -152,7 +180,9 @@ public final class DatashareCliOptions {
     public static final String TASK_REPOSITORY_OPT = "taskRepositoryType";
     public static final String TASK_MANAGER_POLLING_INTERVAL_OPT = "taskManagerPollingIntervalMilliseconds";
     public static final String TASK_WORKERS_OPT = "taskWorkers";
+    public static final String TASK_WORKER_SLOTS_OPT = "taskWorkerSlots";
     public static final String TASK_PROGRESS_INTERVAL_OPT = "taskProgressUpdateIntervalSeconds";
+    public static final String TASK_PROGRESS_FLUSH_INTERVAL_OPT = "taskProgressFlushIntervalMilliseconds";
     public static final String POLICY_RELOAD_INTERVAL_OPT = "policyReloadInterval";
     // Internal property keys for the CLI -> CliApp dispatch of the user
     // commands. USER_CREATE_OPT and USER_DELETE_OPT carry the login; the
@@ -239,12 +269,19 @@ public final class DatashareCliOptions {
     public static final String DEFAULT_EMBEDDED_DOCUMENT_DOWNLOAD_MAX_SIZE = "1G";
     public static final String DEFAULT_EXTENSIONS_DIR = DEFAULT_DATASHARE_HOME.resolve("extensions").toString();
     public static final int DEFAULT_INDEX_TIMEOUT = 30;
+    public static final int DEFAULT_INDEX_BULK_CONCURRENCY = 1;
+    public static final String DEFAULT_INDEX_BULK_FLUSH_INTERVAL = "5s";
+    public static final String DEFAULT_INDEX_BULK_MAX_BYTES = "10M";
     public static final boolean DEFAULT_FOLLOW_SYMLINKS = true;
     public static final String DEFAULT_LOG_LEVEL = Level.INFO.toString();
     public static final String DEFAULT_MESSAGE_BUS_ADDRESS = EnvUtils.resolveUri("redis", "redis://redis:6379");
     public static final String DEFAULT_NLP_PIPELINE = "CORENLP";
     public static final int DEFAULT_NLP_BATCH_SIZE = 1024;
     public static final int DEFAULT_NLP_MAX_TEXT_LENGTH = 1024;
+    public static final String DEFAULT_NLP_PREFETCH_MAX_BYTES = "100M";
+    public static final int DEFAULT_NLP_BULK_CONCURRENCY = 1;
+    public static final String DEFAULT_NLP_BULK_FLUSH_INTERVAL = "5s";
+    public static final String DEFAULT_NLP_BULK_MAX_BYTES = "10M";
     public static final String DEFAULT_PROTECTED_URI_PREFIX = "/api/";
     public static final String DEFAULT_QUEUE_NAME = "extract:queue";
     public static final int DEFAULT_QUEUE_CAPACITY = (int) 1e6;
@@ -258,6 +295,9 @@ public final class DatashareCliOptions {
     public static final int DEFAULT_MAX_EMBED_DEPTH = 20;
     public static final int DEFAULT_BATCH_DOWNLOAD_MAX_NB_FILES = 10000;
     public static final int DEFAULT_BATCH_DOWNLOAD_ZIP_TTL = 24;
+    public static final int DEFAULT_BATCH_DOWNLOAD_PARALLELISM = 1;
+    public static final int DEFAULT_BATCH_SEARCH_MULTI_SEARCH_SIZE = 100;
+    public static final int DEFAULT_BATCH_SEARCH_PARALLELISM = 2;
     public static final String DEFAULT_PLUGIN_DIR = DEFAULT_DATASHARE_HOME.resolve("plugins").toString();
     public static final String DEFAULT_SCROLL_DURATION = "60000ms";
     public static final int DEFAULT_SCROLL_SIZE = 1000;
@@ -429,6 +469,14 @@ public final class DatashareCliOptions {
                         .defaultsTo(DEFAULT_SESSION_TTL_SECONDS);
     }
 
+    static void apiKeyCacheTtlSeconds(OptionParser parser) {
+        parser.acceptsAll(
+                singletonList(API_KEY_CACHE_TTL_SECONDS_OPT), "Time in seconds during which the user of an API key is kept in memory. "
+                        + "Unset resolves the API key and the user at each request.")
+                        .withRequiredArg()
+                        .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
     static void protectedUriPrefix(OptionParser parser) {
         parser.acceptsAll(
                 singletonList(PROTECTED_URI_PREFIX_OPT), "Protected URI prefix")
@@ -441,6 +489,69 @@ public final class DatashareCliOptions {
         parser.acceptsAll(asList(RESUME_ABBR_OPT, RESUME_OPT), "Resume pending operations");
     }
 
+    static void categorizeServerSide(OptionParser parser) {
+        parser.acceptsAll(singletonList(CATEGORIZE_SERVER_SIDE_OPT), "Categorize every document of the project with update by queries run "
+                        + "by Elasticsearch instead of fetching and updating the documents one by one (Default false)")
+                // No defaultsTo, like artifactsForce: absent key -> false
+                .withRequiredArg().ofType(Boolean.class);
+    }
+
+    static void artifactsPageOffsets(OptionParser parser) {
+        parser.acceptsAll(
+                List.of(ARTIFACTS_PAGE_OFFSETS_OPT),
+                "Record the page offsets of the indexed content next to the page artifact, so the document "
+                        + "pages routes answer without parsing the document again. Costs a second parse of each "
+                        + "document when the page artifact is produced." )
+                // No defaultsTo, like artifactsForce: absent key -> false
+                .withRequiredArg().ofType(Boolean.class);
+    }
+
+    static void artifactsManifestStore(OptionParser parser) {
+        parser.acceptsAll(
+                List.of(ARTIFACTS_MANIFEST_STORE_OPT),
+                "Where manifest entries are kept: 'file' for a manifest.json per document (default, the layout "
+                        + "datashare-python reads) or 'log' for one append-only manifests.log per project, "
+                        + "indexed in the heap of every process reading it (about 200 bytes per document and artifact type)." )
+                // No defaultsTo, like artifactsForce: absent key -> file via ManifestStore
+                .withRequiredArg();
+    }
+
+    static void deduplicateStateDir(OptionParser parser) {
+        parser.acceptsAll(singletonList(DEDUPLICATE_STATE_DIR_OPT), "Directory where the DEDUPLICATE task keeps the paths it has seen, "
+                        + "on disk instead of in memory, and saves them periodically so that a task run again after a crash "
+                        + "resumes with them. Unset keeps them in memory.")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    static void categorizeSlices(OptionParser parser) {
+        parser.acceptsAll(singletonList(CATEGORIZE_SLICES_OPT), "Number of slices of the server-side categorization update by queries. "
+                        + "Unset lets Elasticsearch choose one slice per shard.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void categorizeRequestsPerSecond(OptionParser parser) {
+        parser.acceptsAll(singletonList(CATEGORIZE_REQUESTS_PER_SECOND_OPT), "Throttle of the server-side categorization in documents per second. "
+                        + "Unset does not throttle.")
+                .withRequiredArg()
+                .ofType(Float.class);
+    }
+
+    static void hideNamedEntitiesSlices(OptionParser parser) {
+        parser.acceptsAll(singletonList(HIDE_NAMED_ENTITIES_SLICES_OPT), "Number of slices of the update by query hiding the named entities of a mention. "
+                        + "Unset lets Elasticsearch choose one slice per shard.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void hideNamedEntitiesRequestsPerSecond(OptionParser parser) {
+        parser.acceptsAll(singletonList(HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT), "Throttle of the update by query hiding the named entities of a mention, in entities per second. "
+                        + "Unset does not throttle.")
+                .withRequiredArg()
+                .ofType(Float.class);
+    }
+
     static void createIndex(OptionParser parser) {
         parser.acceptsAll(singletonList(CREATE_INDEX_OPT), "creates an index with the given name")
                 .withRequiredArg()
@@ -454,6 +565,38 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_INDEX_TIMEOUT);
     }
 
+    static void indexBulkSize(OptionParser parser) {
+        parser.acceptsAll(singletonList(INDEX_BULK_SIZE_OPT), "Number of documents sent per bulk request during document indexing. "
+                        + "Unset or 1 indexes each document with its own request.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void indexBulkMaxBytes(OptionParser parser) {
+        parser.acceptsAll(singletonList(INDEX_BULK_MAX_BYTES_OPT), "Estimated size after which a bulk request is sent during document indexing (Default " + DEFAULT_INDEX_BULK_MAX_BYTES + ")")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    static void indexBulkFlushInterval(OptionParser parser) {
+        parser.acceptsAll(singletonList(INDEX_BULK_FLUSH_INTERVAL_OPT), "Maximum time a document waits for its bulk request during document indexing (Default " + DEFAULT_INDEX_BULK_FLUSH_INTERVAL + ")")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    static void indexBulkConcurrency(OptionParser parser) {
+        parser.acceptsAll(singletonList(INDEX_BULK_CONCURRENCY_OPT), "Number of bulk requests in flight during document indexing (Default " + DEFAULT_INDEX_BULK_CONCURRENCY + ")")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void indexDuplicatePreload(OptionParser parser) {
+        parser.acceptsAll(singletonList(INDEX_DUPLICATE_PRELOAD_OPT), "Load the ids of the indexed documents into a Bloom filter "
+                        + "before indexing, so that duplicate detection of new documents needs no request to elasticsearch")
+                .withRequiredArg()
+                .ofType(Boolean.class);
+    }
+
     static void genApiKey(OptionParser parser) {
         parser.acceptsAll(asList(CRE_API_KEY_ABBR_OPT, CRE_API_KEY_OPT), "Generate and store api key for user defaultUser (see opt)")
                 .withRequiredArg()
@@ -514,6 +657,15 @@ public final class DatashareCliOptions {
                 .withRequiredArg().ofType(Boolean.class);
     }
 
+    static void artifactsSearchIndex(OptionParser parser) {
+        parser.acceptsAll(
+                List.of(ARTIFACTS_SEARCH_INDEX_OPT),
+                "Write a term to page index next to the structure pages, so searching a document reads only "
+                        + "the pages holding the query." )
+                // No defaultsTo, like artifactsForce: absent key -> false
+                .withRequiredArg().ofType(Boolean.class);
+    }
+
     static void rootHost(OptionParser parser) {
             parser.acceptsAll(
                     singletonList(ROOT_HOST_OPT),
@@ -612,6 +764,44 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_NLP_BATCH_SIZE);
     }
 
+    static void nlpPrefetchSize(OptionParser parser) {
+        parser.acceptsAll(singletonList(NLP_PREFETCH_SIZE_OPT), "Number of documents fetched per multi-get ahead of the NLP pipeline. "
+                        + "Unset or 1 fetches each document when it is processed.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void nlpPrefetchMaxBytes(OptionParser parser) {
+        parser.acceptsAll(singletonList(NLP_PREFETCH_MAX_BYTES_OPT), "Maximum estimated size of the documents fetched ahead of the NLP pipeline (Default " + DEFAULT_NLP_PREFETCH_MAX_BYTES + ")")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    static void nlpBulkSize(OptionParser parser) {
+        parser.acceptsAll(singletonList(NLP_BULK_SIZE_OPT), "Number of operations sent per bulk request when writing named entities. "
+                        + "Unset or 1 writes the entities of each document with its own request.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void nlpBulkMaxBytes(OptionParser parser) {
+        parser.acceptsAll(singletonList(NLP_BULK_MAX_BYTES_OPT), "Estimated size after which a bulk request of named entities is sent (Default " + DEFAULT_NLP_BULK_MAX_BYTES + ")")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    static void nlpBulkFlushInterval(OptionParser parser) {
+        parser.acceptsAll(singletonList(NLP_BULK_FLUSH_INTERVAL_OPT), "Maximum time named entities wait for their bulk request (Default " + DEFAULT_NLP_BULK_FLUSH_INTERVAL + ")")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    static void nlpBulkConcurrency(OptionParser parser) {
+        parser.acceptsAll(singletonList(NLP_BULK_CONCURRENCY_OPT), "Number of bulk requests of named entities in flight (Default " + DEFAULT_NLP_BULK_CONCURRENCY + ")")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
     static void nlpMaxTextLength(OptionParser parser) {
         parser.acceptsAll(
                 asList(NLP_PARALLELISM_ABBR_OPT, NLP_PARALLELISM_OPT),
@@ -650,9 +840,40 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_SCROLL_SIZE);
     }
 
+    public static void scrollPointInTime(OptionParser parser) {
+        parser.acceptsAll(
+                singletonList(SCROLL_POINT_IN_TIME_OPT), "Iterate over the index with a point in time and search_after instead of "
+                        + "a scroll context, the scroll duration being the point in time keep alive (ENQUEUEIDX task, Default false)")
+                // No defaultsTo, like artifactsForce: absent key -> false
+                .withRequiredArg()
+                .ofType(Boolean.class);
+    }
+
+    static void scanParallelism(OptionParser parser) {
+        parser.acceptsAll(singletonList(SCAN_PARALLELISM_OPT), "Number of threads listing the directories of a SCAN in parallel. "
+                        + "Unset walks the tree with one thread.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    static void scanCheckpoint(OptionParser parser) {
+        parser.acceptsAll(singletonList(SCAN_CHECKPOINT_OPT), "File where a parallel SCAN records the directories it has queued, "
+                        + "to skip them if the task is run again (SCAN task with scanParallelism)")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
+    public static void scrollCheckpoint(OptionParser parser) {
+        parser.acceptsAll(
+                singletonList(SCROLL_CHECKPOINT_OPT), "File where the position of a point in time iteration is saved after each page, "
+                        + "to resume from it if the task is run again (ENQUEUEIDX task with scrollPointInTime)")
+                .withRequiredArg()
+                .ofType(String.class);
+    }
+
      public static void scrollSlices(OptionParser parser) {
         parser.acceptsAll(
-                singletonList(SCROLL_SLICES_OPT), "Scroll slice max number used for elasticsearch scrolls (SCANIDX task)")
+                singletonList(SCROLL_SLICES_OPT), "Scroll slice max number used for elasticsearch scrolls, run in parallel (SCANIDX and ENQUEUEIDX tasks)")
                 .withRequiredArg()
                 .ofType(Integer.class)
                 .defaultsTo(DEFAULT_SCROLL_SLICES);
@@ -674,6 +895,22 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_SCROLL_SIZE);
     }
 
+    public static void batchSearchMultiSearchSize(OptionParser parser) {
+        parser.acceptsAll(
+                singletonList(BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT), "Number of queries of a batch search whose first page is fetched "
+                        + "with a single multi search request (Default 100)")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
+    public static void batchSearchParallelism(OptionParser parser) {
+        parser.acceptsAll(
+                singletonList(BATCH_SEARCH_PARALLELISM_OPT), "Number of threads scrolling the queries of a batch search "
+                        + "that have more hits than the scroll size (Default 2)")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
     public static void batchDownloadScroll(OptionParser parser) {
         parser.acceptsAll(
                 singletonList(BATCH_DOWNLOAD_SCROLL_DURATION_OPT), "Scroll duration used for elasticsearch scrolls (Batch Download)")
@@ -965,6 +1202,14 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_BATCH_DOWNLOAD_MAX_NB_FILES);
     }
 
+    public static void batchDownloadParallelism(OptionParser parser) {
+        parser.acceptsAll(
+                singletonList(BATCH_DOWNLOAD_PARALLELISM_OPT), "Number of threads extracting the sources of a batch download, "
+                        + "the zip file being written by a single thread in the order of the search (Default 1)")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
     public static void batchDownloadEncrypt(OptionParser parser) {
         parser.acceptsAll(
                 singletonList(BATCH_DOWNLOAD_ENCRYPT_OPT), "Whether Batch download zip files are encrypted or not. SmtpUrl should be set to send the password. (default false)")
@@ -1119,6 +1364,14 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_TASK_PROGRESS_INTERVAL_SECONDS);
     }
 
+    static void taskProgressFlushInterval(OptionParser parser) {
+        parser.acceptsAll(
+                        singletonList(TASK_PROGRESS_FLUSH_INTERVAL_OPT), "Interval in milliseconds between writes of the progress of the tasks "
+                                + "in the database task repository. Unset writes each progress when it is received.")
+                .withRequiredArg()
+                .withValuesConvertedBy(new PositiveIntegerConverter());
+    }
+
     static void taskWorkers(OptionParser parser) {
         parser.acceptsAll(
                         singletonList(TASK_WORKERS_OPT),
@@ -1128,6 +1381,15 @@ public final class DatashareCliOptions {
                 .defaultsTo(DEFAULT_TASK_WORKERS);
     }
 
+    static void taskWorkerSlots(OptionParser parser) {
+        parser.acceptsAll(
+                        singletonList(TASK_WORKER_SLOTS_OPT),
+                        "Tasks run at the same time by each task worker, by task type (ex: BatchSearchRunner=4,IndexTask=1). "
+                                + "Other task types share one slot. Unset runs one task at a time.")
+                .withRequiredArg()
+                .ofType( String.class );
+    }
+
     static void temporalNamespaceOpt(OptionParser parser) {
         parser.acceptsAll(
                 singletonList(TEMPORAL_NAMESPACE_OPT), "temporal namespace")
@@ -37,6 +37,26 @@ public class PipelineOptions {
             description = "Reprocess artifacts even when an up-to-date manifest entry exists (bypasses caching).")
     Boolean artifactsForce;
 
+    // Nullable like --artifactsForce, for the same reason: absent key -> false via StructureArtifact.
+    @Option(names = {"--artifactsSearchIndex"}, arity = "1",
+            description = "Write a term to page index next to the structure pages, so searching a document reads only "
+                    + "the pages holding the query.")
+    Boolean artifactsSearchIndex;
+
+    // Nullable like --artifactsForce, for the same reason: absent key -> false via PageArtifact.
+    @Option(names = {"--artifactsPageOffsets"}, arity = "1",
+            description = "Record the page offsets of the indexed content next to the page artifact, so the document "
+                    + "pages routes answer without parsing the document again. Costs a second parse of each "
+                    + "document when the page artifact is produced.")
+    Boolean artifactsPageOffsets;
+
+    // No defaultValue, like --artifactsForce, so a store set in the settings file is not clobbered.
+    @Option(names = {"--artifactsManifestStore"},
+            description = "Where manifest entries are kept: 'file' for a manifest.json per document (default, the layout "
+                    + "datashare-python reads) or 'log' for one append-only manifests.log per project, "
+                    + "indexed in the heap of every process reading it (about 200 bytes per document and artifact type).")
+    String artifactsManifestStore;
+
     @Option(names = {"--nlpPipeline"}, description = "NLP pipeline to be run", defaultValue = "CORENLP")
     Pipeline.Type nlpPipeline;
 
@@ -49,6 +69,26 @@ public class PipelineOptions {
     @Option(names = {"--maxTextLength"}, description = "Max text length for NLP", defaultValue = "1024")
     int maxTextLength;
 
+    // No defaultValue: an absent key leaves prefetching off (each document fetched when processed).
+    @Option(names = {"--nlpPrefetchSize"}, description = "Number of documents fetched per multi-get ahead of the NLP pipeline (unset or 1 = no prefetch)")
+    Integer nlpPrefetchSize;
+
+    @Option(names = {"--nlpPrefetchMaxBytes"}, description = "Maximum estimated size of the documents fetched ahead of the NLP pipeline (default: " + DEFAULT_NLP_PREFETCH_MAX_BYTES + ")")
+    String nlpPrefetchMaxBytes;
+
+    // No defaultValue on the bulk options: an absent key leaves each document written with its own request.
+    @Option(names = {"--nlpBulkSize"}, description = "Number of operations per bulk request when writing named entities (unset or 1 = one request per document)")
+    Integer nlpBulkSize;
+
+    @Option(names = {"--nlpBulkMaxBytes"}, description = "Estimated size after which a bulk request of named entities is sent (default: " + DEFAULT_NLP_BULK_MAX_BYTES + ")")
+    String nlpBulkMaxBytes;
+
+    @Option(names = {"--nlpBulkFlushInterval"}, description = "Maximum time named entities wait for their bulk request (default: " + DEFAULT_NLP_BULK_FLUSH_INTERVAL + ")")
+    String nlpBulkFlushInterval;
+
+    @Option(names = {"--nlpBulkConcurrency"}, description = "Number of bulk requests of named entities in flight (default: 1)")
+    Integer nlpBulkConcurrency;
+
     @Option(names = {"-o", "--ocr"}, description = "Enable OCR at file parsing time", defaultValue = "true", arity = "1")
     boolean ocr;
 
@@ -91,6 +131,37 @@ public class PipelineOptions {
     @Option(names = {"--indexTimeout"}, description = "Index timeout in minutes", defaultValue = "30")
     int indexTimeout;
 
+    // No defaultValue on the bulk options: absent keys leave bulk indexing off (one request per document).
+    @Option(names = {"--indexBulkSize"}, description = "Number of documents per bulk request during indexing (unset or 1 = one request per document)")
+    Integer indexBulkSize;
+
+    @Option(names = {"--indexBulkMaxBytes"}, description = "Estimated size after which a bulk request is sent (default: " + DEFAULT_INDEX_BULK_MAX_BYTES + ")")
+    String indexBulkMaxBytes;
+
+    @Option(names = {"--indexBulkFlushInterval"}, description = "Maximum time a document waits for its bulk request (default: " + DEFAULT_INDEX_BULK_FLUSH_INTERVAL + ")")
+    String indexBulkFlushInterval;
+
+    @Option(names = {"--indexBulkConcurrency"}, description = "Number of bulk requests in flight during indexing (default: 1)")
+    Integer indexBulkConcurrency;
+
+    @Option(names = {"--indexDuplicatePreload"}, arity = "1",
+            description = "Load the indexed ids into a Bloom filter before indexing, so that new documents skip the duplicate lookup")
+    Boolean indexDuplicatePreload;
+
+    @Option(names = {"--deduplicateStateDir"}, description = "Directory where DEDUPLICATE keeps the paths it has seen on disk, to resume with them (unset = in memory)")
+    String deduplicateStateDir;
+
+    // Nullable and without defaultValue, like --artifactsForce: absent options emit no key.
+    @Option(names = {"--categorizeServerSide"}, arity = "1",
+            description = "Categorize every document of the project with update by queries run by Elasticsearch (default: false)")
+    Boolean categorizeServerSide;
+
+    @Option(names = {"--categorizeSlices"}, description = "Number of slices of the server-side categorization (unset = one per shard)")
+    Integer categorizeSlices;
+
+    @Option(names = {"--categorizeRequestsPerSecond"}, description = "Throttle of the server-side categorization in documents per second (unset = no throttle)")
+    Float categorizeRequestsPerSecond;
+
     @Option(names = {"--searchQuery"}, description = "JSON query for EnqueueFromIndex task")
     String searchQuery;
 
@@ -100,9 +171,22 @@ public class PipelineOptions {
     @Option(names = {"--scrollSize"}, description = "Scroll size used for elasticsearch scrolls", defaultValue = "1000")
     int scrollSize;
 
-    @Option(names = {"--scrollSlices"}, description = "Scroll slice max number used for elasticsearch scrolls", defaultValue = "1")
+    @Option(names = {"--scrollSlices"}, description = "Scroll slice max number used for elasticsearch scrolls, run in parallel", defaultValue = "1")
     int scrollSlices;
 
+    @Option(names = {"--scrollPointInTime"}, arity = "1",
+            description = "Iterate with a point in time and search_after instead of a scroll context (ENQUEUEIDX)")
+    Boolean scrollPointInTime;
+
+    @Option(names = {"--scrollCheckpoint"}, description = "File where the position of a point in time iteration is saved to resume from it")
+    String scrollCheckpoint;
+
+    @Option(names = {"--scanParallelism"}, description = "Number of threads listing the directories of a scan in parallel (unset = one)")
+    Integer scanParallelism;
+
+    @Option(names = {"--scanCheckpoint"}, description = "File where a parallel scan records the directories it has queued, to skip them when run again")
+    String scanCheckpoint;
+
     @Option(names = {"--reportName"}, description = "Name of the map for the report map (where index results are stored). No report records are saved if not provided")
     String reportName;
 
@@ -115,10 +199,19 @@ public class PipelineOptions {
         DatashareOptions.putIfNotNull(props, ARTIFACT_DIR_OPT, artifactDir);
         DatashareOptions.putIfNotNull(props, ARTIFACTS_OPT, artifacts);
         DatashareOptions.putIfNotNull(props, ARTIFACTS_FORCE_OPT, artifactsForce);
+        DatashareOptions.putIfNotNull(props, ARTIFACTS_SEARCH_INDEX_OPT, artifactsSearchIndex);
+        DatashareOptions.putIfNotNull(props, ARTIFACTS_PAGE_OFFSETS_OPT, artifactsPageOffsets);
+        DatashareOptions.putIfNotNull(props, ARTIFACTS_MANIFEST_STORE_OPT, artifactsManifestStore);
         DatashareOptions.putIfNotNull(props, NLP_PIPELINE_OPT, nlpPipeline);
         DatashareOptions.put(props, NLP_PARALLELISM_OPT, nlpParallelism);
         DatashareOptions.put(props, NLP_BATCH_SIZE_OPT, batchSize);
         DatashareOptions.put(props, NLP_MAX_TEXT_LENGTH_OPT, maxTextLength);
+        DatashareOptions.putIfNotNull(props, NLP_PREFETCH_SIZE_OPT, nlpPrefetchSize);
+        DatashareOptions.putIfNotNull(props, NLP_PREFETCH_MAX_BYTES_OPT, nlpPrefetchMaxBytes);
+        DatashareOptions.putIfNotNull(props, NLP_BULK_SIZE_OPT, nlpBulkSize);
+        DatashareOptions.putIfNotNull(props, NLP_BULK_MAX_BYTES_OPT, nlpBulkMaxBytes);
+        DatashareOptions.putIfNotNull(props, NLP_BULK_FLUSH_INTERVAL_OPT, nlpBulkFlushInterval);
+        DatashareOptions.putIfNotNull(props, NLP_BULK_CONCURRENCY_OPT, nlpBulkConcurrency);
         DatashareOptions.put(props, OCR_OPT, ocr);
         DatashareOptions.putIfNotNull(props, OCR_TYPE_OPT, ocrType);
         DatashareOptions.putIfNotNull(props, OCR_LANGUAGE_OPT, ocrLanguage);
@@ -130,12 +223,25 @@ public class PipelineOptions {
         DatashareOptions.put(props, FOLLOW_SYMLINKS_OPT, followSymlinks);
         DatashareOptions.putIfNotNull(props, CREATE_INDEX_OPT, createIndex);
         DatashareOptions.put(props, INDEX_TIMEOUT_OPT, indexTimeout);
+        DatashareOptions.putIfNotNull(props, INDEX_BULK_SIZE_OPT, indexBulkSize);
+        DatashareOptions.putIfNotNull(props, INDEX_BULK_MAX_BYTES_OPT, indexBulkMaxBytes);
+        DatashareOptions.putIfNotNull(props, INDEX_BULK_FLUSH_INTERVAL_OPT, indexBulkFlushInterval);
+        DatashareOptions.putIfNotNull(props, INDEX_BULK_CONCURRENCY_OPT, indexBulkConcurrency);
+        DatashareOptions.putIfNotNull(props, INDEX_DUPLICATE_PRELOAD_OPT, indexDuplicatePreload);
         DatashareOptions.put(props, OCR_TIMEOUT, ocrTimeout);
         DatashareOptions.put(props, PARSE_TIMEOUT_OPT, parseTimeout);
+        DatashareOptions.putIfNotNull(props, DEDUPLICATE_STATE_DIR_OPT, deduplicateStateDir);
+        DatashareOptions.putIfNotNull(props, CATEGORIZE_SERVER_SIDE_OPT, categorizeServerSide);
+        DatashareOptions.putIfNotNull(props, CATEGORIZE_SLICES_OPT, categorizeSlices);
+        DatashareOptions.putIfNotNull(props, CATEGORIZE_REQUESTS_PER_SECOND_OPT, categorizeRequestsPerSecond);
         DatashareOptions.putIfNotNull(props, SEARCH_QUERY_OPT, searchQuery);
         DatashareOptions.putIfNotNull(props, SCROLL_DURATION_OPT, scroll);
         DatashareOptions.put(props, SCROLL_SIZE_OPT, scrollSize);
         DatashareOptions.put(props, SCROLL_SLICES_OPT, scrollSlices);
+        DatashareOptions.putIfNotNull(props, SCROLL_POINT_IN_TIME_OPT, scrollPointInTime);
+        DatashareOptions.putIfNotNull(props, SCROLL_CHECKPOINT_OPT, scrollCheckpoint);
+        DatashareOptions.putIfNotNull(props, SCAN_PARALLELISM_OPT, scanParallelism);
+        DatashareOptions.putIfNotNull(props, SCAN_CHECKPOINT_OPT, scanCheckpoint);
         DatashareOptions.putIfNotNull(props, REPORT_NAME_OPT, reportName);
         DatashareOptions.putIfNotNull(props, MAX_CONTENT_LENGTH_OPT, maxContentLength);
         return props;
@@ -84,6 +84,9 @@ public class ServerOptions {
     @Option(names = {"--sessionTtlSeconds"}, description = "Session TTL in seconds", defaultValue = "43200")
     int sessionTtlSeconds;
 
+    @Option(names = {"--apiKeyCacheTtlSeconds"}, description = "API key user cache TTL in seconds")
+    Integer apiKeyCacheTtlSeconds;
+
     @Option(names = {"--sessionStoreType"}, description = "Session store type", defaultValue = "MEMORY")
     QueueType sessionStoreType;
 
@@ -103,6 +106,9 @@ public class ServerOptions {
     @Option(names = {"--batchDownloadMaxNbFiles"}, description = "Max batch download files", defaultValue = "10000")
     int batchDownloadMaxNbFiles;
 
+    @Option(names = {"--batchDownloadParallelism"}, description = "Threads extracting batch download sources")
+    Integer batchDownloadParallelism;
+
     @Option(names = {"--batchDownloadEncrypt"}, description = "Encrypt batch download zips")
     Boolean batchDownloadEncrypt;
 
@@ -119,12 +125,25 @@ public class ServerOptions {
     @Option(names = {"--batchSearchScrollSize"}, description = "Batch search scroll size", defaultValue = "1000")
     int batchSearchScrollSize;
 
+    @Option(names = {"--batchSearchMultiSearchSize"}, description = "Batch search queries per multi search request")
+    Integer batchSearchMultiSearchSize;
+
+    @Option(names = {"--batchSearchParallelism"}, description = "Threads scrolling large batch search queries")
+    Integer batchSearchParallelism;
+
     @Option(names = {"--batchDownloadScroll"}, description = "Batch download scroll duration", defaultValue = "60000ms")
     String batchDownloadScroll;
 
     @Option(names = {"--batchDownloadScrollSize"}, description = "Batch download scroll size", defaultValue = "1000")
     int batchDownloadScrollSize;
 
+    // Hiding named entities
+    @Option(names = {"--hideNamedEntitiesSlices"}, description = "Number of slices of the update by query hiding named entities (unset = one per shard)")
+    Integer hideNamedEntitiesSlices;
+
+    @Option(names = {"--hideNamedEntitiesRequestsPerSecond"}, description = "Throttle of the update by query hiding named entities in entities per second (unset = no throttle)")
+    Float hideNamedEntitiesRequestsPerSecond;
+
     // Misc server — --reportName comes from the PipelineOptions mixin
     @Option(names = {"--smtpUrl"}, description = "SMTP URL for sending emails")
     String smtpUrl;
@@ -165,6 +184,7 @@ public class ServerOptions {
         DatashareOptions.putIfNotNull(props, AUTH_FILTER_OPT, authFilter);
         DatashareOptions.putIfNotNull(props, SESSION_SIGNING_KEY_OPT, sessionSigningKey);
         DatashareOptions.put(props, SESSION_TTL_SECONDS_OPT, sessionTtlSeconds);
+        DatashareOptions.putIfNotNull(props, API_KEY_CACHE_TTL_SECONDS_OPT, apiKeyCacheTtlSeconds);
         DatashareOptions.putIfNotNull(props, SESSION_STORE_TYPE_OPT, sessionStoreType);
 
         DatashareOptions.putIfNotNull(props, BATCH_SEARCH_MAX_TIME_OPT, batchSearchMaxTimeSeconds);
@@ -172,15 +192,21 @@ public class ServerOptions {
         DatashareOptions.putIfNotNull(props, BATCH_DOWNLOAD_DIR_OPT, resolveAbsolutePath(batchDownloadDir));
         DatashareOptions.putIfNotNull(props, BATCH_DOWNLOAD_MAX_SIZE_OPT, batchDownloadMaxSize);
         DatashareOptions.put(props, BATCH_DOWNLOAD_MAX_NB_FILES_OPT, batchDownloadMaxNbFiles);
+        DatashareOptions.putIfNotNull(props, BATCH_DOWNLOAD_PARALLELISM_OPT, batchDownloadParallelism);
         DatashareOptions.putIfNotNull(props, BATCH_DOWNLOAD_ENCRYPT_OPT, batchDownloadEncrypt);
         DatashareOptions.put(props, BATCH_DOWNLOAD_ZIP_TTL_OPT, batchDownloadTimeToLive);
         DatashareOptions.putIfNotNull(props, EMBEDDED_DOCUMENT_DOWNLOAD_MAX_SIZE_OPT, embeddedDocumentDownloadMaxSize);
 
         DatashareOptions.putIfNotNull(props, BATCH_SEARCH_SCROLL_DURATION_OPT, batchSearchScroll);
         DatashareOptions.put(props, BATCH_SEARCH_SCROLL_SIZE_OPT, batchSearchScrollSize);
+        DatashareOptions.putIfNotNull(props, BATCH_SEARCH_MULTI_SEARCH_SIZE_OPT, batchSearchMultiSearchSize);
+        DatashareOptions.putIfNotNull(props, BATCH_SEARCH_PARALLELISM_OPT, batchSearchParallelism);
         DatashareOptions.putIfNotNull(props, BATCH_DOWNLOAD_SCROLL_DURATION_OPT, batchDownloadScroll);
         DatashareOptions.put(props, BATCH_DOWNLOAD_SCROLL_SIZE_OPT, batchDownloadScrollSize);
 
+        DatashareOptions.putIfNotNull(props, HIDE_NAMED_ENTITIES_SLICES_OPT, hideNamedEntitiesSlices);
+        DatashareOptions.putIfNotNull(props, HIDE_NAMED_ENTITIES_REQUESTS_PER_SECOND_OPT, hideNamedEntitiesRequestsPerSecond);
+
         DatashareOptions.putIfNotNull(props, SMTP_URL_OPT, smtpUrl);
 
         DatashareOptions.putAll(props, workerOptions.toProperties());
@@ -16,6 +16,9 @@ public class WorkerOptions {
     @Option(names = {"--taskWorkers"}, description = "Number of task workers", defaultValue = "1")
     String taskWorkers;
 
+    @Option(names = {"--taskWorkerSlots"}, description = "Tasks run at the same time by each task worker, by task type (ex: BatchSearchRunner=4,IndexTask=1). Other task types share one slot. Unset runs one task at a time.")
+    String taskWorkerSlots;
+
     @Option(names = {"--taskRoutingStrategy"}, description = "Task routing strategy", defaultValue = "UNIQUE")
     RoutingStrategy taskRoutingStrategy;
 
@@ -34,16 +37,21 @@ public class WorkerOptions {
     @Option(names = {"--taskProgressUpdateIntervalSeconds"}, description = "Task progress update interval seconds", defaultValue = "10.0")
     double taskProgressUpdateIntervalSeconds;
 
+    @Option(names = {"--taskProgressFlushIntervalMilliseconds"}, description = "Interval in milliseconds between writes of the progress of the tasks in the database task repository. Unset writes each progress when it is received.")
+    Integer taskProgressFlushIntervalMilliseconds;
+
     /** Converts the parsed worker option fields into a Properties map for the rest of the application. */
     public Properties toProperties() {
         Properties props = new Properties();
         DatashareOptions.putIfNotNull(props, TASK_WORKERS_OPT, taskWorkers);
+        DatashareOptions.putIfNotNull(props, TASK_WORKER_SLOTS_OPT, taskWorkerSlots);
         DatashareOptions.putIfNotNull(props, TASK_ROUTING_STRATEGY_OPT, taskRoutingStrategy);
         DatashareOptions.putIfNotNull(props, TASK_ROUTING_KEY_OPT, taskRoutingKey);
         DatashareOptions.putIfNotNull(props, POLLING_INTERVAL_SECONDS_OPT, pollingInterval);
         DatashareOptions.putIfNotNull(props, TASK_REPOSITORY_OPT, taskRepositoryType);
         DatashareOptions.put(props, TASK_MANAGER_POLLING_INTERVAL_OPT, taskManagerPollingIntervalMilliseconds);
         DatashareOptions.put(props, TASK_PROGRESS_INTERVAL_OPT, taskProgressUpdateIntervalSeconds);
+        DatashareOptions.putIfNotNull(props, TASK_PROGRESS_FLUSH_INTERVAL_OPT, taskProgressFlushIntervalMilliseconds);
         return props;
     }
 
@@ -65,6 +65,18 @@ public class DatashareCliTest {
         assertThat(cli.properties).includes(entry("tcpListenPort", "7777"));
     }
 
+    @Test
+    public void test_categorize_throttle_accepts_a_fraction_of_request_per_second() {
+        cli.parseArguments(new String[] {"--categorizeRequestsPerSecond=0.5"});
+        assertThat(cli.properties).includes(entry("categorizeRequestsPerSecond", "0.5"));
+    }
+
+    @Test
+    public void test_hide_named_entities_throttle_accepts_a_fraction_of_request_per_second() {
+        cli.parseArguments(new String[] {"--hideNamedEntitiesRequestsPerSecond=0.5"});
+        assertThat(cli.properties).includes(entry("hideNamedEntitiesRequestsPerSecond", "0.5"));
+    }
+
     @Test
     public void test_mode_opt() {
         cli.parseArguments(new String[] {""});
@@ -291,6 +291,18 @@ public class DatashareCommandTest extends AbstractDatashareCommandTest {
         assertThat(props).includes(entry("policyReloadInterval", "5000"));
     }
 
+    @Test
+    public void test_hide_named_entities_throttle_propagated_when_set() {
+        Properties props = parse("app", "start", "--hideNamedEntitiesSlices", "4", "--hideNamedEntitiesRequestsPerSecond", "0.5");
+        assertThat(props).includes(entry("hideNamedEntitiesSlices", "4"), entry("hideNamedEntitiesRequestsPerSecond", "0.5"));
+    }
+
+    @Test
+    public void test_batch_search_multi_search_options_propagated_when_set() {
+        Properties props = parse("app", "start", "--batchSearchMultiSearchSize", "50", "--batchSearchParallelism", "4");
+        assertThat(props).includes(entry("batchSearchMultiSearchSize", "50"), entry("batchSearchParallelism", "4"));
+    }
+
     @Test
     public void test_follow_symlinks_default() {
         Properties props = parse("app", "start");
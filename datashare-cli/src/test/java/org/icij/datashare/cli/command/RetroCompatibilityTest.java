@@ -352,6 +352,34 @@ public class RetroCompatibilityTest {
         assertPropertyEqual(legacy, picocli, "batchDownloadMaxNbFiles");
     }
 
+    @Test
+    public void test_parity_api_key_cache_ttl() {
+        Properties legacy = parseLegacy("--apiKeyCacheTtlSeconds", "60");
+        Properties picocli = parseNew("app", "start", "--apiKeyCacheTtlSeconds", "60");
+        assertPropertyEqual(legacy, picocli, "apiKeyCacheTtlSeconds");
+    }
+
+    @Test
+    public void test_parity_batch_download_parallelism() {
+        Properties legacy = parseLegacy("--batchDownloadParallelism", "4");
+        Properties picocli = parseNew("app", "start", "--batchDownloadParallelism", "4");
+        assertPropertyEqual(legacy, picocli, "batchDownloadParallelism");
+    }
+
+    @Test
+    public void test_parity_task_worker_slots() {
+        Properties legacy = parseLegacy("--mode", "TASK_WORKER", "--taskWorkerSlots", "BatchSearchRunner=4");
+        Properties picocli = parseNew("worker", "run", "--taskWorkerSlots", "BatchSearchRunner=4");
+        assertPropertyEqual(legacy, picocli, "taskWorkerSlots");
+    }
+
+    @Test
+    public void test_parity_task_progress_flush_interval() {
+        Properties legacy = parseLegacy("--mode", "TASK_WORKER", "--taskProgressFlushIntervalMilliseconds", "500");
+        Properties picocli = parseNew("worker", "run", "--taskProgressFlushIntervalMilliseconds", "500");
+        assertPropertyEqual(legacy, picocli, "taskProgressFlushIntervalMilliseconds");
+    }
+
     @Test
     public void test_parity_batch_search_max_time_seconds() {
         Properties legacy = parseLegacy("--batchSearchMaxTimeSeconds", "120");
@@ -73,6 +73,79 @@ public class StageRunCommandTest extends AbstractDatashareCommandTest {
         assertThat(props).includes(entry("maxEmbedDepth", "20"));
     }
 
+    @Test
+    public void test_index_bulk_options() {
+        Properties props = parse("stage", "run", "--stages", "SCAN,INDEX",
+                "--indexBulkSize", "500", "--indexBulkMaxBytes", "20M", "--indexBulkFlushInterval", "2s", "--indexBulkConcurrency", "2");
+        assertThat(props).includes(entry("indexBulkSize", "500"), entry("indexBulkMaxBytes", "20M"),
+                entry("indexBulkFlushInterval", "2s"), entry("indexBulkConcurrency", "2"));
+    }
+
+    @Test
+    public void test_index_bulk_options_absent_by_default() {
+        Properties props = parse("stage", "run", "--stages", "SCAN,INDEX");
+        assertThat(props.containsKey("indexBulkSize")).isFalse();
+    }
+
+    @Test
+    public void test_nlp_prefetch_options() {
+        Properties props = parse("stage", "run", "--stages", "NLP", "--nlpPrefetchSize", "64", "--nlpPrefetchMaxBytes", "50M");
+        assertThat(props).includes(entry("nlpPrefetchSize", "64"), entry("nlpPrefetchMaxBytes", "50M"));
+    }
+
+    @Test
+    public void test_nlp_prefetch_options_absent_by_default() {
+        Properties props = parse("stage", "run", "--stages", "NLP");
+        assertThat(props.containsKey("nlpPrefetchSize")).isFalse();
+    }
+
+    @Test
+    public void test_nlp_bulk_options() {
+        Properties props = parse("stage", "run", "--stages", "NLP",
+                "--nlpBulkSize", "1000", "--nlpBulkMaxBytes", "5M", "--nlpBulkFlushInterval", "1s", "--nlpBulkConcurrency", "2");
+        assertThat(props).includes(entry("nlpBulkSize", "1000"), entry("nlpBulkMaxBytes", "5M"),
+                entry("nlpBulkFlushInterval", "1s"), entry("nlpBulkConcurrency", "2"));
+    }
+
+    @Test
+    public void test_nlp_bulk_options_absent_by_default() {
+        Properties props = parse("stage", "run", "--stages", "NLP");
+        assertThat(props.containsKey("nlpBulkSize")).isFalse();
+    }
+
+    @Test
+    public void test_categorize_server_side_options() {
+        Properties props = parse("stage", "run", "--stages", "ENQUEUEIDX,CATEGORIZE",
+                "--categorizeServerSide", "true", "--categorizeSlices", "4", "--categorizeRequestsPerSecond", "0.5");
+        assertThat(props).includes(entry("categorizeServerSide", "true"), entry("categorizeSlices", "4"),
+                entry("categorizeRequestsPerSecond", "0.5"));
+    }
+
+    @Test
+    public void test_categorize_server_side_absent_by_default() {
+        Properties props = parse("stage", "run", "--stages", "ENQUEUEIDX,CATEGORIZE");
+        assertThat(props.containsKey("categorizeServerSide")).isFalse();
+    }
+
+    @Test
+    public void test_deduplicate_state_dir() {
+        Properties props = parse("stage", "run", "--stages", "SCAN,DEDUPLICATE,INDEX", "--deduplicateStateDir", "/tmp/dedup");
+        assertThat(props).includes(entry("deduplicateStateDir", "/tmp/dedup"));
+    }
+
+    @Test
+    public void test_scan_parallelism_options() {
+        Properties props = parse("stage", "run", "--stages", "SCAN", "--scanParallelism", "16", "--scanCheckpoint", "/tmp/scan.checkpoint");
+        assertThat(props).includes(entry("scanParallelism", "16"), entry("scanCheckpoint", "/tmp/scan.checkpoint"));
+    }
+
+    @Test
+    public void test_scroll_point_in_time_options() {
+        Properties props = parse("stage", "run", "--stages", "ENQUEUEIDX",
+                "--scrollPointInTime", "true", "--scrollCheckpoint", "/tmp/enqueue.checkpoint");
+        assertThat(props).includes(entry("scrollPointInTime", "true"), entry("scrollCheckpoint", "/tmp/enqueue.checkpoint"));
+    }
+
     @Test
     public void test_scroll_options() {
         Properties props = parse("stage", "run", "--stages", "ENQUEUEIDX",
@@ -168,4 +241,25 @@ public class StageRunCommandTest extends AbstractDatashareCommandTest {
         Properties props = parse("stage", "run", "--stages", "INDEX", "--artifactsForce", "false");
         assertThat(props).includes(entry("artifactsForce", "false"));
     }
+
+    @Test
+    public void test_artifacts_search_index() {
+        assertThat(parse("stage", "run", "--stages", "INDEX").containsKey("artifactsSearchIndex")).isFalse();
+        Properties props = parse("stage", "run", "--stages", "INDEX", "--artifactsSearchIndex", "true");
+        assertThat(props).includes(entry("artifactsSearchIndex", "true"));
+    }
+
+    @Test
+    public void test_artifacts_manifest_store() {
+        assertThat(parse("stage", "run", "--stages", "ARTIFACT").containsKey("artifactsManifestStore")).isFalse();
+        Properties props = parse("stage", "run", "--stages", "ARTIFACT", "--artifactsManifestStore", "log");
+        assertThat(props).includes(entry("artifactsManifestStore", "log"));
+    }
+
+    @Test
+    public void test_artifacts_page_offsets() {
+        assertThat(parse("stage", "run", "--stages", "ARTIFACT").containsKey("artifactsPageOffsets")).isFalse();
+        Properties props = parse("stage", "run", "--stages", "ARTIFACT", "--artifactsPageOffsets", "true");
+        assertThat(props).includes(entry("artifactsPageOffsets", "true"));
+    }
 }
@@ -29,6 +29,12 @@ public class WorkerRunCommandTest extends AbstractDatashareCommandTest {
         assertThat(props).includes(entry("taskWorkers", "4"));
     }
 
+    @Test
+    public void test_worker_run_with_task_worker_slots() {
+        Properties props = parse("worker", "run", "--taskWorkerSlots", "BatchSearchRunner=4,IndexTask=1");
+        assertThat(props).includes(entry("taskWorkerSlots", "BatchSearchRunner=4,IndexTask=1"));
+    }
+
     @Test
     public void test_worker_run_with_temporal_address() {
         Properties props = parse("--temporalAddress", "http://my-temporal:7233", "worker", "run");
@@ -10,17 +10,24 @@ import org.icij.datashare.text.ProjectProxy;
 import org.icij.datashare.user.User;
 import org.jooq.*;
 import org.jooq.Record;
+import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 
 import javax.sql.DataSource;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.lang.String.join;
 import static java.util.Arrays.asList;
@@ -40,6 +47,7 @@ import static org.jooq.impl.DSL.*;
 
 public class JooqBatchSearchRepository implements BatchSearchRepository {
     private static final String LIST_SEPARATOR = ",";
+    private static final int RESULTS_FETCH_SIZE = 1000;
     final DataSource dataSource;
     final SQLDialect dialect;
 
@@ -352,6 +360,58 @@ public class JooqBatchSearchRepository implements BatchSearchRepository {
 
     }
 
+    @Override
+    public Stream<SearchResult> streamResults(User user, String batchSearchId, WebQuery webQuery) {
+        Record2<String, Integer> owner = DSL.using(dataSource, dialect).select(BATCH_SEARCH.USER_ID, BATCH_SEARCH.PUBLISHED)
+                .from(BATCH_SEARCH).where(BATCH_SEARCH.UUID.eq(batchSearchId)).fetchOne();
+        if (owner != null && !user.id.equals(owner.value1()) && owner.value2() == 0) {
+            throw new UnauthorizedUserException(batchSearchId, owner.value1(), user.id);
+        }
+        // the connection is only opened when the stream is consumed, so a stream that is never read holds none
+        AtomicReference<Connection> opened = new AtomicReference<>();
+        AtomicReference<Cursor<Record>> cursor = new AtomicReference<>();
+        Supplier<Spliterator<SearchResult>> results = () -> {
+            Connection connection = null;
+            try {
+                connection = dataSource.getConnection();
+                opened.set(connection);
+                // PostgreSQL only reads results with a cursor, fetchSize rows at a time, within a transaction
+                connection.setAutoCommit(false);
+                SelectConditionStep<Record> query = DSL.using(connection, dialect).select().from(BATCH_SEARCH_RESULT).
+                        join(BATCH_SEARCH).on(BATCH_SEARCH.UUID.equal(BATCH_SEARCH_RESULT.SEARCH_UUID)).
+                        where(BATCH_SEARCH_RESULT.SEARCH_UUID.eq(batchSearchId));
+                addFiltersToBatchSearchResultQuery(webQuery, query);
+                if (webQuery.size > 0) query.limit(webQuery.size);
+                if (webQuery.from > 0) query.offset(webQuery.from);
+
+                cursor.set(query.fetchSize(RESULTS_FETCH_SIZE).fetchLazy());
+                return cursor.get().stream().map(r -> createSearchResult(user, r)).spliterator();
+            } catch (SQLException e) {
+                release(opened.getAndSet(null));
+                throw new DataAccessException("cannot read results of batch search " + batchSearchId, e);
+            } catch (RuntimeException e) {
+                release(opened.getAndSet(null));
+                throw e;
+            }
+        };
+        return StreamSupport.stream(results, Spliterator.ORDERED, false).onClose(() -> {
+            ofNullable(cursor.getAndSet(null)).ifPresent(Cursor::close);
+            release(opened.getAndSet(null));
+        });
+    }
+
+    private static void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try (connection) {
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new DataAccessException("cannot release connection", e);
+        }
+    }
+
     @Override
     public int getResultsTotal(User user, String batchSearchId, WebQuery webQuery) {
         DSLContext create = DSL.using(dataSource, dialect); SelectOnConditionStep<Record1<String>> batchSearchUUIDs = create.
@@ -622,6 +622,15 @@ public class JooqRepository implements Repository {
         return createUserFrom(ctx.selectFrom(USER_INVENTORY).where(USER_INVENTORY.ID.eq(uid)).fetchOne());
     }
 
+    @Override
+    public List<User> getUsers(Set<String> uids) {
+        if (uids.isEmpty()) {
+            return List.of();
+        }
+        DSLContext ctx = using(connectionProvider, dialect);
+        return ctx.selectFrom(USER_INVENTORY).where(USER_INVENTORY.ID.in(uids)).fetch().map(this::createUserFrom);
+    }
+
     @Override
     public List<User> listUsers(UserFilter filter) {
         return using(connectionProvider, dialect)
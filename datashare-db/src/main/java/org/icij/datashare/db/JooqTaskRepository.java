@@ -11,14 +11,21 @@ import org.icij.datashare.asynctasks.TaskRepository;
 import org.icij.datashare.asynctasks.TaskResult;
 import org.icij.datashare.asynctasks.UnknownTask;
 import org.icij.datashare.asynctasks.bus.amqp.TaskError;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.db.tables.records.TaskRecord;
-import org.icij.datashare.function.Pair;
 import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.tasks.TaskType;
+import org.icij.datashare.user.User;
+import org.jooq.BatchBindStep;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.InsertValuesStep12;
+import org.jooq.Query;
+import org.jooq.QueryPart;
 import org.jooq.SQLDialect;
+import org.jooq.SelectField;
+import org.jooq.SortField;
 import org.jooq.exception.IntegrityConstraintViolationException;
 import org.jooq.impl.DSL;
 import org.slf4j.Logger;
@@ -30,23 +37,39 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toMap;
 import static org.icij.datashare.LambdaExceptionUtils.rethrowFunction;
+import static org.icij.datashare.asynctasks.Task.State.FINAL_STATES;
 import static org.icij.datashare.asynctasks.bus.amqp.Event.MAX_RETRIES_LEFT;
+import static org.icij.datashare.batch.WebQueryPagination.OrderDirection.ASC;
 import static org.icij.datashare.db.Tables.TASK;
+import static org.jooq.impl.DSL.castNull;
 import static org.jooq.impl.DSL.falseCondition;
+import static org.jooq.impl.DSL.inline;
 import static org.jooq.impl.DSL.selectFrom;
 import static org.jooq.impl.DSL.using;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class JooqTaskRepository implements TaskRepository {
+    private static final List<String> FINAL_STATE_NAMES = FINAL_STATES.stream().map(Enum::name).sorted().toList();
+    // Task summaries leave out the args bigger than this, like the document lists of BatchNlpTask
+    static final int SUMMARY_MAX_ARGS_LENGTH = 4096;
+    // Same orders as Task.Comparator: states by declaration order, unfinished tasks first
+    private static final Field<Integer> STATE_ORDER = DSL.case_(TASK.STATE).mapValues(
+        Arrays.stream(Task.State.values()).collect(toMap(Enum::name, Enum::ordinal)));
+    private static final Field<Integer> FINISHED_ORDER = DSL.when(TASK.STATE.in(FINAL_STATE_NAMES), inline(1)).otherwise(inline(0));
     private final DataSource connectionProvider;
     private final SQLDialect dialect;
     private final Logger logger = getLogger(getClass());
@@ -101,6 +124,39 @@ public class JooqTaskRepository implements TaskRepository {
         });
     }
 
+    // Only the progress and state columns: the task is neither read nor rewritten.
+    @Override
+    public void updateProgress(String taskId, double progress) throws IOException, UnknownTask {
+        DSLContext ctx = DSL.using(connectionProvider, dialect);
+        int updated = progressUpdate(ctx, taskId, progress).execute();
+        if (updated == 0 && !ctx.fetchExists(TASK, TASK.ID.eq(taskId))) {
+            throw new UnknownTask(taskId);
+        }
+    }
+
+    @Override
+    public void updateProgress(Map<String, Double> progressByTaskId) throws IOException {
+        if (progressByTaskId.isEmpty()) {
+            return;
+        }
+        DSLContext ctx = DSL.using(connectionProvider, dialect);
+        BatchBindStep batch = ctx.batch(progressUpdate(ctx, null, 0d));
+        progressByTaskId.forEach((taskId, progress) -> {
+            List<Object> values = new ArrayList<>(List.of(progress, Task.State.RUNNING.name(), taskId));
+            values.addAll(FINAL_STATE_NAMES);
+            batch.bind(values.toArray());
+        });
+        batch.execute();
+    }
+
+    // Bind values are progress, state, id and the final states, in that order.
+    private Query progressUpdate(DSLContext ctx, String taskId, double progress) {
+        return ctx.update(TASK)
+            .set(TASK.PROGRESS, progress)
+            .set(TASK.STATE, Task.State.RUNNING.name())
+            .where(TASK.ID.eq(taskId))
+            .and(TASK.STATE.notIn(FINAL_STATE_NAMES));
+    }
 
     @Override
     public <V extends Serializable> Task<V> delete(String taskId) throws IOException, UnknownTask {
@@ -137,11 +193,30 @@ public class JooqTaskRepository implements TaskRepository {
         if (filters == null) {
             return selectFrom(TASK).stream().map(rethrowFunction(this::createTaskFrom));
         }
-        Stream<Task<? extends Serializable>> tasks = selectTasks(DSL.using(connectionProvider, dialect), filters).filter(Objects::nonNull);
-        if (filters.getArgs() != null && !filters.getArgs().isEmpty()) {
-            tasks = tasks.filter(new TaskFilters().with(filters.getArgs().toArray(TaskFilters.ArgsFilter[]::new))::filter);
+        return selectTasks(DSL.using(connectionProvider, dialect), filters).filter(Objects::nonNull);
+    }
+
+    // Filters, sort and page are applied by the database: only the tasks of the page are read.
+    @Override
+    public Stream<Task<? extends Serializable>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        List<SelectField<?>> fields = new ArrayList<>(List.of(TASK.fields()));
+        if (summary) {
+            fields.set(fields.indexOf(TASK.ARGS), DSL.when(DSL.length(TASK.ARGS).gt(SUMMARY_MAX_ARGS_LENGTH), castNull(TASK.ARGS))
+                .otherwise(TASK.ARGS).as(TASK.ARGS.getName()));
         }
-        return tasks;
+        return DSL.using(connectionProvider, dialect)
+            .select(fields).from(TASK)
+            .where(conditionsFromFilter(filters))
+            .orderBy(sortFieldFrom(pagination), TASK.ID.asc())
+            .limit(pagination.size).offset(pagination.from)
+            .fetchInto(TASK).stream()
+            .map(rethrowFunction(this::createTaskFrom))
+            .filter(Objects::nonNull);
+    }
+
+    @Override
+    public int countTasks(TaskFilters filters) {
+        return DSL.using(connectionProvider, dialect).fetchCount(TASK, DSL.and(conditionsFromFilter(filters)));
     }
 
     @Override
@@ -149,13 +224,6 @@ public class JooqTaskRepository implements TaskRepository {
         if (filters == null) {
             return selectFrom(TASK).stream().map(this::getTaskIdFrom);
         }
-        // Special case when we need to filter on args as we need to deserialize them
-        if (filters.getArgs() != null) {
-            // TODO: test me
-            return selectTaskIdsAndArgs(DSL.using(connectionProvider, dialect), filters)
-                .filter( p -> new TaskFilters().with(filters.getArgs().toArray(TaskFilters.ArgsFilter[]::new)).filter(p._2()))
-                .map(Pair::_1);
-        }
         return selectTaskStates(DSL.using(connectionProvider, dialect), filters);
     }
 
@@ -165,7 +233,10 @@ public class JooqTaskRepository implements TaskRepository {
             Date createdAt = r.getCreatedAt() == null ? null : Date.from(r.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
             Date completedAt = r.getCompletedAt() == null ? null :Date.from(r.getCompletedAt().atZone(ZoneId.systemDefault()).toInstant());
             try {
-                Map<String, Object> args = JsonObjectMapper.readValueTyped(r.getArgs(), new TypeReference<>() {});
+                // args are null in task summaries, the user is still known
+                Map<String, Object> args = r.getArgs() == null ?
+                    ofNullable(r.getUserId()).<Map<String, Object>>map(u -> Map.of(Task.USER_KEY, new User(u))).orElse(Map.of()) :
+                    JsonObjectMapper.readValueTyped(r.getArgs(), new TypeReference<>() {});
                 TaskResult<V> result = r.getResult() == null ? null : JsonObjectMapper.readValueTyped(r.getResult(), new TypeReference<>() {});
                 TaskError error = r.getError() == null ? null : JsonObjectMapper.readValueTyped(r.getError(), TaskError.class);
                 return new Task<>(r.getId(), r.getName(), Task.State.valueOf(r.getState()),
@@ -181,15 +252,6 @@ public class JooqTaskRepository implements TaskRepository {
         return ofNullable(taskRecord).map(TaskRecord::getId).orElse(null);
     }
 
-    private Pair<String, Map<String, Object>> createTaskIdsAndArgsFrom(TaskRecord taskRecord) throws IOException {
-        return ofNullable(taskRecord)
-            .map(rethrowFunction(r -> {
-                Map<String, Object> args = JsonObjectMapper.readValueTyped(r.getArgs(), new TypeReference<>() {});
-                return new Pair<>(r.getId(), args);
-            }))
-            .orElse(null);
-    }
-
     private Stream<Task<? extends Serializable>> selectTasks(DSLContext ctx, TaskFilters filters) throws IOException {
         List<Condition> conditions = conditionsFromFilter(filters);
         return ctx.selectFrom(TASK).where(conditions).stream().map(rethrowFunction(this::createTaskFrom));
@@ -200,12 +262,7 @@ public class JooqTaskRepository implements TaskRepository {
         return ctx.selectFrom(TASK).where(conditions).stream().map(this::getTaskIdFrom);
     }
 
-    private Stream<Pair<String, Map<String, Object>>> selectTaskIdsAndArgs(DSLContext ctx, TaskFilters filters) throws IOException  {
-        List<Condition> conditions = conditionsFromFilter(filters);
-        return ctx.selectFrom(TASK).where(conditions).stream().map(rethrowFunction(this::createTaskIdsAndArgsFrom));
-    }
-
-    private static List<Condition> conditionsFromFilter(TaskFilters filters) {
+    private List<Condition> conditionsFromFilter(TaskFilters filters) {
         List<Condition> conditions = new ArrayList<>();
         if (filters.getStates() != null && !filters.getStates().isEmpty()) {
             Condition hasState = filters.getStates().stream()
@@ -224,14 +281,52 @@ public class JooqTaskRepository implements TaskRepository {
             conditions.add(hasType);
         }
         if (filters.getName() != null) {
-            conditions.add(TASK.NAME.likeRegex(filters.getName()));
+            conditions.add(TASK.NAME.likeRegex(regexFrom(filters, filters.getName())));
         }
         if (filters.getUser() != null) {
             conditions.add(TASK.USER_ID.eq(filters.getUser().id));
         }
+        if (filters.hasArgs()) {
+            // like TaskFilters, a missing arg is matched as "null"
+            filters.getArgs().forEach(arg -> conditions.add(
+                DSL.coalesce(argsValue(arg.argLocation()), inline("null")).likeRegex(regexFrom(filters, arg.pattern()))));
+        }
         return conditions;
     }
 
+    // Text value of the args at the dotted location, read from the JSON column by the database
+    private Field<String> argsValue(String argLocation) {
+        String[] keys = argLocation.split("\\.");
+        if (dialect.family() == SQLDialect.POSTGRES) {
+            List<QueryPart> parts = new ArrayList<>(List.of(TASK.ARGS));
+            Arrays.stream(keys).map(DSL::val).forEach(parts::add);
+            String keyParams = IntStream.rangeClosed(1, keys.length).mapToObj(i -> "{" + i + "}").collect(joining(", "));
+            return DSL.field("jsonb_extract_path_text(cast({0} as jsonb), " + keyParams + ")", String.class, parts.toArray(QueryPart[]::new));
+        }
+        String path = "$" + Arrays.stream(keys).map(k -> ".\"" + k + "\"").collect(joining());
+        return DSL.field("json_extract({0}, {1})", String.class, TASK.ARGS, DSL.val(path));
+    }
+
+    // Both PostgreSQL and the SQLite REGEXP function (java.util.regex) accept the embedded (?i) flag
+    private static String regexFrom(TaskFilters filters, String pattern) {
+        Integer flags = filters.getRegexFlags();
+        return flags != null && (flags & Pattern.CASE_INSENSITIVE) != 0 ? "(?i)" + pattern : pattern;
+    }
+
+    private static SortField<?> sortFieldFrom(WebQueryPagination pagination) {
+        Field<?> field = switch (pagination.sort) {
+            case "id" -> TASK.ID;
+            case "user" -> TASK.USER_ID;
+            case "createdAt" -> TASK.CREATED_AT;
+            case "name" -> TASK.NAME;
+            case "state" -> STATE_ORDER;
+            case "finished" -> FINISHED_ORDER;
+            default -> throw new IllegalArgumentException("no sort field with name " + pagination.sort);
+        };
+        // nulls are the smallest values, as in Task.Comparator
+        return pagination.order == ASC ? field.asc().nullsFirst() : field.desc().nullsLast();
+    }
+
     
     private InsertValuesStep12<TaskRecord, String, String, String, String, String, Double, LocalDateTime, LocalDateTime, Integer, Integer, String, String> insert(DSLContext ctx) {
         return ctx.insertInto(TASK).columns(
@@ -15,9 +15,13 @@ import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -459,6 +463,49 @@ public class JooqBatchSearchRepositoryTest {
 
     }
 
+    @Test
+    public void test_stream_results() {
+        BatchSearch batchSearch = new BatchSearch(singletonList(proxy("prj")), "name", "description", asSet("query"), null, User.local());
+        repository.save(batchSearch);
+        repository.saveResults(batchSearch.uuid, "query", asList(
+                createDoc("doc1").build(), createDoc("doc2").build(), createDoc("doc3").build()));
+
+        try (Stream<SearchResult> results = repository.streamResults(User.local(), batchSearch.uuid, WebQueryBuilder.createWebQuery().queryAll().build())) {
+            assertThat(results.toList()).containsExactly(resultFrom(createDoc("doc1").build(), 1, "query"),
+                    resultFrom(createDoc("doc2").build(), 2, "query"), resultFrom(createDoc("doc3").build(), 3, "query"));
+        }
+    }
+
+    @Test
+    public void test_stream_results_opens_its_connection_when_read() throws Exception {
+        BatchSearch batchSearch = new BatchSearch(singletonList(proxy("prj")), "name", "description", asSet("query"), null, User.local());
+        repository.save(batchSearch);
+        repository.saveResults(batchSearch.uuid, "query", singletonList(createDoc("doc").build()));
+        AtomicInteger connections = new AtomicInteger();
+        DataSource countingDataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                connections.incrementAndGet();
+            }
+            return method.invoke(dbRule.dataSource, args);
+        });
+        JooqBatchSearchRepository countingRepository = new JooqBatchSearchRepository(countingDataSource, RepositoryFactoryImpl.guessSqlDialectFrom(dbRule.dataSourceUrl));
+
+        try (Stream<SearchResult> results = countingRepository.streamResults(User.local(), batchSearch.uuid, WebQueryBuilder.createWebQuery().queryAll().build())) {
+            assertThat(connections.get()).isEqualTo(1); // the access check
+            assertThat(results.count()).isEqualTo(1);
+            assertThat(connections.get()).isEqualTo(2);
+        }
+    }
+
+    @Test(expected = JooqBatchSearchRepository.UnauthorizedUserException.class)
+    public void test_stream_results_with_bad_user() {
+        BatchSearch batchSearch = new BatchSearch(singletonList(proxy("prj")), "name", "description", asSet("query"), null, User.local());
+        repository.save(batchSearch);
+        repository.saveResults(batchSearch.uuid, "query", singletonList(createDoc("doc").build()));
+
+        repository.streamResults(new User("hacker"), batchSearch.uuid, WebQueryBuilder.createWebQuery().queryAll().build());
+    }
+
     @Test
     public void test_get_results_filtered_by_query() {
         BatchSearch batchSearch = new BatchSearch(singletonList(proxy("prj")), "name", "description", asSet("q1", "q2"), null, User.local());
@@ -315,6 +315,18 @@ public class JooqRepositoryTest {
         assertThat(actual.details).isEqualTo(expected.details);
     }
 
+    @Test
+    public void test_get_users_by_ids() {
+        repository.save(new User("foo", "Foo", "foo@bar.com"));
+        repository.save(new User("bar", "Bar", "bar@bar.com"));
+        repository.save(new User("baz", "Baz", "baz@bar.com"));
+
+        List<User> users = repository.getUsers(Set.of("foo", "baz", "unknown"));
+
+        assertThat(users.stream().map(u -> u.id).sorted().toList()).isEqualTo(List.of("baz", "foo"));
+        assertThat(repository.getUsers(Set.of())).isEmpty();
+    }
+
     @Test
     public void test_save_or_update_user() {
         final User fistSave = new User(new HashMap<>() {{
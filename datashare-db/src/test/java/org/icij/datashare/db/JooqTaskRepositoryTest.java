@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.icij.datashare.asynctasks.Group;
 import org.icij.datashare.asynctasks.Task;
@@ -23,6 +24,7 @@ import org.icij.datashare.asynctasks.TaskResult;
 import org.icij.datashare.asynctasks.UnknownTask;
 import org.icij.datashare.asynctasks.bus.amqp.TaskError;
 import org.icij.datashare.asynctasks.bus.amqp.UriResult;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.tasks.TaskType;
 import org.icij.datashare.user.User;
 import org.jooq.exception.IntegrityConstraintViolationException;
@@ -133,6 +135,50 @@ public class JooqTaskRepositoryTest {
         assertThrows(UnknownTask.class, () -> repository.update(foo));
     }
 
+    @Test
+    public void test_update_progress() throws Exception {
+        Task<Integer> foo = new Task<>("foo", User.local(), Map.of("user", User.local()));
+        repository.insert(foo, new Group(TaskGroupType.Test));
+
+        repository.updateProgress(foo.id, 0.5);
+
+        Task<?> actual = repository.getTask(foo.getId());
+        assertThat(actual.getProgress()).isEqualTo(0.5);
+        assertThat(actual.getState()).isEqualTo(Task.State.RUNNING);
+    }
+
+    @Test
+    public void test_update_progress_should_not_change_a_final_task() throws Exception {
+        Task<Integer> foo = new Task<>("foo", User.local(), Map.of("user", User.local()));
+        repository.insert(foo, new Group(TaskGroupType.Test));
+        foo.setResult(new TaskResult<>(1));
+        repository.update(foo);
+
+        repository.updateProgress(foo.id, 0.5);
+
+        Task<?> actual = repository.getTask(foo.getId());
+        assertThat(actual.getState()).isEqualTo(Task.State.DONE);
+        assertThat(actual.getProgress()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void test_update_progress_should_throw_unknown_task() {
+        assertThrows(UnknownTask.class, () -> repository.updateProgress("unknown", 0.5));
+    }
+
+    @Test
+    public void test_update_progress_of_several_tasks() throws Exception {
+        Task<Integer> foo = new Task<>("foo", User.local(), Map.of("user", User.local()));
+        Task<Integer> bar = new Task<>("bar", User.local(), Map.of("user", User.local()));
+        repository.insert(foo, new Group(TaskGroupType.Test));
+        repository.insert(bar, new Group(TaskGroupType.Test));
+
+        repository.updateProgress(Map.of(foo.id, 0.2, bar.id, 0.7, "unknown", 0.1));
+
+        assertThat(repository.getTask(foo.id).getProgress()).isEqualTo(0.2);
+        assertThat(repository.getTask(bar.id).getProgress()).isEqualTo(0.7);
+        assertThat(repository.getTask(bar.id).getState()).isEqualTo(Task.State.RUNNING);
+    }
 
     @Test
     public void test_delete() throws IOException {
@@ -310,6 +356,54 @@ public class JooqTaskRepositoryTest {
         assertThat(taskIds).isEqualTo(List.of(bar.id));
     }
 
+    @Test
+    public void test_get_tasks_with_args_filter() throws Exception {
+        Task<String> foo = new Task<>("foo", User.local(), Map.of("someArg", "fooValue", "nested", Map.of("arg", "fooNested")));
+        Task<String> bar = new Task<>("bar", User.local(), Map.of("someArg", "barValue", "nested", Map.of("arg", "barNested")));
+        repository.insert(foo, new Group(TaskGroupType.Test));
+        repository.insert(bar, new Group(TaskGroupType.Test));
+
+        assertThat(repository.getTasks(new TaskFilters().with(new TaskFilters.ArgsFilter("nested.arg", "bar.*"))).map(Task::getId).toList())
+            .isEqualTo(List.of(bar.id));
+        assertThat(repository.getTasks(new TaskFilters().with(new TaskFilters.ArgsFilter("someArg", "BAR")).with(Pattern.CASE_INSENSITIVE)).map(Task::getId).toList())
+            .isEqualTo(List.of(bar.id));
+        assertThat(repository.getTasks(new TaskFilters().with(new TaskFilters.ArgsFilter("someArg", "BAR"))).toList()).isEmpty();
+    }
+
+    @Test
+    public void test_get_tasks_page_sorted_by_the_database() throws Exception {
+        Task<String> foo = new Task<>("foo", User.local(), Map.of());
+        Task<String> bar = new Task<>("bar", User.local(), Map.of());
+        Task<String> baz = new Task<>("baz", User.local(), Map.of());
+        baz.setResult(new TaskResult<>("done"));
+        for (Task<String> task : List.of(foo, bar, baz)) {
+            repository.insert(task, new Group(TaskGroupType.Test));
+        }
+
+        assertThat(repository.getTasks(new TaskFilters(), new WebQueryPagination("name", "asc", 0, 2), false).map(Task::getId).toList())
+            .isEqualTo(List.of(bar.id, baz.id));
+        assertThat(repository.getTasks(new TaskFilters(), new WebQueryPagination("name", "desc", 1, 5), false).map(Task::getId).toList())
+            .isEqualTo(List.of(baz.id, bar.id));
+        assertThat(repository.getTasks(new TaskFilters(), new WebQueryPagination("finished", "desc", 0, 1), false).map(Task::getId).toList())
+            .isEqualTo(List.of(baz.id));
+        assertThat(repository.countTasks(new TaskFilters().with("ba"))).isEqualTo(2);
+    }
+
+    @Test
+    public void test_get_tasks_summary_leaves_out_big_args() throws Exception {
+        Task<String> small = new Task<>("small", User.local(), Map.of("docs", "a"));
+        Task<String> big = new Task<>("big", User.local(), Map.of("docs", "a".repeat(JooqTaskRepository.SUMMARY_MAX_ARGS_LENGTH)));
+        repository.insert(small, new Group(TaskGroupType.Test));
+        repository.insert(big, new Group(TaskGroupType.Test));
+
+        List<Task<? extends Serializable>> tasks = repository.getTasks(new TaskFilters(), new WebQueryPagination("name", "asc", 0, 10), true).toList();
+
+        assertThat(tasks.stream().map(Task::getId).toList()).isEqualTo(List.of(big.id, small.id));
+        assertThat(tasks.get(0).args).isEqualTo(Map.of("user", User.local()));
+        assertThat(tasks.get(0).getUser()).isEqualTo(User.local());
+        assertThat(tasks.get(1).args).isEqualTo(small.args);
+    }
+
     @After
     public void tearDown() throws Exception {
         repository.deleteAll();
@@ -47,9 +47,10 @@ public class ContentOccurrences {
      * chars only. Everything else passes through, which is why a decomposed accent survives and a
      * caseless script is untouched: {@code normalizeLetters} tests that one type and nothing else.
      * {@link Locale#ROOT} rather than the default, so folding cannot depend on where the JVM runs;
-     * the script's own {@code toLowerCase()} takes the Elasticsearch node's default.
+     * the script's own {@code toLowerCase()} takes the Elasticsearch node's default. Public for the
+     * structure search index, whose terms must be folded the way the pages they point to are counted.
      */
-    static String fold(String input) {
+    public static String fold(String input) {
         StringBuilder folded = new StringBuilder(input.length());
         for (char character : input.toLowerCase(Locale.ROOT).toCharArray()) {
             appendFolded(folded, character);
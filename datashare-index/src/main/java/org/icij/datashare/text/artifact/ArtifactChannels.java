@@ -0,0 +1,157 @@
+package org.icij.datashare.text.artifact;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Open read channels on the byte-range content files, shared by every request paging through the same
+ * document, so a page read is one positional read instead of an open, a seek and a close.
+ * <p>
+ * At most {@code maxOpen} files stay open, least recently used first out. A channel is reference counted:
+ * one evicted while a response is still being written from it is closed by whoever releases it last.
+ * A producer replaces a payload by swapping its directory, which an open channel would never see, so
+ * each acquisition stats the path and reopens it when the file is not the one that was opened. That
+ * stat is the round trip the open used to be.
+ * <p>
+ * A reader interrupted in the middle of a read closes the channel for every reader sharing it. Such a
+ * channel is dropped from the cache when it is released, and reopened by the next acquisition.
+ */
+class ArtifactChannels implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactChannels.class);
+    static final int DEFAULT_MAX_OPEN = 256;
+
+    private final int maxOpen;
+    private final LinkedHashMap<Path, Handle> open;
+
+    ArtifactChannels(int maxOpen) {
+        this.maxOpen = maxOpen;
+        this.open = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * The channel on {@code file} with one more reference, to be closed once read.
+     *
+     * @throws IOException when the file is missing or unreadable, as opening it would
+     */
+    Handle acquire(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        List<Handle> evicted = new ArrayList<>();
+        Handle handle;
+        synchronized (this) {
+            handle = open.get(file);
+            if (handle != null && (!handle.isFor(attributes) || !handle.channel.isOpen())) {
+                open.remove(file);
+                evicted.add(handle);
+                handle = null;
+            }
+            if (handle == null) {
+                handle = new Handle(this, file, FileChannel.open(file, StandardOpenOption.READ), attributes);
+                open.put(file, handle);
+                evictEldest(evicted);
+            }
+            // still in the map, so the cache's own reference keeps it above zero here
+            handle.references.incrementAndGet();
+        }
+        // Outside the lock: closing a channel on a shared artifactDir is a round trip of its own.
+        evicted.forEach(Handle::release);
+        return handle;
+    }
+
+    private void discard(Path file, Handle handle) {
+        boolean removed;
+        synchronized (this) {
+            removed = open.remove(file, handle);
+        }
+        if (removed) {
+            handle.release();
+        }
+    }
+
+    private void evictEldest(List<Handle> evicted) {
+        while (open.size() > maxOpen) {
+            Map.Entry<Path, Handle> eldest = open.entrySet().iterator().next();
+            open.remove(eldest.getKey());
+            evicted.add(eldest.getValue());
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Handle> all;
+        synchronized (this) {
+            all = new ArrayList<>(open.values());
+            open.clear();
+        }
+        all.forEach(Handle::release);
+    }
+
+    /** A shared channel and the size of the file it was opened on. Closing it releases one reference. */
+    static class Handle implements Closeable {
+        private final ArtifactChannels owner;
+        private final Path file;
+        private final FileChannel channel;
+        private final long size;
+        private final Object fileKey;
+        private final FileTime lastModified;
+        // One for the cache itself, released on eviction, and one per reader.
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Handle(ArtifactChannels owner, Path file, FileChannel channel, BasicFileAttributes attributes) {
+            this.owner = owner;
+            this.file = file;
+            this.channel = channel;
+            this.size = attributes.size();
+            this.fileKey = attributes.fileKey();
+            this.lastModified = attributes.lastModifiedTime();
+        }
+
+        FileChannel channel() {
+            return channel;
+        }
+
+        long size() {
+            return size;
+        }
+
+        // The file key is the inode on Linux, which a directory swap always changes; null where the
+        // filesystem has none, leaving the modification time and size a rewrite in place changes too.
+        private boolean isFor(BasicFileAttributes attributes) {
+            return Objects.equals(fileKey, attributes.fileKey()) && size == attributes.size()
+                    && Objects.equals(lastModified, attributes.lastModifiedTime());
+        }
+
+        @Override
+        public void close() {
+            // closed by an interrupted read (ClosedByInterruptException), ours or another reader's
+            if (!channel.isOpen()) {
+                owner.discard(file, this);
+            }
+            release();
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                try {
+                    channel.close();
+                } catch (IOException closing) {
+                    LOGGER.debug("could not close an artifact channel", closing);
+                }
+            }
+        }
+    }
+}
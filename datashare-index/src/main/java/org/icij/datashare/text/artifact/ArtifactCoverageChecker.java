@@ -42,13 +42,19 @@ public class ArtifactCoverageChecker {
         }
     }
 
-    private final FilesystemManifestRepository manifests = new FilesystemManifestRepository();
+    private final ManifestRepository manifests;
     private final Indexer indexer;
     private final SourceExtractor extractor;
 
     public ArtifactCoverageChecker(Indexer indexer, SourceExtractor extractor) {
+        this(indexer, extractor, ManifestStore.FILE.repository());
+    }
+
+    /** Audits the manifests of {@code manifests}, for an artifactDir produced with another --artifactsManifestStore. */
+    public ArtifactCoverageChecker(Indexer indexer, SourceExtractor extractor, ManifestRepository manifests) {
         this.indexer = indexer;
         this.extractor = extractor;
+        this.manifests = manifests;
     }
 
     public Report check(Project project, Path artifactDir, Stream<Document> documents) {
@@ -18,25 +18,28 @@ public class ArtifactCoverageMain {
     private static final int SCROLL_SIZE = 100;
 
     public static void main(String[] args) throws Exception {
-        if (args.length != 3) {
-            System.err.println("usage: ArtifactCoverageMain <elasticsearchUrl> <indexName> <artifactDir>");
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("usage: ArtifactCoverageMain <elasticsearchUrl> <indexName> <artifactDir> [file|log]");
             System.exit(2);
             return;
         }
         String elasticsearchUrl = args[0];
         String indexName = args[1];
         String artifactDir = args[2];
+        // The manifest store the artifactDir was produced with, file when not given.
+        String manifestStore = args.length == 4 ? args[3] : ManifestStore.FILE.name();
 
         PropertiesProvider props = new PropertiesProvider(Map.of(
                 ElasticsearchConfiguration.INDEX_ADDRESS_PROP, elasticsearchUrl,
                 DatashareCliOptions.ARTIFACT_DIR_OPT, artifactDir,
+                DatashareCliOptions.ARTIFACTS_MANIFEST_STORE_OPT, manifestStore,
                 PropertiesProvider.DEFAULT_PROJECT_OPT, indexName));
 
         ElasticsearchClient client = ElasticsearchConfiguration.createESClient(props);
         ElasticsearchIndexer indexer = new ElasticsearchIndexer(client, props);
         SourceExtractor extractor = new SourceExtractor(props);
 
-        ArtifactCoverageChecker.Report report = new ArtifactCoverageChecker(indexer, extractor)
+        ArtifactCoverageChecker.Report report = new ArtifactCoverageChecker(indexer, extractor, ManifestStore.of(props).repository())
                 .check(Project.project(indexName), Path.of(artifactDir), SCROLL_SIZE);
 
         System.out.println(report.summary());
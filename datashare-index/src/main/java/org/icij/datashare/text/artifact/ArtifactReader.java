@@ -5,8 +5,13 @@ import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -15,13 +20,19 @@ import java.util.List;
 /** Read side of the artifact store, mirroring {@link ArtifactProducer}. Owns every rule that
  *  involves the manifest or the on-disk layout, so serving code stays HTTP-only: what is
  *  servable, where a page lives, and what a missing payload means. */
-public class ArtifactReader {
+public class ArtifactReader implements Closeable {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactReader.class);
 
     private final ManifestRepository manifests;
+    private final ArtifactChannels channels;
 
     public ArtifactReader(ManifestRepository manifests) {
+        this(manifests, ArtifactChannels.DEFAULT_MAX_OPEN);
+    }
+
+    ArtifactReader(ManifestRepository manifests, int maxOpenContentFiles) {
         this.manifests = manifests;
+        this.channels = new ArtifactChannels(maxOpenContentFiles);
     }
 
     /** The type's entry when it exists and is servable, else null. Callers map null to 404 and
@@ -60,6 +71,24 @@ public class ArtifactReader {
         return null;
     }
 
+    /** The page offsets of the indexed content a servable entry recorded next to its pages, as the live
+     *  /documents/pages route computes them, or null when it recorded none or they cannot be read: the
+     *  caller computes them then, so a missing file is a slower answer rather than a wrong one. Only the
+     *  name the producer writes is resolved, whatever else a manifest names. */
+    public byte[] pageOffsets(Path docArtifactDir, ManifestEntry entry) {
+        Pages pages = entry.pages();
+        if (pages == null || !ArtifactPath.PAGE_OFFSETS_FILE.equals(pages.offsets())) {
+            return null;
+        }
+        Path file = ArtifactPath.payloadOffsets(docArtifactDir, ArtifactType.PAGE);
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException unreadable) {
+            LOGGER.debug("manifest records page offsets but {} is missing or unreadable", file);
+            return null;
+        }
+    }
+
     /** One page's bytes, or null when the page is out of range or its payload is missing. */
     public byte[] page(Path docArtifactDir, ArtifactType type, ManifestEntry entry, int page, String extension) throws IOException {
         Integer total = servableTotal(docArtifactDir, type, entry);
@@ -91,6 +120,41 @@ public class ArtifactReader {
         }
     }
 
+    /**
+     * One page ready to be written to a response, or null when {@link #page} would be null. A byte-range
+     * page is not read here: {@link PageBody#writeTo} transfers it from the shared channel on the content
+     * file to the output, so serving a page of a large document allocates no page-sized array. Whether
+     * the range fits the file is still answered here, so a range past the end stays a 404 rather than a
+     * response cut short.
+     */
+    public PageBody pageBody(Path docArtifactDir, ArtifactType type, ManifestEntry entry, int page, String extension) throws IOException {
+        Integer total = servableTotal(docArtifactDir, type, entry);
+        if (total == null || page < 1 || page > total) {
+            return null;
+        }
+        ByteRangePagination byteRanges = byteRanges(entry);
+        if (byteRanges == null) {
+            // One small file per page: the read is the page, there is no larger region to spare a copy of.
+            byte[] bytes = page(docArtifactDir, type, entry, page, extension);
+            return bytes == null ? null : new BytesBody(bytes);
+        }
+        Path content = ArtifactPath.payloadContent(docArtifactDir, type, extension);
+        long[] range = range(content, byteRanges.ranges(), page, type, total);
+        if (range == null) {
+            return null;
+        }
+        try (ArtifactChannels.Handle handle = channels.acquire(content)) {
+            if (range[1] > handle.size()) {
+                throw new EOFException(content + " is " + handle.size() + " bytes long");
+            }
+        } catch (IOException unreadable) {
+            LOGGER.warn("manifest advertises {} byte-range page(s) for '{}' but [{}, {}) of {} could not be read",
+                    total, type.token(), range[0], range[1], content);
+            return null;
+        }
+        return new RangeBody(channels, content, range[0], range[1]);
+    }
+
     /** Which extensions are actually on disk, in the candidate order given. Probes per scheme,
      *  because the two schemes keep an extension in different files. */
     public List<String> formats(Path docArtifactDir, ArtifactType type, ManifestEntry entry, Collection<String> candidates) {
@@ -112,6 +176,36 @@ public class ArtifactReader {
     // Half-open [start, end). A range outside the file means manifest and payload disagree, which
     // is a 404 for that page rather than a truncated body.
     private byte[] slice(Path content, List<long[]> ranges, int page, ArtifactType type, int total) {
+        long[] range = range(content, ranges, page, type, total);
+        if (range == null) {
+            return null;
+        }
+        byte[] slice = new byte[(int) (range[1] - range[0])];
+        // Read and let it fail, as the filesystem branch above does: an isReadable() stat and a
+        // Files.size() bound check were two more round trips on a shared artifactDir to learn what
+        // the read reports anyway, and neither holds over the window between the check and the read.
+        // Positional, on the channel every reader of this file shares, rather than opened per page.
+        try (ArtifactChannels.Handle handle = channels.acquire(content)) {
+            ByteBuffer buffer = ByteBuffer.wrap(slice);
+            for (long at = range[0]; buffer.hasRemaining(); ) {
+                int read = handle.channel().read(buffer, at);
+                if (read < 0) {
+                    throw new EOFException("range runs past the end of " + content);
+                }
+                at += read;
+            }
+        } catch (IOException unreadable) {
+            LOGGER.warn("manifest advertises {} byte-range page(s) for '{}' but [{}, {}) of {} could not be read",
+                    total, type.token(), range[0], range[1], content);
+            return null;
+        }
+        return slice;
+    }
+
+    // The page's [start, end), or null for what the bytes themselves cannot answer: a missing or
+    // malformed range, a negative or inverted one, and a length no byte[] can hold. Whether the range
+    // fits the file is left to the read.
+    private long[] range(Path content, List<long[]> ranges, int page, ArtifactType type, int total) {
         if (ranges == null || ranges.size() < page || ranges.get(page - 1).length != 2) {
             LOGGER.warn("manifest advertises {} byte-range page(s) for '{}' but range {} is malformed", total, type.token(), page);
             return null;
@@ -119,24 +213,58 @@ public class ArtifactReader {
         long[] range = ranges.get(page - 1);
         long start = range[0];
         long end = range[1];
-        // What the bytes themselves cannot answer: a negative or inverted range, and a length no
-        // byte[] can hold. Whether the range fits the file is left to the read below.
         if (start < 0 || end < start || end - start > Integer.MAX_VALUE) {
             LOGGER.warn("byte range [{}, {}) for '{}' is malformed in {}", start, end, type.token(), content);
             return null;
         }
-        byte[] slice = new byte[(int) (end - start)];
-        // Read and let it fail, as the filesystem branch above does: an isReadable() stat and a
-        // Files.size() bound check were two more round trips on a shared artifactDir to learn what
-        // the read reports anyway, and neither holds over the window between the check and the read.
-        try (RandomAccessFile file = new RandomAccessFile(content.toFile(), "r")) {
-            file.seek(start);
-            file.readFully(slice);   // handles the partial-read loop; EOF means the range runs past the file
-        } catch (IOException unreadable) {
-            LOGGER.warn("manifest advertises {} byte-range page(s) for '{}' but [{}, {}) of {} could not be read",
-                    total, type.token(), start, end, content);
-            return null;
+        return range;
+    }
+
+    /** Closes the content files kept open for the byte-range pages. */
+    @Override
+    public void close() {
+        channels.close();
+    }
+
+    /** A page to write to a response, see {@link #pageBody}. */
+    public interface PageBody {
+        long length();
+
+        void writeTo(OutputStream output) throws IOException;
+    }
+
+    private record BytesBody(byte[] bytes) implements PageBody {
+        @Override
+        public long length() {
+            return bytes.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            output.write(bytes);
+        }
+    }
+
+    // The channel is acquired again to write rather than held from pageBody(): a body that is never
+    // written, because the response failed first, would otherwise keep its file open for good.
+    private record RangeBody(ArtifactChannels channels, Path content, long start, long end) implements PageBody {
+        @Override
+        public long length() {
+            return end - start;
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            WritableByteChannel target = Channels.newChannel(output);
+            try (ArtifactChannels.Handle handle = channels.acquire(content)) {
+                for (long at = start; at < end; ) {
+                    long sent = handle.channel().transferTo(at, end - at, target);
+                    if (sent <= 0) {
+                        throw new EOFException("range [" + start + ", " + end + ") runs past the end of " + content);
+                    }
+                    at += sent;
+                }
+            }
         }
-        return slice;
     }
 }
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.MapMaker;
 import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
@@ -13,6 +15,9 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -22,11 +27,21 @@ import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.WRITE;
 
 /** Filesystem-backed manifest persistence. Writes are concurrency-safe (in-JVM ReentrantLock +
- *  cross-process FileLock) and atomic (temp + ATOMIC_MOVE). */
+ *  cross-process FileLock) and atomic (temp + ATOMIC_MOVE). Reads are served from a parsed copy as long
+ *  as the file is the one that was parsed, so a stat replaces an open, a read and a parse. */
 public class FilesystemManifestRepository implements ManifestRepository {
     private static final String LOCK_FILE = ArtifactPath.MANIFEST_FILE + ".lock";
     private static final long LOCK_TIMEOUT_MS = 30_000;
     private static final ObjectMapper MAPPER = JsonObjectMapper.getMapper();
+    static final int MAX_CACHED_MANIFESTS = 10_000;
+    // A rewrite in place within one tick of the filesystem clock keeps the inode and the modification
+    // time, and may keep the size: a manifest modified this recently is read again rather than trusted,
+    // as git does with a racily clean index entry. Writes through this class swap the inode anyway.
+    static final long RACY_WINDOW_MS = 2_000;
+    // Static like JVM_LOCKS: the ARTIFACT workers, the INDEX recorder and the web resource each build
+    // their own repository, and the documents they look up are the same ones.
+    private static final Cache<Path, ParsedManifest> PARSED = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_MANIFESTS).build();
     // Weak values, because this is keyed per document and hit once per indexed document: a strong map
     // would keep one entry per document ever processed for the life of the JVM. A lock a thread holds
     // is kept alive by that thread's own reference to it, so one dir still maps to one lock for as long
@@ -38,13 +53,17 @@ public class FilesystemManifestRepository implements ManifestRepository {
         Path manifest = docArtifactDir.resolve(ArtifactPath.MANIFEST_FILE);
         // No manifest yet means nothing has been produced for this node; a present manifest
         // without this type's key means the same for that one type. Both read as "not found".
-        if (!Files.exists(manifest)) {
+        // Any other stat failure too, as the Files.exists this replaces read it.
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(manifest, BasicFileAttributes.class);
+        } catch (IOException absent) {
             return null;
         }
         // Read as a tree, then convert the one type asked for: datashare-python owns other types in the
         // same file and writes fields ManifestEntry does not model, and a round-trip through the record
         // destroyed them (a docling payload's byte offsets are the only copy there is).
-        JsonNode entry = read(manifest).get(type);
+        JsonNode entry = parsed(manifest, attributes).get(type);
         return entry == null ? null : MAPPER.treeToValue(entry, ManifestEntry.class);
     }
 
@@ -88,17 +107,41 @@ public class FilesystemManifestRepository implements ManifestRepository {
     // offsets of a docling payload are the only copy there is).
     private void mergeEntryIntoManifest(Path docArtifactDir, String type, ManifestEntry entry) throws IOException {
         Path manifest = docArtifactDir.resolve(ArtifactPath.MANIFEST_FILE);
+        // Straight from the file, never from the cache: the tree is mutated below, and a cached one is
+        // shared with every reader. Under the lock this is the only read that has to be current.
         ObjectNode currentEntries = Files.exists(manifest) ? read(manifest) : MAPPER.createObjectNode();
         currentEntries.set(type, MAPPER.valueToTree(entry));
         writeAtomically(manifest, currentEntries);
     }
 
     // Swap the manifest in via a temp file + atomic rename, so a concurrent reader never
-    // observes a half-written file.
+    // observes a half-written file. Compact: nobody reads it by eye often enough to pay for the
+    // indentation on every document, and `jq . manifest.json` restores it.
     private void writeAtomically(Path manifest, ObjectNode entries) throws IOException {
         Path temporaryManifest = manifest.resolveSibling(ArtifactPath.MANIFEST_FILE + ".tmp");
-        Files.write(temporaryManifest, MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(entries));
+        Files.write(temporaryManifest, MAPPER.writeValueAsBytes(entries));
         Files.move(temporaryManifest, manifest, ATOMIC_MOVE, REPLACE_EXISTING);
+        // The rename gives the file a new inode, which the next stat would catch; dropping the copy
+        // here just frees it sooner.
+        PARSED.invalidate(manifest.toAbsolutePath());
+    }
+
+    // The attributes are taken before the read: a file replaced in between is cached under the older
+    // attributes, which the next stat no longer matches, so a race costs a read, never a stale answer.
+    // The tree returned may be shared and must not be modified.
+    private ObjectNode parsed(Path manifest, BasicFileAttributes attributes) throws IOException {
+        Path key = manifest.toAbsolutePath();
+        ParsedManifest cached = PARSED.getIfPresent(key);
+        if (cached != null && cached.isFor(attributes)) {
+            return cached.entries();
+        }
+        ObjectNode entries = read(manifest);
+        if (System.currentTimeMillis() - attributes.lastModifiedTime().toMillis() > RACY_WINDOW_MS) {
+            PARSED.put(key, new ParsedManifest(entries, attributes.fileKey(), attributes.size(), attributes.lastModifiedTime()));
+        } else {
+            PARSED.invalidate(key);
+        }
+        return entries;
     }
 
     private ReentrantLock lockFor(Path docArtifactDir) {
@@ -115,6 +158,15 @@ public class FilesystemManifestRepository implements ManifestRepository {
         return (ObjectNode) root;
     }
 
+    // The file key is the inode on Linux, which the atomic rename of every write changes; null where the
+    // filesystem has none, leaving the size and modification time.
+    private record ParsedManifest(ObjectNode entries, Object fileKey, long size, FileTime lastModified) {
+        boolean isFor(BasicFileAttributes attributes) {
+            return Objects.equals(fileKey, attributes.fileKey()) && size == attributes.size()
+                    && Objects.equals(lastModified, attributes.lastModifiedTime());
+        }
+    }
+
     // Spin-retry rather than block forever: a stale cross-process lock (e.g. a crashed peer)
     // must not hang the worker indefinitely, so give up after LOCK_TIMEOUT_MS.
     private FileLock acquire(FileChannel channel) throws IOException {
@@ -0,0 +1,213 @@
+package org.icij.datashare.text.artifact;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.icij.datashare.json.JsonObjectMapper;
+import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * The manifest entries of every document of a project in one append-only file, {@code manifests.log} at
+ * the project root, instead of a manifest.json per document directory. For artifactDirs holding tens of
+ * millions of documents, where those manifests cost an inode each and every lookup is an open() on a
+ * shared filesystem: here a lookup is a positional read in a file each process keeps open.
+ * <p>
+ * One line per put, {@code {"doc": digest, "type": type, "entry": {...}}}, and the last line of a document
+ * and type wins. A process keeps where those last lines are in memory, about 200 bytes of heap per
+ * document and type in every process that reads the log, web server included: some 6GB for ten million
+ * documents with three artifact types. Before answering, it reads only what was appended since it last
+ * looked, so a put from another worker or host is seen by the next get. Lines are appended under an exclusive lock on the log; one left
+ * without its newline by a writer that died is skipped with a warning. Superseded lines are never
+ * dropped, which a run producing each type once per document keeps to a few lines a document.
+ * <p>
+ * Payload production is still serialised per document, through the lock files of
+ * {@link FilesystemManifestRepository}. datashare-python only reads manifest.json: this store is for
+ * deployments where datashare alone produces and serves the artifacts.
+ */
+public class LogManifestRepository implements ManifestRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogManifestRepository.class);
+    private static final ObjectMapper MAPPER = JsonObjectMapper.getMapper();
+    // Static like FilesystemManifestRepository's locks: the workers, the recorder and the web resource
+    // each build a repository, and one index per project is what keeps the memory to one per entry.
+    private static final ConcurrentMap<Path, ProjectLog> LOGS = new ConcurrentHashMap<>();
+    private final FilesystemManifestRepository documentLocks = new FilesystemManifestRepository();
+
+    @Override
+    public ManifestEntry get(Path docArtifactDir, String type) throws IOException {
+        JsonNode entry = logOf(docArtifactDir).get(digestOf(docArtifactDir), type);
+        return entry == null ? null : MAPPER.treeToValue(entry, ManifestEntry.class);
+    }
+
+    @Override
+    public void put(Path docArtifactDir, String type, ManifestEntry entry) throws IOException {
+        logOf(docArtifactDir).append(digestOf(docArtifactDir), type, MAPPER.valueToTree(entry));
+    }
+
+    @Override
+    public <T> T inLock(Path docArtifactDir, ManifestAction<T> action) throws IOException {
+        return documentLocks.inLock(docArtifactDir, action);
+    }
+
+    private static ProjectLog logOf(Path docArtifactDir) {
+        Path log = ArtifactPath.projectRootOf(docArtifactDir.toAbsolutePath().normalize()).resolve(ArtifactPath.MANIFEST_LOG_FILE);
+        return LOGS.computeIfAbsent(log, ProjectLog::new);
+    }
+
+    private static String digestOf(Path docArtifactDir) {
+        return docArtifactDir.getFileName().toString();
+    }
+
+    /** What this process knows of one project's log: where the last line of each entry starts, and how
+     *  far the log was read. */
+    private static class ProjectLog {
+        private final Path file;
+        private final Map<String, Line> lines = new HashMap<>();
+        private FileChannel reader;
+        private Object fileKey;
+        private long indexed;
+
+        private ProjectLog(Path file) {
+            this.file = file;
+        }
+
+        synchronized JsonNode get(String digest, String type) throws IOException {
+            catchUp();
+            Line line = lines.get(key(digest, type));
+            if (line == null) {
+                return null;
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(line.length());
+            while (bytes.hasRemaining()) {
+                if (reader.read(bytes, line.offset() + bytes.position()) < 0) {
+                    throw new EOFException(file + " is shorter than when it was indexed");
+                }
+            }
+            return MAPPER.readTree(bytes.array()).get("entry");
+        }
+
+        // The line is indexed by the next get, as one from another process would be: there is one way in.
+        synchronized void append(String digest, String type, JsonNode entry) throws IOException {
+            ObjectNode line = MAPPER.createObjectNode().put("doc", digest).put("type", type);
+            line.set("entry", entry);
+            ByteBuffer bytes = ByteBuffer.wrap((MAPPER.writeValueAsString(line) + "\n").getBytes(UTF_8));
+            Files.createDirectories(file.getParent());
+            // Opened per append rather than kept: a project deleted under a kept channel would take
+            // every later put into the unlinked file. The lock is what keeps two hosts' lines apart, and
+            // what makes the size the end to write at (READ rules out APPEND, and the repair needs it).
+            try (FileChannel writer = FileChannel.open(file, CREATE, READ, WRITE);
+                 FileLock lock = writer.lock()) {
+                long end = writer.size();
+                // A writer that died mid-line left no newline: end its line first, or this one would
+                // be glued to it and skipped along with it.
+                if (!endsWithNewline(writer, end)) {
+                    end += writer.write(ByteBuffer.wrap(new byte[] {'\n'}), end);
+                }
+                while (bytes.hasRemaining()) {
+                    end += writer.write(bytes, end);
+                }
+            }
+        }
+
+        private static boolean endsWithNewline(FileChannel writer, long size) throws IOException {
+            if (size == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            return writer.read(last, size - 1) == 1 && last.get(0) == '\n';
+        }
+
+        private void catchUp() throws IOException {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException absent) {
+                forget();
+                return;
+            }
+            // Another inode or a shorter file: the project was deleted and its log started again.
+            if (reader == null || !Objects.equals(fileKey, attributes.fileKey()) || attributes.size() < indexed) {
+                forget();
+                reader = FileChannel.open(file, READ);
+                fileKey = attributes.fileKey();
+            } else if (!reader.isOpen()) {
+                // closed by a reader interrupted in a read: the same file, whose index still holds
+                reader = FileChannel.open(file, READ);
+            }
+            if (attributes.size() > indexed) {
+                index(attributes.size());
+            }
+        }
+
+        // Only whole lines: one still being appended is read again from its start on the next look.
+        private void index(long size) throws IOException {
+            // Not closed: closing the stream would close the channel the gets read from.
+            InputStream in = new BufferedInputStream(Channels.newInputStream(reader.position(indexed)));
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = indexed;
+            int next;
+            while (position < size && (next = in.read()) >= 0) {
+                position++;
+                if (next != '\n') {
+                    line.write(next);
+                    continue;
+                }
+                try {
+                    JsonNode parsed = MAPPER.readTree(line.toByteArray());
+                    lines.put(key(parsed.path("doc").asText(), parsed.path("type").asText()),
+                            new Line(indexed, line.size()));
+                } catch (JsonProcessingException torn) {
+                    LOGGER.warn("skipping a malformed line at byte {} of {}", indexed, file);
+                }
+                line.reset();
+                indexed = position;
+            }
+        }
+
+        private void forget() {
+            lines.clear();
+            indexed = 0;
+            fileKey = null;
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException closing) {
+                    LOGGER.debug("could not close {}", file, closing);
+                }
+                reader = null;
+            }
+        }
+
+        private static String key(String digest, String type) {
+            return digest + '/' + type;
+        }
+    }
+
+    private record Line(long offset, int length) {}
+}
@@ -0,0 +1,33 @@
+package org.icij.datashare.text.artifact;
+
+import org.icij.datashare.PropertiesProvider;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.icij.datashare.cli.DatashareCliOptions.ARTIFACTS_MANIFEST_STORE_OPT;
+
+/** Where the manifest entries are kept, selected by --artifactsManifestStore: a manifest.json per
+ *  document directory, the default and the only layout datashare-python reads, or one log per project.
+ *  Producers and readers of one artifactDir must agree on it, since neither reads the other's. */
+public enum ManifestStore {
+    FILE, LOG;
+
+    public ManifestRepository repository() {
+        return this == LOG ? new LogManifestRepository() : new FilesystemManifestRepository();
+    }
+
+    /** @throws IllegalArgumentException on an unknown store, rather than fall back to one nobody asked for */
+    public static ManifestStore of(PropertiesProvider properties) {
+        return properties.get(ARTIFACTS_MANIFEST_STORE_OPT).map(ManifestStore::parse).orElse(FILE);
+    }
+
+    private static ManifestStore parse(String store) {
+        try {
+            return valueOf(store.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException unknown) {
+            throw new IllegalArgumentException(String.format("unknown %s '%s', expected one of %s",
+                    ARTIFACTS_MANIFEST_STORE_OPT, store, Arrays.stream(values()).map(s -> s.name().toLowerCase(Locale.ROOT)).toList()));
+        }
+    }
+}
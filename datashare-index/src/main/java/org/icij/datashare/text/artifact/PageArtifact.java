@@ -5,7 +5,9 @@ import org.apache.tika.exception.TikaConfigException;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.DocumentSelector;
 import org.apache.tika.metadata.TikaCoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.icij.datashare.PropertiesProvider;
+import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.Hasher;
 import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
@@ -24,18 +26,23 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.icij.datashare.cli.DatashareCliOptions.ARTIFACTS_PAGE_OFFSETS_OPT;
+
 
 /** The page artifact: a document's paginated PLAIN extracted text, written as a single
- *  pages/content.txt whose per-page half-open byte ranges live in the manifest entry. */
+ *  pages/content.txt whose per-page half-open byte ranges live in the manifest entry. With
+ *  --artifactsPageOffsets, also the page indices of the indexed content in pages/offsets.json. */
 public class PageArtifact implements Artifact {
     private static final ArtifactType TYPE = ArtifactType.PAGE;
     // Tika.getString() returns "Apache Tika <version>"; extract-lib strips the same prefix.
     private static final String TIKA_PREFIX = "Apache Tika";
     // Read once: Tika.getString() re-reads a jar resource, and taskInput() is called per document.
     private static final String TIKA_VERSION = Tika.getString().replace(TIKA_PREFIX, "").strip();
+    private static final ObjectMapper MAPPER = JsonObjectMapper.getMapper();
 
     private final PropertiesProvider propertiesProvider;
 
@@ -54,7 +61,7 @@ public class PageArtifact implements Artifact {
         // text, extract-lib owns the parser set and the page splitting, and the datashare version covers
         // what this class decides. The run's OCR setting is the best this document-less overload can do;
         // what actually paginated a document is the overload below.
-        return taskInput(Artifact.ocrEnabled(propertiesProvider));
+        return taskInput(Artifact.ocrEnabled(propertiesProvider), pageOffsets());
     }
 
     @Override
@@ -64,19 +71,34 @@ public class PageArtifact implements Artifact {
         // that file with OCR on and nothing the fingerprint sees changes (same bytes, same digest, same
         // artifact dir), so skip-if-current serves the OCR-free pages forever. Still config, not data:
         // the same document under the same run config compares equal in any batch.
-        return taskInput(Artifact.ocrEnabled(propertiesProvider) && document.getOcrParser() != null);
+        return taskInput(Artifact.ocrEnabled(propertiesProvider) && document.getOcrParser() != null, pageOffsets());
     }
 
-    private static Map<String, Object> taskInput(boolean ocr) {
-        return Map.of("pipeline", "tika", "version", TIKA_VERSION, "ocr", ocr,
+    private static Map<String, Object> taskInput(boolean ocr, boolean pageOffsets) {
+        Map<String, Object> input = Map.of("pipeline", "tika", "version", TIKA_VERSION, "ocr", ocr,
                 "extract", BuildVersions.EXTRACT, "datashare", BuildVersions.DATASHARE);
+        // Only when on, as StructureArtifact does for its search index: turning it on re-produces the
+        // documents without offsets, and a run that never asked keeps the fingerprint they carry.
+        if (!pageOffsets) {
+            return input;
+        }
+        Map<String, Object> withOffsets = new HashMap<>(input);
+        withOffsets.put("offsets", true);
+        return Map.copyOf(withOffsets);
+    }
+
+    // Off unless asked for: extract-lib computes the page indices in a parse of their own, so recording
+    // them doubles what producing this artifact costs, OCR included.
+    private boolean pageOffsets() {
+        return propertiesProvider.get(ARTIFACTS_PAGE_OFFSETS_OPT).map(Boolean::parseBoolean).orElse(false);
     }
 
     @Override
     public ManifestEntry produce(ArtifactContext context) throws ArtifactException {
         Document document = context.document();
         try {
-            List<String> pages = extractPages(document, sourcePath(context));
+            Path source = sourcePath(context);
+            List<String> pages = extractPages(document, source);
             // Nothing to serve and nothing to write: no page divs means no pages, which is what the
             // live endpoint returns for such a document too. EMPTY is terminal, so the document is
             // recorded once and not reprocessed on every run.
@@ -86,7 +108,10 @@ public class PageArtifact implements Artifact {
                 discardPayload(context.docArtifactDir());
                 return ManifestEntry.empty(taskInput(document));
             }
-            return ManifestEntry.paginated(taskInput(document), writePages(context, pages));
+            byte[] offsets = pageOffsets() ? extractPageOffsets(document, source) : null;
+            List<long[]> ranges = writePages(context, pages, offsets);
+            return offsets == null ? ManifestEntry.paginated(taskInput(document), ranges)
+                    : ManifestEntry.paginated(taskInput(document), ranges, ArtifactPath.PAGE_OFFSETS_FILE);
         } catch (ArtifactConfigurationException fatal) {
             // Unchecked, and not an ArtifactException, so the catch-all below would otherwise demote the
             // fatal bucket to one more per-document failure and drain the queue instead of ending the run.
@@ -135,21 +160,37 @@ public class PageArtifact implements Artifact {
     // Package-private, not private: nothing this side can make a real Tika configuration break, so the
     // fatal bucket is only reachable from a test that stands in for this method.
     List<String> extractPages(Document document, Path source) throws IOException, ArtifactException {
-        Hasher hasher = Hasher.valueOf(document.getId().length());
-        DocumentFactory documentFactory = new DocumentFactory()
-                .configure(Options.from(Map.of("digestAlgorithm", hasher.toStringWithoutDash())));
-        try (Extractor extractor = new Extractor(documentFactory, Options.from(propertiesProvider.getProperties()))) {
-            // Same rule as DocumentResource.getPages: a document indexed without OCR must be
-            // paginated without OCR, or its pages would not match its indexed content.
-            if (document.getOcrParser() == null) {
-                extractor.disableOcr();
-            }
+        try (Extractor extractor = extractorFor(document)) {
             return extractor.extractPages(source, ownTextOf(source));
         } catch (IOException failure) {
             throw classify(document, failure);
         }
     }
 
+    // What DocumentResource.getPages answers live, serialised once here so that route can serve these
+    // bytes instead of parsing the document on every page turn. Same source and same selection as the
+    // pages, so the offsets describe the text those pages hold.
+    byte[] extractPageOffsets(Document document, Path source) throws IOException, ArtifactException {
+        try (Extractor extractor = extractorFor(document)) {
+            return MAPPER.writeValueAsBytes(extractor.extractPageIndices(source, ownTextOf(source), document.getId()));
+        } catch (IOException failure) {
+            throw classify(document, failure);
+        }
+    }
+
+    private Extractor extractorFor(Document document) {
+        Hasher hasher = Hasher.valueOf(document.getId().length());
+        DocumentFactory documentFactory = new DocumentFactory()
+                .configure(Options.from(Map.of("digestAlgorithm", hasher.toStringWithoutDash())));
+        Extractor extractor = new Extractor(documentFactory, Options.from(propertiesProvider.getProperties()));
+        // Same rule as DocumentResource.getPages: a document indexed without OCR must be
+        // paginated without OCR, or its pages would not match its indexed content.
+        if (document.getOcrParser() == null) {
+            extractor.disableOcr();
+        }
+        return extractor;
+    }
+
     /**
      * Selects the text that belongs to the document being paginated, which is what its pages must hold:
      * they are its indexed content, paginated, so a page saying something the content field does not is
@@ -231,8 +272,9 @@ public class PageArtifact implements Artifact {
     // instead leave the new content.txt live while the manifest still describes the previous one;
     // guarding against that is a consumer-side concern (#2228), not this method's. Offsets are the byte
     // counts actually written, so the recorded ranges cannot disagree with the file: half-open
-    // [start, end), contiguous, first start 0, last end == length.
-    private static List<long[]> writePages(ArtifactContext context, List<String> pages) throws IOException {
+    // [start, end), contiguous, first start 0, last end == length. The offsets, when there are any, go
+    // in the same swap, so they never describe pages other than the ones next to them.
+    private static List<long[]> writePages(ArtifactContext context, List<String> pages, byte[] offsets) throws IOException {
         List<long[]> ranges = new ArrayList<>();
         AtomicDirectorySwap.replace(ArtifactPath.payloadDir(context.docArtifactDir(), TYPE), staging -> {
             long offset = 0;
@@ -244,6 +286,9 @@ public class PageArtifact implements Artifact {
                     offset += bytes.length;
                 }
             }
+            if (offsets != null) {
+                Files.write(staging.resolve(ArtifactPath.PAGE_OFFSETS_FILE), offsets);
+            }
         });
         return ranges;
     }
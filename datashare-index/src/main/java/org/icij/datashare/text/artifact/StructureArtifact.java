@@ -21,10 +21,12 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import static org.icij.datashare.cli.DatashareCliOptions.ARTIFACTS_SEARCH_INDEX_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.OCR_STRATEGY_OPT;
 import static org.icij.datashare.text.nlp.DocumentMetadataConstants.RESOURCE_NAME_KEY;
 
@@ -38,6 +40,8 @@ public class StructureArtifact implements Artifact {
     private static final String TIKA_VERSION = Tika.getString().replace(TIKA_PREFIX, "").strip();
     // The message AutoDetectParser gives a SecureContentHandler refusal (see isZipBombGuard).
     private static final String ZIP_BOMB_MESSAGE = "Zip bomb detected!";
+    // The format StructureSearch counts in, so the only one worth an index.
+    private static final String INDEXED_FORMAT = "md";
 
     private final StructureMarkdownExtractor extractor = new StructureMarkdownExtractor();
     private final PropertiesProvider propertiesProvider;
@@ -55,7 +59,7 @@ public class StructureArtifact implements Artifact {
     public Map<String, Object> taskInput() {
         // The run's OCR setting is the best this document-less overload can do; what actually rendered
         // a document is the overload below. Same split as PageArtifact.
-        return taskInput(runOcrSettings());
+        return taskInput(runOcrSettings(), searchIndex());
     }
 
     @Override
@@ -63,18 +67,32 @@ public class StructureArtifact implements Artifact {
         // The OCR that made these pages, not the one the run asked for, or re-indexing with OCR on
         // would change nothing the fingerprint sees and skip-if-current would serve the OCR-free pages
         // forever. Same reasoning as {@link PageArtifact#taskInput(Document)}.
-        return taskInput(ocrSettings(document));
+        return taskInput(ocrSettings(document), searchIndex());
     }
 
-    private static Map<String, Object> taskInput(OcrSettings ocr) {
+    private static Map<String, Object> taskInput(OcrSettings ocr, boolean searchIndex) {
         // A fingerprint of the code that made the bytes, so skip-if-current sees pages an earlier release
         // rendered as stale: Tika renders the XHTML, extract-lib owns the parser set (the resilient PST
         // one), and the datashare version covers what this class decides (page grouping, safelist,
         // flexmark options), which no dependency version tracks. Deliberately conservative: any datashare
         // release makes every structure artifact stale, so the next ARTIFACT run re-extracts a corpus.
-        return Map.of("pipeline", "tika", "version", TIKA_VERSION,
+        Map<String, Object> input = Map.of("pipeline", "tika", "version", TIKA_VERSION,
                 "ocr", ocr.images(), "ocrStrategy", ocr.pdfStrategy().name(),
                 "extract", BuildVersions.EXTRACT, "datashare", BuildVersions.DATASHARE);
+        // Only when on, so turning the index on re-produces the documents that have none, and a run that
+        // never asked for it keeps the fingerprint every document already carries.
+        if (!searchIndex) {
+            return input;
+        }
+        Map<String, Object> indexed = new HashMap<>(input);
+        indexed.put("searchIndex", true);
+        return Map.copyOf(indexed);
+    }
+
+    // Off unless asked for: the index costs a pass over every page and a file the size of the vocabulary,
+    // for documents most of which are never searched page by page.
+    private boolean searchIndex() {
+        return propertiesProvider.get(ARTIFACTS_SEARCH_INDEX_OPT).map(Boolean::parseBoolean).orElse(false);
     }
 
     // What the INDEX stage applied to this document, so the pages hold the text the content field holds.
@@ -111,8 +129,11 @@ public class StructureArtifact implements Artifact {
             // OCR renders its scanned pages empty here too, and "the parser found no text here" is a
             // different thing from the EMPTY of a raw entry, which means there is nothing to serve at all.
             List<Page> pages = parse(source, context.document());
-            writePages(context.docArtifactDir(), pages);
-            return ManifestEntry.paginated(taskInput(context.document()), pages.size());
+            boolean searchIndex = searchIndex();
+            writePages(context.docArtifactDir(), pages, searchIndex);
+            return searchIndex
+                    ? ManifestEntry.paginated(taskInput(context.document()), pages.size(), ArtifactPath.indexFilename(INDEXED_FORMAT))
+                    : ManifestEntry.paginated(taskInput(context.document()), pages.size());
         } catch (ArtifactConfigurationException fatal) {
             // Unchecked, and not an ArtifactException, so the catch-all below would otherwise demote the
             // fatal bucket to one more per-document failure and drain the queue instead of ending the run.
@@ -187,11 +208,17 @@ public class StructureArtifact implements Artifact {
     // The swap itself is not structure-specific and lives in AtomicDirectorySwap, which creates the
     // document's artifact dir on the way: with raw out of the selection nothing else creates it, so an
     // ARTIFACT run over a fresh artifactDir would otherwise fail on every document.
-    static void writePages(Path docArtifactDir, List<Page> pages) throws IOException {
+    // The index is written in the same staging directory, so it is swapped in with the pages it points to
+    // and can never describe the pages of an earlier run.
+    static void writePages(Path docArtifactDir, List<Page> pages, boolean searchIndex) throws IOException {
         AtomicDirectorySwap.replace(ArtifactPath.payloadDir(docArtifactDir, TYPE), staging -> {
             for (int index = 0; index < pages.size(); index++) {
                 write(staging, index + 1, pages.get(index));
             }
+            if (searchIndex) {
+                StructurePostings.write(staging.resolve(ArtifactPath.indexFilename(INDEXED_FORMAT)),
+                        pages.stream().map(Page::markdown).toList());
+            }
         });
     }
 
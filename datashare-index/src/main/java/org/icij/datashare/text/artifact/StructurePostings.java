@@ -0,0 +1,197 @@
+package org.icij.datashare.text.artifact;
+
+import org.icij.datashare.text.ContentOccurrences;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Term to page postings of one document's structure pages, written by {@link StructureArtifact} next to
+ * them and read by {@link StructureSearch} to walk only the pages that can hold a query.
+ * <p>
+ * A search counts substrings, not words, so a term here is never matched for equality: a page can hold
+ * the query only if every run of letters and digits in the folded query sits inside one word of the
+ * folded page, so the candidates are the pages of the terms containing each run, intersected. That is
+ * a superset of the pages with a hit and never a subset, which is what keeps an indexed search complete:
+ * the counts still come from {@link ContentOccurrences} on each candidate page.
+ * <p>
+ * Layout, big-endian: magic, version, page count, term count, then per term in sorted order its UTF-8
+ * length and bytes, the byte length of its postings and the postings as varint page deltas. One pass
+ * over a mapped file answers a query without building a dictionary that a per-request search would
+ * throw away.
+ */
+class StructurePostings {
+    private static final int MAGIC = 0x44535049; // "DSPI"
+    private static final int VERSION = 1;
+    /**
+     * Words longer than this are not stored: their pages are posted under the empty term instead, which
+     * every run matches. A pasted base64 blob or a minified script is one word as long as the page, and
+     * storing it would make the index the size of the document for no query anyone types.
+     */
+    static final int MAX_TERM_LENGTH = 64;
+    private static final String LONG_WORDS = "";
+
+    private StructurePostings() {}
+
+    static void write(Path file, List<String> pages) throws IOException {
+        Map<String, PageList> postings = new HashMap<>();
+        for (int page = 1; page <= pages.size(); page++) {
+            for (String word : words(ContentOccurrences.fold(pages.get(page - 1)))) {
+                String term = word.length() > MAX_TERM_LENGTH ? LONG_WORDS : word;
+                postings.computeIfAbsent(term, t -> new PageList()).add(page);
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(pages.size());
+            out.writeInt(postings.size());
+            for (Map.Entry<String, PageList> term : new TreeMap<>(postings).entrySet()) {
+                byte[] bytes = term.getKey().getBytes(UTF_8);
+                byte[] encoded = term.getValue().encode();
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+        }
+    }
+
+    /**
+     * The pages that can hold {@code query}, as set bits from 1, or null when the index cannot narrow the
+     * search: a query with no letter or digit, which no term holds, falls back to the scan.
+     *
+     * @throws IOException when the file is missing, unreadable or not an index, so the caller falls back too
+     */
+    static BitSet candidates(Path file, String query) throws IOException {
+        List<String> runs = words(ContentOccurrences.fold(query));
+        if (runs.isEmpty()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return candidates(buffer, runs);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | NegativeArraySizeException truncated) {
+            throw new IOException("malformed structure index " + file, truncated);
+        }
+    }
+
+    private static BitSet candidates(ByteBuffer buffer, List<String> runs) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("not a structure index, or one of another version");
+        }
+        int pageCount = buffer.getInt();
+        int termCount = buffer.getInt();
+        BitSet[] pagesByRun = new BitSet[runs.size()];
+        Arrays.setAll(pagesByRun, i -> new BitSet(pageCount + 1));
+        for (int i = 0; i < termCount; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            String term = new String(bytes, UTF_8);
+            int length = buffer.getInt();
+            ByteBuffer encoded = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            for (int run = 0; run < runs.size(); run++) {
+                if (term.equals(LONG_WORDS) || term.contains(runs.get(run))) {
+                    decode(encoded.duplicate(), pageCount, pagesByRun[run]);
+                }
+            }
+        }
+        BitSet candidates = pagesByRun[0];
+        for (int run = 1; run < pagesByRun.length; run++) {
+            candidates.and(pagesByRun[run]);
+        }
+        return candidates;
+    }
+
+    // Pages past the count the index was written for are dropped: the index, not the manifest, bounds
+    // what it answers for, and a search never walks further than what either advertises.
+    private static void decode(ByteBuffer encoded, int pageCount, BitSet pages) {
+        int page = 0;
+        while (encoded.hasRemaining()) {
+            page += readVarint(encoded);
+            if (page < 1 || page > pageCount) {
+                return;
+            }
+            pages.set(page);
+        }
+    }
+
+    // Runs of letters and digits, the only characters a term is made of. A char at a time, as the fold
+    // is: a surrogate pair is neither, so a word of astral characters is never indexed, and neither is
+    // a query run made of them, which the empty result then sends to the scan.
+    static List<String> words(String folded) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int at = 0; at <= folded.length(); at++) {
+            boolean inWord = at < folded.length() && Character.isLetterOrDigit(folded.charAt(at));
+            if (inWord && start < 0) {
+                start = at;
+            } else if (!inWord && start >= 0) {
+                words.add(folded.substring(start, at));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = buffer.get();
+            value |= (next & 0x7f) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /** Pages of one term in increasing order, each once, since pages are added in order. */
+    private static class PageList {
+        private int[] pages = new int[4];
+        private int size = 0;
+
+        void add(int page) {
+            if (size > 0 && pages[size - 1] == page) {
+                return;
+            }
+            if (size == pages.length) {
+                pages = Arrays.copyOf(pages, size * 2);
+            }
+            pages[size++] = page;
+        }
+
+        byte[] encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(size * 5);
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                int delta = pages[i] - previous;
+                previous = pages[i];
+                while ((delta & ~0x7f) != 0) {
+                    buffer.put((byte) ((delta & 0x7f) | 0x80));
+                    delta >>>= 7;
+                }
+                buffer.put((byte) delta);
+            }
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.icij.datashare.text.artifact;
 
 import org.icij.datashare.text.ContentOccurrences;
+import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,7 +9,9 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -22,6 +25,10 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * emits no {@code div.page} for is one page holding the whole document, the same page the single-page
  * route already serves in one response. And a match is counted within a page, so a phrase split by a
  * page break counts zero here and one in the Elasticsearch content search.
+ * <p>
+ * When the producer wrote a {@link StructurePostings} index for the requested format, only the pages it
+ * names are read; otherwise, or when it cannot narrow the query, every page is. Either way the pages are
+ * counted in parallel, so one search no longer costs the sum of its page reads on a shared artifactDir.
  */
 public class StructureSearch {
     private static final Logger LOGGER = LoggerFactory.getLogger(StructureSearch.class);
@@ -42,10 +49,16 @@ public class StructureSearch {
      * unbounded loop over {@code Integer.MAX_VALUE} never terminates at all, since the counter wraps
      * to MIN_VALUE and stays in range. It bounds this loop and nothing else, which is why it lives
      * here rather than in {@link ArtifactReader}: a merged archive or a bulk-exported log really can
-     * run past a hundred thousand pages, and the manifest and page routes serve it page by page.
+     * run past a hundred thousand pages, and the manifest and page routes serve it page by page. An
+     * indexed search walks the pages the index names instead, which the index bounds by itself.
      */
     private static final int MAX_SCANNED_PAGES = 100_000;
 
+    // What count() leaves for a page it did not count: one the budget never let it reach, and one it
+    // reached and could not read. Negative, so no occurrence count can collide with either.
+    private static final int NOT_REACHED = -1;
+    private static final int UNREADABLE = -2;
+
     private final ArtifactReader reader;
     private final Path docArtifactDir;
     private final String extension;
@@ -78,33 +91,86 @@ public class StructureSearch {
         // 1 alone: one unreadable page costs its own count and nothing else, so a document whose
         // first page is missing still answers for the pages after it, and scanned() carries the gap
         // out. No probe either, since a stat asks what these reads already report.
-        Hits hits = scan(entry, total, query);
+        Hits hits = indexedSearch(entry, total, query);
+        if (hits == null) {
+            hits = scan(entry, total, query);
+        }
         return hits.scanned() == 0 ? null : hits;
     }
 
-    // Over five lines on purpose: the loop accumulates three values and skips a fourth case, so the
-    // only way under the limit is a one-caller helper taking the accumulators as parameters, which
-    // hides the algorithm rather than shortening it. Sibling serving code here runs to the same length.
+    // null when there is no usable index, so the caller scans. A page the index does not name holds no
+    // occurrence, so it counts as scanned without a read: the index is swapped in with the pages, and
+    // only its own absence or corruption, caught below, can make it disagree with them.
+    private Hits indexedSearch(ManifestEntry entry, int total, String query) {
+        BitSet candidates = candidates(entry, query);
+        if (candidates == null) {
+            return null;
+        }
+        int[] pages = candidates.stream().filter(page -> page <= total).toArray();
+        return hits(pages, count(entry, pages, query), total - pages.length, total, total);
+    }
+
     private Hits scan(ManifestEntry entry, int total, String query) {
+        int last = Math.min(total, MAX_SCANNED_PAGES);
+        int[] pages = IntStream.rangeClosed(1, last).toArray();
+        return hits(pages, count(entry, pages, query), 0, last, total);
+    }
+
+    // Only the index of the requested format, by the name the manifest records: an index of the xhtml
+    // pages, or one a producer recorded under another name, would narrow the search to the wrong pages.
+    private BitSet candidates(ManifestEntry entry, String query) {
+        String index = entry.pages().index();
+        if (index == null || !index.equals(ArtifactPath.indexFilename(extension))) {
+            return null;
+        }
+        try {
+            return StructurePostings.candidates(ArtifactPath.payloadIndex(docArtifactDir, TYPE, extension), query);
+        } catch (IOException unreadable) {
+            LOGGER.warn("'{}' index in {} could not be read, scanning every page instead", TYPE.token(),
+                    docArtifactDir, unreadable);
+            return null;
+        }
+    }
+
+    // In parallel, each page checking the deadline before its read, so a budget that runs out leaves
+    // the pages nobody reached as NOT_REACHED rather than cutting a read short. Subtraction rather than
+    // a plain comparison, so a nanoTime wrap cannot end the scan early.
+    private int[] count(ManifestEntry entry, int[] pages, String query) {
+        int[] counts = new int[pages.length];
+        long deadline = System.nanoTime() + scanBudget.toNanos();
+        IntStream.range(0, pages.length).parallel().forEach(index -> {
+            if (System.nanoTime() - deadline >= 0) {
+                counts[index] = NOT_REACHED;
+                return;
+            }
+            Integer count = countPage(entry, pages[index], query);
+            counts[index] = count == null ? UNREADABLE : count;
+        });
+        return counts;
+    }
+
+    // Back in page order whatever order the counts came in. `answered` pages are known to hold no
+    // occurrence without a read, which is what an index tells of the pages it does not name.
+    private Hits hits(int[] pages, int[] counts, int answered, int last, int total) {
         List<PageHits> hits = new ArrayList<>();
         int matches = 0;
-        // Subtraction rather than a plain comparison, so a nanoTime wrap cannot end the scan early.
-        long deadline = System.nanoTime() + scanBudget.toNanos();
-        int last = Math.min(total, MAX_SCANNED_PAGES);
-        int scanned = 0;
-        int page = 1;
-        for (; page <= last && System.nanoTime() - deadline < 0; page++) {
-            Integer count = countPage(entry, page, query);
-            if (count == null) {
+        int reached = answered;
+        int scanned = answered;
+        for (int index = 0; index < pages.length; index++) {
+            if (counts[index] == NOT_REACHED) {
+                continue;
+            }
+            reached++;
+            if (counts[index] == UNREADABLE) {
                 continue;
             }
             scanned++;
-            if (count > 0) {
-                matches += count;
-                hits.add(new PageHits(page, count));
+            if (counts[index] > 0) {
+                matches += counts[index];
+                hits.add(new PageHits(pages[index], counts[index]));
             }
         }
-        reportIncompleteScan(scanned, page - 1, last, total);
+        reportIncompleteScan(scanned, reached, last, total);
         return new Hits(matches, total, scanned, hits);
     }
 
@@ -7,12 +7,16 @@ import java.util.Locale;
 /** Content-addressed on-disk layout for per-document artifacts under artifactDir. */
 public class ArtifactPath {
     public static final String MANIFEST_FILE = "manifest.json";
+    // The project-wide manifest store selected by --artifactsManifestStore=log, at the project root.
+    public static final String MANIFEST_LOG_FILE = "manifests.log";
     // extract-lib's EmbeddedArtifactWriter owns these names: the raw payload and its sidecar.
     public static final String RAW_FILE = "raw";
     public static final String RAW_SIDECAR_FILE = "raw.json";
     public static final String STRUCTURE_DIR = "structure";
     public static final String PAGES_DIR = "pages";
     public static final String PAGES_CONTENT_FILE = "content.txt";
+    // extract-lib's page indices of the indexed content, as the live /documents/pages route returns them.
+    public static final String PAGE_OFFSETS_FILE = "offsets.json";
 
     private ArtifactPath() {}
 
@@ -27,6 +31,11 @@ public class ArtifactPath {
         return projectRoot.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
     }
 
+    /** The project root a {@link #dir} was resolved under: the inverse of that join. */
+    public static Path projectRootOf(Path docArtifactDir) {
+        return docArtifactDir.getParent().getParent().getParent();
+    }
+
     /** The per-document manifest.json path. */
     public static Path manifest(Path projectRoot, String digest) {
         return dir(projectRoot, digest).resolve(MANIFEST_FILE);
@@ -47,6 +56,23 @@ public class ArtifactPath {
         return payloadDir(docArtifactDir, type).resolve("content." + extension);
     }
 
+    /** The term to page index of one format of a filesystem-paginated payload, next to its pages. */
+    public static Path payloadIndex(Path docArtifactDir, ArtifactType type, String extension) {
+        return payloadDir(docArtifactDir, type).resolve(indexFilename(extension));
+    }
+
+    /** The page to character range table of a paginated payload, next to its pages. */
+    public static Path payloadOffsets(Path docArtifactDir, ArtifactType type) {
+        return payloadDir(docArtifactDir, type).resolve(PAGE_OFFSETS_FILE);
+    }
+
+    /** Just the index filename, as {@link #pageFilename} is for a page: the manifest records it, and the
+     *  producer writes it under its staging directory. No "page-" prefix, so nothing listing pages
+     *  mistakes it for one. */
+    public static String indexFilename(String extension) {
+        return "postings-" + extension + ".idx";
+    }
+
     /** Just the filename, for a caller writing pages under a directory other than the final payload
      *  one (the producer's atomic-swap temp directory). Unpadded, so a reader formats the name from a
      *  page number without knowing a width. {@link Locale#ROOT} so the default locale cannot decide the
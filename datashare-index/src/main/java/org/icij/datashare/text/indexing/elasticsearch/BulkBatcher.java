@@ -0,0 +1,195 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Groups items in batches sent by {@link #send(List)} from a dedicated pool.
+ *
+ * <p>A batch is sent when it reaches {@code maxActions} items or {@code maxBytes} estimated bytes, when
+ * {@code flushInterval} elapses, or on {@link #flush()}. A writer only blocks when
+ * {@code maxConcurrentRequests} batches are already being sent, which bounds the heap held by the items
+ * waiting to be sent.</p>
+ *
+ * <p>A batch is numbered and recorded as outstanding when it leaves the buffer, before it gets a sending
+ * slot, so that a flush running in between still waits for it.</p>
+ */
+abstract class BulkBatcher<T> implements Closeable {
+    private final String name;
+    private final int maxActions;
+    private final long maxBytes;
+    private final Semaphore inFlight;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService timer;
+
+    private List<T> batch = new ArrayList<>();
+    private long batchBytes = 0;
+    private long nextBatch = 0;
+    private final Map<Long, List<T>> outstanding = new HashMap<>();
+
+    BulkBatcher(String name, int maxActions, long maxBytes, Duration flushInterval, int maxConcurrentRequests) {
+        if (maxActions < 1 || maxBytes < 1 || maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("bulk size, bytes and concurrency should be strictly positive");
+        }
+        this.name = name;
+        this.maxActions = maxActions;
+        this.maxBytes = maxBytes;
+        this.inFlight = new Semaphore(maxConcurrentRequests);
+        this.senders = Executors.newFixedThreadPool(maxConcurrentRequests, daemonThreads(name + "-flusher"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads(name + "-timer"));
+        if (!flushInterval.isZero() && !flushInterval.isNegative()) {
+            long intervalMs = flushInterval.toMillis();
+            timer.scheduleWithFixedDelay(this::flushAsync, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Sends a batch. Called from the pool, or from the writer when the pool cannot take it. */
+    protected abstract void send(List<T> items);
+
+    /** Sends the current batch and waits until every item added before has been sent. */
+    public void flush() throws IOException {
+        flush(item -> true);
+    }
+
+    /**
+     * Waits until the {@code selected} items added so far have been sent, sending the current batch first
+     * if it holds some. The batches without any of them are not waited for.
+     */
+    void flush(Predicate<? super T> selected) throws IOException {
+        Batch<T> toSend = null;
+        Set<Long> awaited = new HashSet<>();
+        synchronized (this) {
+            outstanding.forEach((seq, items) -> {
+                if (items.stream().anyMatch(selected)) {
+                    awaited.add(seq);
+                }
+            });
+            if (batch.stream().anyMatch(selected)) {
+                toSend = swap();
+                awaited.add(toSend.seq());
+            }
+        }
+        if (toSend != null) {
+            submit(toSend);
+        }
+        await(awaited);
+    }
+
+    @Override
+    public void close() throws IOException {
+        timer.shutdownNow();
+        try {
+            flush();
+        } finally {
+            senders.shutdown();
+        }
+    }
+
+    void enqueue(List<? extends T> items, long estimatedBytes) {
+        Batch<T> full = null;
+        synchronized (this) {
+            batch.addAll(items);
+            batchBytes += estimatedBytes;
+            if (batch.size() >= maxActions || batchBytes >= maxBytes) {
+                full = swap();
+            }
+        }
+        if (full != null) {
+            submit(full);
+        }
+    }
+
+    private void flushAsync() {
+        Batch<T> toSend;
+        synchronized (this) {
+            toSend = batch.isEmpty() ? null : swap();
+        }
+        if (toSend != null) {
+            submit(toSend);
+        }
+    }
+
+    private Batch<T> swap() {
+        Batch<T> swapped = new Batch<>(nextBatch++, batch);
+        outstanding.put(swapped.seq(), swapped.items());
+        batch = new ArrayList<>();
+        batchBytes = 0;
+        return swapped;
+    }
+
+    private synchronized void await(Set<Long> batches) throws IOException {
+        try {
+            while (outstanding.keySet().stream().anyMatch(batches::contains)) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while flushing " + name, e);
+        }
+    }
+
+    private synchronized void sent(Batch<T> batch) {
+        outstanding.remove(batch.seq());
+        notifyAll();
+    }
+
+    private void submit(Batch<T> toSend) {
+        try {
+            // back-pressure: the writer waits for a free slot rather than piling up batches in memory
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // nothing is lost: the batch is sent synchronously on the interrupted thread
+            sendNow(toSend);
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                try {
+                    sendNow(toSend);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // added while closed: sent by the writer rather than dropped
+            inFlight.release();
+            sendNow(toSend);
+        }
+    }
+
+    private void sendNow(Batch<T> toSend) {
+        try {
+            send(toSend.items());
+        } finally {
+            sent(toSend);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Batch<T>(long seq, List<T> items) {}
+}
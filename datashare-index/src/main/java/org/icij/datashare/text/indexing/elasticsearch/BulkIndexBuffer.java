@@ -0,0 +1,113 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import org.icij.datashare.Entity;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Optional.ofNullable;
+import static org.icij.datashare.text.Hasher.shorten;
+
+/**
+ * Accumulates entities written by the INDEX stage and sends them to the index as bulk requests.
+ *
+ * <p>A batch is sent when it reaches {@code maxActions} entities or {@code maxBytes} estimated bytes,
+ * when {@code flushInterval} elapses, or when {@link #flush()} or {@link #flush(String)} is called. Batches are sent from a
+ * dedicated pool, so a writer only blocks when {@code maxConcurrentRequests} bulk requests are already
+ * in flight, letting the parse run ahead of the round trip.</p>
+ *
+ * <p>Each entity carries an optional callback run once it is acknowledged by the index, so that work
+ * depending on the document being searchable (enqueueing it for the next stage) never runs before it.</p>
+ */
+public class BulkIndexBuffer extends BulkBatcher<BulkIndexBuffer.Pending> {
+    private static final Logger logger = LoggerFactory.getLogger(BulkIndexBuffer.class);
+    private static final Runnable NOOP = () -> {};
+
+    private final Indexer indexer;
+    private final String indexName;
+    // written but not yet acknowledged entities, so that a writer can see its own pending writes
+    // (duplicate detection compares a new root with the roots still in a batch)
+    private final Map<String, Entity> unacknowledged = new ConcurrentHashMap<>();
+
+    public BulkIndexBuffer(Indexer indexer, String indexName, int maxActions, long maxBytes, Duration flushInterval, int maxConcurrentRequests) {
+        super("bulk", maxActions, maxBytes, flushInterval, maxConcurrentRequests);
+        this.indexer = indexer;
+        this.indexName = indexName;
+        logger.info("bulk buffer for index {} defined with {} actions, {} bytes, {} flush interval and {} concurrent request(s)",
+                indexName, maxActions, maxBytes, flushInterval, maxConcurrentRequests);
+    }
+
+    public <T extends Entity> void add(T entity, long estimatedBytes) {
+        add(entity, estimatedBytes, NOOP);
+    }
+
+    public <T extends Entity> void add(T entity, long estimatedBytes, Runnable onIndexed) {
+        unacknowledged.put(entity.getId(), entity);
+        enqueue(List.of(new Pending(entity, ofNullable(onIndexed).orElse(NOOP))), estimatedBytes);
+    }
+
+    /** Returns an entity that has been added but not yet acknowledged by the index. */
+    public Optional<Entity> pending(String id) {
+        return ofNullable(unacknowledged.get(id));
+    }
+
+    /**
+     * Waits until the documents of the {@code rootId} family added so far have been sent to the index,
+     * sending the current batch first if it holds some. The batches of other roots are not waited for.
+     */
+    public void flush(String rootId) throws IOException {
+        flush(pending -> pending.entity instanceof Document document && rootId.equals(document.getRootDocument()));
+    }
+
+    @Override
+    protected void send(List<Pending> toSend) {
+        long before = System.currentTimeMillis();
+        List<Entity> entities = toSend.stream().map(p -> p.entity).toList();
+        boolean allIndexed;
+        try {
+            allIndexed = indexer.bulkAdd(indexName, entities);
+        } catch (IOException | RuntimeException e) {
+            logger.error("bulk request of {} entities to {} failed", entities.size(), indexName, e);
+            allIndexed = false;
+        }
+        if (allIndexed) {
+            toSend.forEach(this::acknowledge);
+            logger.info("{} entities bulk added to {} in {}ms", entities.size(), indexName, System.currentTimeMillis() - before);
+            return;
+        }
+        // the bulk response only tells that some items failed: index them one by one so that each
+        // failure is reported and every other entity still reaches the index and the next stage
+        AtomicInteger failed = new AtomicInteger();
+        for (Pending pending : toSend) {
+            try {
+                indexer.add(indexName, pending.entity);
+                acknowledge(pending);
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                unacknowledged.remove(pending.entity.getId(), pending.entity);
+                logger.error("failed to index {} in {}", shorten(pending.entity.getId(), 4), indexName, e);
+            }
+        }
+        logger.warn("bulk of {} entities to {} retried one by one: {} failed", entities.size(), indexName, failed.get());
+    }
+
+    private void acknowledge(Pending pending) {
+        unacknowledged.remove(pending.entity.getId(), pending.entity);
+        try {
+            pending.onIndexed.run();
+        } catch (RuntimeException e) {
+            logger.error("callback failed for indexed entity {}", shorten(pending.entity.getId(), 4), e);
+        }
+    }
+
+    record Pending(Entity entity, Runnable onIndexed) {}
+}
@@ -0,0 +1,172 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.icij.datashare.Entity;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+import static java.util.Optional.ofNullable;
+import static org.icij.datashare.text.indexing.ScrollQueryBuilder.createScrollQuery;
+
+/**
+ * Resolves the indexed path of root documents, to tell a re-indexed document from a duplicate.
+ *
+ * <p>Lookups go through three stages, cheapest first:</p>
+ * <ol>
+ *     <li>a bounded cache of the roots recently looked up or written by this spewer;</li>
+ *     <li>an optional Bloom filter of the ids present in the index, preloaded with {@link #preload}:
+ *     an id it has never seen is new, and no request is made;</li>
+ *     <li>a multi-get shared by concurrent callers: the first caller fetches every lookup queued at
+ *     that time in one request, while the others wait for their answer (group commit).</li>
+ * </ol>
+ *
+ * <p>The Bloom filter is only as fresh as its preload, plus the roots written through this detector.
+ * Documents written in the meantime by another worker are missed, as they already could be between
+ * the former existence check and the write.</p>
+ */
+class DuplicateDetector {
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateDetector.class);
+    static final int DEFAULT_CACHE_SIZE = 100_000;
+    static final int DEFAULT_BATCH_SIZE = 256;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final int BLOOM_MIN_HEADROOM = 100_000;
+    private static final String PRELOAD_SCROLL_DURATION = "60000ms";
+    private static final int PRELOAD_SCROLL_SIZE = 5_000;
+
+    private final Indexer indexer;
+    private final String indexName;
+    private final int batchSize;
+    private final Cache<String, String> paths;
+    private final BlockingQueue<Lookup> lookups = new LinkedBlockingQueue<>();
+    private final Object fetchLock = new Object();
+    private volatile BloomFilter<CharSequence> indexedIds;
+
+    DuplicateDetector(Indexer indexer, String indexName) {
+        this(indexer, indexName, DEFAULT_CACHE_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    DuplicateDetector(Indexer indexer, String indexName, int cacheSize, int batchSize) {
+        this.indexer = indexer;
+        this.indexName = indexName;
+        this.batchSize = batchSize;
+        this.paths = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    String indexName() {
+        return indexName;
+    }
+
+    /** True when a root with this id is indexed under another path. */
+    boolean isDuplicate(String id, Path path) throws IOException {
+        return indexedPath(id).map(indexed -> !indexed.equals(path.toString())).orElse(false);
+    }
+
+    /** True when a root with this id is indexed, whatever its path. */
+    boolean exists(String id) throws IOException {
+        return indexedPath(id).isPresent();
+    }
+
+    /** Records a root written by the spewer, so that later lookups for its id need no request. */
+    void indexed(String id, Path path) {
+        paths.put(id, path.toString());
+        BloomFilter<CharSequence> filter = indexedIds;
+        if (filter != null) {
+            filter.put(id);
+        }
+    }
+
+    /**
+     * Loads the ids of the documents already in the index into a Bloom filter, with a scroll over
+     * their ids. Until it returns, lookups keep going to the index.
+     */
+    long preload() throws IOException {
+        long count = indexer.count(indexName);
+        BloomFilter<CharSequence> filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                count + Math.max(count / 2, BLOOM_MIN_HEADROOM), BLOOM_FALSE_POSITIVE_RATE);
+        Indexer.Searcher searcher = indexer.search(singletonList(indexName), Document.class).withSource("path").limit(PRELOAD_SCROLL_SIZE);
+        long loaded = 0;
+        List<? extends Entity> page;
+        try {
+            do {
+                page = searcher.scroll(createScrollQuery().withDuration(PRELOAD_SCROLL_DURATION).build()).toList();
+                page.forEach(entity -> filter.put(entity.getId()));
+                loaded += page.size();
+            } while (!page.isEmpty());
+        } finally {
+            searcher.clearScroll();
+        }
+        indexedIds = filter;
+        logger.info("preloaded {} document ids of index {} into duplicate filter", loaded, indexName);
+        return loaded;
+    }
+
+    private Optional<String> indexedPath(String id) throws IOException {
+        String cached = paths.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        BloomFilter<CharSequence> filter = indexedIds;
+        if (filter != null && !filter.mightContain(id)) {
+            return Optional.empty();
+        }
+        Optional<String> path = fetch(id);
+        path.ifPresent(p -> paths.put(id, p));
+        return path;
+    }
+
+    private Optional<String> fetch(String id) throws IOException {
+        Lookup lookup = new Lookup(id, new CompletableFuture<>());
+        lookups.add(lookup);
+        synchronized (fetchLock) {
+            // another caller may have fetched our lookup with its own batch while we waited for the lock;
+            // lookups are drained in order, so ours is at most a few batches away
+            while (!lookup.path.isDone()) {
+                fetchQueued();
+            }
+        }
+        try {
+            return lookup.path.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while looking up " + id, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ioe ? ioe : new IOException(e.getCause());
+        }
+    }
+
+    private void fetchQueued() {
+        List<Lookup> batch = new ArrayList<>();
+        lookups.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> ids = batch.stream().map(Lookup::id).distinct().collect(Collectors.toList());
+        try {
+            Map<String, String> indexed = indexer.getPaths(indexName, ids);
+            batch.forEach(l -> l.path.complete(ofNullable(indexed.get(l.id))));
+        } catch (IOException | RuntimeException e) {
+            batch.forEach(l -> l.path.completeExceptionally(e));
+        }
+    }
+
+    private record Lookup(String id, CompletableFuture<Optional<String>> path) {}
+}
@@ -2,11 +2,16 @@ package org.icij.datashare.text.indexing.elasticsearch;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch._types.Script;
 import co.elastic.clients.elasticsearch._types.Refresh;
 import co.elastic.clients.elasticsearch._types.Result;
 import co.elastic.clients.elasticsearch._types.ScriptField;
+import co.elastic.clients.elasticsearch._types.Slices;
+import co.elastic.clients.elasticsearch._types.SlicesCalculation;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregationSource;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.*;
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
@@ -14,8 +19,15 @@ import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
 import co.elastic.clients.elasticsearch.core.bulk.UpdateAction;
 import co.elastic.clients.elasticsearch.core.bulk.UpdateOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.SourceConfigParam;
+import co.elastic.clients.elasticsearch.tasks.CancelRequest;
+import co.elastic.clients.elasticsearch.tasks.GetTasksRequest;
+import co.elastic.clients.elasticsearch.tasks.GetTasksResponse;
 import co.elastic.clients.json.JsonData;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -23,6 +35,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.ContentType;
@@ -34,12 +48,15 @@ import org.elasticsearch.client.RestClient;
 import org.icij.datashare.Entity;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.json.JsonObjectMapper;
+import org.icij.datashare.text.ContentTypeCategory;
+import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.Project;
 import org.icij.datashare.text.Tag;
 import org.icij.datashare.text.indexing.ExtractedText;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.NamedEntitySink;
 import org.icij.datashare.text.indexing.SearchQuery;
 import org.icij.datashare.text.indexing.SearchedText;
 import org.icij.datashare.text.nlp.Pipeline;
@@ -49,12 +66,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static co.elastic.clients.elasticsearch.core.UpdateRequest.Builder;
 import static java.lang.String.format;
@@ -75,6 +97,11 @@ public class ElasticsearchIndexer implements Indexer {
     private final ElasticsearchConfiguration esCfg;
 
     static private final Map<String, String> memoizeScript = new HashMap<>();
+    private static final int CONTENT_TYPES_PAGE_SIZE = 1000;
+    private static final long TASK_POLL_INTERVAL_MS = 1000;
+    private static final String NER_DONE_SCRIPT = "ctx._source.status = params.status; "
+            + "if (ctx._source.nerTags == null) ctx._source.nerTags = []; "
+            + "if (!ctx._source.nerTags.contains(params.nerTag)) ctx._source.nerTags.add(params.nerTag);";
 
     public static Map<String, String> getMemoizeScript() {
         return memoizeScript;
@@ -97,29 +124,7 @@ public class ElasticsearchIndexer implements Indexer {
     @Override
     public boolean bulkAdd(final String indexName, Pipeline.Type nerType, List<NamedEntity> namedEntities, Document parent) throws IOException {
         BulkRequest.Builder bulkRequest = new BulkRequest.Builder();
-
-        String routing = ofNullable(parent.getRootDocument()).orElse(parent.getId());
-        HashMap<String, Object> status = new HashMap<>() {{
-            put("status", Document.Status.DONE);
-        }};
-        bulkRequest.operations(
-            BulkOperation.of(op -> op.update(up -> up.index(indexName)
-                    .id(parent.getId())
-                    .routing(routing)
-                    .action(a -> a.doc(status)))),
-            BulkOperation.of(op -> op.update(up -> up.index(indexName)
-                    .id(parent.getId())
-                    .routing(routing)
-                    .action(a -> a.script(scr -> scr.lang("painless")
-                            .source("if (!ctx._source.nerTags.contains(params.nerTag)) ctx._source.nerTags.add(params.nerTag);")
-                            .params("nerTag", JsonData.of(nerType.toString()))))))
-        );
-
-        for (Entity child : namedEntities) {
-            bulkRequest.operations(op -> op.index(createIndexRequest(indexName, JsonObjectMapper.getType(child), child.getId(),
-                    getJson(child), parent.getId(), routing)));
-        }
-
+        bulkRequest.operations(namedEntityOperations(indexName, nerType, namedEntities, parent));
         bulkRequest.refresh(esCfg.refreshPolicy);
 
         BulkResponse bulkResponse = client.bulk(bulkRequest.build());
@@ -137,10 +142,46 @@ public class ElasticsearchIndexer implements Indexer {
     @Override
     public <T extends Entity> boolean bulkAdd(final String indexName, List<T> objs) throws IOException {
         BulkRequest.Builder bulkRequest = new BulkRequest.Builder();
+        bulkRequest.operations(indexOperations(indexName, objs));
+        return executeBulk(bulkRequest);
+    }
+
+    @Override
+    public NamedEntitySink namedEntitySink(int maxActions, long maxBytes, Duration flushInterval, int maxConcurrentRequests) {
+        return new ElasticsearchNamedEntitySink(this, maxActions, maxBytes, flushInterval, maxConcurrentRequests);
+    }
+
+    /**
+     * Operations indexing the named entities of a document, followed by a single partial update of the
+     * document setting its status to DONE and adding the NER pipeline to its tags.
+     */
+    List<BulkOperation> namedEntityOperations(String indexName, Pipeline.Type nerType, List<NamedEntity> namedEntities, Document parent) {
+        String routing = ofNullable(parent.getRootDocument()).orElse(parent.getId());
+        List<BulkOperation> operations = new ArrayList<>(namedEntities.size() + 1);
+        for (Entity child : namedEntities) {
+            operations.add(BulkOperation.of(op -> op.index(createIndexRequest(indexName, JsonObjectMapper.getType(child), child.getId(),
+                    getJson(child), parent.getId(), routing))));
+        }
+        operations.add(BulkOperation.of(op -> op.update(up -> up.index(indexName)
+                .id(parent.getId())
+                .routing(routing)
+                .action(a -> a.script(scr -> scr.lang("painless")
+                        .source(NER_DONE_SCRIPT)
+                        .params("status", JsonData.of(Document.Status.DONE))
+                        .params("nerTag", JsonData.of(nerType.toString())))))));
+        return operations;
+    }
+
+    <T extends Entity> List<BulkOperation> indexOperations(String indexName, List<T> objs) {
+        List<BulkOperation> operations = new ArrayList<>(objs.size());
         for (T obj : objs) {
-            bulkRequest.operations(op -> op.index(createIndexRequest(indexName, getType(obj), obj.getId(), getJson(obj), getParent(obj), getRoot(obj))));
+            operations.add(BulkOperation.of(op -> op.index(createIndexRequest(indexName, getType(obj), obj.getId(), getJson(obj), getParent(obj), getRoot(obj)))));
         }
-        return executeBulk(bulkRequest);
+        return operations;
+    }
+
+    Refresh refreshPolicy() {
+        return esCfg.refreshPolicy;
     }
 
     @Override
@@ -229,6 +270,27 @@ public class ElasticsearchIndexer implements Indexer {
         return respPath.equals(path.toString());
     }
 
+    @Override
+    public Map<String, String> getPaths(String indexName, List<String> rootIds) throws IOException {
+        Map<String, String> paths = new HashMap<>();
+        if (rootIds.isEmpty()) {
+            return paths;
+        }
+        MgetResponse<ObjectNode> resp = client.mget(MgetRequest.of(m -> m.index(indexName)
+                .ids(rootIds).sourceIncludes(List.of("path"))), ObjectNode.class);
+        for (MultiGetResponseItem<ObjectNode> item : resp.docs()) {
+            if (item.isFailure()) {
+                throw new IOException(format("multi-get of %s in %s failed: %s", item.failure().id(), indexName, item.failure().error().reason()));
+            }
+            if (item.result().found()) {
+                // a root found without a path is still indexed: it keeps an empty path, as exists(index, id, path) did
+                ObjectNode source = item.result().source();
+                paths.put(item.result().id(), source != null && source.hasNonNull("path") ? source.get("path").asText() : "");
+            }
+        }
+        return paths;
+    }
+
     @Override
     public String executeRaw(String method, String url, String rawJson) throws IOException {
         Request request = new Request(method, url.startsWith("/") ? url : "/" + url);
@@ -298,7 +360,6 @@ public class ElasticsearchIndexer implements Indexer {
 
     @Override
     public <T extends Entity> T get(String indexName, String id, String root, List<String> sourceExcludes) {
-        String type = null;
         try {
             final GetRequest req = new GetRequest.Builder()
                     .index(indexName)
@@ -308,18 +369,48 @@ public class ElasticsearchIndexer implements Indexer {
                     .build();
             GetResponse<ObjectNode> resp = client.get(req, ObjectNode.class);
             if (resp.found()) {
-                Map<String, Object> sourceAsMap = JsonObjectMapper.readValue(JsonObjectMapper.writeValueAsString(resp.source()), new TypeReference<>() {});
-                sourceAsMap.put("rootDocument", ofNullable(resp.routing()).orElse(id));
-                type = (String) sourceAsMap.get(esCfg.docTypeField);
-                Class<T> tClass = (Class<T>) Class.forName("org.icij.datashare.text." + type);
-                return JsonObjectMapper.getObject(id, resp.index(), sourceAsMap, tClass);
+                return toEntity(id, resp.index(), resp.routing(), resp.source());
             }
         } catch (IOException e) {
             LOGGER.error("Failed to get entity " + id + " in index " + indexName, e);
+        }
+        return null;
+    }
+
+    @Override
+    public <T extends Entity> Map<String, T> getAll(String indexName, List<DocReference> refs, List<String> sourceExcludes) throws IOException {
+        Map<String, T> entities = new LinkedHashMap<>();
+        if (refs.isEmpty()) {
+            return entities;
+        }
+        MgetResponse<ObjectNode> resp = client.mget(MgetRequest.of(m -> m.index(indexName)
+                .docs(refs.stream().map(ref -> MultiGetOperation.of(op -> op.id(ref.id()).routing(ref.routing()))).toList())
+                .sourceExcludes(sourceExcludes)), ObjectNode.class);
+        for (MultiGetResponseItem<ObjectNode> item : resp.docs()) {
+            if (item.isFailure()) {
+                LOGGER.error("Failed to get entity {} in index {}: {}", item.failure().id(), indexName, item.failure().error().reason());
+            } else if (item.result().found()) {
+                T entity = toEntity(item.result().id(), item.result().index(), item.result().routing(), item.result().source());
+                if (entity != null) {
+                    entities.put(entity.getId(), entity);
+                }
+            }
+        }
+        return entities;
+    }
+
+    private <T extends Entity> T toEntity(String id, String index, String routing, ObjectNode source) {
+        // the source tree is hydrated as is: a round trip through a String and a Map would
+        // copy the content of large documents three times
+        source.put("rootDocument", ofNullable(routing).orElse(id));
+        String type = ofNullable(source.get(esCfg.docTypeField)).map(JsonNode::asText).orElse(null);
+        try {
+            Class<T> tClass = (Class<T>) Class.forName("org.icij.datashare.text." + type);
+            return JsonObjectMapper.getObject(id, index, source, tClass);
         } catch (ClassNotFoundException e) {
             LOGGER.error("No entity for type " + type);
+            return null;
         }
-        return null;
     }
 
     public static String readScriptFile(String painlessFilename) throws IOException {
@@ -489,6 +580,124 @@ public class ElasticsearchIndexer implements Indexer {
         return updateResponse.failures().isEmpty() && updated > 0;
     }
 
+    @Override
+    public List<String> getContentTypes(String indexName) throws IOException {
+        List<String> contentTypes = new ArrayList<>();
+        Map<String, FieldValue> after = null;
+        do {
+            Map<String, FieldValue> afterKey = after;
+            SearchResponse<Void> response = client.search(SearchRequest.of(s -> s.index(indexName).size(0)
+                    .query(q -> q.term(t -> t.field(esCfg.docTypeField).value(getType(Document.class))))
+                    .aggregations("contentTypes", a -> a.composite(c -> {
+                        c.size(CONTENT_TYPES_PAGE_SIZE).sources(Map.of("contentType", CompositeAggregationSource.of(cs -> cs.terms(t -> t.field("contentType")))));
+                        return afterKey == null ? c : c.after(afterKey);
+                    }))), Void.class);
+            CompositeAggregate composite = response.aggregations().get("contentTypes").composite();
+            composite.buckets().array().forEach(bucket -> contentTypes.add(bucket.key().get("contentType").stringValue()));
+            after = composite.buckets().array().isEmpty() ? null : composite.afterKey();
+        } while (after != null);
+        return contentTypes;
+    }
+
+    @Override
+    public long setContentTypeCategory(String indexName, ContentTypeCategory category, List<String> contentTypes, int slices, float requestsPerSecond) throws IOException, InterruptedException {
+        Query query = Query.of(q -> q.bool(b -> {
+            b.filter(f -> f.term(t -> t.field(esCfg.docTypeField).value(getType(Document.class))));
+            b.should(sh -> sh.terms(t -> t.field("contentType").terms(tv -> tv.value(contentTypes.stream().map(FieldValue::of).collect(toList())))));
+            if (category == ContentTypeCategory.OTHER) {
+                b.should(sh -> sh.bool(nb -> nb.mustNot(mn -> mn.exists(e -> e.field("contentType")))));
+            }
+            b.minimumShouldMatch("1");
+            // documents already in the category are not rewritten: running it again only updates new documents
+            b.mustNot(mn -> mn.term(t -> t.field("contentTypeCategory").value(category.name())));
+            return b;
+        }));
+        UpdateByQueryResponse started = client.updateByQuery(UpdateByQueryRequest.of(u -> u.index(indexName)
+                .query(query)
+                .conflicts(Conflicts.Proceed)
+                .script(scr -> scr.lang("painless")
+                        .source("ctx._source.contentTypeCategory = params.category")
+                        .params("category", JsonData.of(category.name())))
+                .slices(slices > 0 ? Slices.of(sl -> sl.value(slices)) : Slices.of(sl -> sl.computed(SlicesCalculation.Auto)))
+                .requestsPerSecond(requestsPerSecond)
+                .refresh(esCfg.refreshPolicy.equals(Refresh.True))
+                .waitForCompletion(false)));
+        return awaitUpdateByQuery(started.task(), rate -> null);
+    }
+
+    @Override
+    public long hideNamedEntities(String indexName, String mentionNorm, int slices, float requestsPerSecond, Function<Double, Void> progress) throws IOException, InterruptedException {
+        Query query = Query.of(q -> q.bool(b -> b
+                .filter(f -> f.term(t -> t.field(esCfg.docTypeField).value(getType(NamedEntity.class))))
+                .filter(f -> f.term(t -> t.field("mentionNorm").value(mentionNorm)))
+                // entities already hidden are not rewritten: hiding a mention again only hides new entities
+                .mustNot(mn -> mn.term(t -> t.field("isHidden").value(true)))));
+        UpdateByQueryResponse started = client.updateByQuery(UpdateByQueryRequest.of(u -> u.index(indexName)
+                .query(query)
+                .conflicts(Conflicts.Proceed)
+                .script(scr -> scr.lang("painless").source("ctx._source.isHidden = true"))
+                .slices(slices > 0 ? Slices.of(sl -> sl.value(slices)) : Slices.of(sl -> sl.computed(SlicesCalculation.Auto)))
+                .requestsPerSecond(requestsPerSecond)
+                .refresh(esCfg.refreshPolicy.equals(Refresh.True))
+                .waitForCompletion(false)));
+        return awaitUpdateByQuery(started.task(), progress);
+    }
+
+    // the update runs as a cluster task: polling it keeps each HTTP request short however long the update,
+    // and lets the caller cancel it
+    private long awaitUpdateByQuery(String taskId, Function<Double, Void> progress) throws IOException, InterruptedException {
+        try {
+            while (true) {
+                GetTasksResponse task = client.tasks().get(GetTasksRequest.of(t -> t.taskId(taskId)));
+                if (task.completed()) {
+                    if (task.error() != null) {
+                        throw new IOException(format("update by query %s failed: %s", taskId, task.error().reason()));
+                    }
+                    JsonObject response = task.response().toJson().asJsonObject();
+                    response.getJsonArray("failures").forEach(failure -> LOGGER.error("update by query {} failure: {}", taskId, failure));
+                    return response.getJsonNumber("updated").longValue();
+                }
+                ofNullable(updateByQueryRate(task)).ifPresent(progress::apply);
+                Thread.sleep(TASK_POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            cancelTask(taskId);
+            throw e;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                cancelTask(taskId);
+            }
+            throw e;
+        }
+    }
+
+    // the status of a running update by query sums its slices: the rate is null until it has counted its
+    // documents, which the first batch of each slice does
+    private Double updateByQueryRate(GetTasksResponse task) {
+        JsonObject status = JsonData.of(task.task()).toJson(client._jsonpMapper()).asJsonObject().getJsonObject("status");
+        if (status == null || status.getJsonNumber("total") == null || status.getJsonNumber("total").longValue() == 0) {
+            return null;
+        }
+        long done = Stream.of("updated", "created", "deleted", "noops", "version_conflicts")
+                .map(status::getJsonNumber).filter(Objects::nonNull).mapToLong(JsonNumber::longValue).sum();
+        return Math.min(1.0, (double) done / status.getJsonNumber("total").longValue());
+    }
+
+    private void cancelTask(String taskId) {
+        // the client fails on an interrupted thread: clear the flag while cancelling
+        boolean interrupted = Thread.interrupted();
+        try {
+            client.tasks().cancel(CancelRequest.of(c -> c.taskId(taskId)));
+            LOGGER.info("cancelled task {}", taskId);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("cannot cancel task {}", taskId, e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private Script createTagScript(Tag[] tags) {
         return new Script.Builder().lang("painless")
                 .source(                "int updates = 0;" +
@@ -532,6 +741,31 @@ public class ElasticsearchIndexer implements Indexer {
                 new ElasticsearchQueryBuilderSearcher(client, indexesNames, entityClass, query);
     }
 
+    @Override
+    public List<Stream<? extends Entity>> multiSearch(List<? extends Searcher> searchers, List<String> stringQueries) throws IOException {
+        List<Stream<? extends Entity>> pages = new ArrayList<>();
+        if (searchers.isEmpty()) {
+            return pages;
+        }
+        List<RequestItem> searches = new ArrayList<>();
+        for (int i = 0; i < searchers.size(); i++) {
+            SearchRequest request = ((ElasticsearchSearcher) searchers.get(i)).firstPageRequest(stringQueries.get(i));
+            searches.add(RequestItem.of(item -> item.header(h -> h.index(request.index()))
+                    .body(b -> b.query(request.query()).size(request.size()).source(request.source())
+                            .sort(request.sort()).timeout(request.timeout()))));
+        }
+        MsearchResponse<ObjectNode> response = client.msearch(MsearchRequest.of(m -> m.searches(searches)), ObjectNode.class);
+        for (int i = 0; i < searchers.size(); i++) {
+            MultiSearchResponseItem<ObjectNode> item = response.responses().get(i);
+            if (item.isFailure()) {
+                throw new ElasticsearchException("msearch", item.failure());
+            }
+            ElasticsearchSearcher searcher = (ElasticsearchSearcher) searchers.get(i);
+            pages.add(searcher.firstPage(item.result()));
+        }
+        return pages;
+    }
+
     @Override
     public boolean createIndex(final String indexName) {
         return ElasticsearchConfiguration.createIndex(client, indexName);
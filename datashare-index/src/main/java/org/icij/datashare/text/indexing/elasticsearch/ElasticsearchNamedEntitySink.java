@@ -0,0 +1,174 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.NamedEntity;
+import org.icij.datashare.text.indexing.NamedEntitySink;
+import org.icij.datashare.text.nlp.Pipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Groups the named entities written by NLP tasks, and the updates marking their documents as processed,
+ * in bulk requests shared by documents.
+ *
+ * <p>A bulk request is sent when it reaches {@code maxActions} operations or {@code maxBytes} estimated
+ * bytes, when {@code flushInterval} elapses, or on {@link #flush()}, with at most
+ * {@code maxConcurrentRequests} requests in flight. Operations rejected by a full cluster (429) are sent
+ * again with an exponential backoff; other failed operations are logged one by one and counted in
+ * {@link #failures()}.</p>
+ *
+ * <p>Bulk requests do not refresh the index: with a refresh policy other than {@code false}, the indices
+ * written to are refreshed once by {@link #flush()}.</p>
+ */
+public class ElasticsearchNamedEntitySink extends BulkBatcher<BulkOperation> implements NamedEntitySink {
+    private static final Logger logger = LoggerFactory.getLogger(ElasticsearchNamedEntitySink.class);
+    static final int TOO_MANY_REQUESTS = 429;
+    static final int MAX_RETRIES = 5;
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(200);
+    // id, routing and join fields of an entity, on top of its mention
+    private static final int ENTITY_OVERHEAD_BYTES = 512;
+
+    private final ElasticsearchIndexer indexer;
+    private final Duration initialBackoff;
+    private final Set<String> written = ConcurrentHashMap.newKeySet();
+    private final AtomicLong failures = new AtomicLong();
+
+    ElasticsearchNamedEntitySink(ElasticsearchIndexer indexer, int maxActions, long maxBytes, Duration flushInterval, int maxConcurrentRequests) {
+        this(indexer, maxActions, maxBytes, flushInterval, maxConcurrentRequests, INITIAL_BACKOFF);
+    }
+
+    ElasticsearchNamedEntitySink(ElasticsearchIndexer indexer, int maxActions, long maxBytes, Duration flushInterval, int maxConcurrentRequests, Duration initialBackoff) {
+        super("ner-bulk", maxActions, maxBytes, flushInterval, maxConcurrentRequests);
+        this.indexer = indexer;
+        this.initialBackoff = initialBackoff;
+        logger.info("named entity sink defined with {} actions, {} bytes, {} flush interval and {} concurrent request(s)",
+                maxActions, maxBytes, flushInterval, maxConcurrentRequests);
+    }
+
+    @Override
+    public void add(String indexName, List<NamedEntity> namedEntities) {
+        written.add(indexName);
+        enqueue(indexer.indexOperations(indexName, namedEntities), estimatedBytes(namedEntities));
+    }
+
+    @Override
+    public void add(String indexName, Pipeline.Type nerType, List<NamedEntity> namedEntities, Document parent) {
+        written.add(indexName);
+        enqueue(indexer.namedEntityOperations(indexName, nerType, namedEntities, parent),
+                estimatedBytes(namedEntities) + ENTITY_OVERHEAD_BYTES);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        super.flush();
+        if (indexer.refreshPolicy() != Refresh.False && !written.isEmpty()) {
+            List<String> indices = new ArrayList<>(written);
+            written.removeAll(indices);
+            indexer.client.indices().refresh(r -> r.index(indices));
+        }
+    }
+
+    @Override
+    public long failures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (failures.get() > 0) {
+            logger.warn("{} named entity operation(s) could not be indexed", failures.get());
+        }
+    }
+
+    @Override
+    protected void send(List<BulkOperation> operations) {
+        List<BulkOperation> toSend = operations;
+        long backoffMs = initialBackoff.toMillis();
+        for (int attempt = 0; ; attempt++) {
+            long before = System.currentTimeMillis();
+            List<BulkOperation> rejected;
+            try {
+                List<BulkOperation> requestOperations = toSend;
+                BulkResponse response = indexer.client.bulk(BulkRequest.of(b -> b.operations(requestOperations).refresh(Refresh.False)));
+                rejected = response.errors() ? failedItems(toSend, response.items()) : List.of();
+                logger.info("{} named entity operations bulk sent in {}ms", toSend.size(), System.currentTimeMillis() - before);
+            } catch (ElasticsearchException e) {
+                if (e.status() != TOO_MANY_REQUESTS) {
+                    fail(toSend, e);
+                    return;
+                }
+                rejected = toSend;
+            } catch (IOException | RuntimeException e) {
+                fail(toSend, e);
+                return;
+            }
+            if (rejected.isEmpty()) {
+                return;
+            }
+            if (attempt >= MAX_RETRIES) {
+                logger.error("{} named entity operations still rejected after {} retries", rejected.size(), MAX_RETRIES);
+                failures.addAndGet(rejected.size());
+                return;
+            }
+            logger.warn("{} named entity operations rejected by the cluster, retrying in {}ms", rejected.size(), backoffMs);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("interrupted before sending {} rejected named entity operations again", rejected.size());
+                failures.addAndGet(rejected.size());
+                return;
+            }
+            backoffMs *= 2;
+            toSend = rejected;
+        }
+    }
+
+    // returns the operations rejected with a 429 (the items of a bulk response are in request order), and
+    // reports the other failures
+    private List<BulkOperation> failedItems(List<BulkOperation> sent, List<BulkResponseItem> items) {
+        List<BulkOperation> rejected = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                continue;
+            }
+            if (item.status() == TOO_MANY_REQUESTS) {
+                rejected.add(sent.get(i));
+            } else {
+                failures.incrementAndGet();
+                logger.error("{} of {} in {} failed ({}): {}", item.operationType(), item.id(), item.index(),
+                        item.status(), item.error().reason());
+            }
+        }
+        return rejected;
+    }
+
+    private void fail(List<BulkOperation> operations, Exception e) {
+        failures.addAndGet(operations.size());
+        logger.error("bulk request of {} named entity operations failed", operations.size(), e);
+    }
+
+    private static long estimatedBytes(List<NamedEntity> namedEntities) {
+        long bytes = 0;
+        for (NamedEntity namedEntity : namedEntities) {
+            bytes += ENTITY_OVERHEAD_BYTES + 2L * namedEntity.getMention().length() + 8L * namedEntity.getOffsets().size();
+        }
+        return bytes;
+    }
+}
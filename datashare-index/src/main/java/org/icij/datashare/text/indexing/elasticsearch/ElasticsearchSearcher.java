@@ -17,11 +17,12 @@ import java.util.Objects;
 import org.icij.datashare.Entity;
 import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.text.indexing.Indexer;
-import org.icij.datashare.utils.JsonUtils;
 
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -65,7 +66,7 @@ class ElasticsearchSearcher implements Indexer.Searcher {
     }
 
     static <T extends Entity> T hitToObject(Hit<ObjectNode> searchHit, Class<T> cls) {
-        return JsonObjectMapper.getObject(searchHit.id(), searchHit.index(), JsonUtils.nodeToMap(searchHit.source()), cls);
+        return JsonObjectMapper.getObject(searchHit.id(), searchHit.index(), searchHit.source(), cls);
     }
 
     @Override
@@ -143,6 +144,34 @@ class ElasticsearchSearcher implements Indexer.Searcher {
         return resultStream(this.cls, () -> response.hits().hits().iterator());
     }
 
+    // the request of the first page of the query built as scroll() builds it, without the scroll context,
+    // for ElasticsearchIndexer.multiSearch: the searcher cannot be used for another request afterwards
+    SearchRequest firstPageRequest(String stringQuery) throws JsonException {
+        BoolQuery.Builder boolQueryBuilder = getBoolQueryBuilder(queryAsString(stringQuery));
+        return sourceBuilder.index(indexesNames).query(q -> q.bool(boolQueryBuilder.build())).build();
+    }
+
+    Stream<? extends Entity> firstPage(ResponseBody<ObjectNode> response) {
+        totalHits = ofNullable(response.hits().total()).map(total -> total.value()).orElse(0L);
+        return resultStream(this.cls, () -> response.hits().hits().iterator());
+    }
+
+    @Override
+    public Stream<? extends Entity> searchAfter(PointInTimeQuery query) throws IOException {
+        BoolQuery.Builder boolQueryBuilder = getBoolQueryBuilder(queryAsString(query.getStringQuery()));
+        // the indices are those of the point in time: a search request with a PIT must not name them
+        sourceBuilder.query(q -> q.bool(boolQueryBuilder.build()));
+        if (query.getNbSlices() > 1) {
+            sourceBuilder.slice(s -> s.id(String.valueOf(query.getNumSlice())).max(query.getNbSlices()));
+        }
+        PointInTimeIterator hits = new PointInTimeIterator(client, indexesNames, sourceBuilder.build(), query.getKeepAlive(),
+                query.getCheckpoint(), query.getOnCheckpoint());
+        totalHits = hits.totalHits();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(hits, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(hits::close)
+                .map(hit -> hitToObject(hit, this.cls));
+    }
+
     @Override
     public Indexer.Searcher withSource(String... fields) {
         sourceBuilder.source(s -> s.filter(f -> f.includes(stream(fields).collect(Collectors.toList()))));
@@ -13,6 +13,7 @@ import org.icij.extract.queue.DocumentQueue;
 import org.icij.spewer.FieldNames;
 import org.icij.spewer.Spewer;
 import org.icij.task.Options;
+import org.icij.time.HumanDuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,15 +24,24 @@ import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 
 import static java.lang.System.currentTimeMillis;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static java.util.Optional.ofNullable;
 import static org.apache.tika.metadata.HttpHeaders.*;
 import static org.icij.datashare.PropertiesProvider.DEFAULT_PROJECT_OPT;
 import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_DEFAULT_PROJECT;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_INDEX_BULK_CONCURRENCY;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_INDEX_BULK_FLUSH_INTERVAL;
+import static org.icij.datashare.cli.DatashareCliOptions.DEFAULT_INDEX_BULK_MAX_BYTES;
+import static org.icij.datashare.cli.DatashareCliOptions.INDEX_BULK_CONCURRENCY_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.INDEX_BULK_FLUSH_INTERVAL_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.INDEX_BULK_MAX_BYTES_OPT;
+import static org.icij.datashare.cli.DatashareCliOptions.INDEX_BULK_SIZE_OPT;
 import static org.icij.datashare.text.Hasher.shorten;
 
 public class ElasticsearchSpewer extends Spewer implements Serializable {
@@ -44,6 +54,10 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
     private static final int MAX_CONTENT_LENGTH = Integer.MAX_VALUE - 8;
     private static final int READ_CHUNK_SIZE = 8192;
 
+    // Rough per-entity size of everything but the content (metadata, path, join fields), used only to
+    // weigh a document against the bulk byte budget.
+    private static final int ENTITY_OVERHEAD_BYTES = 1024;
+
     static final String PST_ATTACHMENT_RECOVERY = "tika:pst_attachment_recovery";
     static final String PST_EXPECTED = "tika:pst_expected";
     static final String PST_EMITTED = "tika:pst_emitted";
@@ -115,6 +129,10 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
     public String indexName;
     // volatile: set by the task thread before the pipeline starts, read by every consumer thread
     private volatile ManifestRecorder manifestRecorder;
+    // null unless indexBulkSize > 1: documents are then written through bulk requests
+    private volatile BulkIndexBuffer bulkBuffer;
+    // bound to indexName, replaced with it
+    private volatile DuplicateDetector duplicates;
 
     @Inject
     public ElasticsearchSpewer(final Indexer indexer, DocumentCollectionFactory<String> outputQueueFactory, LanguageGuesser languageGuesser, final FieldNames fields,
@@ -125,7 +143,7 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
         this.maxContentLength = getMaxContentLength(propertiesProvider);
         this.digestAlgorithm = getDigestAlgorithm(propertiesProvider);
         this.outputQueue = outputQueueFactory.createQueue(new PipelineHelper(propertiesProvider).getOutputQueueNameFor(Stage.INDEX), String.class);
-        this.indexName = propertiesProvider.get(DEFAULT_PROJECT_OPT).orElse(DEFAULT_DEFAULT_PROJECT);
+        setIndex(propertiesProvider.get(DEFAULT_PROJECT_OPT).orElse(DEFAULT_DEFAULT_PROJECT));
         logger.info("spewer defined with {}", indexer);
     }
 
@@ -140,28 +158,73 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
         if (parent == null && isDuplicate(doc.getId(), doc.getPath())) {
             doc.setDuplicate(true);
             copy(doc.getReader(), OutputStream.nullOutputStream()); // flush document content reader
-            indexer.add(indexName, new Duplicate(doc.getPath(), doc.getId(), digestAlgorithm));
+            index(new Duplicate(doc.getPath(), doc.getId(), digestAlgorithm), ENTITY_OVERHEAD_BYTES, null);
             docType = "Duplicate";
         } else {
             Document document = getDocument(doc, root, parent, (short) level);
-            indexer.add(indexName, document);
-            if (manifestRecorder != null) {
-                try {
-                    manifestRecorder.record(document);
-                } catch (Exception e) {
-                    // Mirror the ARTIFACT stage (ArtifactProducer.produce): a manifest-write failure
-                    // must not abort indexing of an already-indexed document, which would orphan a
-                    // container's children. Log and continue.
-                    logger.error("failed to record artifact manifest for {}", document.getId(), e);
+            // The next stage fetches the document from the index: with a bulk buffer the reference is
+            // only enqueued once the bulk holding the document has been acknowledged. Its manifest entry is
+            // recorded before, so that the next stage never sees a document without its entry.
+            String queueEntry = DocReference.fromDocument(document).toQueueEntry();
+            index(document, ENTITY_OVERHEAD_BYTES + (long) document.getContent().length(), () -> {
+                recordManifest(document);
+                if (!outputQueue.offer(queueEntry)) {
+                    logger.warn("cannot offer {} to queue {}", queueEntry, outputQueue.getName());
                 }
+            });
+            if (parent == null) {
+                duplicates.indexed(document.getId(), document.getPath());
             }
-            String queueEntry = DocReference.fromDocument(document).toQueueEntry();
-            if (!outputQueue.offer(queueEntry)) {
-                logger.warn("cannot offer {} to queue {}", queueEntry, outputQueue.getName());
+        }
+        logger.info("{} {} {} elasticsearch in {}ms: {}", docType, shorten(doc.getId(), 4),
+                bulkBuffer == null ? "added to" : "buffered for", currentTimeMillis() - before, doc);
+    }
+
+    private void recordManifest(Document document) {
+        if (manifestRecorder != null) {
+            try {
+                manifestRecorder.record(document);
+            } catch (Exception e) {
+                // Mirror the ARTIFACT stage (ArtifactProducer.produce): a manifest-write failure
+                // must not abort indexing of an already-indexed document, which would orphan a
+                // container's children. Log and continue.
+                logger.error("failed to record artifact manifest for {}", document.getId(), e);
+            }
+        }
+    }
+
+    // Writes the entity right away, or hands it to the bulk buffer when one is configured. onIndexed
+    // runs once the entity is in the index, on the flushing thread in the bulk case.
+    private <T extends Entity> void index(T entity, long estimatedBytes, Runnable onIndexed) throws IOException {
+        BulkIndexBuffer buffer = bulkBuffer;
+        if (buffer == null) {
+            indexer.add(indexName, entity);
+            if (onIndexed != null) {
+                onIndexed.run();
             }
+        } else {
+            buffer.add(entity, estimatedBytes, onIndexed);
+        }
+    }
+
+    /**
+     * Waits until every document written so far is in the index. A no-op without a bulk buffer, as
+     * documents are then written synchronously.
+     */
+    public void flush() throws IOException {
+        BulkIndexBuffer buffer = bulkBuffer;
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /** Flushes and releases the bulk buffer threads; subsequent writes go straight to the index. */
+    public void closeBulkBuffer() throws IOException {
+        BulkIndexBuffer buffer = bulkBuffer;
+        bulkBuffer = null;
+        if (buffer != null) {
+            buffer.close();
         }
-        logger.info("{} {} added to elasticsearch in {}ms: {}", docType,
-                shorten(doc.getId(), 4), currentTimeMillis() - before, doc);
     }
 
     @Override
@@ -196,7 +259,8 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
                 .with(Document.RecoveryStatus.PARTIAL)
                 .withNbChildrenEmitted((int) Math.min(writtenChildren, Integer.MAX_VALUE))
                 .build();
-        indexer.add(indexName, document);
+        index(document, ENTITY_OVERHEAD_BYTES, null);
+        duplicates.indexed(document.getId(), document.getPath());
         logger.warn("aborted parse: wrote PARTIAL root stub {} with {} indexed child(ren): {}",
                 shorten(root.getId(), 4), writtenChildren, root);
         return true;
@@ -238,6 +302,13 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
                 fields.put("recoveryStatus", Document.RecoveryStatus.COMPLETE.toString());
             }
         }
+        // A root is finished here: its family may still sit in the bulk buffer, and the partial update
+        // below needs the root (or its stub) to be indexed. Only the batches holding that family are
+        // waited for, the other consumers keep filling the buffer.
+        BulkIndexBuffer buffer = bulkBuffer;
+        if (buffer != null) {
+            buffer.flush(root.getId());
+        }
         indexer.update(indexName, root.getId(), fields);
     }
 
@@ -261,7 +332,13 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
     }
 
     private boolean isDuplicate(String docId) throws IOException {
-        return indexer.exists(indexName, docId);
+        return pendingWrite(docId).isPresent() || duplicates.exists(docId);
+    }
+
+    // A document still in the bulk buffer is not visible to the index yet, so duplicate checks look
+    // there first.
+    private Optional<Entity> pendingWrite(String docId) {
+        return ofNullable(bulkBuffer).flatMap(buffer -> buffer.pending(docId));
     }
 
     private boolean isDuplicate(String docId, Path path) throws IOException {
@@ -269,7 +346,11 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
         // For this reason, we consider a document to be a "Duplicate" of another document only
         // if it has the same id (based on its hash) and a different path. This allows us
         // to re-index an existing document while ensuring duplicates are detected.
-        return !indexer.exists(indexName, docId, path) && isDuplicate(docId);
+        Optional<Entity> pending = pendingWrite(docId);
+        if (pending.isPresent()) {
+            return !(pending.get() instanceof Document pendingDocument && path.equals(pendingDocument.getPath()));
+        }
+        return duplicates.isDuplicate(docId, path);
     }
 
     Document getDocument(TikaDocument document, TikaDocument root, TikaDocument parent, short level) throws IOException {
@@ -414,6 +495,26 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
     public Spewer configure(Options<String> options) {
         super.configure(options);
         setIndex(options.valueIfPresent("projectName").orElse(options.get(DEFAULT_PROJECT_OPT).value().get()));
+        configureBulk(options);
+        return this;
+    }
+
+    // Opt-in: bulk buffering is only enabled with indexBulkSize > 1, so that indexing is unchanged
+    // (one synchronous request per document) unless it is set.
+    private void configureBulk(Options<String> options) {
+        int bulkSize = options.valueIfPresent(INDEX_BULK_SIZE_OPT).map(Integer::parseInt).orElse(1);
+        if (bulkSize <= 1 || bulkBuffer != null) {
+            return;
+        }
+        long maxBytes = HumanReadableSize.parse(options.valueIfPresent(INDEX_BULK_MAX_BYTES_OPT).orElse(DEFAULT_INDEX_BULK_MAX_BYTES));
+        Duration flushInterval = HumanDuration.parse(options.valueIfPresent(INDEX_BULK_FLUSH_INTERVAL_OPT).orElse(DEFAULT_INDEX_BULK_FLUSH_INTERVAL));
+        int concurrency = options.valueIfPresent(INDEX_BULK_CONCURRENCY_OPT).map(Integer::parseInt).orElse(DEFAULT_INDEX_BULK_CONCURRENCY);
+        withBulkBuffer(new BulkIndexBuffer(indexer, indexName, bulkSize, maxBytes, flushInterval, concurrency));
+    }
+
+    /** Writes documents through the given bulk buffer; the spewer owns it from then on. */
+    public ElasticsearchSpewer withBulkBuffer(BulkIndexBuffer bulkBuffer) {
+        this.bulkBuffer = bulkBuffer;
         return this;
     }
 
@@ -435,7 +536,18 @@ public class ElasticsearchSpewer extends Spewer implements Serializable {
         return this;
     }
 
+    /**
+     * Loads the ids already in the index into a Bloom filter, so that duplicate detection of new
+     * documents needs no request to the index. Worth it for runs over mostly new files.
+     */
+    public long preloadDuplicateFilter() throws IOException {
+        return duplicates.preload();
+    }
+
     private void setIndex(String indexName) {
         this.indexName = indexName;
+        if (duplicates == null || !duplicates.indexName().equals(indexName)) {
+            duplicates = new DuplicateDetector(indexer, indexName);
+        }
     }
 }
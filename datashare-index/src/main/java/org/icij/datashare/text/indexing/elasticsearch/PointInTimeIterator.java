@@ -0,0 +1,258 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch.core.ClosePointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeRequest;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.icij.datashare.text.indexing.SearchCheckpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static java.util.Optional.ofNullable;
+import static org.icij.datashare.text.indexing.elasticsearch.ElasticsearchConfiguration.DEFAULT_SEARCH_SIZE;
+
+/**
+ * Iterates over the hits of a search with a point in time (PIT) and search_after.
+ *
+ * <p>Each page is requested from a single background thread as soon as the previous one is received, so
+ * that at most two pages are held in memory. When all the hits of a page have been returned, the sort values
+ * of its last hit are reported as a {@link SearchCheckpoint}: with at-least-once processing, a caller that
+ * stores it can resume after that page. If the point in time of a checkpoint has expired, a new one is
+ * opened and the iteration continues from the same sort values, which is exact only if the index has not
+ * changed in between.</p>
+ *
+ * <p>Hits are sorted by the sort of the template request, with the {@code _shard_doc} tie-breaker.</p>
+ */
+class PointInTimeIterator implements Iterator<Hit<ObjectNode>>, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(PointInTimeIterator.class);
+    static final String SHARD_DOC = "_shard_doc";
+
+    private final ElasticsearchClient client;
+    private final List<String> indexesNames;
+    private final SearchRequest template;
+    private final List<SortOptions> sort;
+    private final int size;
+    private final String keepAlive;
+    private final Consumer<SearchCheckpoint> onCheckpoint;
+    private final ExecutorService prefetcher;
+    private final long totalHits;
+
+    private volatile String pitId;
+    private Iterator<Hit<ObjectNode>> current = Collections.emptyIterator();
+    private SearchCheckpoint pageCheckpoint;
+    private CompletableFuture<SearchResponse<ObjectNode>> next;
+    private boolean closed = false;
+
+    PointInTimeIterator(ElasticsearchClient client, List<String> indexesNames, SearchRequest template, String keepAlive,
+                        SearchCheckpoint checkpoint, Consumer<SearchCheckpoint> onCheckpoint) throws IOException {
+        this.client = client;
+        this.indexesNames = indexesNames;
+        this.template = template;
+        this.sort = withTieBreaker(template.sort());
+        this.size = ofNullable(template.size()).orElse(DEFAULT_SEARCH_SIZE);
+        this.keepAlive = keepAlive;
+        this.onCheckpoint = onCheckpoint;
+
+        SearchResponse<ObjectNode> first;
+        if (checkpoint == null) {
+            pitId = openPointInTime();
+            first = search(null);
+        } else {
+            List<FieldValue> searchAfter = toFieldValues(checkpoint.searchAfter());
+            pitId = checkpoint.pointInTimeId();
+            try {
+                first = search(searchAfter);
+            } catch (ElasticsearchException e) {
+                if (e.status() != 404) {
+                    throw e;
+                }
+                logger.warn("point in time of checkpoint has expired, resuming from {} with a new one", checkpoint.searchAfter());
+                pitId = openPointInTime();
+                first = search(searchAfter);
+            }
+        }
+        this.totalHits = ofNullable(first.hits().total()).map(t -> t.value()).orElse(0L);
+        this.prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pit-prefetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        accept(first);
+    }
+
+    long totalHits() {
+        return totalHits;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (pageCheckpoint != null) {
+                onCheckpoint.accept(pageCheckpoint);
+                pageCheckpoint = null;
+            }
+            if (next == null) {
+                close();
+                return false;
+            }
+            accept(awaitNext());
+        }
+        return true;
+    }
+
+    @Override
+    public Hit<ObjectNode> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (next != null) {
+            next.cancel(true);
+            next = null;
+        }
+        prefetcher.shutdownNow();
+        try {
+            client.closePointInTime(ClosePointInTimeRequest.of(c -> c.id(pitId)));
+        } catch (IOException | ElasticsearchException e) {
+            logger.warn("cannot close point in time, it will expire after {}", keepAlive, e);
+        }
+    }
+
+    // makes the page the current one and starts fetching the next one if it is full
+    private void accept(SearchResponse<ObjectNode> response) {
+        List<Hit<ObjectNode>> hits = response.hits().hits();
+        if (response.pitId() != null) {
+            pitId = response.pitId();
+        }
+        current = hits.iterator();
+        if (hits.isEmpty()) {
+            next = null;
+            return;
+        }
+        List<FieldValue> searchAfter = hits.get(hits.size() - 1).sort();
+        pageCheckpoint = new SearchCheckpoint(pitId, toObjects(searchAfter));
+        next = hits.size() < size || closed ? null : CompletableFuture.supplyAsync(() -> {
+            try {
+                return search(searchAfter);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, prefetcher);
+    }
+
+    private SearchResponse<ObjectNode> awaitNext() {
+        try {
+            return next.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new UncheckedIOException(new InterruptedIOException("interrupted while fetching the next page"));
+        } catch (ExecutionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String openPointInTime() throws IOException {
+        return client.openPointInTime(OpenPointInTimeRequest.of(o -> o.index(indexesNames)
+                .keepAlive(Time.of(t -> t.time(keepAlive))))).id();
+    }
+
+    private SearchResponse<ObjectNode> search(List<FieldValue> searchAfter) throws IOException {
+        SearchRequest request = SearchRequest.of(b -> {
+            b.query(template.query()).size(size).sort(sort)
+                    .pit(p -> p.id(pitId).keepAlive(Time.of(t -> t.time(keepAlive))));
+            if (template.source() != null) {
+                b.source(template.source());
+            }
+            if (template.slice() != null) {
+                b.slice(template.slice());
+            }
+            if (template.timeout() != null) {
+                b.timeout(template.timeout());
+            }
+            if (searchAfter != null) {
+                b.searchAfter(searchAfter);
+            }
+            return b;
+        });
+        return client.search(request, ObjectNode.class);
+    }
+
+    static List<SortOptions> withTieBreaker(List<SortOptions> sort) {
+        List<SortOptions> withTieBreaker = new ArrayList<>(sort);
+        if (sort.stream().noneMatch(s -> s.isField() && SHARD_DOC.equals(s.field().field()))) {
+            withTieBreaker.add(SortOptions.of(s -> s.field(f -> f.field(SHARD_DOC).order(SortOrder.Asc))));
+        }
+        return withTieBreaker;
+    }
+
+    static List<Object> toObjects(List<FieldValue> values) {
+        List<Object> objects = new ArrayList<>(values.size());
+        for (FieldValue value : values) {
+            objects.add(switch (value._kind()) {
+                case Long -> value.longValue();
+                case Double -> value.doubleValue();
+                case Boolean -> value.booleanValue();
+                case String -> value.stringValue();
+                case Null -> null;
+                default -> value._get().toString();
+            });
+        }
+        return objects;
+    }
+
+    // checkpoints read back from JSON may have narrowed longs to integers
+    static List<FieldValue> toFieldValues(List<Object> objects) {
+        List<FieldValue> values = new ArrayList<>(objects.size());
+        for (Object object : objects) {
+            if (object == null) {
+                values.add(FieldValue.NULL);
+            } else if (object instanceof Double || object instanceof Float) {
+                values.add(FieldValue.of(((Number) object).doubleValue()));
+            } else if (object instanceof Number number) {
+                values.add(FieldValue.of(number.longValue()));
+            } else if (object instanceof Boolean bool) {
+                values.add(FieldValue.of(bool));
+            } else {
+                values.add(FieldValue.of(Objects.toString(object)));
+            }
+        }
+        return values;
+    }
+}
@@ -189,6 +189,12 @@ public class SourceExtractor {
         return document.getOcrParser() != null;
     }
 
+    // Without an artifact cache, extractEmbeddedSources has nowhere to keep what it extracts: every
+    // embedded document still needs its own parse of the root.
+    public boolean cachesEmbeddedSources(final Project project) {
+        return getArtifactPath(project) != null;
+    }
+
     public boolean hasCachedEmbeddedSource(final Project project, final Document document) {
         Path artifactPath = getArtifactPath(project);
         if (artifactPath == null) {
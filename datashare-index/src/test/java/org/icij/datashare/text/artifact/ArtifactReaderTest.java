@@ -5,9 +5,11 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -193,6 +195,79 @@ public class ArtifactReaderTest {
         assertThat(new String(reader.page(node, ArtifactType.PAGE, entry, 2, "txt"), StandardCharsets.UTF_8)).isEqualTo("page two");
     }
 
+    @Test
+    public void test_page_body_writes_a_byte_range_slice() throws Exception {
+        Path node = withByteRanges("page onepage two", "txt", new long[]{0, 8}, new long[]{8, 16});
+        ManifestEntry entry = reader.servableEntry(node, ArtifactType.PAGE);
+        ArtifactReader.PageBody body = reader.pageBody(node, ArtifactType.PAGE, entry, 2, "txt");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body.writeTo(output);
+
+        assertThat(body.length()).isEqualTo(8);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("page two");
+    }
+
+    @Test
+    public void test_page_body_is_null_when_a_range_runs_past_end_of_file() throws Exception {
+        Path node = withByteRanges("short", "txt", new long[]{0, 5}, new long[]{5, 99});
+        ManifestEntry entry = reader.servableEntry(node, ArtifactType.PAGE);
+        assertThat(reader.pageBody(node, ArtifactType.PAGE, entry, 2, "txt")).isNull();
+        assertThat(reader.pageBody(node, ArtifactType.PAGE, entry, 3, "txt")).isNull();
+    }
+
+    @Test
+    public void test_page_reads_the_content_file_swapped_in_after_it_was_opened() throws Exception {
+        Path node = withByteRanges("page one", "txt", new long[]{0, 8});
+        ManifestEntry entry = reader.servableEntry(node, ArtifactType.PAGE);
+        assertThat(new String(reader.page(node, ArtifactType.PAGE, entry, 1, "txt"), StandardCharsets.UTF_8)).isEqualTo("page one");
+
+        // A producer swaps the payload in rather than rewriting it: the open channel still reads the old file.
+        Path content = ArtifactPath.payloadContent(node, ArtifactType.PAGE, "txt");
+        Path replacement = dir.newFile().toPath();
+        Files.writeString(replacement, "page new");
+        Files.move(replacement, content, StandardCopyOption.REPLACE_EXISTING);
+
+        assertThat(new String(reader.page(node, ArtifactType.PAGE, entry, 1, "txt"), StandardCharsets.UTF_8)).isEqualTo("page new");
+    }
+
+    @Test
+    public void test_page_is_read_again_after_a_reader_was_interrupted() throws Exception {
+        Path node = withByteRanges("page onepage two", "txt", new long[]{0, 8}, new long[]{8, 16});
+        ManifestEntry entry = reader.servableEntry(node, ArtifactType.PAGE);
+        assertThat(new String(reader.page(node, ArtifactType.PAGE, entry, 1, "txt"), StandardCharsets.UTF_8)).isEqualTo("page one");
+
+        // an interrupted read closes the channel shared by every reader of the file
+        Thread.currentThread().interrupt();
+        try {
+            assertThat(reader.page(node, ArtifactType.PAGE, entry, 2, "txt")).isNull();
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(new String(reader.page(node, ArtifactType.PAGE, entry, 2, "txt"), StandardCharsets.UTF_8)).isEqualTo("page two");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reader.pageBody(node, ArtifactType.PAGE, entry, 1, "txt").writeTo(output);
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("page one");
+    }
+
+    @Test
+    public void test_pages_are_read_past_the_open_files_limit() throws Exception {
+        ArtifactReader oneOpenFile = new ArtifactReader(manifests, 1);
+        Path node = withByteRanges("page one", "txt", new long[]{0, 8});
+        Files.writeString(ArtifactPath.payloadContent(node, ArtifactType.PAGE, "md"), "# page one");
+        ManifestEntry entry = new ManifestEntry(ManifestEntryStatus.COMPLETE, Map.of(),
+                byteRangeEntry(1, List.of(new long[]{0, 10})).pages(), null, null, null, null);
+
+        ArtifactReader.PageBody evicted = oneOpenFile.pageBody(node, ArtifactType.PAGE, reader.servableEntry(node, ArtifactType.PAGE), 1, "txt");
+        assertThat(new String(oneOpenFile.page(node, ArtifactType.PAGE, entry, 1, "md"), StandardCharsets.UTF_8)).isEqualTo("# page one");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        evicted.writeTo(output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("page one");
+        oneOpenFile.close();
+    }
+
     @Test
     public void test_page_is_null_when_a_range_runs_past_end_of_file() throws Exception {
         Path node = withByteRanges("short", "txt", new long[]{0, 5}, new long[]{5, 99});
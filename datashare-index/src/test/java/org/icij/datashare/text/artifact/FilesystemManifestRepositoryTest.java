@@ -8,9 +8,11 @@ import org.junit.rules.TemporaryFolder;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.fest.assertions.Assertions.assertThat;
 
 public class FilesystemManifestRepositoryTest {
@@ -100,4 +102,58 @@ public class FilesystemManifestRepositoryTest {
         });
         assertThat(repository.get(node, "raw")).isNotNull();
     }
+
+    @Test
+    public void test_manifest_is_written_compact() throws Exception {
+        Path node = dir.getRoot().toPath();
+        repository.put(node, "raw", rawEntry());
+        assertThat(Files.readString(node.resolve("manifest.json"))).excludes("\n").excludes(": ");
+    }
+
+    @Test
+    public void test_an_unchanged_manifest_is_not_read_again() throws Exception {
+        Path node = dir.getRoot().toPath();
+        repository.put(node, "raw", rawEntry());
+        Path manifest = node.resolve("manifest.json");
+        FileTime anHourAgo = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        Files.setLastModifiedTime(manifest, anHourAgo);
+        assertThat(repository.get(node, "raw")).isNotNull();
+
+        // Same inode, size and modification time: only a read of the file would see the difference.
+        Files.writeString(manifest, " ".repeat(Files.readString(manifest).length()));
+        Files.setLastModifiedTime(manifest, anHourAgo);
+
+        assertThat(repository.get(node, "raw")).isNotNull();
+    }
+
+    @Test
+    public void test_a_manifest_rewritten_by_another_producer_is_read_again() throws Exception {
+        Path node = dir.getRoot().toPath();
+        repository.put(node, "raw", rawEntry());
+        Path manifest = node.resolve("manifest.json");
+        Files.setLastModifiedTime(manifest, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        assertThat(repository.get(node, "structure")).isNull();
+
+        Path other = dir.newFolder("other").toPath();
+        repository.put(other, "structure", ManifestEntry.paginated(Map.of("type", "structure", "version", 1), 2).withStatus(ManifestEntryStatus.COMPLETE));
+        Files.copy(other.resolve("manifest.json"), manifest, REPLACE_EXISTING);
+        Files.setLastModifiedTime(manifest, FileTime.fromMillis(System.currentTimeMillis() - 1_800_000));
+
+        assertThat(repository.get(node, "structure").pages().total()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_a_manifest_written_within_the_racy_window_is_not_trusted() throws Exception {
+        Path node = dir.getRoot().toPath();
+        repository.put(node, "raw", rawEntry());
+        Path manifest = node.resolve("manifest.json");
+        assertThat(repository.get(node, "raw")).isNotNull();
+
+        // Rewritten in place in the same clock tick would look unchanged, which is why a fresh one is read.
+        FileTime now = Files.getLastModifiedTime(manifest);
+        Files.writeString(manifest, "{}" + " ".repeat(Files.readString(manifest).length() - 2));
+        Files.setLastModifiedTime(manifest, now);
+
+        assertThat(repository.get(node, "raw")).isNull();
+    }
 }
@@ -0,0 +1,109 @@
+package org.icij.datashare.text.artifact;
+
+import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.fest.assertions.Assertions.assertThat;
+
+public class LogManifestRepositoryTest {
+    @Rule public TemporaryFolder dir = new TemporaryFolder();
+    private final ManifestRepository repository = new LogManifestRepository();
+
+    private Path node(String digest) {
+        return ArtifactPath.dir(dir.getRoot().toPath(), digest);
+    }
+
+    private ManifestEntry rawEntry(String fileName) {
+        return ManifestEntry.singleFile(Map.of("type", "raw", "version", 1), "application/pdf", fileName).withStatus(ManifestEntryStatus.COMPLETE);
+    }
+
+    @Test
+    public void test_get_returns_null_when_no_log() throws Exception {
+        assertThat(repository.get(node("abcdef"), "raw")).isNull();
+    }
+
+    @Test
+    public void test_put_then_get_round_trips_without_a_manifest_per_document() throws Exception {
+        repository.put(node("abcdef"), "raw", rawEntry("a.pdf"));
+        repository.put(node("abcdef"), "structure", ManifestEntry.paginated(Map.of("type", "structure", "version", 1), 3).withStatus(ManifestEntryStatus.COMPLETE));
+        repository.put(node("123456"), "raw", rawEntry("b.pdf"));
+
+        assertThat(repository.get(node("abcdef"), "raw").contentType()).isEqualTo("application/pdf");
+        assertThat(repository.get(node("abcdef"), "structure").pages().total()).isEqualTo(3);
+        assertThat(repository.get(node("123456"), "structure")).isNull();
+        assertThat(dir.getRoot().toPath().resolve(ArtifactPath.MANIFEST_LOG_FILE).toFile()).isFile();
+        assertThat(node("abcdef").resolve(ArtifactPath.MANIFEST_FILE).toFile().exists()).isFalse();
+    }
+
+    @Test
+    public void test_the_last_put_of_a_type_wins() throws Exception {
+        repository.put(node("abcdef"), "raw", ManifestEntry.singleFile(Map.of("type", "raw", "version", 1), "application/pdf", "a.pdf"));
+        repository.put(node("abcdef"), "raw", rawEntry("a.pdf"));
+        assertThat(repository.get(node("abcdef"), "raw").isComplete()).isTrue();
+    }
+
+    @Test
+    public void test_a_put_from_another_process_is_seen_by_the_next_get() throws Exception {
+        repository.put(node("abcdef"), "raw", rawEntry("a.pdf"));
+        assertThat(repository.get(node("123456"), "raw")).isNull();
+
+        // What another host appends, bypassing this process' state.
+        Path log = dir.getRoot().toPath().resolve(ArtifactPath.MANIFEST_LOG_FILE);
+        String line = Files.readAllLines(log).get(0).replace("abcdef", "123456");
+        Files.writeString(log, line + "\n", APPEND);
+
+        assertThat(repository.get(node("123456"), "raw")).isNotNull();
+    }
+
+    @Test
+    public void test_get_reads_again_after_a_reader_was_interrupted() throws Exception {
+        repository.put(node("abcdef"), "raw", rawEntry("a.pdf"));
+        assertThat(repository.get(node("abcdef"), "raw")).isNotNull();
+
+        // an interrupted read closes the channel the process shares for the project
+        Thread.currentThread().interrupt();
+        try {
+            repository.get(node("abcdef"), "raw");
+        } catch (ClosedByInterruptException expected) {
+            // the interrupted get fails, not the next ones
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(repository.get(node("abcdef"), "raw").contentType()).isEqualTo("application/pdf");
+    }
+
+    @Test
+    public void test_a_line_torn_by_a_dead_writer_does_not_take_the_next_one_with_it() throws Exception {
+        repository.put(node("abcdef"), "raw", rawEntry("a.pdf"));
+        Path log = dir.getRoot().toPath().resolve(ArtifactPath.MANIFEST_LOG_FILE);
+        Files.writeString(log, "{\"doc\":\"123456\",\"ty", APPEND);
+        assertThat(repository.get(node("123456"), "raw")).isNull();
+
+        repository.put(node("123456"), "raw", rawEntry("b.pdf"));
+
+        assertThat(repository.get(node("123456"), "raw")).isNotNull();
+        assertThat(repository.get(node("abcdef"), "raw")).isNotNull();
+    }
+
+    @Test
+    public void test_a_log_deleted_with_its_project_is_started_again() throws Exception {
+        repository.put(node("abcdef"), "raw", rawEntry("a.pdf"));
+        assertThat(repository.get(node("abcdef"), "raw")).isNotNull();
+
+        Files.delete(dir.getRoot().toPath().resolve(ArtifactPath.MANIFEST_LOG_FILE));
+        assertThat(repository.get(node("abcdef"), "raw")).isNull();
+
+        repository.put(node("123456"), "raw", rawEntry("b.pdf"));
+        assertThat(repository.get(node("123456"), "raw")).isNotNull();
+        assertThat(repository.get(node("abcdef"), "raw")).isNull();
+    }
+}
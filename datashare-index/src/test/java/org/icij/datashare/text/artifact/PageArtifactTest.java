@@ -189,6 +189,31 @@ public class PageArtifactTest {
                 .isEqualTo(new String[]{"content.txt"});
     }
 
+    @Test
+    public void test_produce_records_the_page_offsets_next_to_the_pages_when_asked() throws Exception {
+        ArtifactContext context = rootContext(twoPagePdf());
+        PageArtifact artifact = new PageArtifact(new PropertiesProvider(Map.of("artifactsPageOffsets", "true")));
+
+        ManifestEntry entry = artifact.produce(context);
+
+        assertThat(entry.pages().offsets()).isEqualTo(ArtifactPath.PAGE_OFFSETS_FILE);
+        assertThat(artifact.taskInput().get("offsets")).isEqualTo(true);
+        JsonNode offsets = JsonObjectMapper.getMapper()
+                .readTree(ArtifactPath.payloadOffsets(context.docArtifactDir(), ArtifactType.PAGE).toFile());
+        assertThat(offsets.get("pages").size()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_page_offsets_are_off_by_default_and_out_of_the_fingerprint() throws Exception {
+        ArtifactContext context = rootContext(twoPagePdf());
+
+        ManifestEntry entry = new PageArtifact(new PropertiesProvider()).produce(context);
+
+        assertThat(entry.pages().offsets()).isNull();
+        assertThat(new PageArtifact(new PropertiesProvider()).taskInput().containsKey("offsets")).isFalse();
+        assertThat(Files.exists(ArtifactPath.payloadOffsets(context.docArtifactDir(), ArtifactType.PAGE))).isFalse();
+    }
+
     // The payload must carry the umask default every other artifact file gets, not the rw-------
     // the JDK stamps on a temp file (see AtomicDirectorySwap#createStagingDir). Compared against a
     // control file written with Files.write in the same directory, so this pins the umask default
@@ -181,6 +181,18 @@ public class StructureArtifactTest {
         assertThat(entry.isComplete()).isFalse(); // the producer loop stamps status, not produce()
     }
 
+    @Test
+    public void test_produce_writes_and_records_the_search_index_when_asked() throws Exception {
+        StructureArtifact indexed = new StructureArtifact(new PropertiesProvider(Map.of("artifactsSearchIndex", "true")));
+        ManifestEntry entry = indexed.produce(contextFor(PINNED_HTML));
+
+        assertThat(entry.pages().index()).isEqualTo("postings-md.idx");
+        assertThat(Files.exists(ArtifactPath.payloadIndex(dir.getRoot().toPath(), ArtifactType.STRUCTURE, "md"))).isTrue();
+        // Otherwise a corpus produced without the index would be current for a run that asks for it.
+        assertThat(entry.taskInput()).isNotEqualTo(new StructureArtifact(new PropertiesProvider()).taskInput(doc));
+        assertThat(new StructureArtifact(new PropertiesProvider()).produce(contextFor(PINNED_HTML)).pages().index()).isNull();
+    }
+
     @Test
     public void test_produce_is_byte_deterministic() throws Exception {
         new StructureArtifact(new PropertiesProvider()).produce(contextFor(HTML));
@@ -304,7 +316,7 @@ public class StructureArtifactTest {
                 .run(List.of(new StructureArtifact(new PropertiesProvider())), contextFor(HTML), false);
 
         assertThat(produced).isTrue();
-        // The repository pretty-prints the manifest, so assert on the parsed tree rather than raw bytes.
+        // Assert on the parsed tree rather than raw bytes: key order and spacing are not the convention.
         JsonNode structure = JsonObjectMapper.getMapper()
                 .readTree(Files.readString(dir.getRoot().toPath().resolve(ArtifactPath.MANIFEST_FILE)))
                 .get("structure");
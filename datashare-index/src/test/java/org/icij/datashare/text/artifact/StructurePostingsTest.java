@@ -0,0 +1,39 @@
+package org.icij.datashare.text.artifact;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class StructurePostingsTest {
+    @Rule public TemporaryFolder dir = new TemporaryFolder();
+
+    private Path index(String... pages) throws Exception {
+        Path file = dir.getRoot().toPath().resolve("postings-md.idx");
+        StructurePostings.write(file, List.of(pages));
+        return file;
+    }
+
+    @Test
+    public void test_candidates_are_the_pages_holding_every_run_of_the_query() throws Exception {
+        Path file = index("Résumé of the data", "resume", "data only", "");
+        assertThat(StructurePostings.candidates(file, "resum").stream().toArray()).isEqualTo(new int[] {1, 2});
+        assertThat(StructurePostings.candidates(file, "sume of").stream().toArray()).isEqualTo(new int[] {1});
+        assertThat(StructurePostings.candidates(file, "nowhere").isEmpty()).isTrue();
+    }
+
+    @Test
+    public void test_a_query_without_letters_nor_digits_cannot_be_narrowed() throws Exception {
+        assertThat(StructurePostings.candidates(index("# title", "- item"), "# ")).isNull();
+    }
+
+    @Test
+    public void test_a_word_too_long_to_be_stored_keeps_its_page_a_candidate() throws Exception {
+        Path file = index("a".repeat(StructurePostings.MAX_TERM_LENGTH) + "needle", "haystack");
+        assertThat(StructurePostings.candidates(file, "needle").stream().toArray()).isEqualTo(new int[] {1});
+    }
+}
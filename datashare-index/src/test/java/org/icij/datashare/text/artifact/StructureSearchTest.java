@@ -9,6 +9,7 @@ import org.icij.datashare.text.indexing.elasticsearch.ArtifactPath;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 import static org.fest.assertions.Assertions.assertThat;
@@ -202,4 +203,49 @@ public class StructureSearchTest {
         assertThat(markdownSearch().search("resume").count()).isEqualTo(1);
         assertThat(markdownSearch().search("data").count()).isEqualTo(1);
     }
+
+    // The pages on disk and an index of what they held: a test then takes pages away from disk to
+    // prove which ones the search reads.
+    private void indexedManifest(String... pages) throws Exception {
+        Path node = writePages("md", pages);
+        StructurePostings.write(ArtifactPath.payloadIndex(node, ArtifactType.STRUCTURE, "md"), List.of(pages));
+        manifests.put(node, ArtifactType.STRUCTURE.token(), ManifestEntry.paginated(Map.of(), pages.length,
+                ArtifactPath.indexFilename("md")).withStatus(ManifestEntryStatus.COMPLETE));
+    }
+
+    @Test
+    public void test_an_indexed_search_reads_only_the_pages_the_index_names() throws Exception {
+        indexedManifest("big data", "nothing here", "Metadata and data", "nothing either");
+        // Gone from disk, so a scan would report them unscanned: the index answers for them instead.
+        Files.delete(ArtifactPath.payloadPage(dir.getRoot().toPath(), ArtifactType.STRUCTURE, 2, "md"));
+        Files.delete(ArtifactPath.payloadPage(dir.getRoot().toPath(), ArtifactType.STRUCTURE, 4, "md"));
+
+        StructureSearch.Hits hits = markdownSearch().search("DATA");
+
+        assertThat(hits.count()).isEqualTo(3);
+        assertThat(hits.scanned()).isEqualTo(4);
+        assertThat(hits.hits()).hasSize(2);
+        assertThat(hits.hits().get(0)).isEqualTo(new StructureSearch.PageHits(1, 1));
+        assertThat(hits.hits().get(1)).isEqualTo(new StructureSearch.PageHits(3, 2));
+    }
+
+    @Test
+    public void test_an_indexed_search_matches_across_words_as_the_scan_does() throws Exception {
+        indexedManifest("big data set", "data", "settings");
+        StructureSearch.Hits hits = markdownSearch().search("ta se");
+        assertThat(hits.count()).isEqualTo(1);
+        assertThat(hits.hits().get(0).page()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_an_unreadable_index_falls_back_to_the_scan() throws Exception {
+        indexedManifest("data", "nothing here");
+        Files.writeString(ArtifactPath.payloadIndex(dir.getRoot().toPath(), ArtifactType.STRUCTURE, "md"), "garbage");
+        Files.delete(ArtifactPath.payloadPage(dir.getRoot().toPath(), ArtifactType.STRUCTURE, 2, "md"));
+
+        StructureSearch.Hits hits = markdownSearch().search("data");
+
+        assertThat(hits.count()).isEqualTo(1);
+        assertThat(hits.scanned()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,148 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import org.icij.datashare.Entity;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkIndexBufferTest {
+    private final Indexer indexer = mock(Indexer.class);
+
+    @Test
+    public void test_sends_a_bulk_when_max_actions_is_reached() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(true);
+        try (BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 2, 1_000_000, Duration.ZERO, 1)) {
+            buffer.add(createDoc("doc1").build(), 10);
+            verify(indexer, never()).bulkAdd(eq("prj"), anyList());
+
+            buffer.add(createDoc("doc2").build(), 10);
+            buffer.flush();
+            verify(indexer, times(1)).bulkAdd(eq("prj"), anyList());
+        }
+    }
+
+    @Test
+    public void test_sends_a_bulk_when_max_bytes_is_reached() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(true);
+        try (BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 100, 50, Duration.ZERO, 1)) {
+            buffer.add(createDoc("doc1").build(), 60);
+            buffer.flush();
+            verify(indexer, times(1)).bulkAdd(eq("prj"), anyList());
+        }
+    }
+
+    @Test
+    public void test_flush_sends_pending_entities_and_runs_callbacks() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(true);
+        AtomicInteger indexed = new AtomicInteger();
+        try (BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 100, 1_000_000, Duration.ZERO, 1)) {
+            buffer.add(createDoc("doc1").build(), 10, indexed::incrementAndGet);
+            assertThat(indexed.get()).isEqualTo(0);
+            assertThat(buffer.pending("doc1").isPresent()).isTrue();
+
+            buffer.flush();
+
+            assertThat(indexed.get()).isEqualTo(1);
+            assertThat(buffer.pending("doc1").isPresent()).isFalse();
+        }
+    }
+
+    @Test
+    public void test_close_flushes_pending_entities() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(true);
+        BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 100, 1_000_000, Duration.ZERO, 1);
+        buffer.add(createDoc("doc1").build(), 10);
+
+        buffer.close();
+
+        verify(indexer).bulkAdd("prj", List.<Entity>of(createDoc("doc1").build()));
+    }
+
+    @Test
+    public void test_failed_bulk_is_retried_one_by_one() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(false);
+        Document failing = createDoc("failing").build();
+        doThrow(new IOException("rejected")).when(indexer).add("prj", failing);
+        AtomicInteger indexed = new AtomicInteger();
+        try (BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 100, 1_000_000, Duration.ZERO, 1)) {
+            buffer.add(createDoc("doc1").build(), 10, indexed::incrementAndGet);
+            buffer.add(failing, 10, indexed::incrementAndGet);
+
+            buffer.flush();
+
+            verify(indexer, times(2)).add(eq("prj"), any(Entity.class));
+            assertThat(indexed.get()).isEqualTo(1);
+            assertThat(buffer.pending("failing").isPresent()).isFalse();
+        }
+    }
+
+    @Test
+    public void test_flush_interval_sends_pending_entities() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(true);
+        AtomicInteger indexed = new AtomicInteger();
+        try (BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 100, 1_000_000, Duration.ofMillis(10), 1)) {
+            buffer.add(createDoc("doc1").build(), 10, indexed::incrementAndGet);
+            for (int i = 0; i < 100 && indexed.get() == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(indexed.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void test_flush_of_a_root_only_waits_for_its_family() throws Exception {
+        CountDownLatch otherRootSent = new CountDownLatch(1);
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenAnswer(invocation -> {
+            List<Entity> entities = invocation.getArgument(1);
+            if (entities.get(0).getId().equals("other")) {
+                otherRootSent.await();
+            }
+            return true;
+        });
+        try (BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 1, 1_000_000, Duration.ZERO, 2)) {
+            buffer.add(createDoc("other").build(), 10);
+            buffer.add(createDoc("root").build(), 10);
+            buffer.add(createDoc("child").withRootId("root").build(), 10);
+
+            buffer.flush("root");
+
+            assertThat(buffer.pending("child").isPresent()).isFalse();
+            assertThat(buffer.pending("other").isPresent()).isTrue();
+            otherRootSent.countDown();
+        }
+    }
+
+    @Test
+    public void test_an_entity_added_after_close_is_still_sent() throws Exception {
+        when(indexer.bulkAdd(eq("prj"), anyList())).thenReturn(true);
+        BulkIndexBuffer buffer = new BulkIndexBuffer(indexer, "prj", 1, 1_000_000, Duration.ZERO, 1);
+        buffer.close();
+
+        buffer.add(createDoc("late").build(), 10);
+
+        verify(indexer).bulkAdd("prj", List.<Entity>of(createDoc("late").build()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_rejects_non_positive_size() {
+        new BulkIndexBuffer(indexer, "prj", 0, 1_000_000, Duration.ZERO, 1);
+    }
+}
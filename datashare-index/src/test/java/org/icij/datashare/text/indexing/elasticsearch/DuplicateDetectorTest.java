@@ -0,0 +1,89 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.indexing.Indexer;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DuplicateDetectorTest {
+    private final Indexer indexer = mock(Indexer.class);
+    private final DuplicateDetector detector = new DuplicateDetector(indexer, "prj");
+
+    @Test
+    public void test_same_id_and_path_is_not_duplicate() throws Exception {
+        when(indexer.getPaths("prj", List.of("id"))).thenReturn(Map.of("id", "/path/doc.txt"));
+        assertThat(detector.isDuplicate("id", Paths.get("/path/doc.txt"))).isFalse();
+    }
+
+    @Test
+    public void test_same_id_and_other_path_is_duplicate() throws Exception {
+        when(indexer.getPaths("prj", List.of("id"))).thenReturn(Map.of("id", "/path/doc.txt"));
+        assertThat(detector.isDuplicate("id", Paths.get("/other/doc.txt"))).isTrue();
+    }
+
+    @Test
+    public void test_unknown_id_is_not_duplicate() throws Exception {
+        when(indexer.getPaths("prj", List.of("id"))).thenReturn(Map.of());
+        assertThat(detector.isDuplicate("id", Paths.get("/path/doc.txt"))).isFalse();
+        assertThat(detector.exists("id")).isFalse();
+    }
+
+    @Test
+    public void test_id_found_without_path_exists_and_is_duplicate() throws Exception {
+        when(indexer.getPaths("prj", List.of("id"))).thenReturn(Map.of("id", ""));
+        assertThat(detector.exists("id")).isTrue();
+        assertThat(detector.isDuplicate("id", Paths.get("/path/doc.txt"))).isTrue();
+    }
+
+    @Test
+    public void test_found_paths_are_cached() throws Exception {
+        when(indexer.getPaths("prj", List.of("id"))).thenReturn(Map.of("id", "/path/doc.txt"));
+        detector.exists("id");
+        detector.isDuplicate("id", Paths.get("/other/doc.txt"));
+        verify(indexer, times(1)).getPaths(anyString(), anyList());
+    }
+
+    @Test
+    public void test_indexed_roots_need_no_request() throws Exception {
+        detector.indexed("id", Paths.get("/path/doc.txt"));
+        assertThat(detector.isDuplicate("id", Paths.get("/other/doc.txt"))).isTrue();
+        verify(indexer, never()).getPaths(anyString(), anyList());
+    }
+
+    @Test
+    public void test_preloaded_filter_skips_requests_for_new_ids() throws Exception {
+        Indexer.QueryBuilderSearcher searcher = mock(Indexer.QueryBuilderSearcher.class);
+        when(indexer.search(List.of("prj"), Document.class)).thenReturn(searcher);
+        when(searcher.withSource("path")).thenReturn(searcher);
+        when(searcher.limit(anyInt())).thenReturn(searcher);
+        doReturn(Stream.of(createDoc("known").build()), Stream.empty())
+                .when(searcher).scroll(any(Indexer.ScrollQuery.class));
+        when(indexer.getPaths(eq("prj"), anyList())).thenReturn(Map.of("known", "/path/doc.txt"));
+
+        assertThat(detector.preload()).isEqualTo(1);
+
+        assertThat(detector.exists("new")).isFalse();
+        verify(indexer, never()).getPaths(anyString(), anyList());
+        assertThat(detector.exists("known")).isTrue();
+        verify(indexer, times(1)).getPaths("prj", List.of("known"));
+        verify(searcher).clearScroll();
+    }
+}
@@ -10,6 +10,7 @@ import org.icij.datashare.Entity;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.test.ElasticsearchRule;
 import org.icij.datashare.text.ContentTypeCategory;
+import org.icij.datashare.text.DocReference;
 import org.icij.datashare.text.Document;
 import org.icij.datashare.text.DocumentBuilder;
 import org.icij.datashare.text.Duplicate;
@@ -17,6 +18,8 @@ import org.icij.datashare.text.Language;
 import org.icij.datashare.text.NamedEntity;
 import org.icij.datashare.text.indexing.ExtractedText;
 import org.icij.datashare.text.indexing.Indexer;
+import org.icij.datashare.text.indexing.NamedEntitySink;
+import org.icij.datashare.text.indexing.SearchCheckpoint;
 import org.icij.datashare.text.indexing.SearchQuery;
 import org.icij.datashare.text.indexing.SearchedText;
 import org.junit.After;
@@ -27,11 +30,13 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -46,13 +51,16 @@ import static org.icij.datashare.text.Language.FRENCH;
 import static org.icij.datashare.text.NamedEntity.Category.ORGANIZATION;
 import static org.icij.datashare.text.NamedEntity.Category.PERSON;
 import static org.icij.datashare.text.NamedEntity.create;
+import static org.icij.datashare.text.StringUtils.normalize;
 import static org.icij.datashare.text.Project.project;
 import static org.icij.datashare.text.Tag.tag;
+import static org.icij.datashare.text.indexing.PointInTimeQueryBuilder.createPointInTimeQuery;
 import static org.icij.datashare.text.indexing.ScrollQueryBuilder.createScrollQuery;
 import static org.icij.datashare.text.nlp.Pipeline.Type.CORENLP;
 import static org.icij.datashare.text.nlp.Pipeline.Type.OPENNLP;
 import static org.icij.datashare.text.nlp.Pipeline.Type.SPACY;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -74,6 +82,22 @@ public class ElasticsearchIndexerTest {
         assertThat(doc).isNull();
     }
 
+    @Test
+    public void test_get_all_with_routing_and_source_excludes() throws IOException {
+        Document root = createDoc("root").with("root content").build();
+        Document child = createDoc("child").with("child content").withParentId("root").withRootId("root").build();
+        indexer.add(es.getIndexName(), root);
+        indexer.add(es.getIndexName(), child);
+
+        Map<String, Document> docs = indexer.getAll(es.getIndexName(),
+                asList(DocReference.fromDocument(root), DocReference.fromDocument(child), new DocReference("unknown", null)),
+                singletonList("content"));
+
+        assertThat(docs.keySet()).containsOnly("root", "child");
+        assertThat(docs.get("child").getRootDocument()).isEqualTo("root");
+        assertThat(docs.get("child").getContent()).isEmpty();
+    }
+
     @Test
     public void test_bulk_add() throws IOException {
         Document doc1 = createDoc("doc1").build();
@@ -121,6 +145,58 @@ public class ElasticsearchIndexerTest {
         assertThat(resp.source().getNerTags()).containsOnly(OPENNLP);
     }
 
+    @Test
+    public void test_named_entity_sink_writes_entities_and_marks_documents_done() throws IOException {
+        Document doc1 = createDoc("doc1").build();
+        Document doc2 = createDoc("doc2").with(OPENNLP).build();
+        indexer.add(es.getIndexName(), doc1);
+        indexer.add(es.getIndexName(), doc2);
+        NamedEntity ne1 = create(PERSON, "John Doe", singletonList(12L), doc1.getId(), doc1.getId(), CORENLP, Language.FRENCH);
+        NamedEntity ne2 = create(ORGANIZATION, "AAA", singletonList(123L), doc2.getId(), doc2.getId(), CORENLP, Language.FRENCH);
+
+        try (NamedEntitySink sink = indexer.namedEntitySink(100, 1_000_000, Duration.ZERO, 1)) {
+            sink.add(es.getIndexName(), CORENLP, singletonList(ne1), doc1);
+            sink.add(es.getIndexName(), singletonList(ne2));
+            sink.add(es.getIndexName(), CORENLP, emptyList(), doc2);
+            assertThat(sink.failures()).isEqualTo(0);
+        }
+
+        assertThat(((Document) indexer.get(es.getIndexName(), doc1.getId())).getStatus()).isEqualTo(DONE);
+        assertThat(((Document) indexer.get(es.getIndexName(), doc2.getId())).getNerTags()).containsOnly(OPENNLP, CORENLP);
+        assertThat((NamedEntity) indexer.get(es.getIndexName(), ne1.getId(), doc1.getId())).isNotNull();
+        assertThat((NamedEntity) indexer.get(es.getIndexName(), ne2.getId(), doc2.getId())).isNotNull();
+    }
+
+    @Test
+    public void test_get_content_types_and_set_their_category() throws Exception {
+        Document pdf = createDoc("pdf").ofContentType("application/pdf").build();
+        Document mp4 = createDoc("mp4").ofContentType("video/mp4").build();
+        indexer.add(es.getIndexName(), pdf);
+        indexer.add(es.getIndexName(), mp4);
+
+        assertThat(indexer.getContentTypes(es.getIndexName())).containsOnly("application/pdf", "video/mp4");
+        assertThat(indexer.setContentTypeCategory(es.getIndexName(), ContentTypeCategory.VIDEO, singletonList("video/mp4"), 0, -1)).isEqualTo(1);
+        assertThat(indexer.setContentTypeCategory(es.getIndexName(), ContentTypeCategory.VIDEO, singletonList("video/mp4"), 0, -1)).isEqualTo(0);
+
+        assertThat(((Document) indexer.get(es.getIndexName(), mp4.getId())).getContentTypeCategory()).isEqualTo(ContentTypeCategory.VIDEO);
+        assertThat(((Document) indexer.get(es.getIndexName(), pdf.getId())).getContentTypeCategory()).isNull();
+    }
+
+    @Test
+    public void test_hide_named_entities_of_a_mention() throws Exception {
+        Document doc = createDoc("id").build();
+        indexer.add(es.getIndexName(), doc);
+        NamedEntity ne1 = create(PERSON, "John Doe", singletonList(12L), doc.getId(), doc.getId(), CORENLP, Language.FRENCH);
+        NamedEntity ne2 = create(ORGANIZATION, "AAA", singletonList(123L), doc.getId(), doc.getId(), CORENLP, Language.FRENCH);
+        indexer.bulkAdd(es.getIndexName(), CORENLP, asList(ne1, ne2), doc);
+
+        assertThat(indexer.hideNamedEntities(es.getIndexName(), normalize("John Doe"), 0, -1, rate -> null)).isEqualTo(1);
+        assertThat(indexer.hideNamedEntities(es.getIndexName(), normalize("John Doe"), 0, -1, rate -> null)).isEqualTo(0);
+
+        assertThat(((NamedEntity) indexer.get(es.getIndexName(), ne1.getId(), doc.getId())).isHidden()).isTrue();
+        assertThat(((NamedEntity) indexer.get(es.getIndexName(), ne2.getId(), doc.getId())).isHidden()).isFalse();
+    }
+
     @Test
     public void test_bulk_add_for_embedded_doc() throws IOException {
         Path path = Paths.get("mail.eml");
@@ -350,6 +426,36 @@ public class ElasticsearchIndexerTest {
         assertThat(results.size()).isEqualTo(1);
     }
 
+    @Test
+    public void test_multi_search_returns_the_first_page_of_each_searcher() throws IOException {
+        indexer.add(es.getIndexName(), createDoc("id1").with("foo").build());
+        indexer.add(es.getIndexName(), createDoc("id2").with("foo bar").build());
+        String queryBody = "{\"bool\":{\"must\":[{\"match_all\":{}},{\"bool\":{\"should\":[{\"query_string\":{\"query\":\"<query>\"}}]}},{\"match\":{\"type\":\"Document\"}}]}}";
+        List<Indexer.Searcher> searchers = List.of(
+                indexer.search(singletonList(es.getIndexName()), Document.class, new SearchQuery(queryBody)).limit(1),
+                indexer.search(singletonList(es.getIndexName()), Document.class, new SearchQuery("bar")),
+                indexer.search(singletonList(es.getIndexName()), Document.class, new SearchQuery(queryBody)));
+
+        List<Stream<? extends Entity>> pages = indexer.multiSearch(searchers, asList("foo", null, "baz"));
+
+        assertThat(pages.get(0).toList()).hasSize(1);
+        assertThat(searchers.get(0).totalHits()).isEqualTo(2);
+        assertThat(pages.get(1).map(Entity::getId).toList()).containsExactly("id2");
+        assertThat(pages.get(2).toList()).isEmpty();
+    }
+
+    @Test
+    public void test_multi_search_with_a_query_error() {
+        String queryBody = "{\"bool\":{\"must\":[{\"match_all\":{}},{\"bool\":{\"should\":[{\"query_string\":{\"query\":\"<query>\"}}]}},{\"match\":{\"type\":\"Document\"}}]}}";
+        List<Indexer.Searcher> searchers = List.of(
+                indexer.search(singletonList(es.getIndexName()), Document.class, new SearchQuery(queryBody)),
+                indexer.search(singletonList(es.getIndexName()), Document.class, new SearchQuery(queryBody)));
+
+        ElasticsearchException exception = assertThrows(ElasticsearchException.class, () -> indexer.multiSearch(searchers, asList("foo", "AND foo")));
+
+        assertThat(exception.response().error().rootCause().get(0).reason()).contains("Failed to parse query [AND foo]");
+    }
+
     @Test
     public void test_update_tagged_document_does_not_push_tag_objects_into_keyword_field() throws IOException {
         Document doc = createDoc("id").build();
@@ -568,6 +674,65 @@ public class ElasticsearchIndexerTest {
         searcher.scroll(KEEP_ALIVE);
     }
 
+    @Test
+    public void test_search_after_with_point_in_time() throws IOException {
+        for (int i = 0 ; i < 12; i++) {
+            indexer.add(es.getIndexName(), createDoc("id" + i).build());
+        }
+        List<SearchCheckpoint> checkpoints = new ArrayList<>();
+
+        Indexer.Searcher searcher = indexer.search(singletonList(es.getIndexName()), Document.class).limit(5);
+        try (Stream<? extends Entity> docs = searcher.searchAfter(createPointInTimeQuery().withKeepAlive(KEEP_ALIVE).onCheckpoint(checkpoints::add).build())) {
+            assertThat(docs.map(Entity::getId).distinct().count()).isEqualTo(12);
+        }
+        assertThat(searcher.totalHits()).isEqualTo(12);
+        assertThat(checkpoints).hasSize(3);
+    }
+
+    @Test
+    public void test_search_after_resumes_from_a_checkpoint() throws IOException {
+        for (int i = 0 ; i < 12; i++) {
+            indexer.add(es.getIndexName(), createDoc("id" + i).build());
+        }
+        List<SearchCheckpoint> checkpoints = new ArrayList<>();
+        List<String> firstPage;
+        try (Stream<? extends Entity> docs = indexer.search(singletonList(es.getIndexName()), Document.class).limit(5)
+                .searchAfter(createPointInTimeQuery().withKeepAlive(KEEP_ALIVE).onCheckpoint(checkpoints::add).build())) {
+            firstPage = docs.limit(5).map(Entity::getId).toList();
+        }
+        assertThat(checkpoints).isEmpty();
+
+        // the next hit has been read after the end of the first page
+        try (Stream<? extends Entity> docs = indexer.search(singletonList(es.getIndexName()), Document.class).limit(5)
+                .searchAfter(createPointInTimeQuery().withKeepAlive(KEEP_ALIVE).onCheckpoint(checkpoints::add).build())) {
+            docs.limit(6).forEach(doc -> {});
+        }
+        assertThat(checkpoints).hasSize(1);
+
+        // the point in time of the checkpoint has been closed with the stream: a new one is opened
+        try (Stream<? extends Entity> docs = indexer.search(singletonList(es.getIndexName()), Document.class).limit(5)
+                .searchAfter(createPointInTimeQuery().withKeepAlive(KEEP_ALIVE).resumingFrom(checkpoints.get(0)).build())) {
+            List<String> rest = docs.map(Entity::getId).toList();
+            assertThat(rest).hasSize(7);
+            assertThat(rest).excludes(firstPage.toArray());
+        }
+    }
+
+    @Test
+    public void test_search_after_with_slices() throws IOException {
+        for (int i = 0 ; i < 12; i++) {
+            indexer.add(es.getIndexName(), createDoc("id" + i).build());
+        }
+        long count = 0;
+        for (int slice = 0; slice < 2; slice++) {
+            try (Stream<? extends Entity> docs = indexer.search(singletonList(es.getIndexName()), Document.class).limit(5)
+                    .searchAfter(createPointInTimeQuery().withKeepAlive(KEEP_ALIVE).withSlices(slice, 2).build())) {
+                count += docs.count();
+            }
+        }
+        assertThat(count).isEqualTo(12);
+    }
+
     @Test
     public void test_bulk_update() throws IOException {
         Document doc = createDoc("id").build();
@@ -0,0 +1,136 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import org.icij.datashare.PropertiesProvider;
+import org.icij.datashare.text.Document;
+import org.icij.datashare.text.Language;
+import org.icij.datashare.text.NamedEntity;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.fest.assertions.Assertions.assertThat;
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
+import static org.icij.datashare.text.NamedEntity.Category.PERSON;
+import static org.icij.datashare.text.nlp.Pipeline.Type.CORENLP;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ElasticsearchNamedEntitySinkTest {
+    private final ElasticsearchClient client = mock(ElasticsearchClient.class);
+    private final ElasticsearchIndexer indexer = new ElasticsearchIndexer(client, new PropertiesProvider());
+
+    @Test
+    public void test_groups_the_entities_of_several_documents_in_one_bulk() throws Exception {
+        when(client.bulk(any(BulkRequest.class))).thenReturn(response());
+        try (ElasticsearchNamedEntitySink sink = new ElasticsearchNamedEntitySink(indexer, 100, 1_000_000, Duration.ZERO, 1)) {
+            sink.add("prj", CORENLP, List.of(entity("doc1", "John")), createDoc("doc1").build());
+            sink.add("prj", CORENLP, List.of(entity("doc2", "Jane")), createDoc("doc2").build());
+            verify(client, never()).bulk(any(BulkRequest.class));
+
+            sink.flush();
+        }
+
+        ArgumentCaptor<BulkRequest> request = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(1)).bulk(request.capture());
+        // one entity and one partial update (status and NER tag) per document
+        assertThat(request.getValue().operations()).hasSize(4);
+        assertThat(request.getValue().operations().get(1).isUpdate()).isTrue();
+    }
+
+    @Test
+    public void test_sends_a_bulk_when_max_actions_is_reached() throws Exception {
+        when(client.bulk(any(BulkRequest.class))).thenReturn(response());
+        try (ElasticsearchNamedEntitySink sink = new ElasticsearchNamedEntitySink(indexer, 2, 1_000_000, Duration.ZERO, 1)) {
+            sink.add("prj", List.of(entity("doc1", "John"), entity("doc1", "Jane")));
+            sink.flush();
+            verify(client, times(1)).bulk(any(BulkRequest.class));
+        }
+    }
+
+    @Test
+    public void test_retries_operations_rejected_by_the_cluster() throws Exception {
+        when(client.bulk(any(BulkRequest.class))).thenReturn(
+                response(item(200), item(429)),
+                response(item(200)));
+        ElasticsearchNamedEntitySink sink = new ElasticsearchNamedEntitySink(indexer, 100, 1_000_000, Duration.ZERO, 1, Duration.ofMillis(1));
+
+        sink.add("prj", List.of(entity("doc1", "John"), entity("doc1", "Jane")));
+        sink.close();
+
+        ArgumentCaptor<BulkRequest> request = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, times(2)).bulk(request.capture());
+        assertThat(request.getAllValues().get(1).operations()).hasSize(1);
+        assertThat(sink.failures()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_retries_a_request_rejected_by_the_cluster() throws Exception {
+        when(client.bulk(any(BulkRequest.class)))
+                .thenThrow(new ElasticsearchException("bulk", ErrorResponse.of(e -> e.status(429).error(c -> c.type("es_rejected_execution_exception")))))
+                .thenReturn(response(item(200)));
+        ElasticsearchNamedEntitySink sink = new ElasticsearchNamedEntitySink(indexer, 100, 1_000_000, Duration.ZERO, 1, Duration.ofMillis(1));
+
+        sink.add("prj", List.of(entity("doc1", "John")));
+        sink.close();
+
+        verify(client, times(2)).bulk(any(BulkRequest.class));
+        assertThat(sink.failures()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_counts_failed_operations_without_retrying_them() throws Exception {
+        when(client.bulk(any(BulkRequest.class))).thenReturn(response(item(200), item(400)));
+        ElasticsearchNamedEntitySink sink = new ElasticsearchNamedEntitySink(indexer, 100, 1_000_000, Duration.ZERO, 1, Duration.ofMillis(1));
+
+        sink.add("prj", List.of(entity("doc1", "John"), entity("doc1", "Jane")));
+        sink.close();
+
+        verify(client, times(1)).bulk(any(BulkRequest.class));
+        assertThat(sink.failures()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_gives_up_after_max_retries() throws Exception {
+        when(client.bulk(any(BulkRequest.class))).thenReturn(response(item(429)));
+        ElasticsearchNamedEntitySink sink = new ElasticsearchNamedEntitySink(indexer, 100, 1_000_000, Duration.ZERO, 1, Duration.ofMillis(1));
+
+        sink.add("prj", List.of(entity("doc1", "John")));
+        sink.close();
+
+        verify(client, times(ElasticsearchNamedEntitySink.MAX_RETRIES + 1)).bulk(any(BulkRequest.class));
+        assertThat(sink.failures()).isEqualTo(1);
+    }
+
+    private static NamedEntity entity(String documentId, String mention) {
+        return NamedEntity.create(PERSON, mention, singletonList(12L), documentId, documentId, CORENLP, Language.ENGLISH);
+    }
+
+    private static BulkResponseItem item(int status) {
+        return BulkResponseItem.of(i -> {
+            i.operationType(OperationType.Index).index("prj").id("id").status(status);
+            if (status >= 400) {
+                i.error(e -> e.type(status == 429 ? "es_rejected_execution_exception" : "mapper_parsing_exception").reason("failed"));
+            }
+            return i;
+        });
+    }
+
+    private static BulkResponse response(BulkResponseItem... items) {
+        boolean errors = List.of(items).stream().anyMatch(i -> i.error() != null);
+        return BulkResponse.of(r -> r.errors(errors).took(1).items(List.of(items)));
+    }
+}
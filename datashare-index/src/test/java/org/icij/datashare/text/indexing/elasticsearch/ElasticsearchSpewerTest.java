@@ -26,6 +26,7 @@ import org.icij.extract.document.DocumentFactory;
 import org.icij.extract.document.PathIdentifier;
 import org.icij.extract.document.TikaDocument;
 import org.icij.extract.extractor.Extractor;
+import org.icij.extract.queue.DocumentQueue;
 import org.icij.spewer.FieldNames;
 import org.icij.task.Options;
 import org.junit.After;
@@ -33,6 +34,7 @@ import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.rules.TemporaryFolder;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 import java.io.ByteArrayInputStream;
@@ -81,6 +83,26 @@ public class ElasticsearchSpewerTest {
         assertThat(entry.status()).isEqualTo(ManifestEntryStatus.EMPTY);
     }
 
+    @Test
+    public void test_write_records_manifest_before_enqueuing() throws Exception {
+        DocumentCollectionFactory<String> queueFactory = Mockito.mock(DocumentCollectionFactory.class);
+        DocumentQueue<String> queue = Mockito.mock(DocumentQueue.class);
+        Mockito.when(queueFactory.createQueue(Mockito.anyString(), Mockito.eq(String.class))).thenReturn(queue);
+        Mockito.when(queue.offer(Mockito.anyString())).thenReturn(true);
+        ManifestRepository repository = Mockito.spy(new FilesystemManifestRepository());
+        ElasticsearchSpewer recordingSpewer = new ElasticsearchSpewer(Mockito.mock(Indexer.class), queueFactory, text -> Language.ENGLISH,
+                new FieldNames(), new PropertiesProvider());
+        recordingSpewer.setManifestRecorder(new ManifestRecorder(repository, artifactDir.getRoot().toPath().resolve("prj"), List.of(new RawArtifact()), false));
+        final TikaDocument document = new DocumentFactory().withIdentifier(new PathIdentifier()).create(get("ordered-file.txt"));
+        document.setReader(new ParsingReader(new ByteArrayInputStream("test".getBytes())));
+
+        recordingSpewer.write(document);
+
+        InOrder inOrder = Mockito.inOrder(repository, queue);
+        inOrder.verify(repository).put(Mockito.any(), Mockito.eq("raw"), Mockito.any());
+        inOrder.verify(queue).offer(Mockito.anyString());
+    }
+
     @Test
     public void test_simple_write() throws Exception {
         final TikaDocument document = new DocumentFactory().withIdentifier(new PathIdentifier()).create(get("test-file.txt"));
@@ -663,6 +685,28 @@ public class ElasticsearchSpewerTest {
         Mockito.verify(indexer).createIndex("bar");
     }
 
+    @Test
+    public void test_bulk_mode_enqueues_documents_once_flushed() throws Exception {
+        Indexer indexer = Mockito.mock(Indexer.class);
+        Mockito.when(indexer.bulkAdd(Mockito.eq("foo"), Mockito.anyList())).thenReturn(true);
+        MemoryDocumentCollectionFactory<String> queueFactory = new MemoryDocumentCollectionFactory<>();
+        ElasticsearchSpewer bulkSpewer = new ElasticsearchSpewer(indexer, queueFactory, text -> Language.ENGLISH, new FieldNames(), new PropertiesProvider());
+        bulkSpewer.configure(Options.from(new HashMap<>() {{
+            put("defaultProject", "foo");
+            put("indexBulkSize", "10");
+        }}));
+        final TikaDocument document = new DocumentFactory().withIdentifier(new PathIdentifier()).create(get("bulk-file.txt"));
+        document.setReader(new ParsingReader(new ByteArrayInputStream("test".getBytes())));
+
+        bulkSpewer.write(document);
+        assertThat(queueFactory.createQueue("extract:queue:nlp", String.class).size()).isEqualTo(0);
+
+        bulkSpewer.closeBulkBuffer();
+        Mockito.verify(indexer, Mockito.never()).add(Mockito.eq("foo"), Mockito.any(Entity.class));
+        Mockito.verify(indexer).bulkAdd(Mockito.eq("foo"), Mockito.anyList());
+        assertThat(queueFactory.createQueue("extract:queue:nlp", String.class).size()).isEqualTo(1);
+    }
+
     @Test
     public void test_write_fills_content_type_category() throws Exception {
         TikaDocument doc = aTikaDocWithContentType("application/pdf");
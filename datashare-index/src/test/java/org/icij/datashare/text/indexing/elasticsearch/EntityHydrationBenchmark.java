@@ -0,0 +1,77 @@
+package org.icij.datashare.text.indexing.elasticsearch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.icij.datashare.json.JsonObjectMapper;
+import org.icij.datashare.text.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.icij.datashare.text.DocumentBuilder.createDoc;
+
+/**
+ * Compares the former hydration of an entity from an Elasticsearch {@code _source} (tree written to a
+ * String, parsed to a Map, written and parsed again by {@link JsonObjectMapper#getObject(Map, Class)})
+ * with the conversion of the tree itself used by {@link ElasticsearchIndexer#get}.
+ *
+ * <p>It is not run by the test suite. Run it from the module with:</p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.icij.datashare.text.indexing.elasticsearch.EntityHydrationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EntityHydrationBenchmark {
+    @Param({"10240", "1048576", "52428800"})
+    public int contentSize;
+
+    private ObjectNode source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Document doc = createDoc("id").with("a".repeat(contentSize)).with(Paths.get("/path/to/doc.txt")).build();
+        source = JsonObjectMapper.getMapper().valueToTree(doc);
+        source.put("type", "Document");
+    }
+
+    @Benchmark
+    public Document stringAndMapRoundTrip() throws IOException {
+        Map<String, Object> sourceAsMap = JsonObjectMapper.readValue(JsonObjectMapper.writeValueAsString(source), new TypeReference<>() {});
+        sourceAsMap.put("rootDocument", "id");
+        return JsonObjectMapper.getObject("id", "prj", sourceAsMap, Document.class);
+    }
+
+    @Benchmark
+    public Document treeToValue() {
+        // the tree is modified in place, setting the same values at each call
+        source.put("rootDocument", "id");
+        return JsonObjectMapper.getObject("id", "prj", source, Document.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EntityHydrationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
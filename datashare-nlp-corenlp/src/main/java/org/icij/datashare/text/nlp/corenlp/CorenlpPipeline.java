@@ -5,7 +5,9 @@ import static org.icij.datashare.text.nlp.corenlp.models.CoreNlpModels.SUPPORTED
 import com.google.inject.Inject;
 import edu.stanford.nlp.pipeline.CoreDocument;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.function.ThrowingFunctions;
@@ -33,9 +35,28 @@ import org.icij.datashare.text.nlp.corenlp.models.CoreNlpModels;
  * Created by julien on 3/24/16.
  */
 public final class CorenlpPipeline extends AbstractPipeline {
+    private final PropertiesProvider propertiesProvider;
+    // null for the registered pipeline, which uses the annotators shared by CoreNlpModels
+    private final Map<Language, StanfordCoreNLP> workerAnnotators;
+
     @Inject
     public CorenlpPipeline(final PropertiesProvider propertiesProvider) {
+        this(propertiesProvider, null);
+    }
+
+    private CorenlpPipeline(final PropertiesProvider propertiesProvider, Map<Language, StanfordCoreNLP> workerAnnotators) {
         super(propertiesProvider.getProperties());
+        this.propertiesProvider = propertiesProvider;
+        this.workerAnnotators = workerAnnotators;
+    }
+
+    /**
+     * @return a pipeline with its own annotators, to be used by a single worker thread. They are borrowed
+     * from {@link CoreNlpModels} and given back by {@link #terminate(Language)}.
+     */
+    @Override
+    public Pipeline newWorker() {
+        return new CorenlpPipeline(propertiesProvider, new HashMap<>());
     }
 
     /**
@@ -65,6 +86,11 @@ public final class CorenlpPipeline extends AbstractPipeline {
     @Override
     public void terminate(Language language) throws InterruptedException {
         super.terminate(language);
+        // the worker is done with its annotator: the next worker of the language reuses it
+        StanfordCoreNLP annotator = workerAnnotators == null ? null : workerAnnotators.remove(language);
+        if (annotator != null) {
+            CoreNlpModels.getInstance().returnAnnotator(language, annotator);
+        }
         // (Don't) keep pipelines and models
         if (!caching) {
             CoreNlpModels.getInstance().unload(language);
@@ -77,6 +103,18 @@ public final class CorenlpPipeline extends AbstractPipeline {
     }
 
 
+    private StanfordCoreNLP getAnnotator(Language language) throws InterruptedException {
+        if (workerAnnotators == null) {
+            return CoreNlpModels.getInstance().get(language);
+        }
+        StanfordCoreNLP annotator = workerAnnotators.get(language);
+        if (annotator == null) {
+            annotator = CoreNlpModels.getInstance().borrowAnnotator(language);
+            workerAnnotators.put(language, annotator);
+        }
+        return annotator;
+    }
+
     private boolean initializePipelineAnnotator(Language language) throws InterruptedException {
         CoreNlpModels.getInstance().get(language);
         return true;
@@ -93,8 +131,7 @@ public final class CorenlpPipeline extends AbstractPipeline {
             new NamedEntitiesBuilder(getType(), doc.getId(), doc.getLanguage()).withRoot(doc.getRootDocument());
         LOGGER.info("name-finding for {} in document {} (offset {})", doc.getLanguage(), Hasher.shorten(doc.getId(), 4),
             contentOffset);
-        final StanfordCoreNLP annotator;
-        annotator = CoreNlpModels.getInstance().get(doc.getLanguage());
+        final StanfordCoreNLP annotator = getAnnotator(doc.getLanguage());
         String text = doc.getContent()
             .substring(contentOffset, Math.min(contentOffset + contentLength, doc.getContentTextLength()));
         CoreDocument codeDoc = annotator.processToCoreDocument(text);
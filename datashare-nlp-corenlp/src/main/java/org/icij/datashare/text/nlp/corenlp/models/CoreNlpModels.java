@@ -8,11 +8,16 @@ import static org.icij.datashare.text.Language.HUNGARIAN;
 import static org.icij.datashare.text.Language.ITALIAN;
 import static org.icij.datashare.text.Language.SPANISH;
 
+import edu.stanford.nlp.pipeline.AnnotatorPool;
 import edu.stanford.nlp.pipeline.LanguageInfo;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import org.icij.datashare.text.Language;
@@ -34,12 +39,56 @@ public class CoreNlpModels extends AbstractModels<StanfordCoreNLP> {
 
     private static volatile CoreNlpModels instance;
     private static final Object mutex = new Object();
+    // annotators of the workers that are done, by language
+    private final Map<Language, Deque<StanfordCoreNLP>> idleAnnotators = new HashMap<>();
 
     @Override
     protected StanfordCoreNLP loadModelFile(Language language) throws IOException {
         LOGGER.info("loading pipeline Annotator for " + language);
         Path modelFilePath = getModelFilePath(language);
         super.addResourceToContextClassLoader(modelFilePath);
+        return new StanfordCoreNLP(annotatorProperties(language), true);
+    }
+
+    /**
+     * Lends an annotator for the given language that shares no annotator instance with the one
+     * returned by {@link #get(Language)}: StanfordCoreNLP annotators are not guaranteed to be
+     * thread-safe, so each concurrent NLP worker owns its own. One given back with
+     * {@link #returnAnnotator} is lent again rather than reloading the NER models for the next worker.
+     */
+    public StanfordCoreNLP borrowAnnotator(Language language) throws InterruptedException {
+        // loads the model files into the classpath once
+        get(language);
+        synchronized (idleAnnotators) {
+            Deque<StanfordCoreNLP> idle = idleAnnotators.get(language);
+            if (idle != null && !idle.isEmpty()) {
+                return idle.pop();
+            }
+        }
+        try {
+            LOGGER.info("loading dedicated pipeline Annotator for " + language);
+            return new StanfordCoreNLP(annotatorProperties(language), true, new AnnotatorPool());
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot load annotator properties for " + language, e);
+        }
+    }
+
+    /** Gives back an annotator lent by {@link #borrowAnnotator}, once its worker does not use it anymore. */
+    public void returnAnnotator(Language language, StanfordCoreNLP annotator) {
+        synchronized (idleAnnotators) {
+            idleAnnotators.computeIfAbsent(language, l -> new ArrayDeque<>()).push(annotator);
+        }
+    }
+
+    @Override
+    public void unload(Language language) throws InterruptedException {
+        super.unload(language);
+        synchronized (idleAnnotators) {
+            idleAnnotators.remove(language);
+        }
+    }
+
+    private Properties annotatorProperties(Language language) throws IOException {
         // Load base model
         String propertyFileName = LanguageInfo.getLanguagePropertiesFile(language.name().toLowerCase());
         Properties properties = new Properties();
@@ -51,8 +100,7 @@ public class CoreNlpModels extends AbstractModels<StanfordCoreNLP> {
         // in the tokenize step
         properties.setProperty("annotators", "tokenize,ner");
         properties.setProperty("ner.applyFineGrained", "false");
-
-        return new StanfordCoreNLP(properties, true);
+        return properties;
     }
 
     public static CoreNlpModels getInstance() {
@@ -0,0 +1,146 @@
+package org.icij.datashare.asynctasks;
+
+import org.icij.datashare.batch.WebQueryPagination;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Task repository keeping the last progress of each task in memory, and writing the progress of all the
+ * tasks with one batched call every {@code flushIntervalMs}.
+ *
+ * <p>Everything but the progress is written through: when a task is updated (result, error, cancel), its
+ * pending progress is dropped and the update is written synchronously. Tasks read from this repository
+ * carry their pending progress.</p>
+ */
+public class CoalescingTaskRepository implements TaskRepository, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingTaskRepository.class);
+    private final TaskRepository delegate;
+    private final ConcurrentHashMap<String, Double> pendingProgress = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public CoalescingTaskRepository(TaskRepository delegate, long flushIntervalMs) {
+        if (flushIntervalMs < 1) {
+            throw new IllegalArgumentException("progress flush interval should be strictly positive");
+        }
+        this.delegate = delegate;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-progress-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("task progress written every {}ms", flushIntervalMs);
+    }
+
+    @Override
+    public void updateProgress(String taskId, double progress) {
+        pendingProgress.put(taskId, progress);
+    }
+
+    @Override
+    public void updateProgress(Map<String, Double> progressByTaskId) {
+        pendingProgress.putAll(progressByTaskId);
+    }
+
+    /** Writes the pending progress of all tasks. */
+    public void flush() throws IOException {
+        Map<String, Double> toWrite = new HashMap<>();
+        for (String taskId : pendingProgress.keySet()) {
+            Double progress = pendingProgress.remove(taskId);
+            if (progress != null) {
+                toWrite.put(taskId, progress);
+            }
+        }
+        if (!toWrite.isEmpty()) {
+            delegate.updateProgress(toWrite);
+        }
+    }
+
+    @Override
+    public <V extends Serializable> void update(Task<V> task) throws IOException, UnknownTask {
+        pendingProgress.remove(task.id);
+        delegate.update(task);
+    }
+
+    @Override
+    public <V extends Serializable> Task<V> getTask(String taskId) throws IOException, UnknownTask {
+        return withPendingProgress(delegate.getTask(taskId));
+    }
+
+    @Override
+    public Stream<Task<? extends Serializable>> getTasks(TaskFilters filters) throws IOException, UnknownTask {
+        return delegate.getTasks(filters).map(this::withPendingProgress);
+    }
+
+    @Override
+    public Stream<Task<? extends Serializable>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return delegate.getTasks(filters, pagination, summary).map(this::withPendingProgress);
+    }
+
+    @Override
+    public int countTasks(TaskFilters filters) throws IOException {
+        return delegate.countTasks(filters);
+    }
+
+    @Override
+    public <V extends Serializable> void insert(Task<V> task, Group group) throws IOException, TaskAlreadyExists {
+        delegate.insert(task, group);
+    }
+
+    @Override
+    public <V extends Serializable> Task<V> delete(String taskId) throws IOException, UnknownTask {
+        pendingProgress.remove(taskId);
+        return delegate.delete(taskId);
+    }
+
+    @Override
+    public void deleteAll() throws IOException, UnknownTask {
+        pendingProgress.clear();
+        delegate.deleteAll();
+    }
+
+    @Override
+    public Group getTaskGroup(String taskId) throws IOException, UnknownTask {
+        return delegate.getTaskGroup(taskId);
+    }
+
+    @Override
+    public Stream<String> getTaskIds(TaskFilters filters) throws IOException {
+        return delegate.getTaskIds(filters);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    private <V extends Serializable> Task<V> withPendingProgress(Task<V> task) {
+        if (task != null && !task.getState().isFinal()) {
+            Double progress = pendingProgress.get(task.id);
+            if (progress != null) {
+                task.setProgress(progress);
+            }
+        }
+        return task;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            logger.error("cannot write task progress", e);
+        }
+    }
+}
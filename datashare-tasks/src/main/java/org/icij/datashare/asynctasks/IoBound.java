@@ -0,0 +1,15 @@
+package org.icij.datashare.asynctasks;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a task that mostly waits on I/O (search requests, database, network). When it has concurrent slots
+ * in a {@link TaskWorkerLoop}, it runs on virtual threads instead of platform threads.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface IoBound {
+}
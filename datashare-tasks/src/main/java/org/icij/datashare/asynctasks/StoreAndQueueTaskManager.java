@@ -18,6 +18,15 @@ interface StoreAndQueueTaskManager extends TaskManager {
 
     <V extends Serializable> void update(Task<V> task) throws IOException, UnknownTask;
 
+    /**
+     * Writes only the progress of a task, without reading it first.
+     *
+     * @param taskId id of the task
+     * @param progress progress rate between 0 and 1
+     * @throws UnknownTask if the task does not exist
+     */
+    void updateProgress(String taskId, double progress) throws IOException, UnknownTask;
+
     /**
      * This is a "inner method" that is used in the template method for start(task).
      * It put the task in the task queue for workers.
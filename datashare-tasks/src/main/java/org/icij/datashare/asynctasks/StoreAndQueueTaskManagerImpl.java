@@ -12,6 +12,13 @@ import org.icij.datashare.asynctasks.bus.amqp.TaskEvent;
  * Task manager back by a queueing system and a persistent storay
  */
 abstract class StoreAndQueueTaskManagerImpl implements StoreAndQueueTaskManager {
+    // raised on result, error and cancel events, whether they come from the bus or from a worker in the same JVM
+    protected final TaskCompletionSignal completionSignal = new TaskCompletionSignal();
+
+    @Override
+    public TaskCompletionSignal getCompletionSignal() {
+        return completionSignal;
+    }
 
      // For test
     abstract protected Group getTaskGroup(String taskId) throws IOException;
@@ -78,41 +85,49 @@ abstract class StoreAndQueueTaskManagerImpl implements StoreAndQueueTaskManager
         return taskView;
     }
 
-    private <V extends Serializable> Task<V> setProgress(ProgressEvent e) throws IOException, UnknownTask {
+    // progress events are the most frequent ones: the task is not read, only its progress is written
+    private boolean setProgress(ProgressEvent e) throws IOException {
         logger.debug("progress event for {}", e.taskId);
         try {
-            Task<V> taskView = getTask(e.taskId);
-            if (taskView != null) {
-                taskView.setProgress(e.progress);
-                update(taskView);
-            }
-            return taskView;
+            updateProgress(e.taskId, e.progress);
+            return true;
         } catch (UnknownTask ex) {
             throw new NackException(ex, false);
         }
     }
 
-    protected final <V extends Serializable> Task<V> handleAck(TaskEvent e) {
+    /**
+     * @return true if the event has been applied to its task
+     */
+    protected final <V extends Serializable> boolean handleAck(TaskEvent e) {
         try {
             if (e instanceof CancelledEvent ce) {
-                return setCanceled(ce);
+                return signalIfApplied(setCanceled(ce));
             }
             if (e instanceof ResultEvent) {
-                return setResult((ResultEvent<V>) e);
+                return signalIfApplied(setResult((ResultEvent<V>) e));
             }
             if (e instanceof ErrorEvent ee) {
-                return setError(ee);
+                return signalIfApplied(setError(ee));
             }
             if (e instanceof ProgressEvent pe) {
                 return setProgress(pe);
             }
             logger.warn("received event not handled {}", e);
-            return null;
+            return false;
         } catch (IOException | UnknownTask ioe) {
             throw new TaskEventHandlingException(ioe);
         }
     }
 
+    private boolean signalIfApplied(Task<?> task) {
+        if (task == null) {
+            return false;
+        }
+        completionSignal.signal();
+        return true;
+    }
+
     protected static class TaskEventHandlingException extends RuntimeException {
         public TaskEventHandlingException(Exception cause) {
             super(cause);
@@ -0,0 +1,35 @@
+package org.icij.datashare.asynctasks;
+
+/**
+ * Wakes up the threads waiting for tasks to be done whenever a task reaches a final state.
+ *
+ * <p>Waiters read {@link #completions()} before checking the tasks, then {@link #await(long, long)} with that
+ * value: a completion signaled in between is not missed.</p>
+ */
+public class TaskCompletionSignal {
+    private long completions = 0;
+
+    public synchronized void signal() {
+        completions++;
+        notifyAll();
+    }
+
+    public synchronized long completions() {
+        return completions;
+    }
+
+    /**
+     * Waits until a task completes after the given number of completions, or until the timeout elapses.
+     *
+     * @return true if a task has completed
+     */
+    public synchronized boolean await(long seenCompletions, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long remaining = timeoutMs;
+        while (completions == seenCompletions && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return completions != seenCompletions;
+    }
+}
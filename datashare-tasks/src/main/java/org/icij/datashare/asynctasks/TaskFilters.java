@@ -64,6 +64,10 @@ public final class TaskFilters {
         return user;
     }
 
+    public Integer getRegexFlags() {
+        return regexFlags;
+    }
+
     public TaskFilters with(User taskUser) {
         return new TaskFilters(args, states, types, name, taskUser, regexFlags);
     }
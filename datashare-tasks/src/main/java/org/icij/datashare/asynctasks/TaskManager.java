@@ -3,6 +3,7 @@ package org.icij.datashare.asynctasks;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Function;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.user.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +24,8 @@ import static org.icij.datashare.asynctasks.Task.State.NON_FINAL_STATES;
  */
 public interface TaskManager extends Closeable {
     int POLLING_INTERVAL = 5000;
+    // with completion events, the task states are only polled in case an event has been missed
+    int COMPLETION_FALLBACK_POLLING_FACTOR = 6;
 
     Logger logger = LoggerFactory.getLogger(TaskManager.class);
     <V extends Serializable> String     startTask(Task<V> taskView, Group group) throws IOException, TaskAlreadyExists;
@@ -37,6 +40,14 @@ public interface TaskManager extends Closeable {
     default Stream<Task<?>> getTasks() throws IOException {
         return getTasks(new TaskFilters());
     }
+    // Sorted page of tasks, see TaskRepository#getTasks(TaskFilters, WebQueryPagination, boolean)
+    default Stream<Task<?>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return getTasks(filters).sorted(new Task.Comparator(pagination.sort, pagination.order))
+            .skip(pagination.from).limit(pagination.size);
+    }
+    default int countTasks(TaskFilters filters) throws IOException {
+        return (int) getTaskIds(filters).count();
+    }
 
     // Fast and internal task state search for internal operations
     Stream<String> getTaskIds(TaskFilters filters) throws IOException;
@@ -52,6 +63,14 @@ public interface TaskManager extends Closeable {
     boolean getHealth() throws IOException;
     int getTerminationPollingInterval();
 
+    /**
+     * @return the signal raised when a task handled by this manager reaches a final state, or null if the
+     * manager has no completion events: {@link #waitTasksToBeDone(int, TimeUnit)} then polls the task states.
+     */
+    default TaskCompletionSignal getCompletionSignal() {
+        return null;
+    }
+
     default boolean awaitTermination(int timeout, TimeUnit timeUnit) throws InterruptedException, IOException {
         return waitTasksToBeDone(timeout, timeUnit) == 0L;
     }
@@ -110,8 +129,10 @@ public interface TaskManager extends Closeable {
 
     /**
      * wait for all the tasks to have a result.
-     * This method will poll the task list. So if there are a lot of tasks or if tasks are
-     * containing a lot of information, this method call could be very intensive on network and CPU.
+     * The unfinished tasks are counted again each time a task completes, when the manager has a
+     * {@link #getCompletionSignal() completion signal}, and at least every polling interval otherwise.
+     * Without the signal, if there are a lot of tasks or if tasks are containing a lot of information,
+     * this method call could be very intensive on network and CPU.
      *
      * @param timeout amount for the timeout
      * @param timeUnit unit of the timeout
@@ -125,25 +146,46 @@ public interface TaskManager extends Closeable {
     default long waitTasksToBeDone(int timeout, TimeUnit timeUnit, Set<String> scopeTaskIds) throws IOException {
         long startTime = System.currentTimeMillis();
         long maxDuration = timeUnit.toMillis(timeout);
+        TaskCompletionSignal signal = getCompletionSignal();
+        long pollingInterval = signal == null ? getTerminationPollingInterval() : (long) getTerminationPollingInterval() * COMPLETION_FALLBACK_POLLING_FACTOR;
         TaskFilters filterNotCompleted = new TaskFilters().withStates(NON_FINAL_STATES);
+        long seenCompletions = signal == null ? 0 : signal.completions();
         long nUnfinished = countUnfinished(filterNotCompleted, scopeTaskIds);
-        while (System.currentTimeMillis() - startTime < maxDuration && nUnfinished > 0) {
+        long elapsed = System.currentTimeMillis() - startTime;
+        while (elapsed < maxDuration && nUnfinished > 0) {
             try {
-                Thread.sleep(Math.min(getTerminationPollingInterval(), maxDuration));
+                long waitMs = Math.min(pollingInterval, maxDuration - elapsed);
+                if (signal == null) {
+                    Thread.sleep(waitMs);
+                } else {
+                    signal.await(seenCompletions, waitMs);
+                    seenCompletions = signal.completions();
+                }
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
             nUnfinished = countUnfinished(filterNotCompleted, scopeTaskIds);
+            elapsed = System.currentTimeMillis() - startTime;
         }
         return nUnfinished;
     }
 
     private long countUnfinished(TaskFilters filterNotCompleted, Set<String> scopeTaskIds) throws IOException {
-        Stream<String> unfinished = getTaskIds(filterNotCompleted);
         if (scopeTaskIds != null) {
-            unfinished = unfinished.filter(scopeTaskIds::contains);
+            // only the tasks of the scope are read, not the whole repository
+            long unfinished = 0;
+            for (String taskId : scopeTaskIds) {
+                try {
+                    if (!getTask(taskId).getState().isFinal()) {
+                        unfinished++;
+                    }
+                } catch (UnknownTask ignored) {
+                    // not in the task list: it doesn't count as unfinished
+                }
+            }
+            return unfinished;
         }
-        return unfinished.count();
+        return getTaskIds(filterNotCompleted).count();
     }
 
     // for tests
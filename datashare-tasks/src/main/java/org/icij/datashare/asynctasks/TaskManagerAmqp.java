@@ -3,6 +3,7 @@ package org.icij.datashare.asynctasks;
 import java.util.List;
 import java.util.function.Consumer;
 import org.icij.datashare.asynctasks.bus.amqp.*;
+import org.icij.datashare.batch.WebQueryPagination;
 
 import org.icij.datashare.tasks.RoutingStrategy;
 
@@ -38,7 +39,11 @@ public class TaskManagerAmqp extends StoreAndQueueTaskManagerImpl {
         this.tasks = tasks;
         this.routingStrategy = routingStrategy;
         this.taskPollingIntervalMs = taskPollingIntervalMs;
-        eventConsumer = new AmqpConsumer<>(amqp, event -> ofNullable(this.handleAck(event)).flatMap(t -> ofNullable(eventCallback)).ifPresent(Runnable::run), AmqpQueue.MANAGER_EVENT, TaskEvent.class).consumeEvents();
+        eventConsumer = new AmqpConsumer<>(amqp, event -> {
+            if (this.handleAck(event)) {
+                ofNullable(eventCallback).ifPresent(Runnable::run);
+            }
+        }, AmqpQueue.MANAGER_EVENT, TaskEvent.class).consumeEvents();
     }
 
     @Override
@@ -83,6 +88,11 @@ public class TaskManagerAmqp extends StoreAndQueueTaskManagerImpl {
         tasks.update(task);
     }
 
+    @Override
+    public void updateProgress(String taskId, double progress) throws IOException, UnknownTask {
+        tasks.updateProgress(taskId, progress);
+    }
+
     @Override
     public <V extends Serializable> void enqueue(Task<V> task) throws IOException {
         switch (routingStrategy) {
@@ -102,6 +112,16 @@ public class TaskManagerAmqp extends StoreAndQueueTaskManagerImpl {
         return tasks.getTasks(filters);
     }
 
+    @Override
+    public Stream<Task<?>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return tasks.getTasks(filters, pagination, summary);
+    }
+
+    @Override
+    public int countTasks(TaskFilters filters) throws IOException {
+        return tasks.countTasks(filters);
+    }
+
     @Override
     public Stream<String> getTaskIds(TaskFilters filters) throws IOException {
         return tasks.getTaskIds(filters);
@@ -5,6 +5,7 @@ import org.apache.commons.lang3.NotImplementedException;
 import org.icij.datashare.PropertiesProvider;
 import org.icij.datashare.asynctasks.bus.amqp.Event;
 import org.icij.datashare.asynctasks.bus.amqp.TaskError;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,7 +44,9 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
         taskPollingIntervalMs = Integer.parseInt(propertiesProvider.get("taskManagerPollingIntervalMilliseconds").orElse(String.valueOf(DEFAULT_TASK_POLLING_INTERVAL_MS)));
         logger.info("running TaskManager {} with {} workers", this, parallelism);
         executor = Executors.newFixedThreadPool(parallelism);
-        loops = IntStream.range(0, parallelism).mapToObj(i -> new TaskWorkerLoop(taskFactory, this, latch, pollingInterval)).collect(Collectors.toList());
+        String slots = propertiesProvider.get("taskWorkerSlots").orElse(null);
+        loops = IntStream.range(0, parallelism).mapToObj(i -> new TaskWorkerLoop(taskFactory, this, TaskSlots.parse(slots), latch, 60_000, pollingInterval))
+                .collect(Collectors.toList());
         loops.forEach(executor::submit);
         this.tasks = tasks;
     }
@@ -57,6 +60,16 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
         return tasks.getTasks(filters);
     }
 
+    @Override
+    public Stream<Task<?>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return tasks.getTasks(filters, pagination, summary);
+    }
+
+    @Override
+    public int countTasks(TaskFilters filters) throws IOException {
+        return tasks.countTasks(filters);
+    }
+
     @Override
     public Stream<String> getTaskIds(TaskFilters filters) throws IOException {
         return tasks.getTaskIds(filters);
@@ -65,9 +78,7 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
     @Override
     public Void progress(String taskId, double rate) {
         try {
-            Task<Serializable> task = getTask(taskId);
-            task.setProgress(rate);
-            update(task);
+            updateProgress(taskId, rate);
         } catch (UnknownTask ex) {
             logger.warn("unknown task id <{}> for progress={} call", taskId, rate);
         } catch (IOException e) {
@@ -83,6 +94,7 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
             task.setResult(result);
             update(task);
             executedTasks.incrementAndGet();
+            completionSignal.signal();
         } catch (UnknownTask ex) {
             logger.warn("unknown task id <{}> for result={} call", taskId, result);
         } catch (IOException e) {
@@ -97,6 +109,7 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
              taskView = getTask(task.id);
              taskView.cancel();
              update(taskView);
+             completionSignal.signal();
         } catch (UnknownTask ex) {
             logger.warn("unknown task id <{}> for cancel={} call", task.id, requeue);
         } catch (IOException e) {
@@ -107,6 +120,11 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
         }
     }
 
+    @Override
+    public void requeue(Task<?> task) {
+        taskQueue.offer(task);
+    }
+
     @Override
     public void error(String taskId, TaskError reason) {
         try {
@@ -114,6 +132,7 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
             task.setError(reason);
             update(task);
             executedTasks.incrementAndGet();
+            completionSignal.signal();
         } catch (UnknownTask ex) {
             logger.warn("unknown task id <{}> for error={} call", taskId, reason.toString());
         } catch (IOException e) {
@@ -241,6 +260,13 @@ public class TaskManagerMemory extends StoreAndQueueTaskManagerImpl implements T
         }
     }
 
+    @Override
+    public void updateProgress(String taskId, double progress) throws IOException, UnknownTask {
+        synchronized (tasks) {
+            tasks.updateProgress(taskId, progress);
+        }
+    }
+
     @Override
     public void addEventListener(Consumer<Event> callback) {
         // no need for this we use task runner reference for stopping tasks
@@ -10,6 +10,7 @@ import org.icij.datashare.asynctasks.bus.amqp.AmqpQueue;
 import org.icij.datashare.asynctasks.bus.amqp.CancelEvent;
 import org.icij.datashare.asynctasks.bus.amqp.ShutdownEvent;
 import org.icij.datashare.asynctasks.bus.amqp.TaskEvent;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.json.JsonObjectMapper;
 import org.icij.datashare.tasks.RoutingStrategy;
 import org.redisson.Redisson;
@@ -75,6 +76,16 @@ public class TaskManagerRedis extends StoreAndQueueTaskManagerImpl {
         return tasks.getTasks(filters);
     }
 
+    @Override
+    public Stream<Task<?>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return tasks.getTasks(filters, pagination, summary);
+    }
+
+    @Override
+    public int countTasks(TaskFilters filters) throws IOException {
+        return tasks.countTasks(filters);
+    }
+
     @Override
     public Stream<String> getTaskIds(TaskFilters filters) throws IOException {
         return tasks.getTaskIds(filters);
@@ -121,7 +132,9 @@ public class TaskManagerRedis extends StoreAndQueueTaskManagerImpl {
     }
 
     public void handleEvent(TaskEvent e) {
-        ofNullable(this.handleAck(e)).flatMap(t -> ofNullable(eventCallback)).ifPresent(Runnable::run);
+        if (this.handleAck(e)) {
+            ofNullable(eventCallback).ifPresent(Runnable::run);
+        }
     }
 
     @Override
@@ -186,6 +199,11 @@ public class TaskManagerRedis extends StoreAndQueueTaskManagerImpl {
         tasks.update(task);
     }
 
+    @Override
+    public void updateProgress(String taskId, double progress) throws IOException, UnknownTask {
+        tasks.updateProgress(taskId, progress);
+    }
+
     private void clearTaskQueues() {
         RKeys keys = redissonClient.getKeys();
         Iterable<String> iterable = keys.getKeysByPattern(AmqpQueue.TASK.name() + "*", 100);
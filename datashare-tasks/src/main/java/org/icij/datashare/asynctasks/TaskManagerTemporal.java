@@ -4,6 +4,7 @@ import io.grpc.StatusRuntimeException;
 import io.temporal.client.WorkflowExecutionAlreadyStarted;
 import io.temporal.common.SearchAttributes;
 import org.icij.datashare.asynctasks.temporal.TemporalInterlocutor;
+import org.icij.datashare.batch.WebQueryPagination;
 import org.icij.datashare.tasks.RoutingStrategy;
 
 import java.io.IOException;
@@ -25,6 +26,7 @@ public class TaskManagerTemporal implements TaskManager {
     private final RoutingStrategy routingStrategy;
     private final TaskRepository taskRepository;
     protected final ConcurrentHashMap<String, CompletableFuture<Serializable>> pendingListeners = new ConcurrentHashMap<>();
+    private final TaskCompletionSignal completionSignal = new TaskCompletionSignal();
 
     // TODO: add support for continue-as-new https://docs.temporal.io/develop/java/continue-as-new
 
@@ -62,6 +64,16 @@ public class TaskManagerTemporal implements TaskManager {
         return taskRepository.getTasks(filters);
     }
 
+    @Override
+    public Stream<Task<?>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return taskRepository.getTasks(filters, pagination, summary);
+    }
+
+    @Override
+    public int countTasks(TaskFilters filters) throws IOException {
+        return taskRepository.countTasks(filters);
+    }
+
     @Override
     public Stream<String> getTaskIds(TaskFilters filters) throws IOException {
         return taskRepository.getTaskIds(filters);
@@ -153,6 +165,8 @@ public class TaskManagerTemporal implements TaskManager {
                 taskRepository.update(storedTask);
             } catch (IOException | UnknownTask e) {
                 logger.warn("failed to update task {} on completion", taskId, e);
+            } finally {
+                completionSignal.signal();
             }
         });
     }
@@ -209,6 +223,12 @@ public class TaskManagerTemporal implements TaskManager {
         }
     }
 
+    // raised when the result future of a workflow completes
+    @Override
+    public TaskCompletionSignal getCompletionSignal() {
+        return completionSignal;
+    }
+
     @Override
     public int getTerminationPollingInterval() {
         // We need a high interval to let the server propagate deletions
@@ -1,7 +1,10 @@
 package org.icij.datashare.asynctasks;
 
+import org.icij.datashare.batch.WebQueryPagination;
+
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Map;
 import java.util.stream.Stream;
 
 public interface TaskRepository {
@@ -11,6 +14,31 @@ public interface TaskRepository {
 
     <V extends Serializable> void update(Task<V> task) throws IOException, UnknownTask;
 
+    /**
+     * Sets the progress of a task and marks it as running, unless it is already in a final state: a
+     * progress arriving after the result must not bring the task back to life.
+     */
+    default void updateProgress(String taskId, double progress) throws IOException, UnknownTask {
+        Task<?> task = getTask(taskId);
+        if (!task.getState().isFinal()) {
+            task.setProgress(progress);
+            update(task);
+        }
+    }
+
+    /**
+     * Same as {@link #updateProgress(String, double)} for several tasks. Unknown tasks are ignored.
+     */
+    default void updateProgress(Map<String, Double> progressByTaskId) throws IOException {
+        for (Map.Entry<String, Double> progress : progressByTaskId.entrySet()) {
+            try {
+                updateProgress(progress.getKey(), progress.getValue());
+            } catch (UnknownTask ignored) {
+                // deleted since its last progress
+            }
+        }
+    }
+
     <V extends Serializable> Task<V> delete(String taskId) throws IOException, UnknownTask;
 
     void deleteAll() throws IOException, UnknownTask;
@@ -20,4 +48,18 @@ public interface TaskRepository {
 
     Stream<Task<? extends Serializable>> getTasks(TaskFilters filters) throws IOException, UnknownTask;
     Stream<String> getTaskIds(TaskFilters filters) throws IOException;
+
+    /**
+     * Page of the tasks matching the filters, sorted with one of the {@link Task.Comparator#SORT_FIELDS}.
+     * With {@code summary}, repositories may leave out the big task args (document lists for instance):
+     * the task then only has its user in its args.
+     */
+    default Stream<Task<? extends Serializable>> getTasks(TaskFilters filters, WebQueryPagination pagination, boolean summary) throws IOException {
+        return getTasks(filters).sorted(new Task.Comparator(pagination.sort, pagination.order))
+            .skip(pagination.from).limit(pagination.size);
+    }
+
+    default int countTasks(TaskFilters filters) throws IOException {
+        return (int) getTaskIds(filters).count();
+    }
 }
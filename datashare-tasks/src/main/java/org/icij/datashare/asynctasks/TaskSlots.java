@@ -0,0 +1,139 @@
+package org.icij.datashare.asynctasks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Integer.parseInt;
+
+/**
+ * Number of tasks of each type that a {@link TaskWorkerLoop} runs at the same time.
+ *
+ * <p>Slots are declared with the simple class name of the task, for example
+ * {@code BatchSearchRunner=4,IndexTask=1}. Task types that are not listed share {@link #DEFAULT_SLOTS}
+ * slot(s) on platform threads. Each listed type has its own executor: virtual threads for {@link IoBound}
+ * tasks, platform threads for the others.</p>
+ */
+public class TaskSlots {
+    private static final Logger logger = LoggerFactory.getLogger(TaskSlots.class);
+    static final String DEFAULT_GROUP = "*";
+    static final int DEFAULT_SLOTS = 1;
+
+    private final Map<String, Integer> slotsByTaskName;
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+    private final Semaphore free;
+
+    public TaskSlots(Map<String, Integer> slotsByTaskName) {
+        this.slotsByTaskName = Map.copyOf(slotsByTaskName);
+        this.free = new Semaphore(size());
+    }
+
+    /**
+     * @param spec comma separated {@code TaskName=slots} pairs, or null/empty for a single slot
+     */
+    public static TaskSlots parse(String spec) {
+        Map<String, Integer> slotsByTaskName = new LinkedHashMap<>();
+        if (spec != null && !spec.isBlank()) {
+            for (String pair : spec.split(",")) {
+                String[] nameAndSlots = pair.trim().split("=");
+                if (nameAndSlots.length != 2 || nameAndSlots[0].isBlank()) {
+                    throw new IllegalArgumentException("invalid task slots \"" + pair + "\", expected TaskName=slots");
+                }
+                int nb = parseInt(nameAndSlots[1].trim());
+                if (nb < 1) {
+                    throw new IllegalArgumentException("task slots should be strictly positive for " + nameAndSlots[0]);
+                }
+                slotsByTaskName.put(nameAndSlots[0].trim(), nb);
+            }
+        }
+        return new TaskSlots(slotsByTaskName);
+    }
+
+    public static TaskSlots single() {
+        return new TaskSlots(Map.of());
+    }
+
+    /** Total number of tasks that can run at the same time. */
+    public int size() {
+        return slotsByTaskName.values().stream().mapToInt(Integer::intValue).sum() + DEFAULT_SLOTS;
+    }
+
+    boolean isSingle() {
+        return size() == 1;
+    }
+
+    /** Waits for any slot to be free, before taking a task from the supplier. */
+    void acquire() throws InterruptedException {
+        free.acquire();
+    }
+
+    void release() {
+        free.release();
+    }
+
+    /** Returns the slots of the task, creating its executor on first use. */
+    synchronized Slot slotFor(String taskName) {
+        String simpleName = taskName.substring(Math.max(taskName.lastIndexOf('.'), taskName.lastIndexOf('$')) + 1);
+        String group = slotsByTaskName.containsKey(simpleName) ? simpleName : DEFAULT_GROUP;
+        // the other tasks share their slot whatever their kind: they run on platform threads
+        return slots.computeIfAbsent(group, g -> new Slot(g, slotsByTaskName.getOrDefault(g, DEFAULT_SLOTS),
+                !DEFAULT_GROUP.equals(g) && isIoBound(taskName)));
+    }
+
+    /** Stops accepting tasks and waits for the running ones to finish. */
+    void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        Collection<Slot> all;
+        synchronized (this) {
+            all = new ArrayList<>(slots.values());
+        }
+        all.forEach(slot -> slot.executor.shutdown());
+        for (Slot slot : all) {
+            if (!slot.executor.awaitTermination(timeout, unit)) {
+                logger.warn("tasks of {} still running after {} {}", slot.group, timeout, unit);
+            }
+        }
+    }
+
+    synchronized void shutdownNow() {
+        slots.values().forEach(slot -> slot.executor.shutdownNow());
+    }
+
+    private static boolean isIoBound(String taskName) {
+        try {
+            return Class.forName(taskName).isAnnotationPresent(IoBound.class);
+        } catch (ClassNotFoundException e) {
+            // unknown tasks are nacked by the loop, the kind of thread does not matter
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return slotsByTaskName + " and " + DEFAULT_SLOTS + " slot(s) for other tasks";
+    }
+
+    static class Slot {
+        final String group;
+        final Semaphore permits;
+        final ExecutorService executor;
+
+        Slot(String group, int nb, boolean ioBound) {
+            this.group = group;
+            this.permits = new Semaphore(nb);
+            AtomicInteger count = new AtomicInteger();
+            this.executor = ioBound ?
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-slot-" + group + "-", 1).factory()) :
+                    Executors.newFixedThreadPool(nb, runnable -> new Thread(runnable, "task-slot-" + group + "-" + count.incrementAndGet()));
+            logger.info("{} slot(s) for {} tasks on {} threads", nb, group, ioBound ? "virtual" : "platform");
+        }
+    }
+}
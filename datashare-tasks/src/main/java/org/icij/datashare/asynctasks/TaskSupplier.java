@@ -44,6 +44,12 @@ public interface TaskSupplier extends TaskModifier, Closeable {
      * @param requeue: requeue the task
      */
     void canceled(Task<?> task, boolean requeue);
+    /**
+     * method called to give back a task that has been taken but not started, for it to be taken again.
+     * Unlike {@link #canceled(Task, boolean)}, the task stays queued: its state is not changed.
+     * @param task: the task given back
+     */
+    void requeue(Task<?> task);
 
     /**
      * Method to add a listener to the Event sent by the task manager.
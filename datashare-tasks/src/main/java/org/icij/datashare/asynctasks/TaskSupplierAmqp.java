@@ -81,6 +81,11 @@ public class TaskSupplierAmqp implements TaskSupplier {
         }
     }
 
+    @Override
+    public void requeue(Task<?> task) {
+        throw new NotImplementedException("no requeue method for AMQP, tasks are given with consumeTasks(Consumer<Task<V>>");
+    }
+
     @Override
     public void error(String taskId, TaskError taskError) {
         try {
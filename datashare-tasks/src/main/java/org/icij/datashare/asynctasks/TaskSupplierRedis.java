@@ -64,6 +64,11 @@ public class TaskSupplierRedis implements TaskSupplier {
         eventTopic.publish(new CancelledEvent(task.id, requeue));
     }
 
+    @Override
+    public void requeue(Task<?> task) {
+        taskQueue().offer(task);
+    }
+
     @Override
     public void error(String taskId, TaskError reason) {
         eventTopic.publish(new ErrorEvent(taskId, reason));
@@ -14,25 +14,30 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Optional.ofNullable;
 
 
 public class TaskWorkerLoop implements Callable<Integer>, Closeable {
+    static final int BUSY_SLOTS_BACKOFF_MS = 50;
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final TaskFactory factory;
     private final TaskSupplier taskSupplier;
-    final AtomicReference<Callable<?>> currentTaskReference = new AtomicReference<>();
-    final AtomicReference<Task<?>> currentTask = new AtomicReference<>();
+    // running tasks by id, with their callable when it has been created
+    final ConcurrentHashMap<String, Running> runningTasks = new ConcurrentHashMap<>();
+    private final TaskSlots slots;
     private final CountDownLatch waitForMainLoopCalled; // for tests only
     private final int pollTimeMillis;
     private final double progressMinIntervalS;
     private final ConcurrentHashMap<String, Boolean> cancelledTasks;
     private volatile boolean exitAsked = false;
     private volatile Thread loopThread;
-    private int nbTasks = 0;
+    private volatile boolean waitingForTask = false;
+    private final CountDownLatch loopExited = new CountDownLatch(1);
+    private final AtomicInteger nbTasks = new AtomicInteger();
 
     public TaskWorkerLoop(TaskFactory factory, TaskSupplier taskSupplier) {
         this(factory, taskSupplier, new CountDownLatch(1), 10F);
@@ -46,8 +51,17 @@ public class TaskWorkerLoop implements Callable<Integer>, Closeable {
         this(factory, taskSupplier, countDownLatch, 60_000, progressMinIntervalS);
     }
 
+    public TaskWorkerLoop(TaskFactory factory, TaskSupplier taskSupplier, TaskSlots slots, double progressMinIntervalS) {
+        this(factory, taskSupplier, slots, new CountDownLatch(1), 60_000, progressMinIntervalS);
+    }
+
     public TaskWorkerLoop(TaskFactory factory, TaskSupplier taskSupplier, CountDownLatch countDownLatch, int pollTimeMillis, double progressMinIntervalS) {
+        this(factory, taskSupplier, TaskSlots.single(), countDownLatch, pollTimeMillis, progressMinIntervalS);
+    }
+
+    public TaskWorkerLoop(TaskFactory factory, TaskSupplier taskSupplier, TaskSlots slots, CountDownLatch countDownLatch, int pollTimeMillis, double progressMinIntervalS) {
         this.factory = factory;
+        this.slots = slots;
         this.taskSupplier = taskSupplier;
         this.waitForMainLoopCalled = countDownLatch;
         this.pollTimeMillis = pollTimeMillis;
@@ -75,9 +89,11 @@ public class TaskWorkerLoop implements Callable<Integer>, Closeable {
         if (taskSupplier instanceof TaskSupplierAmqp) {
             taskSupplier.consumeTasks(this::handle);
             taskSupplier.waitForConsumer();
-            return nbTasks;
-        } else {
+            return nbTasks.get();
+        } else if (slots.isSingle()) {
             return mainLoop();
+        } else {
+            return slotsLoop();
         }
     }
 
@@ -99,26 +115,109 @@ public class TaskWorkerLoop implements Callable<Integer>, Closeable {
         }
         logger.info("Exiting loop after {} tasks", nbTasks);
         loopThread.interrupt();
-        return nbTasks;
+        loopExited.countDown();
+        return nbTasks.get();
+    }
+
+    /**
+     * Takes a task from the supplier whenever a slot is free, and runs it on the executor of its type. When
+     * all the slots of its type are busy, the task is given back to the supplier and the loop keeps taking
+     * tasks, for a saturated type not to hold the others. On exit, it stops taking tasks and waits for the
+     * running ones.
+     */
+    private Integer slotsLoop() {
+        loopThread = Thread.currentThread();
+        logger.info("Waiting tasks from supplier ({}) with {}", taskSupplier.getClass(), slots);
+        while (!exitAsked) {
+            Task<Serializable> task = null;
+            boolean submitted = false;
+            boolean slotsBusy = false;
+            try {
+                waitingForTask = true;
+                slots.acquire();
+                task = exitAsked ? null : taskSupplier.get(pollTimeMillis, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    TaskSlots.Slot slot = slots.slotFor(task.name);
+                    slotsBusy = !slot.permits.tryAcquire();
+                    if (!slotsBusy) {
+                        waitingForTask = false;
+                        submitted = submit(slot, task);
+                    }
+                }
+            } catch (InterruptedException e) {
+                logger.info("get from task supplier has been interrupted");
+            } finally {
+                waitingForTask = false;
+                if (!submitted) {
+                    slots.release();
+                    if (task != null) {
+                        logger.info("task {} not started, requeuing it", task.id);
+                        taskSupplier.requeue(task);
+                    }
+                }
+            }
+            if (slotsBusy) {
+                // the task given back may be the next one taken: do not spin until a slot of its type is free
+                try {
+                    Thread.sleep(Math.min(pollTimeMillis, BUSY_SLOTS_BACKOFF_MS));
+                } catch (InterruptedException e) {
+                    logger.info("backoff has been interrupted");
+                }
+            }
+        }
+        logger.info("Exiting loop, waiting for {} running task(s)", runningTasks.size());
+        try {
+            slots.shutdown(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            logger.warn("interrupted while waiting for running tasks, cancelling them");
+            slots.shutdownNow();
+        }
+        logger.info("Exiting loop after {} tasks", nbTasks);
+        loopExited.countDown();
+        return nbTasks.get();
+    }
+
+    private boolean submit(TaskSlots.Slot slot, Task<Serializable> task) {
+        try {
+            slot.executor.execute(() -> {
+                try {
+                    run(task);
+                } catch (NackException nex) {
+                    logger.error("fatal error in handle(task)", nex);
+                } finally {
+                    slot.permits.release();
+                    slots.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.error("cannot run task {}", task, e);
+            slot.permits.release();
+            return false;
+        }
     }
 
     void handle(Task<?> task) {
         loopThread = Thread.currentThread();
-        currentTask.set(task);
-        if (cancelledTasks.get(currentTask.get().id) != null) {
-            logger.info("cancelled task {} not executed", currentTask.get().id);
-            taskSupplier.canceled(currentTask.get(), cancelledTasks.remove(currentTask.get().id));
+        run(task);
+    }
+
+    private void run(Task<?> task) {
+        if (cancelledTasks.get(task.id) != null) {
+            logger.info("cancelled task {} not executed", task.id);
+            taskSupplier.canceled(task, cancelledTasks.remove(task.id));
         } else {
+            Running running = new Running(task);
+            runningTasks.put(task.id, running);
             try {
                 ProgressSmoother smoothedProgress = new ProgressSmoother(taskSupplier::progress, progressMinIntervalS);
-                Callable<?> taskFn = TaskFactoryHelper.createTaskCallable(factory, currentTask.get().name, currentTask.get(),
-                        currentTask.get().progress(smoothedProgress));
-                currentTaskReference.set(taskFn);
-                logger.info("running task {}", currentTask.get());
-                taskSupplier.progress(currentTask.get().id, 0);
+                Callable<?> taskFn = TaskFactoryHelper.createTaskCallable(factory, task.name, task, task.progress(smoothedProgress));
+                running.callable = taskFn;
+                logger.info("running task {}", task);
+                taskSupplier.progress(task.id, 0);
                 Serializable result = (Serializable) taskFn.call();
-                taskSupplier.result(currentTask.get().id, new TaskResult<>(result));
-                nbTasks++;
+                taskSupplier.result(task.id, new TaskResult<>(result));
+                nbTasks.incrementAndGet();
             } catch (CancelException cex) {
                 // TODO: this has to be improved/simplified. The cancellation mechanism relies on
                 //  the fact that the CancellableTask code will properly handle the cancellation.
@@ -127,23 +226,22 @@ public class TaskWorkerLoop implements Callable<Integer>, Closeable {
                 //  InterruptedException and without rethrowing a new CancelException(requeue) with
                 //  the requeue attribute correctly set. This will lead to unexpected behavior,
                 //  such asking for cancel with requeue argument which is actually ignored.
-                logger.error("task {} cancelled with requeue = {}", currentTask, cex.requeue);
-                taskSupplier.canceled(currentTask.get(), cex.requeue);
+                logger.error("task {} cancelled with requeue = {}", task, cex.requeue);
+                taskSupplier.canceled(task, cex.requeue);
             } catch (InterruptedException iex) {
-                logger.error("task {} interrupted, cancelling it", currentTask.get(), iex);
-                ofNullable(currentTask.get()).ifPresent(t -> taskSupplier.canceled(t, false));
+                logger.error("task {} interrupted, cancelling it", task, iex);
+                taskSupplier.canceled(task, false);
             } catch (RuntimeException ex) {
-                logger.error("error running task {}", currentTask.get(), ex);
-                if (currentTask.get() != null && !currentTask.get().isNull()) {
-                    taskSupplier.error(currentTask.get().id, new TaskError(ex));
+                logger.error("error running task {}", task, ex);
+                if (!task.isNull()) {
+                    taskSupplier.error(task.id, new TaskError(ex));
                 }
             } catch (ReflectiveOperationException unknownTask) {
                 throw new NackException(unknownTask, true);
             } catch (Error | Exception ex) {
                 throw new NackException(ex, false);
             } finally {
-                currentTaskReference.set(null);
-                currentTask.set(null);
+                runningTasks.remove(task.id);
             }
         }
     }
@@ -161,7 +259,20 @@ public class TaskWorkerLoop implements Callable<Integer>, Closeable {
     @Override
     public void close() throws IOException {
         exit();
-        ofNullable(loopThread).ifPresent(Thread::interrupt);
+        if (slots.isSingle() || taskSupplier instanceof TaskSupplierAmqp) {
+            ofNullable(loopThread).ifPresent(Thread::interrupt);
+        } else if (loopThread != null) {
+            // graceful: only a loop waiting for a task is interrupted, then the running tasks are awaited
+            if (waitingForTask) {
+                loopThread.interrupt();
+            }
+            try {
+                loopExited.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                slots.shutdownNow();
+            }
+        }
         taskSupplier.close();
     }
 
@@ -172,16 +283,25 @@ public class TaskWorkerLoop implements Callable<Integer>, Closeable {
         //  some useful behavior will be painful to implement:
         //  - global graceful shutdown (task which are not cancellable will run until complete...)
         //  - graceful restart of a task
-        ofNullable(currentTaskReference.get()).ifPresent(t -> {
-            if (CancellableTask.class.isAssignableFrom(t.getClass()) &&
-                    (taskId == null || (currentTask.get() != null && taskId.equals(currentTask.get().id)))) {
-                logger.info("cancelling callable for task {} requeue={}", taskId, requeue);
-                ((CancellableTask) t).cancel(requeue);
+        for (Running running : runningTasks.values()) {
+            Callable<?> t = running.callable;
+            if (t instanceof CancellableTask cancellable && (taskId == null || taskId.equals(running.task.id))) {
+                logger.info("cancelling callable for task {} requeue={}", running.task.id, requeue);
+                cancellable.cancel(requeue);
             }
-        });
+        }
     }
 
     void exit() {
         exitAsked = true;
     }
+
+    static class Running {
+        final Task<?> task;
+        volatile Callable<?> callable;
+
+        Running(Task<?> task) {
+            this.task = task;
+        }
+    }
 }
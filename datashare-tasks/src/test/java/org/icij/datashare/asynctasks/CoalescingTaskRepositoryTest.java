@@ -0,0 +1,72 @@
+package org.icij.datashare.asynctasks;
+
+import org.icij.datashare.user.User;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CoalescingTaskRepositoryTest {
+    private final TaskRepositoryMemory delegate = spy(new TaskRepositoryMemory());
+    private final CoalescingTaskRepository repository = new CoalescingTaskRepository(delegate, 60_000);
+
+    @Test
+    public void test_keeps_the_last_progress_until_flush() throws Exception {
+        Task<Serializable> task = insert();
+
+        repository.updateProgress(task.id, 0.2);
+        repository.updateProgress(task.id, 0.4);
+        verify(delegate, never()).updateProgress(anyMap());
+        assertThat(repository.getTask(task.id).getProgress()).isEqualTo(0.4);
+
+        repository.flush();
+
+        verify(delegate, times(1)).updateProgress(Map.of(task.id, 0.4));
+        assertThat(delegate.getTask(task.id).getProgress()).isEqualTo(0.4);
+    }
+
+    @Test
+    public void test_writes_the_progress_of_several_tasks_in_one_call() throws Exception {
+        Task<Serializable> foo = insert();
+        Task<Serializable> bar = insert();
+
+        repository.updateProgress(foo.id, 0.1);
+        repository.updateProgress(bar.id, 0.9);
+        repository.flush();
+
+        verify(delegate, times(1)).updateProgress(Map.of(foo.id, 0.1, bar.id, 0.9));
+    }
+
+    @Test
+    public void test_update_is_written_synchronously_and_drops_pending_progress() throws Exception {
+        Task<Serializable> task = insert();
+        repository.updateProgress(task.id, 0.5);
+
+        task.setResult(new TaskResult<>("done"));
+        repository.update(task);
+        repository.flush();
+
+        verify(delegate, never()).updateProgress(anyMap());
+        assertThat(delegate.getTask(task.id).getState()).isEqualTo(Task.State.DONE);
+        assertThat(delegate.getTask(task.id).getProgress()).isEqualTo(1.0);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        repository.close();
+    }
+
+    private Task<Serializable> insert() throws Exception {
+        Task<Serializable> task = new Task<>("foo", User.local(), Map.of());
+        repository.insert(task, new Group(TaskGroupType.Test));
+        return task;
+    }
+}
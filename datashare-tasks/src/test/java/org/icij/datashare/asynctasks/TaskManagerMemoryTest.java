@@ -3,8 +3,12 @@ package org.icij.datashare.asynctasks;
 import static org.fest.assertions.Assertions.assertThat;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -182,6 +186,60 @@ public class TaskManagerMemoryTest {
         assert unfinished == 1L;
     }
 
+    @Test(timeout = 5000)
+    public void test_wait_task_to_be_done_is_woken_up_by_completion() throws Exception {
+        taskManager.startTask(TestFactory.Sleep.class, User.local(), Map.of("duration", 200));
+
+        long start = System.currentTimeMillis();
+        long unfinished = taskManager.waitTasksToBeDone(10, TimeUnit.SECONDS);
+
+        assertThat(unfinished).isEqualTo(0L);
+        // well before the first fallback poll (1s polling interval)
+        assertThat(System.currentTimeMillis() - start).isLessThan(1000L);
+    }
+
+    @Test(timeout = 10000)
+    public void test_wait_for_a_task_queued_again_because_its_slot_is_busy() throws Exception {
+        Task<Integer> first = new Task<>(TestFactory.Sleep.class.getName(), User.local(), Map.of("duration", 300));
+        Task<Integer> second = new Task<>(TestFactory.Sleep.class.getName(), User.local(), Map.of("duration", 300));
+        List<Task.State> secondStates = new CopyOnWriteArrayList<>();
+        TaskRepositoryMemory repository = new TaskRepositoryMemory() {
+            @Override
+            public <V extends Serializable> void update(Task<V> task) throws IOException, UnknownTask {
+                if (task.id.equals(second.id)) {
+                    secondStates.add(task.getState());
+                }
+                super.update(task);
+            }
+        };
+        CountDownLatch loopStarted = new CountDownLatch(1);
+        TaskManagerMemory slotsTaskManager = new TaskManagerMemory(factory, repository, new PropertiesProvider(Map.of(
+            "taskManagerPollingIntervalMilliseconds", "1000",
+            "taskWorkerSlots", "Sleep=1"
+        )), loopStarted);
+        try {
+            loopStarted.await();
+            slotsTaskManager.startTask(first, new Group(TaskGroupType.Test));
+            slotsTaskManager.startTask(second, new Group(TaskGroupType.Test));
+
+            assertThat(slotsTaskManager.waitTasksToBeDone(5, TimeUnit.SECONDS)).isEqualTo(0L);
+
+            assertThat(slotsTaskManager.getTask(second.id).getState()).isEqualTo(Task.State.DONE);
+            assertThat(secondStates).excludes(Task.State.CANCELLED);
+        } finally {
+            slotsTaskManager.close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void test_wait_task_to_be_done_in_scope() throws Exception {
+        String hello = taskManager.startTask(TestFactory.HelloWorld.class.getName(), User.local(), Map.of("greeted", "world"));
+        String sleeping = taskManager.startTask(TestFactory.Sleep.class, User.local(), Map.of("duration", 100000));
+
+        assertThat(taskManager.waitTasksToBeDone(2, TimeUnit.SECONDS, Set.of(hello))).isEqualTo(0L);
+        assertThat(taskManager.waitTasksToBeDone(100, TimeUnit.MILLISECONDS, Set.of(hello, sleeping))).isEqualTo(1L);
+    }
+
     @Test
     public void test_health_ok() {
         assertThat(taskManager.getHealth()).isTrue();
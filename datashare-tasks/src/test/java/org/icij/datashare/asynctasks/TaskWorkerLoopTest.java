@@ -15,8 +15,10 @@ import java.util.concurrent.TimeUnit;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.fest.assertions.Fail.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -108,6 +110,90 @@ public class TaskWorkerLoopTest {
         verify(supplier).canceled(eq(taskView), eq(false));
     }
 
+    @Test(timeout = 5000)
+    public void test_run_tasks_of_the_same_type_in_concurrent_slots() throws Exception {
+        TaskWorkerLoop app = new TaskWorkerLoop(registry, supplier, TaskSlots.parse("SleepForever=2"), new CountDownLatch(1), 100, 10);
+        Task<Serializable> first = new Task<>(TestFactory.SleepForever.class.getName(), User.local(), Map.of());
+        Task<Serializable> second = new Task<>(TestFactory.SleepForever.class.getName(), User.local(), Map.of());
+        Mockito.when(supplier.get(ArgumentMatchers.anyInt(), ArgumentMatchers.any())).thenReturn(first, second).thenReturn(null);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(supplier.progress(ArgumentMatchers.anyString(), eq(0.0))).thenAnswer(invocationOnMock -> {
+            bothStarted.countDown();
+            return null;
+        });
+
+        Thread appThread = new Thread(app::call);
+        appThread.start();
+        assertThat(bothStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(app.runningTasks.keySet()).containsOnly(first.id, second.id);
+        app.cancel(null, false);
+        app.exit();
+        appThread.join();
+
+        verify(supplier).canceled(eq(first), eq(false));
+        verify(supplier).canceled(eq(second), eq(false));
+    }
+
+    @Test(timeout = 5000)
+    public void test_requeue_a_task_whose_slots_are_busy_and_run_the_next_type() throws Exception {
+        TaskWorkerLoop app = new TaskWorkerLoop(registry, supplier, TaskSlots.parse("SleepForever=1"), new CountDownLatch(1), 100, 10);
+        Task<Serializable> running = new Task<>(TestFactory.SleepForever.class.getName(), User.local(), Map.of());
+        Task<Serializable> waiting = new Task<>(TestFactory.SleepForever.class.getName(), User.local(), Map.of());
+        Task<Serializable> other = new Task<>(TestFactory.Sleep.class.getName(), User.local(), Map.of("duration", 10));
+        Mockito.when(supplier.get(ArgumentMatchers.anyInt(), ArgumentMatchers.any())).thenReturn(running, waiting, other).thenReturn(null);
+        CountDownLatch otherDone = new CountDownLatch(1);
+        Mockito.doAnswer(invocationOnMock -> {
+            otherDone.countDown();
+            return null;
+        }).when(supplier).result(eq(other.id), ArgumentMatchers.any());
+
+        Thread appThread = new Thread(app::call);
+        appThread.start();
+        assertThat(otherDone.await(2, TimeUnit.SECONDS)).isTrue();
+        app.cancel(null, false);
+        app.exit();
+        appThread.join();
+
+        verify(supplier).requeue(eq(waiting));
+        verify(supplier, never()).canceled(eq(waiting), anyBoolean());
+        verify(supplier).result(eq(other.id), eq(new TaskResult<>(10)));
+    }
+
+    @Test(timeout = 5000)
+    public void test_close_waits_for_running_slots() throws Exception {
+        TaskWorkerLoop app = new TaskWorkerLoop(registry, supplier, TaskSlots.parse("Sleep=2"), new CountDownLatch(1), 100, 10);
+        Task<Serializable> taskView = new Task<>(TestFactory.Sleep.class.getName(), User.local(), Map.of("duration", 300));
+        Mockito.when(supplier.get(ArgumentMatchers.anyInt(), ArgumentMatchers.any())).thenReturn(taskView).thenReturn(null);
+        CountDownLatch taskStarted = new CountDownLatch(1);
+        when(supplier.progress(eq(taskView.id), anyDouble())).thenAnswer(invocationOnMock -> {
+            taskStarted.countDown();
+            return null;
+        });
+
+        new Thread(app::call).start();
+        assertThat(taskStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        app.close();
+
+        verify(supplier).result(eq(taskView.id), eq(new TaskResult<>(300)));
+        verify(supplier).close();
+    }
+
+    @Test
+    public void test_task_slots() {
+        TaskSlots slots = TaskSlots.parse("BatchSearchRunner=4, IndexTask=1");
+
+        assertThat(slots.size()).isEqualTo(6);
+        assertThat(slots.slotFor("org.icij.datashare.tasks.BatchSearchRunner").permits.availablePermits()).isEqualTo(4);
+        assertThat(slots.slotFor("org.icij.datashare.tasks.ScanTask").group).isEqualTo(TaskSlots.DEFAULT_GROUP);
+        assertThat(TaskSlots.parse(null).size()).isEqualTo(1);
+        slots.shutdownNow();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_task_slots_with_bad_spec() {
+        TaskSlots.parse("BatchSearchRunner:4");
+    }
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);